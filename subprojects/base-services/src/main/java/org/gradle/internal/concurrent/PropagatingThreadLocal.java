@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A thread local value that is passed on to the work submitted to an executor created by {@link DefaultExecutorFactory}. The work runs with the value of
+ * the thread that submitted it, whichever pooled thread runs the work. Unlike an {@link InheritableThreadLocal}, a thread does not keep the value of
+ * the thread that created it, so a pooled thread does not carry the value of one piece of work over to unrelated work.
+ *
+ * <p>Instances are never discarded, so should be held in static fields.</p>
+ */
+public class PropagatingThreadLocal<T> {
+    private static final List<PropagatingThreadLocal<?>> INSTANCES = new CopyOnWriteArrayList<PropagatingThreadLocal<?>>();
+    private final ThreadLocal<T> value = new ThreadLocal<T>();
+
+    public PropagatingThreadLocal() {
+        INSTANCES.add(this);
+    }
+
+    public T get() {
+        return value.get();
+    }
+
+    public void set(T value) {
+        this.value.set(value);
+    }
+
+    public void remove() {
+        value.remove();
+    }
+
+    /**
+     * Returns a runnable that runs the given command with the values of the calling thread.
+     */
+    static Runnable propagateTo(final Runnable command) {
+        final Object[] values = capture();
+        if (values == null) {
+            return command;
+        }
+        return new Runnable() {
+            public void run() {
+                Object[] previous = apply(values);
+                try {
+                    command.run();
+                } finally {
+                    apply(previous);
+                }
+            }
+        };
+    }
+
+    private static Object[] capture() {
+        Object[] values = null;
+        for (int i = 0; i < INSTANCES.size(); i++) {
+            Object value = INSTANCES.get(i).get();
+            if (value != null) {
+                if (values == null) {
+                    values = new Object[INSTANCES.size()];
+                }
+                values[i] = value;
+            }
+        }
+        return values;
+    }
+
+    private static Object[] apply(Object[] values) {
+        Object[] previous = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            previous[i] = INSTANCES.get(i).get();
+            INSTANCES.get(i).setUnchecked(values[i]);
+        }
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setUnchecked(Object value) {
+        if (value == null) {
+            this.value.remove();
+        } else {
+            this.value.set((T) value);
+        }
+    }
+}
@@ -33,11 +33,12 @@ class StoppableExecutorImpl extends AbstractExecutorService implements Stoppable
     }
 
     public void execute(final Runnable command) {
+        final Runnable work = PropagatingThreadLocal.propagateTo(command);
         executor.execute(new Runnable() {
             public void run() {
             executing.set(command);
             try {
-                executorPolicy.onExecute(command);
+                executorPolicy.onExecute(work);
             } finally {
                 executing.set(null);
             }
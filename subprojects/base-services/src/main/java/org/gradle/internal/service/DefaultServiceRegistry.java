@@ -16,12 +16,13 @@
 package org.gradle.internal.service;
 
 import org.gradle.api.Action;
+import org.gradle.api.GradleException;
 import org.gradle.api.Nullable;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
-import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.util.BiFunction;
 
 import java.io.Closeable;
@@ -58,19 +59,24 @@ import java.util.concurrent.ConcurrentMap;
  * reverse dependency order.</p>
  *
  * <p>Service registries are arranged in a hierarchy. If a service of a given type cannot be located, the registry uses its parent registry, if any, to locate the service.</p>
+ *
+ * <p>The factory, decorator and configure methods of a provider class are discovered once per class and shared by all registries that use that class. Once a service
+ * or factory has been located, later lookups of the same type do not acquire the registry lock.</p>
  */
 public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
     private static final ConcurrentMap<Class<?>, RelevantMethods> METHODS_CACHE = new ConcurrentHashMap<Class<?>, RelevantMethods>();
     private static final ConcurrentMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>> SERVICE_TYPE_PROVIDER_CACHE = new ConcurrentHashMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>>();
-    private final Map<Type, ServiceProvider> providerCache = new HashMap<Type, ServiceProvider>();
+    // Services and factories that have been located, so that subsequent lookups do not need to take the lock
+    private final ConcurrentMap<Type, Object> resolvedServices = new ConcurrentHashMap<Type, Object>();
+    private final ConcurrentMap<Class<?>, Factory<?>> resolvedFactories = new ConcurrentHashMap<Class<?>, Factory<?>>();
 
     private final Object lock = new Object();
     private final CompositeProvider allServices = new CompositeProvider();
     private final OwnServices ownServices;
     private final CompositeProvider parentServices;
     private final String displayName;
-    private boolean closed;
+    private volatile boolean closed;
     private boolean mutable = true; // access under lock
 
     public DefaultServiceRegistry() {
@@ -121,17 +127,51 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     static class RelevantMethods {
-        final List<Method> decorators;
-        final List<Method> factories;
-        final List<Method> configurers;
+        final List<ServiceMethod> decorators;
+        final List<ServiceMethod> factories;
+        final List<ServiceMethod> configurers;
 
-        public RelevantMethods(List<Method> decorators, List<Method> factories, List<Method> configurers) {
+        public RelevantMethods(List<ServiceMethod> decorators, List<ServiceMethod> factories, List<ServiceMethod> configurers) {
             this.decorators = decorators;
             this.factories = factories;
             this.configurers = configurers;
         }
     }
 
+    /**
+     * A factory, decorator or configure method of a provider class, with its generic signature resolved up front. Instances are shared by all registries.
+     */
+    static class ServiceMethod {
+        final Method method;
+        final Type serviceType;
+        final Type[] parameterTypes;
+
+        ServiceMethod(Method method) {
+            method.setAccessible(true);
+            this.method = method;
+            this.serviceType = method.getGenericReturnType();
+            this.parameterTypes = method.getGenericParameterTypes();
+        }
+
+        String getOwnerName() {
+            return method.getDeclaringClass().getSimpleName();
+        }
+
+        String getName() {
+            return method.getName();
+        }
+
+        Object invoke(Object target, Object... args) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not call %s.%s() on %s", getOwnerName(), getName(), target), e);
+            }
+        }
+    }
+
     static class RelevantMethodsBuilder {
         final List<Method> remainingMethods;
         final Class<?> type;
@@ -157,7 +197,15 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         RelevantMethods build() {
-            return new RelevantMethods(decorators, factories, configurers);
+            return new RelevantMethods(toServiceMethods(decorators), toServiceMethods(factories), toServiceMethods(configurers));
+        }
+
+        private static List<ServiceMethod> toServiceMethods(List<Method> methods) {
+            List<ServiceMethod> result = new ArrayList<ServiceMethod>(methods.size());
+            for (Method method : methods) {
+                result.add(new ServiceMethod(method));
+            }
+            return result;
         }
     }
 
@@ -165,16 +213,16 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private void findProviderMethods(Object target) {
         Class<?> type = target.getClass();
         RelevantMethods methods = getMethods(type);
-        for (Method method : methods.decorators) {
+        for (ServiceMethod method : methods.decorators) {
             if (parentServices == null) {
                 throw new ServiceLookupException(String.format("Cannot use decorator method %s.%s() when no parent registry is provided.", type.getSimpleName(), method.getName()));
             }
             ownServices.add(new DecoratorMethodService(target, method));
         }
-        for (Method method : methods.factories) {
+        for (ServiceMethod method : methods.factories) {
             ownServices.add(new FactoryMethodService(target, method));
         }
-        for (Method method : methods.configurers) {
+        for (ServiceMethod method : methods.configurers) {
             applyConfigureMethod(method, target);
         }
     }
@@ -199,18 +247,18 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return relevantMethods;
     }
 
-    private void applyConfigureMethod(Method method, Object target) {
-        Object[] params = new Object[method.getGenericParameterTypes().length];
+    private void applyConfigureMethod(ServiceMethod method, Object target) {
+        Object[] params = new Object[method.parameterTypes.length];
         DefaultLookupContext context = new DefaultLookupContext();
-        for (int i = 0; i < method.getGenericParameterTypes().length; i++) {
-            Type paramType = method.getGenericParameterTypes()[i];
+        for (int i = 0; i < method.parameterTypes.length; i++) {
+            Type paramType = method.parameterTypes[i];
             if (paramType.equals(ServiceRegistration.class)) {
                 params[i] = newRegistration();
             } else {
                 ServiceProvider paramProvider = context.find(paramType, allServices);
                 if (paramProvider == null) {
                     throw new ServiceLookupException(String.format("Cannot configure services using %s.%s() as required service of type %s is not available.",
-                            method.getDeclaringClass().getSimpleName(),
+                            method.getOwnerName(),
                             method.getName(),
                             format(paramType)));
                 }
@@ -218,10 +266,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             }
         }
         try {
-            invoke(method, target, params);
+            method.invoke(target, params);
         } catch (Exception e) {
             throw new ServiceLookupException(String.format("Could not configure services using %s.%s().",
-                    method.getDeclaringClass().getSimpleName(),
+                    method.getOwnerName(),
                     method.getName()), e);
         }
     }
@@ -326,6 +374,8 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                resolvedServices.clear();
+                resolvedFactories.clear();
             }
         }
     }
@@ -380,17 +430,18 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        Object instance = resolvedServices.get(serviceType);
+        if (instance != null && !closed) {
+            return instance;
+        }
         synchronized (lock) {
             mutable = false;
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate service of type %s, as %s has been closed.", format(serviceType), displayName));
             }
-            ServiceProvider provider = providerCache.get(serviceType);
-            if (provider == null) {
-                provider = getServiceProvider(serviceType);
-                providerCache.put(serviceType, provider);
-            }
-            return provider.get();
+            instance = getServiceProvider(serviceType).get();
+            resolvedServices.put(serviceType, instance);
+            return instance;
         }
     }
 
@@ -403,6 +454,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     public <T> Factory<T> getFactory(Class<T> type) {
+        Factory<?> instance = resolvedFactories.get(type);
+        if (instance != null && !closed) {
+            return (Factory<T>) instance;
+        }
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate factory for objects of type %s, as %s has been closed.", format(type), displayName));
@@ -411,7 +466,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider factory = allServices.getFactory(context, type);
             if (factory != null) {
-                return (Factory<T>) factory.get();
+                instance = (Factory<?>) factory.get();
+                resolvedFactories.put(type, instance);
+                return (Factory<T>) instance;
             }
 
             throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
@@ -422,10 +479,6 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return getFactory(type).create();
     }
 
-    private static Object invoke(Method method, Object target, Object... args) {
-        return JavaReflectionUtil.method(target, Object.class, method).invoke(target, args);
-    }
-
     interface ServiceProvider {
         String getDisplayName();
 
@@ -711,36 +764,36 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class FactoryMethodService extends FactoryService {
-        private final Method method;
+        private final ServiceMethod method;
         private Object target;
 
-        public FactoryMethodService(Object target, Method method) {
-            super(method.getGenericReturnType());
+        public FactoryMethodService(Object target, ServiceMethod method) {
+            super(method.serviceType);
             this.target = target;
             this.method = method;
         }
 
         public String getDisplayName() {
-            return String.format("Service %s at %s.%s()", format(method.getGenericReturnType()), method.getDeclaringClass().getSimpleName(), method.getName());
+            return String.format("Service %s at %s.%s()", format(method.serviceType), method.getOwnerName(), method.getName());
         }
 
         protected Type[] getParameterTypes() {
-            return method.getGenericParameterTypes();
+            return method.parameterTypes;
         }
 
         @Override
         protected Member getFactory() {
-            return method;
+            return method.method;
         }
 
         protected Object invokeMethod(Object[] params) {
             Object result;
             try {
-                result = invoke(method, target, params);
+                result = method.invoke(target, params);
             } catch (Exception e) {
                 throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s().",
                         format(serviceType),
-                        method.getDeclaringClass().getSimpleName(),
+                        method.getOwnerName(),
                         method.getName()),
                         e);
             }
@@ -748,7 +801,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 if (result == null) {
                     throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s() as this method returned null.",
                             format(serviceType),
-                            method.getDeclaringClass().getSimpleName(),
+                            method.getOwnerName(),
                             method.getName()));
                 }
                 return result;
@@ -829,29 +882,29 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class DecoratorMethodService extends SingletonService {
-        private final Method method;
+        private final ServiceMethod method;
         private Object target;
         private ServiceProvider paramProvider;
 
-        public DecoratorMethodService(Object target, Method method) {
-            super(method.getGenericReturnType());
+        public DecoratorMethodService(Object target, ServiceMethod method) {
+            super(method.serviceType);
             this.target = target;
             this.method = method;
         }
 
         public String getDisplayName() {
-            return String.format("Service %s at %s.%s()", format(method.getGenericReturnType()), method.getDeclaringClass().getSimpleName(), method.getName());
+            return String.format("Service %s at %s.%s()", format(method.serviceType), method.getOwnerName(), method.getName());
         }
 
         @Override
         protected void bind(LookupContext context) {
-            Type paramType = method.getGenericParameterTypes()[0];
+            Type paramType = method.parameterTypes[0];
             DefaultLookupContext parentLookupContext = new DefaultLookupContext();
             paramProvider = parentLookupContext.find(paramType, parentServices);
             if (paramProvider == null) {
                 throw new ServiceCreationException(String.format("Cannot create service of type %s using %s.%s() as required service of type %s is not available in parent registries.",
-                        format(method.getGenericReturnType()),
-                        method.getDeclaringClass().getSimpleName(),
+                        format(method.serviceType),
+                        method.getOwnerName(),
                         method.getName(),
                         format(paramType)));
             }
@@ -862,19 +915,19 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             Object param = paramProvider.get();
             Object result;
             try {
-                result = invoke(method, target, param);
+                result = method.invoke(target, param);
             } catch (Exception e) {
                 throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s().",
-                        format(method.getGenericReturnType()),
-                        method.getDeclaringClass().getSimpleName(),
+                        format(method.serviceType),
+                        method.getOwnerName(),
                         method.getName()),
                         e);
             }
             try {
                 if (result == null) {
                     throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s() as this method returned null.",
-                            format(method.getGenericReturnType()),
-                            method.getDeclaringClass().getSimpleName(),
+                            format(method.serviceType),
+                            method.getOwnerName(),
                             method.getName()));
                 }
                 return result;
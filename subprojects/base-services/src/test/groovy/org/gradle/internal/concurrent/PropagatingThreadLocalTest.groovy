@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.concurrent
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+
+class PropagatingThreadLocalTest extends Specification {
+    static final PropagatingThreadLocal<String> VALUE = new PropagatingThreadLocal<String>()
+    def factory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        VALUE.remove()
+        factory.stop()
+    }
+
+    def "work runs with the value of the thread that submitted it"() {
+        def executor = factory.create("test", 1)
+
+        when:
+        VALUE.set("first")
+        def first = executor.submit({ VALUE.get() } as Callable).get()
+        VALUE.set("second")
+        def second = executor.submit({ VALUE.get() } as Callable).get()
+        VALUE.remove()
+        def none = executor.submit({ VALUE.get() } as Callable).get()
+
+        then:
+        first == "first"
+        second == "second"
+        none == null
+    }
+
+    def "thread does not keep the value of the thread that created it"() {
+        def executor = factory.create("test", 1)
+        VALUE.set("value")
+
+        when:
+        executor.submit({ } as Callable).get()
+        def thread = null
+        Thread.start {
+            thread = VALUE.get()
+        }.join()
+        VALUE.remove()
+        def pooled = executor.submit({ VALUE.get() } as Callable).get()
+
+        then:
+        thread == null
+        pooled == null
+    }
+}
@@ -1039,6 +1039,21 @@ class DefaultServiceRegistryTest extends Specification {
         e.message == "Cannot locate factory for objects of type BigDecimal, as TestRegistry has been closed."
     }
 
+    def "returns the same service and factory instances on subsequent lookups"() {
+        expect:
+        registry.get(String).is(registry.get(String))
+        registry.get(Integer as Type).is(registry.get(Integer))
+        registry.getFactory(BigDecimal).is(registry.getFactory(BigDecimal))
+    }
+
+    def "registries created from the same provider class have their own service instances"() {
+        def other = new TestRegistry()
+
+        expect:
+        !registry.getFactory(BigDecimal).is(other.getFactory(BigDecimal))
+        registry.get(String) == other.get(String)
+    }
+
     def "cannot add provider after getting a service via class"() {
         when:
         registry.get(Integer)
@@ -122,6 +122,24 @@ class CheckstylePluginVersionIntegrationTest extends MultiVersionIntegrationSpec
         succeeds("checkstyleMain") && ":checkstyleMain" in nonSkippedTasks
     }
 
+    @IgnoreIf({GradleContextualExecuter.parallel})
+    def "analyzes only changed source files when classes are compiled again to the same bytes"() {
+        given:
+        goodCode()
+        succeeds("checkstyleMain")
+
+        when:
+        // Does not change the compiled class, but compileJava still runs again
+        file('src/main/java/org/gradle/Class1.java') << '\n// a comment\n'
+        executer.withArgument("-i")
+        succeeds("checkstyleMain")
+
+        then:
+        ":compileJava" in nonSkippedTasks
+        ":checkstyleMain" in nonSkippedTasks
+        output.contains("Analyzing 1 of 2 source files.")
+    }
+
     def "can configure reporting"() {
         given:
         goodCode()
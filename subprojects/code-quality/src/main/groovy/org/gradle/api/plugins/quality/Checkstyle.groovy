@@ -15,21 +15,29 @@
  */
 package org.gradle.api.plugins.quality
 
+import com.google.common.hash.Hashing
 import org.gradle.api.GradleException
 import org.gradle.api.Incubating
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.project.IsolatedAntBuilder
+import org.gradle.api.plugins.quality.internal.AnalysisResultsCache
 import org.gradle.api.plugins.quality.internal.CheckstyleReportsImpl
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.ConsoleRenderer
+import org.gradle.util.GFileUtils
 
 import javax.inject.Inject
 
 /**
  * Runs Checkstyle against some source files.
+ *
+ * <p>The findings for each source file are kept between runs, so only the source files that have changed since the previous run are analyzed. All source
+ * files are analyzed again when the configuration, the Checkstyle library or the content of the class path changes. This includes the compiled classes of
+ * the project, as the findings of some checks depend on them.</p>
  */
 class Checkstyle extends SourceTask implements VerificationTask, Reporting<CheckstyleReports> {
     /**
@@ -134,32 +142,45 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
     boolean showViolations = true
 
     @TaskAction
-    public void run() {
-        def propertyName = "org.gradle.checkstyle.violations"
+    public void run(IncrementalTaskInputs inputs) {
+        def results = new AnalysisResultsCache(new File(getTemporaryDir(), "results"), [file: "name"])
+        def filesToAnalyze = results.start(getSource().files, configurationHash(), !inputs.incremental)
         antBuilder.withClasspath(getCheckstyleClasspath()).execute {
-            try {
-                ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.CheckStyleTask')
-            } catch (ClassNotFoundException cnfe) {
-                ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.ant.CheckstyleAntTask')
-            }
+            if (!filesToAnalyze.empty) {
+                try {
+                    ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.CheckStyleTask')
+                } catch (ClassNotFoundException cnfe) {
+                    ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.ant.CheckstyleAntTask')
+                }
 
-            ant.checkstyle(config: getConfig().asFile(), failOnViolation: false, failureProperty: propertyName) {
-                getSource().addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
-                getClasspath().addToAntBuilder(ant, 'classpath')
+                ant.checkstyle(config: getConfig().asFile(), failOnViolation: false) {
+                    def source = results.analyzeAll ? getSource() : project.files(filesToAnalyze)
+                    source.addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
+                    getClasspath().addToAntBuilder(ant, 'classpath')
 
-                if (showViolations) {
-                    formatter(type: 'plain', useFile: false)
-                }
+                    if (showViolations) {
+                        formatter(type: 'plain', useFile: false)
+                    }
+
+                    formatter(type: 'xml', toFile: results.partialReport)
 
-                if (reports.xml.enabled || reports.html.enabled) {
-                    formatter(type: 'xml', toFile: reports.xml.destination)
+                    getConfigProperties().each { key, value ->
+                        property(key: key, value: value.toString())
+                    }
                 }
+            }
 
-                getConfigProperties().each { key, value ->
-                    property(key: key, value: value.toString())
+            def mergedReport = results.finish()
+            if (showViolations) {
+                results.getReusedFindings("error").each { error ->
+                    logger.error(error.column ? "${error.name}:${error.line}:${error.column}: ${error.message}" : "${error.name}:${error.line}: ${error.message}")
                 }
             }
 
+            if (reports.xml.enabled || reports.html.enabled) {
+                GFileUtils.copyFile(mergedReport, reports.xml.destination)
+            }
+
             if (reports.html.enabled) {
                 def xsl = Checkstyle.getClassLoader().getResourceAsStream('checkstyle-noframes-sorted.xsl')
                 ant.xslt(in: reports.xml.destination, out: reports.html.destination) {
@@ -169,7 +190,8 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
                 }
             }
 
-            if (ant.project.properties[propertyName]) {
+            // Checkstyle fails on errors and on exceptions thrown while checking a file
+            if (results.count("error", "severity", "error") + results.count("exception", null, null) > 0) {
                 def message = "Checkstyle rule violations were found."
                 def report = reports.html.enabled ? reports.html : reports.xml.enabled ? reports.xml : null
                 if (report) {
@@ -184,4 +206,17 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
             }
         }
     }
+
+    private String configurationHash() {
+        def hasher = Hashing.md5().newHasher()
+        AnalysisResultsCache.putValues(hasher, [getConfig().asString()])
+        AnalysisResultsCache.putValues(hasher, new TreeMap<String, Object>(getConfigProperties()).collect { key, value -> "$key=$value" })
+        // Configuration files commonly refer to files next to them, such as suppressions
+        getConfig().inputFiles?.each { configFile ->
+            AnalysisResultsCache.putFiles(hasher, configFile.parentFile?.listFiles()?.sort() as List<File>)
+        }
+        AnalysisResultsCache.putFiles(hasher, getCheckstyleClasspath())
+        AnalysisResultsCache.putFiles(hasher, getClasspath())
+        hasher.hash().toString()
+    }
 }
@@ -15,21 +15,23 @@
  */
 package org.gradle.api.plugins.quality
 
+import com.google.common.hash.Hashing
 import groovy.transform.PackageScope
 import org.gradle.api.GradleException
 import org.gradle.api.Incubating
 import org.gradle.api.JavaVersion
 import org.gradle.api.file.FileCollection
 import org.gradle.api.logging.LogLevel
+import org.gradle.api.plugins.quality.internal.AnalysisResultsCache
 import org.gradle.api.plugins.quality.internal.FindBugsReportsImpl
 import org.gradle.api.plugins.quality.internal.findbugs.*
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
-import org.gradle.internal.Factory
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.ConsoleRenderer
-import org.gradle.process.internal.WorkerProcessBuilder
+import org.gradle.util.GFileUtils
 
 import javax.inject.Inject
 
@@ -37,6 +39,10 @@ import javax.inject.Inject
  * Analyzes code with <a href="http://findbugs.sourceforge.net">FindBugs</a>. See the
  * <a href="http://findbugs.sourceforge.net/manual/">FindBugs Manual</a> for additional information
  * on configuration options.
+ *
+ * <p>FindBugs runs in a worker process, which is reused by later FindBugs tasks of the build. When the XML report is enabled, the bugs found in each class
+ * are kept between runs, so only the classes that have changed since the previous run and the classes that refer to them are analyzed. All classes are
+ * analyzed again when the configuration, the FindBugs library or its plugins, or the content of the class path changes.</p>
  */
 class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBugsReports> {
     /**
@@ -167,7 +173,7 @@ class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBug
     }
 
     @Inject
-    Factory<WorkerProcessBuilder> getWorkerProcessBuilderFactory() {
+    FindBugsWorkerManager getWorkerManager() {
         throw new UnsupportedOperationException();
     }
 
@@ -245,17 +251,54 @@ class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBug
     }
 
     @TaskAction
-    void run() {
+    void run(IncrementalTaskInputs inputs) {
         new FindBugsClasspathValidator(JavaVersion.current()).validateClasspath(getFindbugsClasspath().files*.name)
 
-        FindBugsSpec spec = generateSpec()
-        FindBugsWorkerManager manager = new FindBugsWorkerManager()
-
         logging.captureStandardOutput(LogLevel.DEBUG)
         logging.captureStandardError(LogLevel.DEBUG)
 
-        FindBugsResult result = manager.runWorker(getProject().getProjectDir(), workerProcessBuilderFactory, getFindbugsClasspath(), spec)
-        evaluateResult(result);
+        if (!reports.xml.enabled) {
+            evaluateResult(runFindBugs(generateSpec()))
+            return
+        }
+
+        // FindBugs renders the other reports itself, so only the XML report can be merged with the results of the previous run
+        def classFiles = getClasses().files
+        def analyzeAll = !inputs.incremental || classFiles.any { !it.name.endsWith(".class") }
+        def results = new FindBugsResultsCache(new File(getTemporaryDir(), "results"))
+        def filesToAnalyze = results.start(classFiles, configurationHash(), analyzeAll)
+
+        FindBugsResult result = new FindBugsResult(0, 0, 0)
+        if (!filesToAnalyze.empty) {
+            def specBuilder = createSpecBuilder().withOutputFile(results.partialReport)
+            if (!results.analyzeAll) {
+                specBuilder.withOnlyAnalyze(results.getClassesToAnalyze(filesToAnalyze))
+            }
+            result = runFindBugs(specBuilder.build())
+        }
+        if (result.exception || result.errorCount) {
+            evaluateResult(result)
+        }
+
+        GFileUtils.copyFile(results.finish(), reports.xml.destination)
+        evaluateResult(new FindBugsResult(results.count("BugInstance", null, null), result.missingClassCount, result.errorCount))
+    }
+
+    private FindBugsResult runFindBugs(FindBugsSpec spec) {
+        return workerManager.runWorker(getProject().getProjectDir(), getFindbugsClasspath(), getPluginClasspath(), spec)
+    }
+
+    private String configurationHash() {
+        def hasher = Hashing.md5().newHasher()
+        AnalysisResultsCache.putValues(hasher, [getEffort(), getReportLevel(), reports.xml.withMessages])
+        AnalysisResultsCache.putValues(hasher, getVisitors())
+        AnalysisResultsCache.putValues(hasher, getOmitVisitors())
+        AnalysisResultsCache.putValues(hasher, getExtraArgs())
+        AnalysisResultsCache.putValues(hasher, [getIncludeFilterConfig(), getExcludeFilterConfig(), getExcludeBugsFilterConfig()].collect { it?.asString() })
+        AnalysisResultsCache.putFiles(hasher, getFindbugsClasspath())
+        AnalysisResultsCache.putFiles(hasher, getPluginClasspath())
+        AnalysisResultsCache.putFiles(hasher, getClasspath())
+        hasher.hash().toString()
     }
 
     /**
@@ -263,7 +306,11 @@ class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBug
      */
     @PackageScope
     FindBugsSpec generateSpec() {
-        FindBugsSpecBuilder specBuilder = new FindBugsSpecBuilder(getClasses())
+        return createSpecBuilder().build()
+    }
+
+    private FindBugsSpecBuilder createSpecBuilder() {
+        new FindBugsSpecBuilder(getClasses())
             .withPluginsList(getPluginClasspath())
             .withSources(getSource())
             .withClasspath(getClasspath())
@@ -278,8 +325,6 @@ class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBug
             .withExcludeBugsFilter(getExcludeBugsFilter())
             .withExtraArgs(getExtraArgs())
             .configureReports(getReports())
-
-        return specBuilder.build()
     }
 
     /**
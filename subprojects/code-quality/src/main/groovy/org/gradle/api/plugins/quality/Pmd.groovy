@@ -14,26 +14,45 @@
  * limitations under the License.
  */
 package org.gradle.api.plugins.quality
+import com.google.common.hash.Hashing
 import org.gradle.api.GradleException
 import org.gradle.api.Incubating
 import org.gradle.api.InvalidUserDataException
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.project.IsolatedAntBuilder
+import org.gradle.api.plugins.quality.internal.AnalysisResultsCache
 import org.gradle.api.plugins.quality.internal.PmdReportsImpl
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.internal.nativeintegration.console.ConsoleDetector
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 import org.gradle.internal.nativeintegration.services.NativeServices
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.ConsoleRenderer
+import org.gradle.util.GFileUtils
 
 import javax.inject.Inject
 /**
  * Runs a set of static code analysis rules on Java source code files and
  * generates a report of problems found.
  *
+ * <p>When the HTML report and console output are disabled, the findings for each source file are kept between runs, so only the source files that have
+ * changed since the previous run are analyzed. All source files are analyzed again when the rule sets, the PMD library or the class path changes. PMD renders the HTML report and the console output itself, so these always cover an analysis of
+ * all source files. The HTML report is enabled by default, so it needs to be disabled for only the changed source files to be analyzed:</p>
+ *
+ * <pre autoTested=''>
+ * apply plugin: "java"
+ * apply plugin: "pmd"
+ *
+ * pmdMain {
+ *     reports {
+ *         html.enabled = false
+ *     }
+ * }
+ * </pre>
+ *
  * @see PmdPlugin
  * @see PmdExtension
  */
@@ -144,11 +163,11 @@ class Pmd extends SourceTask implements VerificationTask, Reporting<PmdReports>
     }
 
     @TaskAction
-    void run() {
+    void run(IncrementalTaskInputs inputs) {
         def prePmd5 = getPmdClasspath().any {
             it.name ==~ /pmd-([1-4]\.[0-9\.]+)\.jar/
         }
-        def antPmdArgs = [failOnRuleViolation: false, failuresPropertyName: "pmdFailureCount"]
+        def antPmdArgs = [failOnRuleViolation: false]
         if (prePmd5) {
             // NOTE: PMD 5.0.2 apparently introduces an element called "language" that serves the same purpose
             // http://sourceforge.net/p/pmd/bugs/1004/
@@ -163,43 +182,54 @@ class Pmd extends SourceTask implements VerificationTask, Reporting<PmdReports>
 
         antPmdArgs["minimumPriority"] = getRulePriority()
 
+        def results = new AnalysisResultsCache(new File(getTemporaryDir(), "results"), [file: "name", error: "filename"])
+        def analyzeAll = !inputs.incremental || reports.html.enabled || getConsoleOutput()
+        def filesToAnalyze = results.start(getSource().files, configurationHash(), analyzeAll)
+
         antBuilder.withClasspath(getPmdClasspath()).execute { a ->
-            ant.taskdef(name: 'pmd', classname: 'net.sourceforge.pmd.ant.PMDTask')
-            ant.pmd(antPmdArgs) {
-                getSource().addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
-                getRuleSets().each {
-                    ruleset(it)
-                }
-                getRuleSetFiles().each {
-                    ruleset(it)
-                }
-                def ruleSetConfig = getRuleSetConfig()
-                if (ruleSetConfig != null) {
-                    ruleset(ruleSetConfig.asFile())
-                }
+            if (!filesToAnalyze.empty) {
+                ant.taskdef(name: 'pmd', classname: 'net.sourceforge.pmd.ant.PMDTask')
+                ant.pmd(antPmdArgs) {
+                    def source = results.analyzeAll ? getSource() : project.files(filesToAnalyze)
+                    source.addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
+                    getRuleSets().each {
+                        ruleset(it)
+                    }
+                    getRuleSetFiles().each {
+                        ruleset(it)
+                    }
+                    def ruleSetConfig = getRuleSetConfig()
+                    if (ruleSetConfig != null) {
+                        ruleset(ruleSetConfig.asFile())
+                    }
 
-                if (getClasspath() != null) {
-                    getClasspath().addToAntBuilder(ant, 'auxclasspath', FileCollection.AntType.ResourceCollection)
-                }
+                    if (getClasspath() != null) {
+                        getClasspath().addToAntBuilder(ant, 'auxclasspath', FileCollection.AntType.ResourceCollection)
+                    }
 
-                if (reports.html.enabled) {
-                    assert reports.html.destination.parentFile.exists()
-                    formatter(type: prePmd5 ? "betterhtml" : "html", toFile: reports.html.destination)
-                }
-                if (reports.xml.enabled) {
-                    formatter(type: 'xml', toFile: reports.xml.destination)
-                }
+                    if (reports.html.enabled) {
+                        assert reports.html.destination.parentFile.exists()
+                        formatter(type: prePmd5 ? "betterhtml" : "html", toFile: reports.html.destination)
+                    }
+                    formatter(type: 'xml', toFile: results.partialReport)
 
-                if (getConsoleOutput()) {
-                    def consoleOutputType = 'text'
-                    if (stdOutIsAttachedToTerminal()) {
-                        consoleOutputType = 'textcolor'
+                    if (getConsoleOutput()) {
+                        def consoleOutputType = 'text'
+                        if (stdOutIsAttachedToTerminal()) {
+                            consoleOutputType = 'textcolor'
+                        }
+                        a.builder.saveStreams = false
+                        formatter(type: consoleOutputType, toConsole: true)
                     }
-                    a.builder.saveStreams = false
-                    formatter(type: consoleOutputType, toConsole: true)
                 }
             }
-            def failureCount = ant.project.properties["pmdFailureCount"]
+
+            def mergedReport = results.finish()
+            if (reports.xml.enabled) {
+                GFileUtils.copyFile(mergedReport, reports.xml.destination)
+            }
+
+            def failureCount = results.count("violation", null, null)
             if (failureCount) {
                 def message = "$failureCount PMD rule violations were found."
                 def report = reports.firstEnabled
@@ -216,6 +246,16 @@ class Pmd extends SourceTask implements VerificationTask, Reporting<PmdReports>
         }
     }
 
+    private String configurationHash() {
+        def hasher = Hashing.md5().newHasher()
+        AnalysisResultsCache.putValues(hasher, getRuleSets())
+        AnalysisResultsCache.putValues(hasher, [getTargetJdk(), getRulePriority(), getRuleSetConfig()?.asString()])
+        AnalysisResultsCache.putFiles(hasher, getRuleSetFiles())
+        AnalysisResultsCache.putFiles(hasher, getPmdClasspath())
+        AnalysisResultsCache.putFiles(hasher, getClasspath())
+        hasher.hash().toString()
+    }
+
     boolean stdOutIsAttachedToTerminal() {
         ConsoleDetector consoleDetector = NativeServices.getInstance().get(ConsoleDetector.class)
         ConsoleMetaData consoleMetaData = consoleDetector.getConsole()
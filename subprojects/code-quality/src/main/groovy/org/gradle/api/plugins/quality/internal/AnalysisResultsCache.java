@@ -0,0 +1,374 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the results of the previous run of a code quality tool, so that the next run only needs to analyze the source files whose content has changed.
+ *
+ * <p>The results are kept as the XML report of the tool, along with a hash of each analyzed source file and a hash of the configuration of the analysis. The
+ * tool writes a partial report for the files it analyzes, which is merged with the findings of the previous report for the other files. A finding is an
+ * element directly below the root of the report, and belongs to the source file named by one of its attributes.</p>
+ *
+ * <p>Subclasses can change how a finding is attributed to a source file, and can add files that need to be analyzed because files they depend on
+ * have changed.</p>
+ */
+public class AnalysisResultsCache {
+    private static final Logger LOGGER = Logging.getLogger(AnalysisResultsCache.class);
+    private static final byte VERSION = 1;
+    private static final byte SEPARATOR = 0;
+
+    private final File reportFile;
+    private final File partialReportFile;
+    private final File hashesFile;
+    private final Map<String, String> fileAttributes;
+    private final Map<String, String> sourceHashes = new LinkedHashMap<String, String>();
+    private final Set<File> analyzedFiles = new LinkedHashSet<File>();
+    private final Set<String> analyzedPaths = new HashSet<String>();
+    private final List<Element> reusedFindings = new ArrayList<Element>();
+    private String configurationHash;
+    private boolean analyzeAll;
+    private Document report;
+
+    /**
+     * @param stateDir The directory to keep the results in.
+     * @param fileAttributes The name of the attribute that names the source file, for each type of finding.
+     */
+    public AnalysisResultsCache(File stateDir, Map<String, String> fileAttributes) {
+        this.reportFile = new File(stateDir, "report.xml");
+        this.partialReportFile = new File(stateDir, "partial-report.xml");
+        this.hashesFile = new File(stateDir, "source-hashes.bin");
+        this.fileAttributes = fileAttributes;
+    }
+
+    /**
+     * Determines the source files that need to be analyzed. These are the files that are new or have changed since the previous run. All files need to be
+     * analyzed when requested, when the configuration has changed, or when there are no previous results.
+     */
+    public Set<File> start(Collection<File> sourceFiles, String configurationHash, boolean analyzeAll) {
+        Map<String, String> previousHashes = analyzeAll ? null : readHashes(configurationHash);
+        this.configurationHash = configurationHash;
+        this.analyzeAll = previousHashes == null;
+        sourceHashes.clear();
+        analyzedFiles.clear();
+        analyzedPaths.clear();
+        reusedFindings.clear();
+        report = null;
+        for (File sourceFile : sourceFiles) {
+            String path = path(sourceFile);
+            String hash = hash(sourceFile);
+            sourceHashes.put(path, hash);
+            if (previousHashes == null || !hash.equals(previousHashes.get(path))) {
+                analyzedFiles.add(sourceFile);
+                analyzedPaths.add(path);
+            }
+        }
+        // The previous results are no longer valid if the analysis does not complete
+        hashesFile.delete();
+        partialReportFile.delete();
+        partialReportFile.getParentFile().mkdirs();
+        LOGGER.info("Analyzing {} of {} source files.", analyzedFiles.size(), sourceFiles.size());
+        return analyzedFiles;
+    }
+
+    /**
+     * Adds source files that need to be analyzed by the current run, even though their content has not changed.
+     */
+    protected void addFilesToAnalyze(Iterable<File> files) {
+        for (File file : files) {
+            if (analyzedFiles.add(file)) {
+                analyzedPaths.add(path(file));
+            }
+        }
+    }
+
+    /**
+     * Returns whether all source files are analyzed by the current run.
+     */
+    public boolean isAnalyzeAll() {
+        return analyzeAll;
+    }
+
+    /**
+     * The file that the tool should write the XML report for the analyzed files to.
+     */
+    public File getPartialReport() {
+        return partialReportFile;
+    }
+
+    /**
+     * Merges the partial report with the findings for the unchanged files from the previous report, and keeps the result for the next run.
+     *
+     * @return The merged report, which covers all source files.
+     */
+    public File finish() {
+        Document previous = analyzeAll ? null : parse(reportFile);
+        Document merged = analyzedFiles.isEmpty() && previous != null ? previous : parse(partialReportFile);
+        if (previous != null) {
+            // Keep the findings together, in case the report has other content following them
+            List<Element> mergedFindings = findings(merged);
+            Node insertBefore = mergedFindings.isEmpty() ? null : mergedFindings.get(mergedFindings.size() - 1).getNextSibling();
+            for (Element finding : findings(previous)) {
+                String name = getSourceFile(finding);
+                String path = name == null ? null : path(new File(name));
+                boolean reuse = path != null && sourceHashes.containsKey(path) && !analyzedPaths.contains(path);
+                if (reuse) {
+                    reusedFindings.add(finding);
+                    if (merged != previous) {
+                        merged.getDocumentElement().insertBefore(merged.importNode(finding, true), insertBefore);
+                    }
+                } else if (merged == previous) {
+                    previous.getDocumentElement().removeChild(finding);
+                }
+            }
+        }
+        completeReport(merged);
+        write(merged, reportFile);
+        writeHashes();
+        partialReportFile.delete();
+        report = merged;
+        return reportFile;
+    }
+
+    /**
+     * Counts the elements of the merged report with the given name, optionally only those with the given attribute value.
+     */
+    public int count(String elementName, @Nullable String attribute, @Nullable String value) {
+        int count = 0;
+        NodeList elements = report.getElementsByTagName(elementName);
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            if (attribute == null || element.getAttribute(attribute).equals(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the attributes of the elements with the given name that were taken over from the previous report, rather than produced by the current run.
+     */
+    public List<Map<String, String>> getReusedFindings(String elementName) {
+        List<Map<String, String>> result = new ArrayList<Map<String, String>>();
+        for (Element finding : reusedFindings) {
+            NodeList elements = finding.getElementsByTagName(elementName);
+            for (int i = 0; i < elements.getLength(); i++) {
+                Map<String, String> attributes = new LinkedHashMap<String, String>();
+                NamedNodeMap nodes = elements.item(i).getAttributes();
+                for (int j = 0; j < nodes.getLength(); j++) {
+                    attributes.put(nodes.item(j).getNodeName(), nodes.item(j).getNodeValue());
+                }
+                attributes.put(fileAttributes.get(finding.getTagName()), finding.getAttribute(fileAttributes.get(finding.getTagName())));
+                result.add(attributes);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the given values to a configuration hash.
+     */
+    public static void putValues(Hasher hasher, Iterable<?> values) {
+        for (Object value : values) {
+            hasher.putUnencodedChars(String.valueOf(value));
+            hasher.putByte(SEPARATOR);
+        }
+    }
+
+    /**
+     * Adds the given files to a configuration hash. Files are represented by their path, size and modification time. Directories are represented by their
+     * path and the content of the files they contain, so that changing the classes in a classpath directory invalidates the results, while compiling them
+     * again to the same bytes does not. Findings of rules that resolve types, or that check several files together, can change even though the analyzed
+     * source files have not.
+     */
+    public static void putFiles(Hasher hasher, @Nullable Iterable<File> files) {
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            hasher.putUnencodedChars(file.getAbsolutePath());
+            hasher.putByte(SEPARATOR);
+            if (file.isFile()) {
+                hasher.putLong(file.length());
+                hasher.putLong(file.lastModified());
+            } else {
+                putContent(hasher, file);
+            }
+        }
+    }
+
+    private static void putContent(Hasher hasher, File file) {
+        if (file.isFile()) {
+            hasher.putUnencodedChars(hash(file));
+        } else if (file.isDirectory()) {
+            String[] names = file.list();
+            if (names == null) {
+                return;
+            }
+            Arrays.sort(names);
+            hasher.putInt(names.length);
+            for (String name : names) {
+                hasher.putUnencodedChars(name);
+                hasher.putByte(SEPARATOR);
+                putContent(hasher, new File(file, name));
+            }
+        }
+    }
+
+    private List<Element> findings(Document document) {
+        List<Element> findings = new ArrayList<Element>();
+        for (Node node = document.getDocumentElement().getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && fileAttributes.containsKey(((Element) node).getTagName())) {
+                findings.add((Element) node);
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Returns the name of the source file that the given finding belongs to, or null when it does not belong to a source file.
+     */
+    @Nullable
+    protected String getSourceFile(Element finding) {
+        String name = finding.getAttribute(fileAttributes.get(finding.getTagName()));
+        return name.length() == 0 ? null : name;
+    }
+
+    /**
+     * Called with the merged report before it is written, to update any content that summarizes the findings.
+     */
+    protected void completeReport(Document report) {
+    }
+
+    // Tools may report source files by absolute or canonical path
+    private static String path(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    private Map<String, String> readHashes(String configurationHash) {
+        if (!hashesFile.isFile() || !reportFile.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(hashesFile));
+            try {
+                if (decoder.readByte() != VERSION || !decoder.readString().equals(configurationHash)) {
+                    return null;
+                }
+                int count = decoder.readSmallInt();
+                Map<String, String> hashes = new HashMap<String, String>(count);
+                for (int i = 0; i < count; i++) {
+                    hashes.put(decoder.readString(), decoder.readString());
+                }
+                return hashes;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read the results of the previous analysis from {}. All source files will be analyzed.", hashesFile, e);
+            return null;
+        }
+    }
+
+    private void writeHashes() {
+        KryoBackedEncoder encoder;
+        try {
+            encoder = new KryoBackedEncoder(new FileOutputStream(hashesFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            encoder.writeByte(VERSION);
+            encoder.writeString(configurationHash);
+            encoder.writeSmallInt(sourceHashes.size());
+            for (Map.Entry<String, String> entry : sourceHashes.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeString(entry.getValue());
+            }
+        } finally {
+            encoder.close();
+        }
+    }
+
+    private static String hash(File file) {
+        try {
+            return Files.hash(file, Hashing.md5()).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document parse(File file) {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+        } catch (Exception e) {
+            throw new UncheckedIOException(String.format("Could not read analysis report %s.", file), e);
+        }
+    }
+
+    private static void write(Document document, File file) {
+        try {
+            FileOutputStream outputStream = new FileOutputStream(file);
+            try {
+                TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document), new StreamResult(outputStream));
+            } finally {
+                outputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
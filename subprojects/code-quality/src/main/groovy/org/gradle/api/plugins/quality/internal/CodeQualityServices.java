@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal;
+
+import org.gradle.api.plugins.quality.internal.findbugs.FindBugsWorkerManager;
+import org.gradle.internal.Factory;
+import org.gradle.internal.service.ServiceRegistration;
+import org.gradle.internal.service.scopes.PluginServiceRegistry;
+import org.gradle.process.internal.WorkerProcessBuilder;
+
+public class CodeQualityServices implements PluginServiceRegistry {
+    public void registerGlobalServices(ServiceRegistration registration) {
+    }
+
+    public void registerBuildSessionServices(ServiceRegistration registration) {
+        registration.addProvider(new BuildSessionScopeServices());
+    }
+
+    public void registerBuildServices(ServiceRegistration registration) {
+    }
+
+    public void registerGradleServices(ServiceRegistration registration) {
+    }
+
+    public void registerProjectServices(ServiceRegistration registration) {
+    }
+
+    private static class BuildSessionScopeServices {
+        FindBugsWorkerManager createFindBugsWorkerManager(Factory<WorkerProcessBuilder> workerFactory) {
+            return new FindBugsWorkerManager(workerFactory);
+        }
+    }
+}
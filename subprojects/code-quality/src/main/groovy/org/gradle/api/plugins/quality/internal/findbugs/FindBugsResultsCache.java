@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.findbugs;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.plugins.quality.internal.AnalysisResultsCache;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the bug instances found by FindBugs for each class file. Along with the class files that have changed, the classes that refer to them are analyzed
+ * again, as FindBugs uses information about the classes that a class calls into.
+ *
+ * <p>Classes that refer to a removed class do not need to be added, as they will have been changed in order to compile.</p>
+ */
+public class FindBugsResultsCache extends AnalysisResultsCache {
+    private final Map<String, File> classFiles = new HashMap<String, File>();
+    private final Map<File, String> classNames = new HashMap<File, String>();
+
+    public FindBugsResultsCache(File stateDir) {
+        super(stateDir, Collections.singletonMap("BugInstance", "classname"));
+    }
+
+    @Override
+    public Set<File> start(Collection<File> sourceFiles, String configurationHash, boolean analyzeAll) {
+        Set<File> changedFiles = super.start(sourceFiles, configurationHash, analyzeAll);
+        classFiles.clear();
+        classNames.clear();
+        if (isAnalyzeAll() || changedFiles.isEmpty()) {
+            return changedFiles;
+        }
+
+        Map<File, Set<String>> references = new HashMap<File, Set<String>>();
+        for (File classFile : sourceFiles) {
+            ClassReader reader = read(classFile);
+            String className = reader.getClassName().replace('/', '.');
+            classFiles.put(className, classFile);
+            classNames.put(classFile, className);
+            references.put(classFile, getReferencedClasses(reader));
+        }
+        Set<String> changedClasses = new HashSet<String>();
+        for (File changedFile : changedFiles) {
+            changedClasses.add(classNames.get(changedFile));
+        }
+        List<File> dependents = new ArrayList<File>();
+        for (Map.Entry<File, Set<String>> entry : references.entrySet()) {
+            if (!Collections.disjoint(entry.getValue(), changedClasses)) {
+                dependents.add(entry.getKey());
+            }
+        }
+        addFilesToAnalyze(dependents);
+        return changedFiles;
+    }
+
+    /**
+     * Returns the names of the classes to analyze, when only some classes are analyzed by the current run.
+     */
+    public List<String> getClassesToAnalyze(Collection<File> filesToAnalyze) {
+        List<String> result = new ArrayList<String>(filesToAnalyze.size());
+        for (File classFile : filesToAnalyze) {
+            result.add(classNames.get(classFile));
+        }
+        return result;
+    }
+
+    @Nullable
+    @Override
+    protected String getSourceFile(Element bugInstance) {
+        Element primaryClass = null;
+        for (Node node = bugInstance.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && ((Element) node).getTagName().equals("Class")) {
+                if (primaryClass == null || ((Element) node).getAttribute("primary").equals("true")) {
+                    primaryClass = (Element) node;
+                }
+            }
+        }
+        File classFile = primaryClass == null ? null : classFiles.get(primaryClass.getAttribute("classname"));
+        return classFile == null ? null : classFile.getPath();
+    }
+
+    @Override
+    protected void completeReport(Document report) {
+        NodeList summaries = report.getElementsByTagName("FindBugsSummary");
+        if (summaries.getLength() == 0) {
+            return;
+        }
+        int[] priorities = new int[4];
+        NodeList bugInstances = report.getElementsByTagName("BugInstance");
+        for (int i = 0; i < bugInstances.getLength(); i++) {
+            String priority = ((Element) bugInstances.item(i)).getAttribute("priority");
+            if (priority.matches("[1-3]")) {
+                priorities[Integer.parseInt(priority)]++;
+            }
+        }
+        Element summary = (Element) summaries.item(0);
+        summary.setAttribute("total_bugs", String.valueOf(bugInstances.getLength()));
+        for (int priority = 1; priority < priorities.length; priority++) {
+            if (priorities[priority] > 0) {
+                summary.setAttribute("priority_" + priority, String.valueOf(priorities[priority]));
+            } else {
+                summary.removeAttribute("priority_" + priority);
+            }
+        }
+    }
+
+    private static ClassReader read(File classFile) {
+        try {
+            InputStream inputStream = new FileInputStream(classFile);
+            try {
+                return new ClassReader(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read class file %s.", classFile), e);
+        }
+    }
+
+    private static Set<String> getReferencedClasses(ClassReader reader) {
+        Set<String> classes = new HashSet<String>();
+        char[] charBuffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            int itemOffset = reader.getItem(i);
+            if (itemOffset > 0 && reader.readByte(itemOffset - 1) == 7) {
+                // A CONSTANT_Class entry
+                Type type = Type.getObjectType(reader.readUTF8(itemOffset, charBuffer));
+                while (type.getSort() == Type.ARRAY) {
+                    type = type.getElementType();
+                }
+                if (type.getSort() == Type.OBJECT) {
+                    classes.add(type.getClassName());
+                }
+            }
+        }
+        return classes;
+    }
+}
@@ -48,6 +48,8 @@ public class FindBugsSpecBuilder {
     private File includeFilter;
     private File excludeBugsFilter;
     private Collection<String> extraArgs;
+    private Collection<String> onlyAnalyze;
+    private File outputFile;
     private boolean debugEnabled;
 
     public FindBugsSpecBuilder(FileCollection classes) {
@@ -145,6 +147,22 @@ public class FindBugsSpecBuilder {
         return this;
     }
 
+    /**
+     * Restricts the analysis to the given classes. The other classes are still used to look up information about the analyzed classes.
+     */
+    public FindBugsSpecBuilder withOnlyAnalyze(Collection<String> classNames) {
+        this.onlyAnalyze = classNames;
+        return this;
+    }
+
+    /**
+     * Writes the enabled report to the given file, rather than to the destination of the report.
+     */
+    public FindBugsSpecBuilder withOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+        return this;
+    }
+
     public FindBugsSpecBuilder withDebugging(boolean debugEnabled){
         this.debugEnabled = debugEnabled;
         return this;
@@ -170,7 +188,7 @@ public class FindBugsSpecBuilder {
                 }
                 args.add(outputArg);
                 args.add("-outputFile");
-                args.add(reportsImpl.getFirstEnabled().getDestination().getAbsolutePath());
+                args.add((outputFile != null ? outputFile : reportsImpl.getFirstEnabled().getDestination()).getAbsolutePath());
             } else {
                 throw new InvalidUserDataException("FindBugs tasks can only have one report enabled, however more than one report was enabled. You need to disable all but one of them.");
             }
@@ -229,6 +247,11 @@ public class FindBugsSpecBuilder {
             args.addAll(extraArgs);
         }
 
+        if (has(onlyAnalyze)) {
+            args.add("-onlyAnalyze");
+            args.add(CollectionUtils.join(",", onlyAnalyze));
+        }
+
         for (File classFile : classes.getFiles()) {
             args.add(classFile.getAbsolutePath());
         }
@@ -16,28 +16,33 @@
 
 package org.gradle.api.plugins.quality.internal.findbugs;
 
-import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessResults;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.SynchronousQueue;
+public class FindBugsWorkerClient implements FindBugsWorkerClientProtocol, Stoppable {
+    private final WorkerProcess workerProcess;
+    private final FindBugsWorkerServerProtocol server;
+    private final WorkerProcessResults<FindBugsResult> results;
 
-public class FindBugsWorkerClient implements FindBugsWorkerClientProtocol {
+    public FindBugsWorkerClient(WorkerProcess workerProcess, FindBugsWorkerServerProtocol server) {
+        this.workerProcess = workerProcess;
+        this.server = server;
+        this.results = new WorkerProcessResults<FindBugsResult>(workerProcess, "FindBugs worker process", "the analysis");
+    }
 
-    private final BlockingQueue<FindBugsResult> findbugsResults = new SynchronousQueue<FindBugsResult>();
+    public FindBugsResult execute(FindBugsSpec spec) {
+        // A worker runs a single analysis at a time
+        server.execute(spec);
+        return results.take();
+    }
 
-    public void executed(FindBugsResult result) {
-        try {
-            findbugsResults.put(result);
-        } catch (InterruptedException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
-        }
+    public void stop() {
+        server.stop();
+        workerProcess.waitForStop();
     }
 
-    public FindBugsResult getResult() {
-        try {
-            return findbugsResults.take();
-        } catch (InterruptedException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
-        }
+    public void executed(FindBugsResult result) {
+        results.put(result);
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.findbugs;
+
+import com.google.common.collect.ImmutableSet;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Nullable;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs FindBugs in worker processes, which are kept for reuse by later FindBugs tasks until the end of the build session. This saves starting a JVM
+ * and loading the FindBugs detectors for each task.
+ */
+@ThreadSafe
+public class FindBugsWorkerManager implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(FindBugsWorkerManager.class);
+
+    private final Factory<WorkerProcessBuilder> workerFactory;
+    private final WorkerProcessPool<List<?>, FindBugsWorkerClient> workers = new WorkerProcessPool<List<?>, FindBugsWorkerClient>("FindBugs worker");
+
+    public FindBugsWorkerManager(Factory<WorkerProcessBuilder> workerFactory) {
+        this.workerFactory = workerFactory;
+    }
+
+    public FindBugsResult runWorker(final File workingDir, FileCollection findBugsClasspath, @Nullable FileCollection pluginClasspath, final FindBugsSpec spec) {
+        final Set<File> classpath = ImmutableSet.copyOf(findBugsClasspath.getFiles());
+        Set<File> plugins = pluginClasspath == null ? Collections.<File>emptySet() : ImmutableSet.copyOf(pluginClasspath.getFiles());
+        // FindBugs keeps the detectors of the plugins it has loaded, so a worker can only be reused for the same FindBugs and plugin class path
+        List<?> key = Arrays.asList(classpath, plugins, spec.getMaxHeapSize());
+        FindBugsWorkerClient client = workers.reserve(key, new Factory<FindBugsWorkerClient>() {
+            public FindBugsWorkerClient create() {
+                return startWorker(workingDir, classpath, spec.getMaxHeapSize());
+            }
+        });
+        FindBugsResult result;
+        try {
+            result = client.execute(spec);
+        } catch (RuntimeException e) {
+            // Do not reuse a worker that may be in an unknown state
+            workers.discard(client);
+            throw e;
+        }
+        if (result.getException() != null) {
+            // FindBugs failed in the worker, which may have left it in an unknown state
+            workers.discard(client);
+        } else {
+            workers.release(client);
+        }
+        return result;
+    }
+
+    private FindBugsWorkerClient startWorker(File workingDir, Set<File> findBugsClasspath, String maxHeapSize) {
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.setBaseName("Gradle FindBugs Worker");
+        builder.applicationClasspath(findBugsClasspath);
+        builder.sharedPackages("edu.umd.cs.findbugs");
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        javaCommand.setWorkingDir(workingDir);
+        javaCommand.setMaxHeapSize(maxHeapSize);
+        WorkerProcess process = builder.worker(new FindBugsWorkerServer()).build();
+        process.start();
+
+        FindBugsWorkerServerProtocol server = process.getConnection().addOutgoing(FindBugsWorkerServerProtocol.class);
+        FindBugsWorkerClient client = new FindBugsWorkerClient(process, server);
+        process.getConnection().addIncoming(FindBugsWorkerClientProtocol.class, client);
+        process.getConnection().connect();
+        LOGGER.info("Started FindBugs worker with class path {}.", findBugsClasspath);
+        return client;
+    }
+
+    public void stop() {
+        workers.stop();
+    }
+}
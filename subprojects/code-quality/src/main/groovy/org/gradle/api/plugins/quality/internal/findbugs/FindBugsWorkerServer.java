@@ -19,26 +19,35 @@ package org.gradle.api.plugins.quality.internal.findbugs;
 import org.gradle.api.Action;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
 import org.gradle.process.internal.WorkerProcessContext;
 
 import java.io.Serializable;
+import java.util.concurrent.CountDownLatch;
 
-public class FindBugsWorkerServer implements Action<WorkerProcessContext>, Serializable {
+public class FindBugsWorkerServer implements Action<WorkerProcessContext>, FindBugsWorkerServerProtocol, Serializable {
     private static final Logger LOGGER = Logging.getLogger(FindBugsWorkerServer.class);
-    private FindBugsSpec spec;
 
-    public FindBugsWorkerServer(FindBugsSpec spec) {
-        this.spec = spec;
-    }
+    private volatile FindBugsWorkerClientProtocol client;
+    private volatile CountDownLatch stop;
 
     public void execute(WorkerProcessContext context) {
-        final FindBugsResult result = execute(new FindBugsExecuter());
-        final FindBugsWorkerClientProtocol clientProtocol = context.getServerConnection().addOutgoing(FindBugsWorkerClientProtocol.class);
+        stop = new CountDownLatch(1);
+        client = context.getServerConnection().addOutgoing(FindBugsWorkerClientProtocol.class);
+        context.getServerConnection().addIncoming(FindBugsWorkerServerProtocol.class, this);
         context.getServerConnection().connect();
-        clientProtocol.executed(result);
+        try {
+            stop.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
     }
 
-    FindBugsResult execute(FindBugsExecuter executer) {
+    public void execute(FindBugsSpec spec) {
+        client.executed(execute(new FindBugsExecuter(), spec));
+    }
+
+    FindBugsResult execute(FindBugsExecuter executer, FindBugsSpec spec) {
         LOGGER.debug("Executing FindBugs worker.");
         try {
             return executer.runFindbugs(spec);
@@ -47,4 +56,8 @@ public class FindBugsWorkerServer implements Action<WorkerProcessContext>, Seria
             return new FindBugsResult(0, 0, 1, t); //mark result with error count 1
         }
     }
+
+    public void stop() {
+        stop.countDown();
+    }
 }
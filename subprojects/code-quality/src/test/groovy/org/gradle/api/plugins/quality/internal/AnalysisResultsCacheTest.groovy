@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal
+
+import com.google.common.hash.Hashing
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AnalysisResultsCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final TestFile stateDir = tmpDir.file("state")
+    final TestFile a = tmpDir.createFile("src/A.java") << "class A {}"
+    final TestFile b = tmpDir.createFile("src/B.java") << "class B {}"
+
+    def "analyzes all files when there are no previous results"() {
+        def results = cache()
+
+        expect:
+        results.start([a, b], "config", false) == [a, b] as Set
+        results.analyzeAll
+    }
+
+    def "analyzes only changed files and reuses findings for unchanged files"() {
+        run([a, b], [a, b])
+        a.text = "class A { int x; }"
+
+        when:
+        def results = cache()
+        def analyzed = results.start([a, b], "config", false)
+        results.partialReport.text = report([a])
+        results.finish()
+
+        then:
+        analyzed == [a] as Set
+        !results.analyzeAll
+        results.count("error", "severity", "error") == 2
+        results.getReusedFindings("error") == [[severity: "error", message: "problem", name: b.absolutePath]]
+    }
+
+    def "drops findings for removed files"() {
+        run([a, b], [a, b])
+
+        when:
+        def results = cache()
+        def analyzed = results.start([a], "config", false)
+        results.finish()
+
+        then:
+        analyzed.empty
+        results.count("error", null, null) == 1
+    }
+
+    def "analyzes all files when configuration changes"() {
+        run([a, b], [a, b])
+
+        expect:
+        cache().start([a, b], "other", false) == [a, b] as Set
+    }
+
+    def "analyzes all files when requested"() {
+        run([a, b], [a, b])
+
+        expect:
+        cache().start([a, b], "config", true) == [a, b] as Set
+    }
+
+    def "analyzes all files when previous run did not complete"() {
+        run([a, b], [a, b])
+        cache().start([a, b], "config", true)
+
+        expect:
+        cache().start([a, b], "config", false) == [a, b] as Set
+    }
+
+    def "configuration hash changes when a file in a classpath directory changes"() {
+        def classes = tmpDir.createDir("classes")
+        def classFile = classes.createFile("org/A.class") << "content"
+        def original = classpathHash(classes)
+
+        expect:
+        classpathHash(classes) == original
+
+        when:
+        classFile << "more content"
+
+        then:
+        classpathHash(classes) != original
+
+        when:
+        classes.createFile("org/B.class")
+
+        then:
+        classpathHash(classes) != original
+    }
+
+    def "configuration hash does not change when a file in a classpath directory is written again with the same content"() {
+        def classes = tmpDir.createDir("classes")
+        def classFile = classes.createFile("org/A.class") << "content"
+        def original = classpathHash(classes)
+
+        when:
+        classFile.text = "content"
+        classFile.setLastModified(classFile.lastModified() - 2000)
+
+        then:
+        classpathHash(classes) == original
+    }
+
+    private static String classpathHash(File... files) {
+        def hasher = Hashing.md5().newHasher()
+        AnalysisResultsCache.putFiles(hasher, files as List)
+        return hasher.hash().toString()
+    }
+
+    private AnalysisResultsCache cache() {
+        return new AnalysisResultsCache(stateDir, [file: "name"])
+    }
+
+    private void run(List<File> files, List<File> filesWithErrors) {
+        def results = cache()
+        results.start(files, "config", false)
+        results.partialReport.text = report(filesWithErrors)
+        results.finish()
+    }
+
+    private static String report(List<File> filesWithErrors) {
+        def files = filesWithErrors.collect { "<file name='${it.absolutePath}'><error severity='error' message='problem'/></file>" }
+        return "<checkstyle>${files.join('')}</checkstyle>"
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.findbugs
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class FindBugsResultsCacheTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final TestFile stateDir = tmpDir.file("state")
+    final TestFile caller = classFile(SomeCaller)
+    final TestFile callee = classFile(SomeCallee)
+    final TestFile other = classFile(SomeOther)
+
+    def "analyzes changed classes and the classes that refer to them"() {
+        run([caller, callee, other], [:])
+        callee << "changed"
+
+        when:
+        def results = new FindBugsResultsCache(stateDir)
+        def analyzed = results.start([caller, callee, other], "config", false)
+
+        then:
+        analyzed == [callee, caller] as Set
+        results.getClassesToAnalyze(analyzed) as Set == [SomeCallee.name, SomeCaller.name] as Set
+    }
+
+    def "reuses bug instances of classes that are not analyzed again and updates summary"() {
+        run([caller, callee, other], [(SomeCaller): 1, (SomeCallee): 2, (SomeOther): 2])
+        caller << "changed"
+
+        when:
+        def results = new FindBugsResultsCache(stateDir)
+        def analyzed = results.start([caller, callee, other], "config", false)
+        results.partialReport.text = report([(SomeCaller): 3])
+        def merged = new XmlSlurper().parse(results.finish())
+
+        then:
+        analyzed == [caller] as Set
+        results.count("BugInstance", null, null) == 3
+        merged.BugInstance*.Class*.@classname*.text() == [SomeCaller.name, SomeCallee.name, SomeOther.name]
+        merged.BugInstance*.@priority*.text() == ["3", "2", "2"]
+        merged.FindBugsSummary.@total_bugs.text() == "3"
+        merged.FindBugsSummary.@priority_2.text() == "2"
+        merged.FindBugsSummary.@priority_3.text() == "1"
+        merged.FindBugsSummary.@priority_1.text() == ""
+    }
+
+    private void run(List<File> classFiles, Map<Class<?>, Integer> bugs) {
+        def results = new FindBugsResultsCache(stateDir)
+        results.start(classFiles, "config", false)
+        results.partialReport.text = report(bugs)
+        results.finish()
+    }
+
+    private static String report(Map<Class<?>, Integer> bugs) {
+        def bugInstances = bugs.collect { type, priority -> "<BugInstance type='BUG' priority='$priority'><Class classname='$type.name' primary='true'/></BugInstance>" }
+        return "<BugCollection><Project/>${bugInstances.join('')}<BugPattern type='BUG'/><FindBugsSummary total_bugs='${bugs.size()}'/></BugCollection>"
+    }
+
+    private TestFile classFile(Class<?> type) {
+        def file = tmpDir.file("classes/${type.simpleName}.class")
+        file.bytes = type.getResource("${type.simpleName}.class").bytes
+        return file
+    }
+}
+
+class SomeCallee {
+}
+
+class SomeCaller {
+    void call() {
+        new SomeCallee()
+    }
+}
+
+class SomeOther {
+}
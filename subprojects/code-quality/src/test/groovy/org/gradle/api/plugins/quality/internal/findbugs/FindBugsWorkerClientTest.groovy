@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.findbugs
+
+import org.gradle.process.ExecResult
+import org.gradle.process.internal.ExecException
+import org.gradle.process.internal.WorkerProcess
+import spock.lang.Specification
+import spock.lang.Subject
+
+class FindBugsWorkerClientTest extends Specification {
+
+    def workerProcess = Mock(WorkerProcess)
+    def server = Mock(FindBugsWorkerServerProtocol)
+    def spec = Stub(FindBugsSpec)
+    @Subject client = new FindBugsWorkerClient(workerProcess, server)
+
+    def "returns result sent by worker"() {
+        def result = new FindBugsResult(1, 0, 0)
+
+        when:
+        def r = client.execute(spec)
+
+        then:
+        1 * server.execute(spec) >> { Thread.start { client.executed(result) } }
+
+        and:
+        r == result
+    }
+
+    def "fails when worker stops before sending result"() {
+        def execResult = Stub(ExecResult) {
+            getExitValue() >> 1
+        }
+
+        when:
+        client.execute(spec)
+
+        then:
+        1 * server.execute(spec)
+        _ * workerProcess.getExecResult() >> execResult
+
+        and:
+        def e = thrown(ExecException)
+        e.message == "FindBugs worker process stopped with exit value 1 before the analysis completed."
+    }
+}
@@ -23,13 +23,13 @@ class FindBugsWorkerServerTest extends Specification {
 
     def executer = Mock(FindBugsExecuter)
     def spec = Stub(FindBugsSpec)
-    @Subject server = new FindBugsWorkerServer(spec)
+    @Subject server = new FindBugsWorkerServer()
 
     def "fatal crash provides result"() {
         def error = new Error("Ka-boom!")
 
         when:
-        def r = server.execute(executer)
+        def r = server.execute(executer, spec)
 
         then:
         1 * executer.runFindbugs(spec) >> { throw error }
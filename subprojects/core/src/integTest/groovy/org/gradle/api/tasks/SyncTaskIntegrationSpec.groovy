@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class SyncTaskIntegrationSpec extends AbstractIntegrationSpec {
+
+    def "removes files added to destination directory when sync runs again"() {
+        given:
+        file("source/a.txt") << "a"
+        file("source/b.txt") << "b"
+        buildScript """
+            task sync(type: Sync) {
+                from "source"
+                into "dest"
+            }
+        """
+
+        when:
+        succeeds "sync"
+
+        then:
+        file("dest").assertHasDescendants("a.txt", "b.txt")
+
+        when:
+        file("dest/extra.txt") << "extra"
+        file("dest/extra-dir/nested.txt") << "extra"
+        file("source/b.txt").text = "changed"
+        succeeds "sync"
+
+        then:
+        file("dest").assertHasDescendants("a.txt", "b.txt")
+        !file("dest/extra-dir").exists()
+        file("dest/b.txt").text == "changed"
+    }
+
+    def "removes files no longer in source when sync runs again"() {
+        given:
+        file("source/a.txt") << "a"
+        file("source/dir/b.txt") << "b"
+        buildScript """
+            task sync(type: Sync) {
+                from "source"
+                into "dest"
+            }
+        """
+        succeeds "sync"
+
+        when:
+        file("source/dir").deleteDir()
+        succeeds "sync"
+
+        then:
+        file("dest").assertHasDescendants("a.txt")
+        !file("dest/dir").exists()
+    }
+}
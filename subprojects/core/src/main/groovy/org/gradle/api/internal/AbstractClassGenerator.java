@@ -16,17 +16,20 @@
 
 package org.gradle.api.internal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceMap;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.NonExtensible;
 import org.gradle.api.Nullable;
 import org.gradle.api.plugins.ExtensionAware;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.*;
 
 import javax.inject.Inject;
@@ -34,8 +37,10 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Generates a subclass of the target class to mix-in some DSL behaviour.
@@ -50,37 +55,56 @@ import java.util.concurrent.locks.ReentrantLock;
  * </ul>
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
-    private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
-    private static final Lock CACHE_LOCK = new ReentrantLock();
+    private static final ConcurrentMap<Class<?>, Cache<Class<?>, Class<?>>> GENERATED_CLASSES = new ConcurrentHashMap<Class<?>, Cache<Class<?>, Class<?>>>();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
 
     public <T> T newInstance(Class<T> type, Object... parameters) {
         return DirectInstantiator.instantiate(generate(type), parameters);
     }
 
-    public <T> Class<? extends T> generate(Class<T> type) {
-        try {
-            CACHE_LOCK.lock();
-            return generateUnderLock(type);
-        } finally {
-            CACHE_LOCK.unlock();
+    public <T> Class<? extends T> generate(final Class<T> type) {
+        final Cache<Class<?>, Class<?>> cache = getCache();
+        Class<?> generatedClass = cache.getIfPresent(type);
+        if (generatedClass == null) {
+            try {
+                // Only one thread generates a given type, while other types are generated in parallel
+                generatedClass = cache.get(type, new Callable<Class<?>>() {
+                    public Class<?> call() {
+                        Class<?> generated = doGenerate(type);
+                        if (generated != type) {
+                            // Map the generated class to itself before any other thread can see it
+                            cache.asMap().putIfAbsent(generated, generated);
+                        }
+                        return generated;
+                    }
+                });
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (UncheckedExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (ExecutionError e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
         }
+        return generatedClass.asSubclass(type);
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
+    private Cache<Class<?>, Class<?>> getCache() {
+        Cache<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
         if (cache == null) {
-            // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
-            // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
-            // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass.asSubclass(type);
+            // Use weak references for both the key and the value. The generated class has a strong reference to the source class (by extending it), so
+            // a strong value would keep the key reachable forever. The generated class is defined in the ClassLoader of the source class, so it remains
+            // strongly reachable from that ClassLoader, and is discarded along with it.
+            cache = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+            Cache<Class<?>, Class<?>> existing = GENERATED_CLASSES.putIfAbsent(getClass(), cache);
+            if (existing != null) {
+                cache = existing;
+            }
         }
+        return cache;
+    }
 
+    private <T> Class<? extends T> doGenerate(Class<T> type) {
         if (Modifier.isPrivate(type.getModifiers())) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
                     type.getSimpleName()));
@@ -201,8 +225,6 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
 
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
         return subclass;
     }
 
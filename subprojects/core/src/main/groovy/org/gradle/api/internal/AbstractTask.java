@@ -532,7 +532,7 @@ public abstract class AbstractTask implements TaskInternal, DynamicObjectAware {
         }
     }
 
-    private static class ClosureTaskAction implements ContextAwareTaskAction {
+    private static class ClosureTaskAction implements ImplementationAwareTaskAction {
         private final Closure closure;
 
         private ClosureTaskAction(Closure closure) {
@@ -542,6 +542,10 @@ public abstract class AbstractTask implements TaskInternal, DynamicObjectAware {
         public void contextualise(TaskExecutionContext context) {
         }
 
+        public Class<?> getActionClass() {
+            return closure.getClass();
+        }
+
         public void execute(Task task) {
             closure.setDelegate(task);
             closure.setResolveStrategy(Closure.DELEGATE_FIRST);
@@ -565,7 +569,7 @@ public abstract class AbstractTask implements TaskInternal, DynamicObjectAware {
         }
     }
 
-    private static class TaskActionWrapper implements ContextAwareTaskAction {
+    private static class TaskActionWrapper implements ImplementationAwareTaskAction {
         private final Action<? super Task> action;
 
         public TaskActionWrapper(Action<? super Task> action) {
@@ -578,6 +582,10 @@ public abstract class AbstractTask implements TaskInternal, DynamicObjectAware {
             }
         }
 
+        public Class<?> getActionClass() {
+            return action instanceof ImplementationAwareTaskAction ? ((ImplementationAwareTaskAction) action).getActionClass() : action.getClass();
+        }
+
         public void execute(Task task) {
             ClassLoader original = Thread.currentThread().getContextClassLoader();
             Thread.currentThread().setContextClassLoader(action.getClass().getClassLoader());
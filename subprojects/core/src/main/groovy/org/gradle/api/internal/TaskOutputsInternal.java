@@ -23,6 +23,12 @@ import org.gradle.api.tasks.TaskOutputs;
 public interface TaskOutputsInternal extends TaskOutputs {
     Spec<? super TaskInternal> getUpToDateSpec();
 
+    /**
+     * Returns true when the outputs of this task can be loaded from and stored in the task output cache, that is, when at least one {@code cacheIf()}
+     * predicate has been added and all of them are satisfied.
+     */
+    boolean isCacheAllowed();
+
     FileCollection getPreviousFiles();
 
     void setHistory(TaskExecutionHistory history);
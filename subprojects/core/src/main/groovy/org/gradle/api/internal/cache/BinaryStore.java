@@ -25,6 +25,9 @@ import java.io.IOException;
 public interface BinaryStore {
     void write(WriteAction write);
 
+    //position of the next write, relative to the start of the data returned by the next done()
+    long getWritePosition();
+
     //done writing data, release any resources
     BinaryData done();
 
@@ -38,5 +41,8 @@ public interface BinaryStore {
 
     public static interface BinaryData extends Closeable {
         <T> T read(ReadAction<T> readAction);
+
+        //reads from a position returned by getWritePosition(), without affecting the sequential reads
+        <T> T read(long position, ReadAction<T> readAction);
     }
 }
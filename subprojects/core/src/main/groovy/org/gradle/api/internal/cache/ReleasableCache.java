@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache;
+
+/**
+ * An in-memory cache that is retained across builds, and that can discard its content when the process runs low on memory.
+ */
+public interface ReleasableCache {
+    /**
+     * Returns the time at which this cache was last used, or 0 when this cache holds nothing that can be released.
+     */
+    long getLastUsed();
+
+    /**
+     * Discards the content of this cache. The cache remains usable, and is repopulated on demand. {@link #getLastUsed()} returns 0 until the cache is used again.
+     */
+    void release();
+
+    String getDisplayName();
+}
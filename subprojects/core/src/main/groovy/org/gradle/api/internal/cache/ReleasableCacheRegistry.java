@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache;
+
+import org.gradle.api.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Keeps track of the {@link ReleasableCache} instances of the process, so that their content can be discarded, least recently used first, when the process
+ * runs low on memory.
+ */
+public class ReleasableCacheRegistry {
+    private final Set<ReleasableCache> caches = new CopyOnWriteArraySet<ReleasableCache>();
+
+    public void register(ReleasableCache cache) {
+        caches.add(cache);
+    }
+
+    public void unregister(ReleasableCache cache) {
+        caches.remove(cache);
+    }
+
+    /**
+     * Discards the content of the least recently used cache that holds any.
+     *
+     * @return the released cache, or null when no cache holds anything.
+     */
+    @Nullable
+    public ReleasableCache releaseLeastRecentlyUsed() {
+        ReleasableCache leastRecentlyUsed = null;
+        long leastRecentlyUsedAt = Long.MAX_VALUE;
+        for (ReleasableCache cache : caches) {
+            long lastUsed = cache.getLastUsed();
+            if (lastUsed > 0 && lastUsed < leastRecentlyUsedAt) {
+                leastRecentlyUsed = cache;
+                leastRecentlyUsedAt = lastUsed;
+            }
+        }
+        if (leastRecentlyUsed != null) {
+            leastRecentlyUsed.release();
+        }
+        return leastRecentlyUsed;
+    }
+}
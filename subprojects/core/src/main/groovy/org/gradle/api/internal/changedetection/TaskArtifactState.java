@@ -15,8 +15,10 @@
  */
 package org.gradle.api.internal.changedetection;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.TaskExecutionHistory;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.hash.HashValue;
 
 import java.util.Collection;
 
@@ -33,6 +35,15 @@ public interface TaskArtifactState {
 
     IncrementalTaskInputs getInputChanges();
 
+    /**
+     * Calculates the key under which the outputs of the task are stored in the task output cache, from the same task type, input property and
+     * input file state that {@link #isUpToDate(java.util.Collection)} uses.
+     *
+     * @return the cache key, or null when the outputs of the task cannot be cached.
+     */
+    @Nullable
+    HashValue calculateCacheKey();
+
     /**
      * Called before the task is to be executed. Note that {@link #isUpToDate(java.util.Collection)} may not necessarily have been called.
      */
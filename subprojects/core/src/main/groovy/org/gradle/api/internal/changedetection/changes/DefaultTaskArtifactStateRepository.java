@@ -28,7 +28,9 @@ import org.gradle.api.internal.changedetection.state.FileCollectionSnapshotter;
 import org.gradle.api.internal.changedetection.state.TaskExecution;
 import org.gradle.api.internal.changedetection.state.TaskHistoryRepository;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyCalculator;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.util.ArrayList;
@@ -42,15 +44,17 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
     private final FileCollectionSnapshotter inputFilesSnapshotter;
     private final FileCollectionSnapshotter discoveredFilesSnapshotter;
     private final Instantiator instantiator;
+    private final TaskCacheKeyCalculator cacheKeyCalculator;
 
     public DefaultTaskArtifactStateRepository(TaskHistoryRepository taskHistoryRepository, Instantiator instantiator,
                                               FileCollectionSnapshotter outputFilesSnapshotter, FileCollectionSnapshotter inputFilesSnapshotter,
-                                              FileCollectionSnapshotter discoveredFileCollectionSnapshotter) {
+                                              FileCollectionSnapshotter discoveredFileCollectionSnapshotter, TaskCacheKeyCalculator cacheKeyCalculator) {
         this.taskHistoryRepository = taskHistoryRepository;
         this.instantiator = instantiator;
         this.outputFilesSnapshotter = outputFilesSnapshotter;
         this.inputFilesSnapshotter = inputFilesSnapshotter;
         this.discoveredFilesSnapshotter = discoveredFileCollectionSnapshotter;
+        this.cacheKeyCalculator = cacheKeyCalculator;
     }
 
     public TaskArtifactState getStateFor(final TaskInternal task) {
@@ -108,6 +112,11 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             return lastExecution != null && lastExecution.getOutputFilesSnapshot() != null ? lastExecution.getOutputFilesSnapshot().getFiles() : new SimpleFileCollection();
         }
 
+        public HashValue calculateCacheKey() {
+            TaskUpToDateState states = getStates();
+            return cacheKeyCalculator.calculate(task, history.getCurrentExecution(), states.getInputFilesCollectionSnapshot());
+        }
+
         public TaskExecutionHistory getExecutionHistory() {
             return this;
         }
@@ -22,6 +22,7 @@ import org.gradle.api.internal.changedetection.TaskArtifactState;
 import org.gradle.api.internal.changedetection.TaskArtifactStateRepository;
 import org.gradle.api.internal.changedetection.state.FilesSnapshotSet;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.util.Collection;
@@ -77,6 +78,11 @@ public class ShortCircuitTaskArtifactStateRepository implements TaskArtifactStat
             return instantiator.newInstance(RebuildIncrementalTaskInputs.class, task, FilesSnapshotSet.EMPTY);
         }
 
+        public HashValue calculateCacheKey() {
+            // Task is being forced to run, so do not use its cached outputs
+            return null;
+        }
+
         public TaskExecutionHistory getExecutionHistory() {
             return delegate.getExecutionHistory();
         }
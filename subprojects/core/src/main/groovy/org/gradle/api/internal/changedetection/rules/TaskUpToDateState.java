@@ -26,6 +26,7 @@ import org.gradle.api.internal.changedetection.state.*;
 public class TaskUpToDateState {
     private static final int MAX_OUT_OF_DATE_MESSAGES = 3;
     private final FilesSnapshotSet inputFilesSnapshot;
+    private final FileCollectionSnapshot inputFilesCollectionSnapshot;
 
     private TaskStateChanges noHistoryState;
     private TaskStateChanges inputFilesState;
@@ -55,6 +56,7 @@ public class TaskUpToDateState {
         try {
             FileCollectionSnapshot inputFilesSnapshot = inputFilesSnapshotter.snapshot(task.getInputs().getFiles());
             this.inputFilesSnapshot = inputFilesSnapshot.getSnapshot();
+            this.inputFilesCollectionSnapshot = inputFilesSnapshot;
             inputFilesState = caching(InputFilesStateChangeRule.create(lastExecution, thisExecution, inputFilesSnapshot));
         } catch (UncheckedIOException e) {
             throw new UncheckedIOException(String.format("Failed to capture snapshot of input files for task '%s' during up-to-date check.", task.getName()), e);
@@ -91,6 +93,10 @@ public class TaskUpToDateState {
         return inputFilesSnapshot;
     }
 
+    public FileCollectionSnapshot getInputFilesCollectionSnapshot() {
+        return inputFilesCollectionSnapshot;
+    }
+
     public DiscoveredTaskStateChanges getDiscoveredInputFilesChanges() {
         return discoveredInputFilesState;
     }
@@ -18,6 +18,7 @@ package org.gradle.api.internal.changedetection.state;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentStore;
 import org.gradle.internal.serialize.Decoder;
@@ -51,10 +52,12 @@ public class CachingFileSnapshotter implements FileSnapshotter {
         FileInfo info = cache.get(absolutePath);
 
         if (info != null && length == info.length && timestamp == info.timestamp) {
+            TaskExecutionMetrics.hashReused();
             return info;
         }
 
         byte[] hash = hasher.hash(file);
+        TaskExecutionMetrics.fileHashed(length);
         info = new FileInfo(hash, length, timestamp);
         cache.put(stringInterner.intern(absolutePath), info);
         return info;
@@ -23,7 +23,11 @@ import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.file.FileTreeInternal;
 import org.gradle.api.internal.file.collections.DefaultFileCollectionResolveContext;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.api.internal.file.collections.FileTreeAdapter;
+import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
 import org.gradle.internal.serialize.SerializerRegistry;
 import org.gradle.util.ChangeListener;
 import org.gradle.util.NoOpChangeListener;
@@ -36,11 +40,17 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
     private final FileSnapshotter snapshotter;
     private TaskArtifactStateCacheAccess cacheAccess;
     private final StringInterner stringInterner;
+    private final FileSystemStateCache fileSystemStateCache;
 
     public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner) {
+        this(snapshotter, cacheAccess, stringInterner, new NoOpFileSystemStateCache());
+    }
+
+    public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess, StringInterner stringInterner, FileSystemStateCache fileSystemStateCache) {
         this.snapshotter = snapshotter;
         this.cacheAccess = cacheAccess;
         this.stringInterner = stringInterner;
+        this.fileSystemStateCache = fileSystemStateCache;
     }
 
     public void registerSerializers(SerializerRegistry<FileCollectionSnapshot> registry) {
@@ -56,6 +66,7 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
         final List<File> missingFiles = Lists.newArrayList();
 
         visitFiles(input, allFileVisitDetails, missingFiles);
+        TaskExecutionMetrics.filesVisited(allFileVisitDetails.size());
 
         if (allFileVisitDetails.isEmpty() && missingFiles.isEmpty()) {
             return new FileCollectionSnapshotImpl(Collections.<String, IncrementalFileSnapshot>emptyMap());
@@ -71,7 +82,7 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
                         if (fileDetails.isDirectory()) {
                             snapshots.put(absolutePath, DirSnapshot.getInstance());
                         } else {
-                            snapshots.put(absolutePath, new FileHashSnapshot(snapshotter.snapshot(fileDetails).getHash()));
+                            snapshots.put(absolutePath, new FileHashSnapshot(fileSystemStateCache.snapshot(fileDetails, snapshotter).getHash()));
                         }
                     }
                 }
@@ -92,19 +103,32 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
         context.add(input);
         List<FileTreeInternal> fileTrees = context.resolveAsFileTrees();
 
+        FileVisitor visitor = new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+                allFileVisitDetails.add(dirDetails);
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                allFileVisitDetails.add(fileDetails);
+            }
+        };
         for (FileTreeInternal fileTree : fileTrees) {
-            fileTree.visitTreeOrBackingFile(new FileVisitor() {
-                @Override
-                public void visitDir(FileVisitDetails dirDetails) {
-                    allFileVisitDetails.add(dirDetails);
-                }
+            if (!visitRetainedTree(fileTree, visitor)) {
+                fileTree.visitTreeOrBackingFile(visitor);
+            }
+        }
+    }
 
-                @Override
-                public void visitFile(FileVisitDetails fileDetails) {
-                    allFileVisitDetails.add(fileDetails);
-                }
-            });
+    private boolean visitRetainedTree(FileTreeInternal fileTree, FileVisitor visitor) {
+        if (fileTree instanceof FileTreeAdapter) {
+            MinimalFileTree tree = ((FileTreeAdapter) fileTree).getTree();
+            if (tree instanceof DirectoryFileTree) {
+                return fileSystemStateCache.visitTree((DirectoryFileTree) tree, visitor);
+            }
         }
+        return false;
     }
 
     interface IncrementalFileSnapshot {
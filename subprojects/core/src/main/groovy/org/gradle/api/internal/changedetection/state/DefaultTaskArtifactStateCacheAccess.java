@@ -38,7 +38,7 @@ public class DefaultTaskArtifactStateCacheAccess implements TaskArtifactStateCac
         cache = cacheRepository
                 .cache(gradle, "taskArtifacts")
                 .withDisplayName("task history cache")
-                .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                .withLockOptions(mode(FileLockManager.LockMode.None).concurrentAccess()) // Lock on demand, shared by all task workers
                 .open();
     }
 
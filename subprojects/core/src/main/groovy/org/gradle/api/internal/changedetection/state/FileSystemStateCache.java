@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+
+/**
+ * Retains the state of directory trees and the snapshots of their files across builds.
+ */
+public interface FileSystemStateCache {
+    /**
+     * Visits the given tree using the retained state, if possible.
+     *
+     * @return true if the tree was visited, false if the caller should visit the tree itself.
+     */
+    boolean visitTree(DirectoryFileTree tree, FileVisitor visitor);
+
+    /**
+     * Takes a snapshot of the given file, reusing the retained snapshot when the file was visited by {@link #visitTree(DirectoryFileTree, FileVisitor)}.
+     */
+    FileSnapshot snapshot(FileVisitDetails fileDetails, FileSnapshotter snapshotter);
+}
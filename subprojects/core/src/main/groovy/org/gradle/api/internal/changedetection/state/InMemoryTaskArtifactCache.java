@@ -18,6 +18,8 @@ package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.cache.*;
 import org.gradle.api.internal.cache.HeapProportionalSizer;
+import org.gradle.api.internal.cache.ReleasableCache;
+import org.gradle.api.internal.cache.ReleasableCacheRegistry;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -66,12 +68,27 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
 
 
     private final Object lock = new Object();
-    private final Cache<String, Cache<Object, Object>> cache = CacheBuilder.newBuilder()
+    private final ReleasableCacheRegistry releasableCacheRegistry;
+    private final Cache<String, ReleasableData> cache = CacheBuilder.newBuilder()
             .maximumSize(CACHE_CAPS.size() * 2) //X2 to factor in a child build (for example buildSrc)
+            .removalListener(new RemovalListener<String, ReleasableData>() {
+                @Override
+                public void onRemoval(RemovalNotification<String, ReleasableData> notification) {
+                    releasableCacheRegistry.unregister(notification.getValue());
+                }
+            })
             .build();
 
     private final Map<String, FileLock.State> states = new HashMap<String, FileLock.State>();
 
+    public InMemoryTaskArtifactCache() {
+        this(new ReleasableCacheRegistry());
+    }
+
+    public InMemoryTaskArtifactCache(ReleasableCacheRegistry releasableCacheRegistry) {
+        this.releasableCacheRegistry = releasableCacheRegistry;
+    }
+
     public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(final String cacheId, String cacheName, final MultiProcessSafePersistentIndexedCache<K, V> original) {
         final Cache<Object, Object> data = loadData(cacheId, cacheName);
 
@@ -83,23 +100,29 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
             public V get(K key) {
                 assert key instanceof String || key instanceof Long || key instanceof File : "Unsupported key type: " + key;
                 Object value = data.getIfPresent(key);
+                if (value == null) {
+                    // Load under the lock, so that a value read from the backing cache cannot replace one written concurrently by another thread
+                    synchronized (this) {
+                        value = data.getIfPresent(key);
+                        if (value == null) {
+                            V out = original.get(key);
+                            value = out == null ? NULL : out;
+                            data.put(key, value);
+                        }
+                    }
+                }
                 if (value == NULL) {
                     return null;
                 }
-                if (value != null) {
-                    return (V) value;
-                }
-                V out = original.get(key);
-                data.put(key, out == null ? NULL : out);
-                return out;
+                return (V) value;
             }
 
-            public void put(K key, V value) {
+            public synchronized void put(K key, V value) {
                 original.put(key, value);
                 data.put(key, value);
             }
 
-            public void remove(K key) {
+            public synchronized void remove(K key) {
                 data.put(key, NULL);
                 original.remove(key);
             }
@@ -126,22 +149,49 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
     }
 
     private Cache<Object, Object> loadData(String cacheId, String cacheName) {
-        Cache<Object, Object> theData;
+        ReleasableData releasableData;
         synchronized (lock) {
-            theData = this.cache.getIfPresent(cacheId);
-            if (theData != null) {
-                LOG.info("In-memory cache of {}: Size{{}}, {}", cacheId, theData.size() , theData.stats());
+            releasableData = this.cache.getIfPresent(cacheId);
+            if (releasableData != null) {
+                LOG.info("In-memory cache of {}: Size{{}}, {}", cacheId, releasableData.data.size() , releasableData.data.stats());
             } else {
                 Integer maxSize = CACHE_CAPS.get(cacheName);
                 assert maxSize != null : "Unknown cache.";
                 LOG.info("Creating In-memory cache of {}: MaxSize{{}}", cacheId, maxSize);
                 LoggingEvictionListener evictionListener = new LoggingEvictionListener(cacheId, maxSize);
-                theData = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener).build();
+                Cache<Object, Object> theData = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener).build();
                 evictionListener.setCache(theData);
-                this.cache.put(cacheId, theData);
+                releasableData = new ReleasableData(cacheId, theData);
+                this.cache.put(cacheId, releasableData);
+                releasableCacheRegistry.register(releasableData);
             }
+            releasableData.lastUsed = System.currentTimeMillis();
+        }
+        return releasableData.data;
+    }
+
+    private static class ReleasableData implements ReleasableCache {
+        private final String cacheId;
+        private final Cache<Object, Object> data;
+        private volatile long lastUsed;
+
+        private ReleasableData(String cacheId, Cache<Object, Object> data) {
+            this.cacheId = cacheId;
+            this.data = data;
+        }
+
+        public long getLastUsed() {
+            return data.size() == 0 ? 0 : lastUsed;
+        }
+
+        public void release() {
+            data.invalidateAll();
+            lastUsed = 0;
+        }
+
+        public String getDisplayName() {
+            return "in-memory cache of " + cacheId;
         }
-        return theData;
     }
 
     private static class LoggingEvictionListener implements RemovalListener<Object, Object> {
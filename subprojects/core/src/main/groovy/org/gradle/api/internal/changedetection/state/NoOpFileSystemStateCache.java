@@ -0,0 +1,31 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+
+public class NoOpFileSystemStateCache implements FileSystemStateCache {
+    public boolean visitTree(DirectoryFileTree tree, FileVisitor visitor) {
+        return false;
+    }
+
+    public FileSnapshot snapshot(FileVisitDetails fileDetails, FileSnapshotter snapshotter) {
+        return snapshotter.snapshot(fileDetails);
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.cache.ReleasableCache;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.FileSystemSubset;
+import org.gradle.api.internal.file.TemporaryFileProvider;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.filewatch.FileWatcher;
+import org.gradle.internal.filewatch.FileWatcherEvent;
+import org.gradle.internal.filewatch.FileWatcherFactory;
+import org.gradle.internal.filewatch.FileWatcherListener;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link FileSystemStateCache} that retains directory listings, file metadata and file snapshots for the life of the process, and uses a
+ * {@link FileWatcher} to discard the state of directories that change. A tree whose directories have not changed is visited without listing
+ * or stat'ing any file, and without hashing or looking up the hash of any file.
+ *
+ * <p>Watch events are delivered asynchronously. Before the retained state of a tree is used, a cookie file is created in a private directory
+ * watched by the same watcher, and the cache waits for its event. As the events of a single watcher are delivered in order on Linux, all changes
+ * made before the cookie was created have been applied to the cache at that point.</p>
+ *
+ * <p>Changes made through a symbolic link are not signalled for the link, so a tree whose root is reached through a symbolic link, or that
+ * contains a symbolic link, is not handled by this cache and is visited by the caller instead.</p>
+ */
+public class WatchingFileSystemStateCache implements FileSystemStateCache, ReleasableCache, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatchingFileSystemStateCache.class);
+    private static final long SYNC_TIMEOUT_MILLIS = 1000;
+
+    private final FileWatcherFactory fileWatcherFactory;
+    private final FileSystem fileSystem;
+    private final TemporaryFileProvider temporaryFileProvider;
+    private final ConcurrentMap<String, DirectoryState> directories = new ConcurrentHashMap<String, DirectoryState>();
+    private final ConcurrentMap<String, CountDownLatch> pendingCookies = new ConcurrentHashMap<String, CountDownLatch>();
+    private final AtomicLong changeCount = new AtomicLong();
+    private final AtomicLong cookieCount = new AtomicLong();
+    private final List<File> watchedRoots = new ArrayList<File>();
+    private final Object lock = new Object();
+    private FileWatcher watcher;
+    private File cookieDir;
+    private volatile boolean failed;
+    private volatile long lastUsed;
+
+    public WatchingFileSystemStateCache(FileWatcherFactory fileWatcherFactory, FileSystem fileSystem, TemporaryFileProvider temporaryFileProvider) {
+        this.fileWatcherFactory = fileWatcherFactory;
+        this.fileSystem = fileSystem;
+        this.temporaryFileProvider = temporaryFileProvider;
+    }
+
+    public boolean visitTree(DirectoryFileTree tree, FileVisitor visitor) {
+        File root = tree.getDir();
+        if (!root.isDirectory() || !isCanonical(root) || !watch(root) || !sync()) {
+            return false;
+        }
+        lastUsed = System.currentTimeMillis();
+        DirectoryState rootState = getDirectoryState(root);
+        if (rootState == null) {
+            // Not a directory, let the tree deal with it
+            return false;
+        }
+
+        // Collect the whole tree before visiting it, so that nothing is visited when the tree turns out to contain a symbolic link
+        AtomicBoolean stopFlag = new AtomicBoolean();
+        List<FileVisitDetails> elements = new ArrayList<FileVisitDetails>();
+        if (!collectDirectory(rootState, root, new RelativePath(false), tree.getPatterns().getAsSpec(), stopFlag, elements)) {
+            return false;
+        }
+        for (int i = 0; !stopFlag.get() && i < elements.size(); i++) {
+            FileVisitDetails details = elements.get(i);
+            if (details.isDirectory()) {
+                visitor.visitDir(details);
+            } else {
+                visitor.visitFile(details);
+            }
+        }
+        return true;
+    }
+
+    public FileSnapshot snapshot(FileVisitDetails fileDetails, FileSnapshotter snapshotter) {
+        if (!(fileDetails instanceof WatchedFileVisitDetails)) {
+            return snapshotter.snapshot(fileDetails);
+        }
+        // When the file changes, the listing that contains the entry is discarded, so the snapshot is never used again
+        FileEntry entry = ((WatchedFileVisitDetails) fileDetails).entry;
+        FileSnapshot snapshot = entry.snapshot;
+        if (snapshot == null) {
+            snapshot = snapshotter.snapshot(fileDetails);
+            entry.snapshot = snapshot;
+        } else {
+            TaskExecutionMetrics.hashReused();
+        }
+        return snapshot;
+    }
+
+    public long getLastUsed() {
+        return directories.isEmpty() ? 0 : lastUsed;
+    }
+
+    public void release() {
+        // Listings that are being read are not retained either
+        changeCount.incrementAndGet();
+        directories.clear();
+    }
+
+    public String getDisplayName() {
+        return "file system state cache";
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            failed = true;
+            directories.clear();
+            if (watcher != null) {
+                watcher.stop();
+                watcher = null;
+            }
+            if (cookieDir != null) {
+                GFileUtils.deleteQuietly(cookieDir);
+                cookieDir = null;
+            }
+        }
+    }
+
+    /**
+     * Collects the entries of a directory in the order of the default directory walker: the files of the directory, followed by its subdirectories.
+     *
+     * @return false when the directory or one of its subdirectories contains a symbolic link.
+     */
+    private boolean collectDirectory(DirectoryState state, File dir, RelativePath path, Spec<FileTreeElement> spec, AtomicBoolean stopFlag, List<FileVisitDetails> elements) {
+        if (state.containsSymbolicLink) {
+            return false;
+        }
+        List<FileVisitDetails> subdirectories = new ArrayList<FileVisitDetails>();
+        for (FileEntry entry : state.entries) {
+            WatchedFileVisitDetails details = new WatchedFileVisitDetails(new File(dir, entry.name), path.append(entry.isFile, entry.name), stopFlag, fileSystem, entry);
+            if (spec.isSatisfiedBy(details)) {
+                if (entry.isFile) {
+                    elements.add(details);
+                } else {
+                    subdirectories.add(details);
+                }
+            }
+        }
+        for (FileVisitDetails subdirectory : subdirectories) {
+            DirectoryState subdirectoryState = getDirectoryState(subdirectory.getFile());
+            if (subdirectoryState == null) {
+                throw new GradleException(String.format("Could not list contents of '%s'.", subdirectory.getFile()));
+            }
+            elements.add(subdirectory);
+            if (!collectDirectory(subdirectoryState, subdirectory.getFile(), subdirectory.getRelativePath(), spec, stopFlag, elements)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private DirectoryState getDirectoryState(File dir) {
+        String path = dir.getAbsolutePath();
+        DirectoryState state = directories.get(path);
+        if (state != null) {
+            return state;
+        }
+
+        long changesBefore = changeCount.get();
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return null;
+        }
+        FileEntry[] entries = new FileEntry[children.length];
+        boolean containsSymbolicLink = false;
+        for (int i = 0; i < children.length; i++) {
+            File child = children[i];
+            entries[i] = new FileEntry(child.getName(), child.isFile(), child.lastModified(), child.length());
+            containsSymbolicLink = containsSymbolicLink || !isCanonical(child);
+        }
+        state = new DirectoryState(entries, containsSymbolicLink);
+
+        // Only retain the listing when no change was received while reading it
+        if (changeCount.get() == changesBefore) {
+            directories.put(path, state);
+        }
+        return state;
+    }
+
+    /**
+     * Returns false when the file is reached through a symbolic link. The directories of a handled tree are all canonical, so this is the case for a
+     * file in such a directory only when the file itself is a symbolic link.
+     */
+    private static boolean isCanonical(File file) {
+        try {
+            return file.getCanonicalPath().equals(file.getAbsolutePath());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean watch(File root) {
+        synchronized (lock) {
+            if (failed) {
+                return false;
+            }
+            for (File watchedRoot : watchedRoots) {
+                if (root.equals(watchedRoot) || root.getPath().startsWith(watchedRoot.getPath() + File.separator)) {
+                    return true;
+                }
+            }
+            try {
+                if (watcher == null) {
+                    watcher = fileWatcherFactory.watch(new Action<Throwable>() {
+                        public void execute(Throwable throwable) {
+                            LOGGER.info("Could not watch the file system, no longer retaining file system state.", throwable);
+                            failed = true;
+                            directories.clear();
+                        }
+                    }, new FileWatcherListener() {
+                        public void onChange(FileWatcher watcher, FileWatcherEvent event) {
+                            WatchingFileSystemStateCache.this.onChange(event);
+                        }
+                    });
+                    cookieDir = GFileUtils.canonicalise(temporaryFileProvider.createTemporaryDirectory("gradle-watch", null));
+                    watcher.watch(FileSystemSubset.builder().add(new DirectoryFileTree(cookieDir)).build());
+                }
+                watcher.watch(FileSystemSubset.builder().add(new DirectoryFileTree(root)).build());
+                watchedRoots.add(root);
+                return true;
+            } catch (Exception e) {
+                // For example, when the limit on the number of watches has been reached
+                LOGGER.info("Could not watch " + root + ", no longer retaining file system state.", e);
+                failed = true;
+                directories.clear();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Waits until all changes made before this method was called have been received from the watcher.
+     */
+    private boolean sync() {
+        File cookie;
+        synchronized (lock) {
+            if (failed) {
+                return false;
+            }
+            cookie = new File(cookieDir, "cookie-" + cookieCount.incrementAndGet());
+        }
+        CountDownLatch received = new CountDownLatch(1);
+        pendingCookies.put(cookie.getAbsolutePath(), received);
+        try {
+            if (!cookie.createNewFile()) {
+                return false;
+            }
+            if (!received.await(SYNC_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.debug("Timed out waiting for file system changes to be received, discarding file system state.");
+                directories.clear();
+                return false;
+            }
+            return !failed;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            pendingCookies.remove(cookie.getAbsolutePath());
+            GFileUtils.deleteQuietly(cookie);
+        }
+    }
+
+    private void onChange(FileWatcherEvent event) {
+        File file = event.getFile();
+        if (event.getType() == FileWatcherEvent.Type.UNDEFINED || file == null) {
+            // Events may have been lost
+            changeCount.incrementAndGet();
+            directories.clear();
+            return;
+        }
+
+        String path = file.getAbsolutePath();
+        if (file.getParentFile() != null && file.getParentFile().equals(cookieDir)) {
+            CountDownLatch received = pendingCookies.get(path);
+            if (received != null) {
+                received.countDown();
+            }
+            return;
+        }
+
+        // Discard the listing of the parent, which holds the metadata of the file, and the state of the file itself when it is a directory
+        changeCount.incrementAndGet();
+        File parent = file.getParentFile();
+        if (parent != null) {
+            directories.remove(parent.getAbsolutePath());
+        }
+        if (directories.remove(path) != null || event.getType() == FileWatcherEvent.Type.DELETE) {
+            String prefix = path + File.separator;
+            for (Iterator<String> iterator = directories.keySet().iterator(); iterator.hasNext();) {
+                if (iterator.next().startsWith(prefix)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static class DirectoryState {
+        final FileEntry[] entries;
+        final boolean containsSymbolicLink;
+
+        DirectoryState(FileEntry[] entries, boolean containsSymbolicLink) {
+            this.entries = entries;
+            this.containsSymbolicLink = containsSymbolicLink;
+        }
+    }
+
+    private static class FileEntry {
+        final String name;
+        final boolean isFile;
+        final long lastModified;
+        final long length;
+        volatile FileSnapshot snapshot;
+
+        FileEntry(String name, boolean isFile, long lastModified, long length) {
+            this.name = name;
+            this.isFile = isFile;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
+    private static class WatchedFileVisitDetails extends DefaultFileVisitDetails {
+        private final FileEntry entry;
+
+        WatchedFileVisitDetails(File file, RelativePath relativePath, AtomicBoolean stop, FileSystem fileSystem, FileEntry entry) {
+            super(file, relativePath, stop, fileSystem, fileSystem, !entry.isFile, entry.lastModified, entry.length);
+            this.entry = entry;
+        }
+    }
+}
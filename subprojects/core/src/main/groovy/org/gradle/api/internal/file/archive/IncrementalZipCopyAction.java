@@ -0,0 +1,624 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.Zip64RequiredException;
+import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.api.tasks.bundling.ZipEntryCompression;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Creates a ZIP file, reusing the compressed content of entries from the previous version of the ZIP file where possible.
+ *
+ * <p>The location and checksums of each entry are recorded in a state file. An entry whose source file has the same size and timestamp as when the
+ * archive was last created, or whose content has the same hash as some entry of the previous archive, is copied from the previous archive without
+ * being compressed again. The remaining entries are compressed in parallel. Entries are always written in the order in which they are visited, as soon as
+ * they and the entries before them are ready, and visiting waits while {@link #MAX_PENDING_ENTRIES} entries are waiting to be written.</p>
+ *
+ * <p>The content of an entry that has no source file, such as filtered content or an entry of another archive, is captured when the entry is visited.
+ * Small content is kept in memory, and larger content in a temporary file until the archive has been written.</p>
+ */
+public class IncrementalZipCopyAction implements CopyAction {
+    private static final Logger LOGGER = Logging.getLogger(IncrementalZipCopyAction.class);
+    private static final byte STATE_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_IN_MEMORY_SIZE = 1024 * 1024;
+    private static final int MAX_PENDING_ENTRIES = 32;
+
+    private final File zipFile;
+    private final ZipEntryCompression entryCompression;
+    private final boolean allowZip64;
+    private final String encoding;
+    private final DocumentationRegistry documentationRegistry;
+    private final File stateFile;
+    private final BuildOperationProcessor buildOperationProcessor;
+
+    public IncrementalZipCopyAction(File zipFile, ZipEntryCompression entryCompression, boolean allowZip64, @Nullable String encoding, DocumentationRegistry documentationRegistry,
+                                    File stateFile, BuildOperationProcessor buildOperationProcessor) {
+        this.zipFile = zipFile;
+        this.entryCompression = entryCompression;
+        this.allowZip64 = allowZip64;
+        this.encoding = encoding;
+        this.documentationRegistry = documentationRegistry;
+        this.stateFile = stateFile;
+        this.buildOperationProcessor = buildOperationProcessor;
+    }
+
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        int method = entryCompression == ZipEntryCompression.DEFLATED ? ZipEntry.DEFLATED : ZipEntry.STORED;
+        PreviousArchive previous = readState(method);
+        // The recorded state is no longer valid once the archive is replaced
+        stateFile.delete();
+
+        List<ArchiveEntry> entries = new ArrayList<ArchiveEntry>();
+        File tempFile = new File(zipFile.getParentFile(), zipFile.getName() + ".tmp");
+        try {
+            writeArchive(stream, tempFile, entries, previous, method);
+            if (zipFile.exists() && !zipFile.delete() || !tempFile.renameTo(zipFile)) {
+                throw new IOException(String.format("Could not move '%s' to '%s'.", tempFile, zipFile));
+            }
+            writeState(entries, method);
+        } catch (Zip64RequiredException e) {
+            throw new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+                    String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+            );
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        } finally {
+            for (ArchiveEntry entry : entries) {
+                entry.discardTemporaryData();
+            }
+            // Left behind when the archive could not be written
+            tempFile.delete();
+        }
+
+        return new SimpleWorkResult(true);
+    }
+
+    private void writeArchive(CopyActionProcessingStream stream, File tempFile, List<ArchiveEntry> entries, PreviousArchive previous, int method) throws IOException {
+        Charset charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        RandomAccessFile previousArchive = previous.entries.isEmpty() ? null : new RandomAccessFile(zipFile, "r");
+        try {
+            ZipArchiveWriter writer = new ZipArchiveWriter(tempFile, allowZip64, charset);
+            try {
+                BuildOperationQueue<CompressEntry> queue = buildOperationProcessor.newQueue(new CompressEntryWorker(), null);
+                StreamAction action = new StreamAction(entries, queue, previous, method, writer, previousArchive == null ? null : previousArchive.getChannel());
+                try {
+                    try {
+                        stream.process(action);
+                    } finally {
+                        queue.waitForCompletion();
+                    }
+                } catch (UncheckedIOException e) {
+                    // Thrown by the stream action when an entry cannot be written
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw e;
+                }
+                action.writeReadyEntries(0);
+            } finally {
+                writer.close();
+            }
+        } finally {
+            if (previousArchive != null) {
+                previousArchive.close();
+            }
+        }
+    }
+
+    private PreviousArchive readState(int method) {
+        PreviousArchive previous = new PreviousArchive();
+        if (!stateFile.isFile() || !zipFile.isFile()) {
+            return previous;
+        }
+        try {
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)));
+            try {
+                if (inputStream.readByte() != STATE_VERSION
+                        || inputStream.readLong() != zipFile.length()
+                        || inputStream.readLong() != zipFile.lastModified()
+                        || inputStream.readInt() != method) {
+                    return previous;
+                }
+                int count = inputStream.readInt();
+                for (int i = 0; i < count; i++) {
+                    String sourceKey = inputStream.readUTF();
+                    EntryData data = new EntryData(inputStream.readUTF(), inputStream.readLong(), inputStream.readLong(), inputStream.readLong(), inputStream.readLong());
+                    if (sourceKey.length() > 0) {
+                        previous.bySource.put(sourceKey, data);
+                    }
+                    previous.byContentHash.put(data.contentHash, data);
+                    previous.entries.add(data);
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not read archive state from {}, compressing all entries.", stateFile, e);
+            return new PreviousArchive();
+        }
+        return previous;
+    }
+
+    private void writeState(List<ArchiveEntry> entries, int method) throws IOException {
+        List<ArchiveEntry> files = new ArrayList<ArchiveEntry>();
+        for (ArchiveEntry entry : entries) {
+            if (entry.data != null) {
+                files.add(entry);
+            }
+        }
+        stateFile.getParentFile().mkdirs();
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile)));
+        try {
+            outputStream.writeByte(STATE_VERSION);
+            outputStream.writeLong(zipFile.length());
+            outputStream.writeLong(zipFile.lastModified());
+            outputStream.writeInt(method);
+            outputStream.writeInt(files.size());
+            for (ArchiveEntry entry : files) {
+                EntryData data = entry.data;
+                outputStream.writeUTF(entry.sourceKey == null ? "" : entry.sourceKey);
+                outputStream.writeUTF(data.contentHash);
+                outputStream.writeLong(data.crc);
+                outputStream.writeLong(data.size);
+                outputStream.writeLong(data.compressedSize);
+                outputStream.writeLong(data.dataOffset);
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static String sourceKeyOf(File file) {
+        return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    private class StreamAction implements CopyActionProcessingStreamAction {
+        private final List<ArchiveEntry> entries;
+        private final LinkedList<ArchiveEntry> pending = new LinkedList<ArchiveEntry>();
+        private final BuildOperationQueue<CompressEntry> queue;
+        private final PreviousArchive previous;
+        private final int method;
+        private final ZipArchiveWriter writer;
+        private final FileChannel previousArchive;
+
+        StreamAction(List<ArchiveEntry> entries, BuildOperationQueue<CompressEntry> queue, PreviousArchive previous, int method, ZipArchiveWriter writer,
+                     @Nullable FileChannel previousArchive) {
+            this.entries = entries;
+            this.queue = queue;
+            this.previous = previous;
+            this.method = method;
+            this.writer = writer;
+            this.previousArchive = previousArchive;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            addEntry(details);
+            writeReadyEntries(MAX_PENDING_ENTRIES);
+        }
+
+        /**
+         * Writes the oldest entries that are ready, waiting for an entry to become ready while more than the given number of entries are pending.
+         */
+        void writeReadyEntries(int maxPending) {
+            try {
+                while (!pending.isEmpty() && (pending.size() > maxPending || pending.getFirst().isReady())) {
+                    ArchiveEntry entry = pending.removeFirst();
+                    entry.awaitReady();
+                    entry.writeTo(writer, previousArchive);
+                    entry.discardTemporaryData();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void addEntry(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                // Trailing slash in name indicates that entry is a directory
+                ArchiveEntry entry = new ArchiveEntry(details.getRelativePath().getPathString() + '/', details.getLastModified(), UnixStat.DIR_FLAG | details.getMode(), null, ZipEntry.STORED);
+                entries.add(entry);
+                pending.add(entry);
+                entry.ready.countDown();
+                return;
+            }
+
+            File source = details.getSourceFile();
+            String sourceKey = source == null ? null : sourceKeyOf(source);
+            ArchiveEntry entry = new ArchiveEntry(details.getRelativePath().getPathString(), details.getLastModified(), UnixStat.FILE_FLAG | details.getMode(), sourceKey, method);
+            entries.add(entry);
+            pending.add(entry);
+
+            EntryData unchanged = sourceKey == null ? null : previous.bySource.get(sourceKey);
+            if (unchanged != null) {
+                LOGGER.debug("Reusing ZIP entry {} as its source has not changed.", entry.name);
+                entry.data = unchanged;
+                entry.ready.countDown();
+                return;
+            }
+            byte[] content = null;
+            if (source == null) {
+                // The content is filtered or generated, so capture it now
+                ContentCapture capture = new ContentCapture(stateFile.getParentFile());
+                try {
+                    try {
+                        details.copyTo(capture);
+                    } finally {
+                        capture.close();
+                    }
+                } catch (Exception e) {
+                    capture.discard();
+                    entry.ready.countDown();
+                    throw new GradleException(String.format("Could not add %s to ZIP '%s'.", details, zipFile), e);
+                }
+                content = capture.getContent();
+                source = capture.getFile();
+                entry.capturedFile = source;
+            }
+            queue.add(new CompressEntry(entry, source, content, previous.byContentHash, stateFile.getParentFile()));
+        }
+    }
+
+    private static class PreviousArchive {
+        final List<EntryData> entries = new ArrayList<EntryData>();
+        final Map<String, EntryData> bySource = new HashMap<String, EntryData>();
+        final Map<String, EntryData> byContentHash = new HashMap<String, EntryData>();
+    }
+
+    /**
+     * The compressed data of a file entry, as stored in an archive.
+     */
+    private static class EntryData {
+        final String contentHash;
+        final long crc;
+        final long size;
+        final long compressedSize;
+        final long dataOffset;
+
+        EntryData(String contentHash, long crc, long size, long compressedSize, long dataOffset) {
+            this.contentHash = contentHash;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.dataOffset = dataOffset;
+        }
+    }
+
+    private static class ArchiveEntry {
+        final String name;
+        final long lastModified;
+        final int unixMode;
+        final String sourceKey;
+        final int method;
+        // Set for file entries once the data to write is known
+        EntryData data;
+        // The data to write when it is not copied from the previous archive, held either in memory or in a file
+        byte[] compressed;
+        File compressedFile;
+        boolean temporaryFile;
+        // The captured content of an entry without a source file, when too large to keep in memory
+        File capturedFile;
+        // The timestamp of the source file of a stored entry that is written directly from that file
+        long compressedFileLastModified;
+        // Released once the data to write is known, or compressing the entry has failed
+        final CountDownLatch ready = new CountDownLatch(1);
+
+        ArchiveEntry(String name, long lastModified, int unixMode, @Nullable String sourceKey, int method) {
+            this.name = name;
+            this.lastModified = lastModified;
+            this.unixMode = unixMode;
+            this.sourceKey = sourceKey;
+            this.method = method;
+        }
+
+        boolean isDirectory() {
+            return (unixMode & UnixStat.DIR_FLAG) != 0;
+        }
+
+        boolean isReady() {
+            return ready.getCount() == 0;
+        }
+
+        void awaitReady() {
+            try {
+                ready.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            if (!isDirectory() && data == null) {
+                // The failure is reported once all entries have been compressed
+                throw new GradleException(String.format("Could not compress ZIP entry '%s'.", name));
+            }
+        }
+
+        void writeTo(ZipArchiveWriter writer, @Nullable FileChannel previousArchive) throws IOException {
+            if (isDirectory()) {
+                writer.addDirectory(name, lastModified, unixMode);
+                return;
+            }
+            long dataOffset;
+            if (compressed != null) {
+                dataOffset = writer.addEntry(name, lastModified, unixMode, method, data.crc, data.size, compressed);
+            } else if (compressedFile != null) {
+                if (!temporaryFile && (compressedFile.length() != data.size || compressedFile.lastModified() != compressedFileLastModified)) {
+                    // Otherwise the data written would not match the checksum computed for it
+                    throw new IOException(String.format("File '%s' changed while it was being added to the archive.", compressedFile));
+                }
+                FileInputStream inputStream = new FileInputStream(compressedFile);
+                try {
+                    dataOffset = writer.addEntry(name, lastModified, unixMode, method, data.crc, data.size, inputStream.getChannel(), 0, data.compressedSize);
+                } finally {
+                    inputStream.close();
+                }
+            } else {
+                dataOffset = writer.addEntry(name, lastModified, unixMode, method, data.crc, data.size, previousArchive, data.dataOffset, data.compressedSize);
+            }
+            data = new EntryData(data.contentHash, data.crc, data.size, data.compressedSize, dataOffset);
+        }
+
+        void discardTemporaryData() {
+            compressed = null;
+            if (temporaryFile) {
+                compressedFile.delete();
+            }
+            if (capturedFile != null) {
+                capturedFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Captures the content of an entry in memory, moving it to a temporary file once it exceeds {@link #MAX_IN_MEMORY_SIZE}.
+     */
+    private static class ContentCapture extends OutputStream {
+        private final File tempDir;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private File file;
+        private OutputStream fileOutputStream;
+
+        ContentCapture(File tempDir) {
+            this.tempDir = tempDir;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (buffer != null && buffer.size() + length > MAX_IN_MEMORY_SIZE) {
+                tempDir.mkdirs();
+                file = File.createTempFile("content", ".bin", tempDir);
+                fileOutputStream = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+                buffer.writeTo(fileOutputStream);
+                buffer = null;
+            }
+            if (buffer != null) {
+                buffer.write(bytes, offset, length);
+            } else {
+                fileOutputStream.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOutputStream != null) {
+                fileOutputStream.close();
+            }
+        }
+
+        @Nullable
+        byte[] getContent() {
+            return buffer == null ? null : buffer.toByteArray();
+        }
+
+        @Nullable
+        File getFile() {
+            return file;
+        }
+
+        void discard() {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    private static class CompressEntry implements BuildOperation {
+        private final ArchiveEntry entry;
+        private final File source;
+        private final byte[] content;
+        private final Map<String, EntryData> previousByContentHash;
+        private final File tempDir;
+
+        CompressEntry(ArchiveEntry entry, @Nullable File source, @Nullable byte[] content, Map<String, EntryData> previousByContentHash, File tempDir) {
+            this.entry = entry;
+            this.source = source;
+            this.content = content;
+            this.previousByContentHash = previousByContentHash;
+            this.tempDir = tempDir;
+        }
+
+        void run() throws IOException {
+            long sourceLastModified = content == null ? source.lastModified() : 0;
+            // Hash the content first, as this is much cheaper than compressing it
+            MessageDigest digest = createDigest();
+            CRC32 crc = new CRC32();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            InputStream inputStream = open();
+            try {
+                int count;
+                while ((count = inputStream.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, count);
+                    crc.update(buffer, 0, count);
+                    size += count;
+                }
+            } finally {
+                inputStream.close();
+            }
+            String contentHash = new HashValue(digest.digest()).asHexString();
+
+            EntryData existing = previousByContentHash.get(contentHash);
+            if (existing != null && existing.size == size && existing.crc == crc.getValue()) {
+                LOGGER.debug("Reusing ZIP entry {} as its content has not changed.", entry.name);
+                entry.data = existing;
+                return;
+            }
+
+            long compressedSize;
+            if (entry.method == ZipEntry.STORED) {
+                if (content != null) {
+                    entry.compressed = content;
+                } else {
+                    // Checked again before the entry is written
+                    entry.compressedFile = source;
+                    entry.compressedFileLastModified = sourceLastModified;
+                }
+                compressedSize = size;
+            } else if (size <= MAX_IN_MEMORY_SIZE) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size / 2 + 64);
+                deflate(outputStream, crc.getValue(), size);
+                entry.compressed = outputStream.toByteArray();
+                compressedSize = entry.compressed.length;
+            } else {
+                tempDir.mkdirs();
+                entry.compressedFile = File.createTempFile("entry", ".bin", tempDir);
+                entry.temporaryFile = true;
+                deflate(new FileOutputStream(entry.compressedFile), crc.getValue(), size);
+                compressedSize = entry.compressedFile.length();
+            }
+            entry.data = new EntryData(contentHash, crc.getValue(), size, compressedSize, -1);
+        }
+
+        /**
+         * Compresses the content, which is read again, so checks that it still has the given checksum and size.
+         */
+        private void deflate(OutputStream target, long expectedCrc, long expectedSize) throws IOException {
+            CRC32 crc = new CRC32();
+            long size = 0;
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream outputStream = new DeflaterOutputStream(target, deflater, BUFFER_SIZE);
+                try {
+                    InputStream inputStream = open();
+                    try {
+                        byte[] buffer = new byte[BUFFER_SIZE];
+                        int count;
+                        while ((count = inputStream.read(buffer)) >= 0) {
+                            outputStream.write(buffer, 0, count);
+                            crc.update(buffer, 0, count);
+                            size += count;
+                        }
+                    } finally {
+                        inputStream.close();
+                    }
+                } finally {
+                    outputStream.close();
+                }
+            } finally {
+                deflater.end();
+            }
+            if (crc.getValue() != expectedCrc || size != expectedSize) {
+                throw new IOException(String.format("File '%s' changed while it was being added to the archive.", source));
+            }
+        }
+
+        private InputStream open() throws IOException {
+            if (content != null) {
+                return new ByteArrayInputStream(content);
+            }
+            return new BufferedInputStream(new FileInputStream(source), BUFFER_SIZE);
+        }
+
+        public String getDescription() {
+            return "Compress " + entry.name;
+        }
+
+        private static MessageDigest createDigest() {
+            try {
+                return MessageDigest.getInstance("SHA1");
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class CompressEntryWorker implements BuildOperationWorker<CompressEntry> {
+        public String getDisplayName() {
+            return "ZIP entry compressor";
+        }
+
+        public void execute(CompressEntry operation) {
+            try {
+                operation.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                operation.entry.ready.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.Zip64RequiredException;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes a ZIP file from entries whose data has already been compressed. This allows the data of an entry to be compressed separately from writing
+ * the archive, or to be copied unchanged from another archive.
+ */
+class ZipArchiveWriter implements Closeable {
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final short ZIP64_EXTRA_FIELD_ID = 0x0001;
+    private static final int UTF8_FLAG = 1 << 11;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int STORED_VERSION = 10;
+    private static final int DEFLATED_VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+
+    private final File file;
+    private final FileOutputStream fileOutputStream;
+    private final FileChannel channel;
+    private final OutputStream outputStream;
+    private final boolean allowZip64;
+    private final Charset charset;
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+    private long offset;
+
+    ZipArchiveWriter(File file, boolean allowZip64, Charset charset) throws IOException {
+        this.file = file;
+        this.allowZip64 = allowZip64;
+        this.charset = charset;
+        this.fileOutputStream = new FileOutputStream(file);
+        this.channel = fileOutputStream.getChannel();
+        this.outputStream = new BufferedOutputStream(fileOutputStream, 64 * 1024);
+    }
+
+    /**
+     * Adds an entry with no content.
+     */
+    void addDirectory(String name, long time, int unixMode) throws IOException {
+        startEntry(new Entry(name, time, unixMode, ZipEntry.STORED, 0, 0, 0, true));
+    }
+
+    /**
+     * Adds an entry whose data is the given bytes.
+     *
+     * @return the offset of the data in the archive.
+     */
+    long addEntry(String name, long time, int unixMode, int method, long crc, long size, byte[] data) throws IOException {
+        long dataOffset = startEntry(new Entry(name, time, unixMode, method, crc, size, data.length, false));
+        write(data, data.length);
+        return dataOffset;
+    }
+
+    /**
+     * Adds an entry whose data is read from the given region of a file.
+     *
+     * @return the offset of the data in the archive.
+     */
+    long addEntry(String name, long time, int unixMode, int method, long crc, long size, FileChannel source, long position, long compressedSize) throws IOException {
+        long dataOffset = startEntry(new Entry(name, time, unixMode, method, crc, size, compressedSize, false));
+        outputStream.flush();
+        long transferred = 0;
+        while (transferred < compressedSize) {
+            long count = source.transferTo(position + transferred, compressedSize - transferred, channel);
+            if (count <= 0) {
+                throw new IOException(String.format("Unexpected end of data for ZIP entry '%s'.", name));
+            }
+            transferred += count;
+        }
+        offset += compressedSize;
+        return dataOffset;
+    }
+
+    private long startEntry(Entry entry) throws IOException {
+        entry.localHeaderOffset = offset;
+        boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+        if (zip64) {
+            requireZip64(String.format("%s's size exceeds the limit of 4GByte.", entry.name));
+        }
+        byte[] name = entry.name.getBytes(charset);
+        buffer.clear();
+        buffer.putInt(LOCAL_FILE_HEADER_SIGNATURE);
+        buffer.putShort((short) versionNeeded(entry, zip64));
+        buffer.putShort((short) flags());
+        buffer.putShort((short) entry.method);
+        buffer.putInt(entry.dosTime);
+        buffer.putInt((int) entry.crc);
+        buffer.putInt((int) (zip64 ? ZIP64_MAGIC : entry.compressedSize));
+        buffer.putInt((int) (zip64 ? ZIP64_MAGIC : entry.size));
+        buffer.putShort((short) name.length);
+        buffer.putShort((short) (zip64 ? 20 : 0));
+        writeBuffer();
+        write(name, name.length);
+        if (zip64) {
+            buffer.clear();
+            buffer.putShort(ZIP64_EXTRA_FIELD_ID);
+            buffer.putShort((short) 16);
+            buffer.putLong(entry.size);
+            buffer.putLong(entry.compressedSize);
+            writeBuffer();
+        }
+        entries.add(entry);
+        return offset;
+    }
+
+    public void close() throws IOException {
+        try {
+            writeCentralDirectory();
+            outputStream.flush();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryOffset = offset;
+        for (Entry entry : entries) {
+            boolean sizeZip64 = entry.size >= ZIP64_MAGIC;
+            boolean compressedSizeZip64 = entry.compressedSize >= ZIP64_MAGIC;
+            boolean offsetZip64 = entry.localHeaderOffset >= ZIP64_MAGIC;
+            boolean zip64 = sizeZip64 || compressedSizeZip64 || offsetZip64;
+            if (zip64) {
+                requireZip64("archive's size exceeds the limit of 4GByte.");
+            }
+            int extraLength = zip64 ? 4 + 8 * ((sizeZip64 ? 1 : 0) + (compressedSizeZip64 ? 1 : 0) + (offsetZip64 ? 1 : 0)) : 0;
+            byte[] name = entry.name.getBytes(charset);
+            int versionNeeded = versionNeeded(entry, zip64);
+            buffer.clear();
+            buffer.putInt(CENTRAL_FILE_HEADER_SIGNATURE);
+            buffer.putShort((short) ((PLATFORM_UNIX << 8) | (zip64 ? ZIP64_VERSION : DEFLATED_VERSION)));
+            buffer.putShort((short) versionNeeded);
+            buffer.putShort((short) flags());
+            buffer.putShort((short) entry.method);
+            buffer.putInt(entry.dosTime);
+            buffer.putInt((int) entry.crc);
+            buffer.putInt((int) (compressedSizeZip64 ? ZIP64_MAGIC : entry.compressedSize));
+            buffer.putInt((int) (sizeZip64 ? ZIP64_MAGIC : entry.size));
+            buffer.putShort((short) name.length);
+            buffer.putShort((short) extraLength);
+            buffer.putShort((short) 0);
+            buffer.putShort((short) 0);
+            buffer.putShort((short) 0);
+            buffer.putInt(entry.externalAttributes());
+            buffer.putInt((int) (offsetZip64 ? ZIP64_MAGIC : entry.localHeaderOffset));
+            writeBuffer();
+            write(name, name.length);
+            if (zip64) {
+                buffer.clear();
+                buffer.putShort(ZIP64_EXTRA_FIELD_ID);
+                buffer.putShort((short) (extraLength - 4));
+                if (sizeZip64) {
+                    buffer.putLong(entry.size);
+                }
+                if (compressedSizeZip64) {
+                    buffer.putLong(entry.compressedSize);
+                }
+                if (offsetZip64) {
+                    buffer.putLong(entry.localHeaderOffset);
+                }
+                writeBuffer();
+            }
+        }
+        long centralDirectorySize = offset - centralDirectoryOffset;
+
+        boolean zip64 = entries.size() >= ZIP64_MAGIC_SHORT || centralDirectoryOffset >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC;
+        if (zip64) {
+            requireZip64(entries.size() >= ZIP64_MAGIC_SHORT ? "archive contains more than 65535 entries." : "archive's size exceeds the limit of 4GByte.");
+            long zip64EndOffset = offset;
+            buffer.clear();
+            buffer.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            buffer.putLong(44);
+            buffer.putShort((short) ZIP64_VERSION);
+            buffer.putShort((short) ZIP64_VERSION);
+            buffer.putInt(0);
+            buffer.putInt(0);
+            buffer.putLong(entries.size());
+            buffer.putLong(entries.size());
+            buffer.putLong(centralDirectorySize);
+            buffer.putLong(centralDirectoryOffset);
+            writeBuffer();
+            buffer.clear();
+            buffer.putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+            buffer.putInt(0);
+            buffer.putLong(zip64EndOffset);
+            buffer.putInt(1);
+            writeBuffer();
+        }
+
+        buffer.clear();
+        buffer.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) Math.min(entries.size(), ZIP64_MAGIC_SHORT));
+        buffer.putShort((short) Math.min(entries.size(), ZIP64_MAGIC_SHORT));
+        buffer.putInt((int) Math.min(centralDirectorySize, ZIP64_MAGIC));
+        buffer.putInt((int) Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        buffer.putShort((short) 0);
+        writeBuffer();
+    }
+
+    private void requireZip64(String reason) throws Zip64RequiredException {
+        if (!allowZip64) {
+            throw new Zip64RequiredException(reason);
+        }
+    }
+
+    private int flags() {
+        return "UTF-8".equals(charset.name()) ? UTF8_FLAG : 0;
+    }
+
+    private static int versionNeeded(Entry entry, boolean zip64) {
+        if (zip64) {
+            return ZIP64_VERSION;
+        }
+        return entry.method == ZipEntry.DEFLATED ? DEFLATED_VERSION : STORED_VERSION;
+    }
+
+    private void writeBuffer() throws IOException {
+        write(buffer.array(), buffer.position());
+    }
+
+    private void write(byte[] bytes, int length) throws IOException {
+        outputStream.write(bytes, 0, length);
+        offset += length;
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    private static class Entry {
+        final String name;
+        final int dosTime;
+        final int unixMode;
+        final int method;
+        final long crc;
+        final long size;
+        final long compressedSize;
+        final boolean directory;
+        long localHeaderOffset;
+
+        Entry(String name, long time, int unixMode, int method, long crc, long size, long compressedSize, boolean directory) {
+            this.name = name;
+            this.dosTime = toDosTime(time);
+            this.unixMode = unixMode;
+            this.method = method;
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.directory = directory;
+        }
+
+        int externalAttributes() {
+            // Same layout as Ant's ZipEntry.setUnixMode(): the Unix mode in the high word, and the MS-DOS read-only and directory flags in the low word
+            return (unixMode << 16) | ((unixMode & 0200) == 0 ? 1 : 0) | (directory ? 0x10 : 0);
+        }
+
+        private static int toDosTime(long time) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(time);
+            int year = calendar.get(Calendar.YEAR);
+            if (year < 1980) {
+                // 1980-01-01 00:00:00, the earliest time that can be represented
+                return (1 << 21) | (1 << 16);
+            }
+            return ((year - 1980) << 25)
+                | ((calendar.get(Calendar.MONTH) + 1) << 21)
+                | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+                | (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+                | (calendar.get(Calendar.MINUTE) << 5)
+                | (calendar.get(Calendar.SECOND) >> 1);
+        }
+    }
+}
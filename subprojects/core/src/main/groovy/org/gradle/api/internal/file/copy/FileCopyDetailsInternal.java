@@ -16,10 +16,20 @@
 
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileCopyDetails;
 
+import java.io.File;
+
 public interface FileCopyDetailsInternal extends FileCopyDetails {
 
     boolean isIncludeEmptyDirs();
 
+    /**
+     * Returns the file whose content is copied unchanged to the destination, or null when the content is filtered or is not read directly from a file.
+     * Unlike {@link #getFile()}, this does not create a file for content that is not already in one.
+     */
+    @Nullable
+    File getSourceFile();
+
 }
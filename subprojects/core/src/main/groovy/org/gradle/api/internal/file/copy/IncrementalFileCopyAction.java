@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.FileLookup;
+import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.util.GFileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies files into a destination directory, skipping those files that have not changed since they were last copied.
+ *
+ * <p>The source, mode and resulting size and timestamp of each copied file are recorded in a state file, keyed by destination path. A file is not
+ * copied again when its source file and mode are the same as recorded and the destination file has not been modified since it was copied. Files whose
+ * content is filtered are always copied. When stale files are to be deleted, the files recorded by the previous execution that were not copied this
+ * time are removed.</p>
+ */
+public class IncrementalFileCopyAction implements CopyAction {
+    private static final Logger LOGGER = Logging.getLogger(IncrementalFileCopyAction.class);
+    private static final byte STATE_VERSION = 1;
+
+    private final FileResolver fileResolver;
+    private final File stateFile;
+    private boolean deleteStaleFiles;
+    private final Map<String, CopiedFile> previous;
+
+    /**
+     * @param usePreviousState Whether the state recorded by the previous execution can be used. This should be false when the destination may have
+     * been modified since then.
+     */
+    public IncrementalFileCopyAction(FileResolver fileResolver, File stateFile, boolean usePreviousState, boolean deleteStaleFiles) {
+        this.fileResolver = fileResolver;
+        this.stateFile = stateFile;
+        this.deleteStaleFiles = deleteStaleFiles;
+        this.previous = usePreviousState ? readState(stateFile) : null;
+    }
+
+    /**
+     * Creates the action for a copy task, keeping its state in the temporary directory of the task.
+     *
+     * @param usePreviousState Whether the task is executing incrementally.
+     */
+    public static IncrementalFileCopyAction forTask(FileLookup fileLookup, @Nullable File destinationDir, File temporaryDir, boolean usePreviousState) {
+        if (destinationDir == null) {
+            throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
+        }
+        return new IncrementalFileCopyAction(fileLookup.getFileResolver(destinationDir), new File(temporaryDir, "copied-files.bin"), usePreviousState, false);
+    }
+
+    /**
+     * Sets whether the files that were copied by the previous execution but are no longer copied should be deleted.
+     */
+    public void setDeleteStaleFiles(boolean deleteStaleFiles) {
+        this.deleteStaleFiles = deleteStaleFiles;
+    }
+
+    /**
+     * Returns true when the files copied by the previous execution are known. When false, all files are copied and no stale files are deleted.
+     */
+    public boolean hasPreviousState() {
+        return previous != null;
+    }
+
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        // The recorded state is no longer valid once the destination starts to change
+        stateFile.delete();
+
+        IncrementalCopyStreamAction action = new IncrementalCopyStreamAction();
+        stream.process(action);
+        boolean didWork = action.didWork;
+        if (deleteStaleFiles && previous != null) {
+            didWork |= deleteStaleFiles(action.copied);
+        }
+        writeState(action.copied);
+        return new SimpleWorkResult(didWork);
+    }
+
+    private boolean deleteStaleFiles(Map<String, CopiedFile> copied) {
+        List<String> stale = new ArrayList<String>();
+        for (String path : previous.keySet()) {
+            if (!copied.containsKey(path)) {
+                stale.add(path);
+            }
+        }
+        // Delete the contents of a directory before the directory itself
+        Collections.sort(stale, Collections.reverseOrder());
+        boolean didWork = false;
+        for (String path : stale) {
+            File file = fileResolver.resolve(path);
+            if (file.isDirectory()) {
+                // Only remove the directory when nothing else has been put in it
+                didWork |= file.delete();
+            } else {
+                didWork |= GFileUtils.deleteQuietly(file);
+            }
+        }
+        return didWork;
+    }
+
+    private static Map<String, CopiedFile> readState(File stateFile) {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+        try {
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)));
+            try {
+                if (inputStream.readByte() != STATE_VERSION) {
+                    return null;
+                }
+                int count = inputStream.readInt();
+                Map<String, CopiedFile> files = new HashMap<String, CopiedFile>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    String path = inputStream.readUTF();
+                    files.put(path, new CopiedFile(inputStream.readUTF(), inputStream.readLong(), inputStream.readLong(), inputStream.readInt(), inputStream.readLong(), inputStream.readLong()));
+                }
+                return files;
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not read copied files from {}, copying all files.", stateFile, e);
+            return null;
+        }
+    }
+
+    private void writeState(Map<String, CopiedFile> copied) {
+        try {
+            GFileUtils.mkdirs(stateFile.getParentFile());
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile)));
+            try {
+                outputStream.writeByte(STATE_VERSION);
+                outputStream.writeInt(copied.size());
+                for (Map.Entry<String, CopiedFile> entry : copied.entrySet()) {
+                    CopiedFile file = entry.getValue();
+                    outputStream.writeUTF(entry.getKey());
+                    outputStream.writeUTF(file.source);
+                    outputStream.writeLong(file.sourceLength);
+                    outputStream.writeLong(file.sourceLastModified);
+                    outputStream.writeInt(file.mode);
+                    outputStream.writeLong(file.length);
+                    outputStream.writeLong(file.lastModified);
+                }
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A file or directory written to the destination. The source is empty when the content does not come directly from some file.
+     */
+    private static class CopiedFile {
+        final String source;
+        final long sourceLength;
+        final long sourceLastModified;
+        final int mode;
+        final long length;
+        final long lastModified;
+
+        CopiedFile(String source, long sourceLength, long sourceLastModified, int mode, long length, long lastModified) {
+            this.source = source;
+            this.sourceLength = sourceLength;
+            this.sourceLastModified = sourceLastModified;
+            this.mode = mode;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        boolean isUpToDate(File sourceFile, int mode, File target) {
+            return source.length() > 0
+                && source.equals(sourceFile.getAbsolutePath())
+                && sourceLength == sourceFile.length()
+                && sourceLastModified == sourceFile.lastModified()
+                && this.mode == mode
+                && length == target.length()
+                && lastModified == target.lastModified()
+                && target.isFile();
+        }
+    }
+
+    private class IncrementalCopyStreamAction implements CopyActionProcessingStreamAction {
+        private final Map<String, CopiedFile> copied = new LinkedHashMap<String, CopiedFile>();
+        private boolean didWork;
+
+        public void processFile(FileCopyDetailsInternal details) {
+            String path = details.getRelativePath().getPathString();
+            File target = fileResolver.resolve(path);
+            File source = details.isDirectory() ? null : details.getSourceFile();
+            int mode = details.getMode();
+
+            CopiedFile previousFile = previous == null || source == null ? null : previous.get(path);
+            if (previousFile != null && previousFile.isUpToDate(source, mode, target)) {
+                copied.put(path, previousFile);
+                return;
+            }
+
+            long sourceLength = source == null ? 0 : source.length();
+            long sourceLastModified = source == null ? 0 : source.lastModified();
+            if (details.copyTo(target)) {
+                didWork = true;
+            }
+            copied.put(path, new CopiedFile(source == null ? "" : source.getAbsolutePath(), sourceLength, sourceLastModified, mode, target.length(), target.lastModified()));
+        }
+    }
+}
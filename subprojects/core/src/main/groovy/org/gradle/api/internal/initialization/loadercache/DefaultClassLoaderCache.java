@@ -22,18 +22,21 @@ import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
 import org.gradle.api.Nullable;
+import org.gradle.api.internal.cache.ReleasableCache;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MutableURLClassLoader;
 import org.gradle.internal.classpath.ClassPath;
 
+import java.util.ArrayList;
 import java.util.Map;
 
-public class DefaultClassLoaderCache implements ClassLoaderCache {
+public class DefaultClassLoaderCache implements ClassLoaderCache, ReleasableCache {
 
     private final Object lock = new Object();
     private final Map<ClassLoaderId, CachedClassLoader> byId = Maps.newHashMap();
     private final Map<ClassLoaderSpec, CachedClassLoader> bySpec = Maps.newHashMap();
     private final ClassPathSnapshotter snapshotter;
+    private volatile long lastUsed;
 
     public DefaultClassLoaderCache(ClassPathSnapshotter snapshotter) {
         this.snapshotter = snapshotter;
@@ -44,6 +47,7 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         ClassLoaderSpec spec = new ClassLoaderSpec(parent, classPathSnapshot, filterSpec);
 
         synchronized (lock) {
+            lastUsed = System.currentTimeMillis();
             CachedClassLoader cachedLoader = byId.get(id);
             if (cachedLoader == null || !cachedLoader.is(spec)) {
                 CachedClassLoader newLoader = getAndRetainLoader(classPath, spec, id);
@@ -88,6 +92,31 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         return cachedLoader.retain(id);
     }
 
+    @Override
+    public long getLastUsed() {
+        synchronized (lock) {
+            return byId.isEmpty() ? 0 : lastUsed;
+        }
+    }
+
+    /**
+     * Forgets all cached class loaders, in the same way as {@link #remove(ClassLoaderId)} for each of them. Class loaders that are in use remain usable,
+     * but are not reused by later requests.
+     */
+    @Override
+    public void release() {
+        synchronized (lock) {
+            for (ClassLoaderId id : new ArrayList<ClassLoaderId>(byId.keySet())) {
+                remove(id);
+            }
+        }
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "class loader cache";
+    }
+
     @Override
     public int size() {
         synchronized (lock) {
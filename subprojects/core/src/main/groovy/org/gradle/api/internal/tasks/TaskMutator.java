@@ -70,7 +70,7 @@ public class TaskMutator {
     }
 
     public ContextAwareTaskAction leftShift(final ContextAwareTaskAction action) {
-        return new ContextAwareTaskAction() {
+        return new ImplementationAwareTaskAction() {
             public void execute(Task task) {
                 executingleftShiftAction = true;
                 try {
@@ -83,6 +83,10 @@ public class TaskMutator {
             public void contextualise(TaskExecutionContext context) {
                 action.contextualise(context);
             }
+
+            public Class<?> getActionClass() {
+                return action instanceof ImplementationAwareTaskAction ? ((ImplementationAwareTaskAction) action).getActionClass() : action.getClass();
+            }
         };
     }
 
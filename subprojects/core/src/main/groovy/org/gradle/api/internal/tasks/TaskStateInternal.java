@@ -83,6 +83,15 @@ public class TaskStateInternal implements TaskState {
         upToDate = true;
     }
 
+    /**
+     * Marks this task as having had its outputs loaded from the task output cache.
+     */
+    public void fromCache() {
+        skipped("FROM-CACHE");
+        upToDate = true;
+        didWork = true;
+    }
+
     public boolean getExecuting() {
         return executing;
     }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.hash.HashValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link TaskOutputCache} that combines a local cache with a remote cache, shared by many machines.
+ *
+ * <p>An entry that is missing from the local cache is fetched from the remote cache into the local cache on a background thread. When the fetch does
+ * not complete within the given timeout, the entry is reported as missing so that the task executes, and the fetch continues in the background so
+ * that later builds can use the entry. Entries are stored in the local cache and then uploaded to the remote cache in the background, so that
+ * the task graph never waits for an upload. After a number of failures, the remote cache is no longer used for the rest of the build.</p>
+ */
+public class LocalAndRemoteTaskOutputCache implements TaskOutputCache, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalAndRemoteTaskOutputCache.class);
+    static final int MAX_REMOTE_FAILURES = 3;
+
+    private final TaskOutputCache local;
+    private final TaskOutputCache remote;
+    private final long timeoutMillis;
+    private final StoppableExecutor executor;
+    private final ConcurrentMap<HashValue, Future<Boolean>> fetches = new ConcurrentHashMap<HashValue, Future<Boolean>>();
+    private final AtomicInteger remoteFailures = new AtomicInteger();
+
+    public LocalAndRemoteTaskOutputCache(TaskOutputCache local, TaskOutputCache remote, ExecutorFactory executorFactory, long timeoutMillis) {
+        this.local = local;
+        this.remote = remote;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = executorFactory.create("remote task output cache");
+    }
+
+    public boolean load(HashValue key, TaskOutputReader reader) throws IOException {
+        if (local.load(key, reader)) {
+            return true;
+        }
+        if (!isRemoteEnabled()) {
+            return false;
+        }
+        boolean fetched;
+        try {
+            fetched = fetch(key).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.info("Entry {} was not fetched from {} within {}ms, continuing to fetch it in the background.", key, remote.getDescription(), timeoutMillis);
+            return false;
+        } catch (ExecutionException e) {
+            // Already reported by the fetch
+            return false;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return fetched && local.load(key, reader);
+    }
+
+    private Future<Boolean> fetch(final HashValue key) {
+        Future<Boolean> fetch = fetches.get(key);
+        if (fetch != null) {
+            return fetch;
+        }
+        FutureTask<Boolean> task = new FutureTask<Boolean>(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                try {
+                    return remote.load(key, new TaskOutputReader() {
+                        public void readFrom(final InputStream input) throws IOException {
+                            local.store(key, new TaskOutputWriter() {
+                                public void writeTo(OutputStream output) throws IOException {
+                                    ByteStreams.copy(input, output);
+                                }
+                            });
+                        }
+                    });
+                } catch (Exception e) {
+                    remoteFailed(e);
+                    throw e;
+                } finally {
+                    fetches.remove(key);
+                }
+            }
+        });
+        fetch = fetches.putIfAbsent(key, task);
+        if (fetch != null) {
+            return fetch;
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    public void store(final HashValue key, TaskOutputWriter writer) throws IOException {
+        local.store(key, writer);
+        if (!isRemoteEnabled()) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                if (!isRemoteEnabled()) {
+                    return;
+                }
+                try {
+                    remote.store(key, new TaskOutputWriter() {
+                        public void writeTo(final OutputStream output) throws IOException {
+                            boolean found = local.load(key, new TaskOutputReader() {
+                                public void readFrom(InputStream input) throws IOException {
+                                    ByteStreams.copy(input, output);
+                                }
+                            });
+                            if (!found) {
+                                throw new FileNotFoundException(String.format("Entry %s was removed from %s before it could be uploaded.", key, local.getDescription()));
+                            }
+                        }
+                    });
+                } catch (Exception e) {
+                    remoteFailed(e);
+                }
+            }
+        });
+    }
+
+    private boolean isRemoteEnabled() {
+        return remoteFailures.get() < MAX_REMOTE_FAILURES;
+    }
+
+    private void remoteFailed(Exception failure) {
+        int failures = remoteFailures.incrementAndGet();
+        if (failures < MAX_REMOTE_FAILURES) {
+            LOGGER.warn("Could not access {}: {}", remote.getDescription(), failure.toString());
+        } else if (failures == MAX_REMOTE_FAILURES) {
+            LOGGER.warn("Could not access {}, it will not be used for the rest of the build: {}", remote.getDescription(), failure.toString());
+        }
+    }
+
+    public String getDescription() {
+        return local.getDescription() + " and " + remote.getDescription();
+    }
+
+    /**
+     * Waits for pending uploads to complete, then closes both caches.
+     */
+    public void stop() {
+        CompositeStoppable.stoppable(executor, remote, local).stop();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.UUID;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A {@link TaskOutputCache} that keeps one file per entry in a directory under the Gradle user home, shared by all builds and Gradle versions.
+ *
+ * <p>Entries are written to a temporary file and then renamed into place, so that concurrent builds never see a partially written entry. Loading
+ * an entry updates its timestamp, and the least recently used entries are removed once the total size of the cache exceeds its limit. The total
+ * size is counted once and then kept up to date as entries are stored, so that the cache directory is only listed again when the limit is
+ * exceeded.</p>
+ */
+public class LocalDirectoryTaskOutputCache implements TaskOutputCache, Closeable {
+    private static final Logger LOGGER = Logging.getLogger(LocalDirectoryTaskOutputCache.class);
+    private static final String ENTRY_SUFFIX = ".tar";
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final CacheRepository cacheRepository;
+    private final long maxSize;
+    private final Object sizeLock = new Object();
+    private long totalSize = -1;
+    private PersistentCache cache;
+
+    public LocalDirectoryTaskOutputCache(CacheRepository cacheRepository, long maxSize) {
+        this.cacheRepository = cacheRepository;
+        this.maxSize = maxSize;
+    }
+
+    public boolean load(HashValue key, TaskOutputReader reader) throws IOException {
+        File entry = getEntry(key);
+        InputStream input;
+        try {
+            input = new FileInputStream(entry);
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+        try {
+            // Keep track of when the entry was last used, for eviction
+            entry.setLastModified(System.currentTimeMillis());
+            reader.readFrom(new BufferedInputStream(input));
+            return true;
+        } finally {
+            input.close();
+        }
+    }
+
+    public void store(HashValue key, TaskOutputWriter writer) throws IOException {
+        File entry = getEntry(key);
+        File partial = new File(entry.getParentFile(), entry.getName() + "." + UUID.randomUUID() + PARTIAL_SUFFIX);
+        long sizeChange;
+        try {
+            OutputStream output = new BufferedOutputStream(new FileOutputStream(partial));
+            try {
+                writer.writeTo(output);
+            } finally {
+                output.close();
+            }
+            sizeChange = partial.length() - entry.length();
+            if (!partial.renameTo(entry) && !entry.isFile()) {
+                throw new IOException(String.format("Could not move %s to %s.", partial, entry));
+            }
+        } finally {
+            partial.delete();
+        }
+        synchronized (sizeLock) {
+            if (totalSize >= 0) {
+                totalSize += sizeChange;
+                if (totalSize <= maxSize) {
+                    return;
+                }
+            }
+            totalSize = evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its limit, and returns the resulting total size.
+     */
+    private long evictLeastRecentlyUsed() {
+        File[] entries = getCacheDir().listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.getName().endsWith(ENTRY_SUFFIX);
+            }
+        });
+        if (entries == null) {
+            return 0;
+        }
+        long size = 0;
+        for (File entry : entries) {
+            size += entry.length();
+        }
+        if (size <= maxSize) {
+            return size;
+        }
+        Arrays.sort(entries, new Comparator<File>() {
+            public int compare(File left, File right) {
+                long leftLastModified = left.lastModified();
+                long rightLastModified = right.lastModified();
+                return leftLastModified < rightLastModified ? -1 : leftLastModified == rightLastModified ? 0 : 1;
+            }
+        });
+        for (int i = 0; i < entries.length && size > maxSize; i++) {
+            long length = entries[i].length();
+            if (entries[i].delete()) {
+                LOGGER.debug("Removed least recently used entry {} from {}.", entries[i].getName(), getDescription());
+                size -= length;
+            }
+        }
+        return size;
+    }
+
+    private File getEntry(HashValue key) {
+        return new File(getCacheDir(), key.asHexString() + ENTRY_SUFFIX);
+    }
+
+    private synchronized File getCacheDir() {
+        if (cache == null) {
+            cache = cacheRepository
+                .cache("task-outputs")
+                .withCrossVersionCache()
+                .withDisplayName("task output cache")
+                .withLockOptions(mode(FileLockManager.LockMode.None)) // Entries are replaced atomically, so no locking is required
+                .open();
+        }
+        return cache.getBaseDir();
+    }
+
+    public String getDescription() {
+        return "local task output cache";
+    }
+
+    public synchronized void close() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import java.net.URI;
+
+/**
+ * Creates {@link TaskOutputCache} instances that are backed by a remote server. Implementations are registered as global services by the modules
+ * that provide the transport for a particular URI scheme.
+ */
+public interface RemoteTaskOutputCacheFactory {
+    boolean supports(URI uri);
+
+    TaskOutputCache createCache(URI uri);
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
+import org.gradle.api.internal.changedetection.state.FileSnapshot;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskExecution;
+import org.gradle.api.internal.tasks.ContextAwareTaskAction;
+import org.gradle.api.internal.tasks.ImplementationAwareTaskAction;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheAccess;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.GradleVersion;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Calculates the key under which the outputs of a task are stored in the task output cache.
+ *
+ * <p>The key is made up of the task type, the content of the classpath entries that the task type and its super types are loaded from, the classes
+ * that implement the task actions along with the content of the classpath entries they are loaded from, the input properties, the content hashes of
+ * the input files and the locations of the output files. As the classes of a build script are loaded from the script's cache directory, editing an
+ * action closure in the build script changes the key. Files inside the root project directory are identified by
+ * their path relative to that directory, so that the outputs of a task can be reused by another checkout of the same build.</p>
+ */
+public class TaskCacheKeyCalculator {
+    private static final Logger LOGGER = Logging.getLogger(TaskCacheKeyCalculator.class);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte[] MISSING_FILE = new byte[0];
+    private static final String GENERATED_CLASS_SUFFIX = "_Decorated";
+
+    private final FileSnapshotter fileSnapshotter;
+    private final CacheAccess cacheAccess;
+    private final Map<Class<?>, byte[]> implementationHashes = new HashMap<Class<?>, byte[]>();
+
+    public TaskCacheKeyCalculator(FileSnapshotter fileSnapshotter, CacheAccess cacheAccess) {
+        this.fileSnapshotter = fileSnapshotter;
+        this.cacheAccess = cacheAccess;
+    }
+
+    /**
+     * Calculates the cache key for the given task, using the task type and input properties of the given execution and the given snapshot of the
+     * input files of the task.
+     *
+     * @return the cache key, or null when the key cannot be calculated.
+     */
+    @Nullable
+    public HashValue calculate(TaskInternal task, TaskExecution execution, FileCollectionSnapshot inputFiles) {
+        byte[] implementationHash = getImplementationHash(task.getClass());
+        if (implementationHash == null) {
+            LOGGER.info("Not caching {} as the location of its implementation is unknown.", task);
+            return null;
+        }
+        File rootDir = task.getProject().getRootDir();
+
+        KeyBuilder key = new KeyBuilder();
+        key.putString(GradleVersion.current().getVersion());
+        key.putString(execution.getTaskClass());
+        key.putBytes(implementationHash);
+
+        List<ContextAwareTaskAction> actions = task.getTaskActions();
+        key.putInt(actions.size());
+        for (ContextAwareTaskAction action : actions) {
+            Class<?> actionClass = action instanceof ImplementationAwareTaskAction ? ((ImplementationAwareTaskAction) action).getActionClass() : action.getClass();
+            key.putString(actionClass.getName());
+            if (actionClass.getClassLoader() == TaskCacheKeyCalculator.class.getClassLoader()) {
+                // Part of Gradle, such as the actions for the @TaskAction methods of the task type, identified by the Gradle version
+                continue;
+            }
+            byte[] actionHash = getImplementationHash(actionClass);
+            if (actionHash == null) {
+                LOGGER.info("Not caching {} as the location of the implementation of its action {} is unknown.", task, actionClass.getName());
+                return null;
+            }
+            key.putBytes(actionHash);
+        }
+
+        Map<String, Object> inputProperties = execution.getInputProperties();
+        SortedMap<String, Object> sortedProperties = new TreeMap<String, Object>(inputProperties == null ? Collections.<String, Object>emptyMap() : inputProperties);
+        key.putInt(sortedProperties.size());
+        for (Map.Entry<String, Object> entry : sortedProperties.entrySet()) {
+            byte[] value = serialize(entry.getValue());
+            if (value == null) {
+                LOGGER.info("Not caching {} as the value of input property '{}' cannot be serialized.", task, entry.getKey());
+                return null;
+            }
+            key.putString(entry.getKey());
+            key.putBytes(value);
+        }
+
+        SortedMap<String, byte[]> inputFileHashes = new TreeMap<String, byte[]>();
+        for (File file : inputFiles.getAllFiles()) {
+            FileSnapshot snapshot = inputFiles.getSnapshot().findSnapshot(file);
+            inputFileHashes.put(relativePath(rootDir, file), snapshot == null ? MISSING_FILE : snapshot.getHash());
+        }
+        key.putInt(inputFileHashes.size());
+        for (Map.Entry<String, byte[]> entry : inputFileHashes.entrySet()) {
+            key.putString(entry.getKey());
+            key.putBytes(entry.getValue());
+        }
+
+        Set<File> outputFiles = task.getOutputs().getFiles().getFiles();
+        key.putInt(outputFiles.size());
+        for (File outputFile : outputFiles) {
+            key.putString(relativePath(rootDir, outputFile));
+        }
+
+        return key.build();
+    }
+
+    @Nullable
+    private byte[] getImplementationHash(Class<?> type) {
+        synchronized (implementationHashes) {
+            if (implementationHashes.containsKey(type)) {
+                return implementationHashes.get(type);
+            }
+        }
+        byte[] hash = hashImplementation(type);
+        synchronized (implementationHashes) {
+            implementationHashes.put(type, hash);
+        }
+        return hash;
+    }
+
+    @Nullable
+    private byte[] hashImplementation(Class<?> implementationType) {
+        final Set<File> locations = new LinkedHashSet<File>();
+        for (Class<?> type = implementationType; type != null && type.getClassLoader() != null; type = type.getSuperclass()) {
+            CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                if (type.getName().endsWith(GENERATED_CLASS_SUFFIX)) {
+                    // Generated from its super class, which is hashed instead
+                    continue;
+                }
+                return null;
+            }
+            File location = toFile(codeSource.getLocation());
+            if (location == null) {
+                return null;
+            }
+            locations.add(location);
+        }
+        return cacheAccess.useCache("Hash task implementation", new Factory<byte[]>() {
+            public byte[] create() {
+                KeyBuilder key = new KeyBuilder();
+                for (File location : locations) {
+                    hashLocation(location, location.getName(), key);
+                }
+                return key.build().asByteArray();
+            }
+        });
+    }
+
+    private void hashLocation(File file, String path, KeyBuilder key) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) {
+                return;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                hashLocation(child, path + "/" + child.getName(), key);
+            }
+        } else if (file.isFile()) {
+            key.putString(path);
+            key.putBytes(fileSnapshotter.snapshot(file).getHash());
+        }
+    }
+
+    @Nullable
+    private static File toFile(URL location) {
+        if (!"file".equals(location.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(location.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String relativePath(File rootDir, File file) {
+        String rootPath = rootDir.getAbsolutePath() + File.separator;
+        String path = file.getAbsolutePath();
+        if (path.startsWith(rootPath)) {
+            return path.substring(rootPath.length()).replace(File.separatorChar, '/');
+        }
+        return path;
+    }
+
+    @Nullable
+    private static byte[] serialize(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+            outputStream.writeObject(value);
+            outputStream.close();
+            return bytes.toByteArray();
+        } catch (NotSerializableException e) {
+            return null;
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static class KeyBuilder {
+        private final MessageDigest digest;
+
+        KeyBuilder() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void putInt(int value) {
+            digest.update((byte) (value >>> 24));
+            digest.update((byte) (value >>> 16));
+            digest.update((byte) (value >>> 8));
+            digest.update((byte) value);
+        }
+
+        void putBytes(byte[] bytes) {
+            putInt(bytes.length);
+            digest.update(bytes);
+        }
+
+        void putString(String value) {
+            putBytes(value.getBytes(UTF8));
+        }
+
+        HashValue build() {
+            return new HashValue(digest.digest());
+        }
+    }
+}
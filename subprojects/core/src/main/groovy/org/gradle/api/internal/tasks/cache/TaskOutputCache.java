@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.internal.hash.HashValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A store for the packed outputs of tasks, keyed by the cache key of the task.
+ */
+public interface TaskOutputCache {
+    /**
+     * Loads the entry with the given key, passing its content to the given reader.
+     *
+     * @return true if the entry was found and read, false if there is no entry for the given key.
+     */
+    boolean load(HashValue key, TaskOutputReader reader) throws IOException;
+
+    /**
+     * Stores an entry with the given key, replacing any existing entry. The content of the entry is produced by the given writer.
+     */
+    void store(HashValue key, TaskOutputWriter writer) throws IOException;
+
+    String getDescription();
+
+    interface TaskOutputReader {
+        void readFrom(InputStream input) throws IOException;
+    }
+
+    interface TaskOutputWriter {
+        void writeTo(OutputStream output) throws IOException;
+    }
+}
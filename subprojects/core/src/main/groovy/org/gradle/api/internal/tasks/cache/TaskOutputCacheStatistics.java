@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the hits, misses and stores of the task output cache in a build, and reports them when the build finishes.
+ */
+public class TaskOutputCacheStatistics extends BuildAdapter {
+    private static final Logger LOGGER = Logging.getLogger(TaskOutputCacheStatistics.class);
+
+    private final String cacheDescription;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger stores = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public TaskOutputCacheStatistics(String cacheDescription) {
+        this.cacheDescription = cacheDescription;
+    }
+
+    public void hit() {
+        hits.incrementAndGet();
+    }
+
+    public void miss() {
+        misses.incrementAndGet();
+    }
+
+    public void stored() {
+        stores.incrementAndGet();
+    }
+
+    public void failed() {
+        failures.incrementAndGet();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public int getStores() {
+        return stores.get();
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void buildFinished(BuildResult result) {
+        if (hits.get() + misses.get() + failures.get() == 0) {
+            return;
+        }
+        LOGGER.lifecycle("Task output cache: {} hits, {} misses, {} stored, {} failed ({}).", hits.get(), misses.get(), stores.get(), failures.get(), cacheDescription);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarInputStream;
+import org.apache.tools.tar.TarOutputStream;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs the output files of a task into a tar archive, and unpacks them again.
+ *
+ * <p>Each output root is identified by its index in the list of roots: a file root is stored as the entry {@code <index>}, and a directory root as
+ * the entry {@code <index>/} followed by its contents. A root that does not exist has no entries. Unpacking removes the current content of all
+ * roots before restoring the archived content, so that the roots end up exactly as they were when packed.</p>
+ */
+public class TaskOutputPacker {
+    private static final int FILE_MODE = 0644;
+    private static final int EXECUTABLE_FILE_MODE = 0755;
+    private static final int DIR_MODE = 0755;
+
+    public void pack(List<File> outputRoots, OutputStream output) throws IOException {
+        TarOutputStream tarOutput = new TarOutputStream(output);
+        tarOutput.setLongFileMode(TarOutputStream.LONGFILE_GNU);
+        for (int index = 0; index < outputRoots.size(); index++) {
+            File root = outputRoots.get(index);
+            String name = String.valueOf(index);
+            if (root.isDirectory()) {
+                packDirectory(root, name + "/", tarOutput);
+            } else if (root.isFile()) {
+                packFile(root, name, tarOutput);
+            }
+        }
+        tarOutput.finish();
+        tarOutput.flush();
+    }
+
+    private void packDirectory(File dir, String path, TarOutputStream tarOutput) throws IOException {
+        TarEntry entry = new TarEntry(path);
+        entry.setMode(TarEntry.DEFAULT_DIR_MODE & ~0777 | DIR_MODE);
+        tarOutput.putNextEntry(entry);
+        tarOutput.closeEntry();
+
+        File[] children = dir.listFiles();
+        if (children == null) {
+            throw new IOException(String.format("Could not list contents of directory %s.", dir));
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                packDirectory(child, path + child.getName() + "/", tarOutput);
+            } else {
+                packFile(child, path + child.getName(), tarOutput);
+            }
+        }
+    }
+
+    private void packFile(File file, String path, TarOutputStream tarOutput) throws IOException {
+        TarEntry entry = new TarEntry(path);
+        entry.setMode(TarEntry.DEFAULT_FILE_MODE & ~0777 | (file.canExecute() ? EXECUTABLE_FILE_MODE : FILE_MODE));
+        entry.setSize(file.length());
+        entry.setModTime(file.lastModified());
+        tarOutput.putNextEntry(entry);
+        InputStream input = new FileInputStream(file);
+        try {
+            IOUtils.copyLarge(input, tarOutput);
+        } finally {
+            input.close();
+        }
+        tarOutput.closeEntry();
+    }
+
+    public void unpack(List<File> outputRoots, InputStream input) throws IOException {
+        for (File root : outputRoots) {
+            if (root.isDirectory()) {
+                GFileUtils.cleanDirectory(root);
+            } else if (root.exists()) {
+                GFileUtils.forceDelete(root);
+            }
+        }
+
+        TarInputStream tarInput = new TarInputStream(input);
+        TarEntry entry;
+        while ((entry = tarInput.getNextEntry()) != null) {
+            String name = entry.getName();
+            int separator = name.indexOf('/');
+            File root = outputRoots.get(Integer.parseInt(separator < 0 ? name : name.substring(0, separator)));
+            String path = separator < 0 ? "" : name.substring(separator + 1);
+            File file = path.length() == 0 ? root : resolve(root, path);
+            if (entry.isDirectory()) {
+                GFileUtils.mkdirs(file);
+                continue;
+            }
+            GFileUtils.parentMkdirs(file);
+            OutputStream output = new FileOutputStream(file);
+            try {
+                IOUtils.copyLarge(tarInput, output);
+            } finally {
+                output.close();
+            }
+            file.setLastModified(entry.getModTime().getTime());
+            if ((entry.getMode() & 0100) != 0) {
+                file.setExecutable(true);
+            }
+        }
+    }
+
+    private static File resolve(File root, String path) throws IOException {
+        File file = new File(root, path);
+        if (!file.getCanonicalPath().startsWith(root.getCanonicalPath() + File.separator)) {
+            throw new IOException(String.format("Cached output entry '%s' is outside of output directory %s.", path, root));
+        }
+        return file;
+    }
+}
@@ -42,10 +42,12 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         listener.beforeActions(task);
         state.setExecuting(true);
+        TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Executing actions");
         try {
             GradleException failure = executeActions(task, state, context);
             state.executed(failure);
         } finally {
+            phase.finish();
             state.setExecuting(false);
             listener.afterActions(task);
         }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.tasks.TaskExecuter;
+import org.gradle.api.internal.tasks.TaskExecutionContext;
+import org.gradle.api.internal.tasks.TaskStateInternal;
+
+/**
+ * A {@link TaskExecuter} which attaches {@link TaskExecutionMetrics} to the current thread while the task executes, and notifies the given
+ * listener of the collected metrics afterwards.
+ */
+public class RecordMetricsTaskExecuter implements TaskExecuter {
+    private final TaskExecutionMetricsListener listener;
+    private final TaskExecuter executer;
+
+    public RecordMetricsTaskExecuter(TaskExecutionMetricsListener listener, TaskExecuter executer) {
+        this.listener = listener;
+        this.executer = executer;
+    }
+
+    public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+        TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+        metrics.attach();
+        try {
+            executer.execute(task, state, context);
+        } finally {
+            metrics.detach();
+        }
+        listener.metricsCollected(task, metrics);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.TaskArtifactState;
+import org.gradle.api.internal.tasks.TaskExecuter;
+import org.gradle.api.internal.tasks.TaskExecutionContext;
+import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.cache.TaskOutputCache;
+import org.gradle.api.internal.tasks.cache.TaskOutputCacheStatistics;
+import org.gradle.api.internal.tasks.cache.TaskOutputPacker;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.Clock;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link TaskExecuter} which loads the outputs of a task from the task output cache instead of executing it, and stores the outputs of the task in
+ * the cache after it has executed successfully. Only applies to tasks that allow caching, and relies on {@link SkipUpToDateTaskExecuter} to
+ * provide the artifact state of the task, and to record the loaded outputs in the task history.
+ */
+public class SkipCachedTaskExecuter implements TaskExecuter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SkipCachedTaskExecuter.class);
+    private final TaskOutputCache cache;
+    private final TaskOutputPacker packer;
+    private final TaskOutputCacheStatistics statistics;
+    private final TaskExecuter executer;
+
+    public SkipCachedTaskExecuter(TaskOutputCache cache, TaskOutputPacker packer, TaskOutputCacheStatistics statistics, TaskExecuter executer) {
+        this.cache = cache;
+        this.packer = packer;
+        this.statistics = statistics;
+        this.executer = executer;
+    }
+
+    public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+        TaskArtifactState taskArtifactState = context.getTaskArtifactState();
+        HashValue cacheKey = null;
+        if (taskArtifactState != null && task.getOutputs().isCacheAllowed()) {
+            TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Calculating cache key");
+            try {
+                cacheKey = taskArtifactState.calculateCacheKey();
+            } finally {
+                phase.finish();
+            }
+        }
+        if (cacheKey == null) {
+            executer.execute(task, state, context);
+            return;
+        }
+
+        final List<File> outputRoots = new ArrayList<File>(task.getOutputs().getFiles().getFiles());
+        Clock clock = new Clock();
+        TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Loading from cache");
+        try {
+            boolean found = cache.load(cacheKey, new TaskOutputCache.TaskOutputReader() {
+                public void readFrom(InputStream input) throws IOException {
+                    packer.unpack(outputRoots, input);
+                }
+            });
+            if (found) {
+                LOGGER.info("Loaded outputs of {} from {} with cache key {} (took {}).", task, cache.getDescription(), cacheKey, clock.getTime());
+                statistics.hit();
+                state.fromCache();
+                return;
+            }
+            LOGGER.debug("No entry for {} in {} with cache key {}.", task, cache.getDescription(), cacheKey);
+            statistics.miss();
+        } catch (Exception e) {
+            LOGGER.warn("Could not load outputs of {} from {}, executing the task instead: {}", task, cache.getDescription(), e.toString());
+            statistics.failed();
+            cleanOutputs(outputRoots);
+        } finally {
+            phase.finish();
+        }
+
+        executer.execute(task, state, context);
+
+        if (state.getFailure() == null) {
+            phase = TaskExecutionMetrics.startPhase("Storing in cache");
+            try {
+                cache.store(cacheKey, new TaskOutputCache.TaskOutputWriter() {
+                    public void writeTo(OutputStream output) throws IOException {
+                        packer.pack(outputRoots, output);
+                    }
+                });
+                statistics.stored();
+            } catch (Exception e) {
+                LOGGER.warn("Could not store outputs of {} in {}: {}", task, cache.getDescription(), e.toString());
+                statistics.failed();
+            } finally {
+                phase.finish();
+            }
+        }
+    }
+
+    /**
+     * Removes any outputs that were partially loaded from the cache, so that the task does not see them.
+     */
+    private static void cleanOutputs(List<File> outputRoots) {
+        for (File root : outputRoots) {
+            if (root.isDirectory()) {
+                GFileUtils.cleanDirectory(root);
+            } else {
+                GFileUtils.deleteQuietly(root);
+            }
+        }
+    }
+}
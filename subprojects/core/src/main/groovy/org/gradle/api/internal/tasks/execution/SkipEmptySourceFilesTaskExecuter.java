@@ -41,7 +41,14 @@ public class SkipEmptySourceFilesTaskExecuter implements TaskExecuter {
 
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         FileCollection sourceFiles = task.getInputs().getSourceFiles();
-        if (task.getInputs().getHasSourceFiles() && sourceFiles.isEmpty()) {
+        TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Checking for source files");
+        boolean empty;
+        try {
+            empty = task.getInputs().getHasSourceFiles() && sourceFiles.isEmpty();
+        } finally {
+            phase.finish();
+        }
+        if (empty) {
             LOGGER.info("Skipping {} as it has no source files.", task);
             state.upToDate();
             taskInputsListener.onExecute(task, Cast.cast(FileCollectionInternal.class, sourceFiles));
@@ -37,11 +37,14 @@ public class SkipOnlyIfTaskExecuter implements TaskExecuter {
 
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         boolean skip;
+        TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Evaluating onlyIf");
         try {
             skip = !task.getOnlyIf().isSatisfiedBy(task);
         } catch (Throwable t) {
             state.executed(new GradleException(String.format("Could not evaluate onlyIf predicate for %s.", task), t));
             return;
+        } finally {
+            phase.finish();
         }
 
         if (skip) {
@@ -46,10 +46,17 @@ public class SkipUpToDateTaskExecuter implements TaskExecuter {
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         LOGGER.debug("Determining if {} is up-to-date", task);
         Clock clock = new Clock();
+        TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Checking up-to-date");
         TaskArtifactState taskArtifactState = repository.getStateFor(task);
         try {
             List<String> messages = new ArrayList<String>();
-            if (taskArtifactState.isUpToDate(messages)) {
+            boolean upToDate;
+            try {
+                upToDate = taskArtifactState.isUpToDate(messages);
+            } finally {
+                phase.finish();
+            }
+            if (upToDate) {
                 LOGGER.info("Skipping {} as it is up-to-date (took {}).", task, clock.getTime());
                 state.upToDate();
                 return;
@@ -63,7 +70,12 @@ public class SkipUpToDateTaskExecuter implements TaskExecuter {
             try {
                 executer.execute(task, state, context);
                 if (state.getFailure() == null) {
-                    taskArtifactState.afterTask();
+                    phase = TaskExecutionMetrics.startPhase("Snapshotting outputs");
+                    try {
+                        taskArtifactState.afterTask();
+                    } finally {
+                        phase.finish();
+                    }
                 }
             } finally {
                 task.getOutputs().setHistory(null);
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records how long each phase of the execution of a task takes, along with counters for the work done to snapshot the inputs and outputs of the
+ * task.
+ *
+ * <p>The metrics are attached to the thread that executes the task, so that the task executers and the snapshotting code can record into them
+ * without knowing which task is executing. When no metrics are attached to the current thread, the static methods of this class do nothing.</p>
+ */
+public class TaskExecutionMetrics {
+    private static final ThreadLocal<TaskExecutionMetrics> CURRENT = new ThreadLocal<TaskExecutionMetrics>();
+    private static final Phase NO_OP_PHASE = new Phase(null, "", 0);
+
+    private final long startTime;
+    private final long startNanos;
+    private final List<Phase> phases = new ArrayList<Phase>();
+    private TaskExecutionMetrics previous;
+    private String threadName;
+    private long threadId;
+    private int filesVisited;
+    private int filesHashed;
+    private long bytesHashed;
+    private int hashesReused;
+
+    public TaskExecutionMetrics() {
+        startTime = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Attaches these metrics to the current thread, replacing the metrics of any task that is already executing on the current thread.
+     */
+    public void attach() {
+        Thread thread = Thread.currentThread();
+        threadName = thread.getName();
+        threadId = thread.getId();
+        previous = CURRENT.get();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Detaches these metrics from the current thread, restoring the metrics that were replaced by {@link #attach()}.
+     */
+    public void detach() {
+        if (previous != null) {
+            CURRENT.set(previous);
+            previous = null;
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Starts a phase of the execution of the task that is executing on the current thread. The phase is finished by calling {@link Phase#finish()}.
+     */
+    public static Phase startPhase(String name) {
+        TaskExecutionMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return NO_OP_PHASE;
+        }
+        Phase phase = new Phase(metrics, name, System.nanoTime() - metrics.startNanos);
+        metrics.phases.add(phase);
+        return phase;
+    }
+
+    public static void filesVisited(int count) {
+        TaskExecutionMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.filesVisited += count;
+        }
+    }
+
+    public static void fileHashed(long length) {
+        TaskExecutionMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.filesHashed++;
+            metrics.bytesHashed += length;
+        }
+    }
+
+    public static void hashReused() {
+        TaskExecutionMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.hashesReused++;
+        }
+    }
+
+    /**
+     * The time the execution of the task started, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    /**
+     * The phases of the execution, in the order they were started. Phases may be nested.
+     */
+    public List<Phase> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    public int getFilesVisited() {
+        return filesVisited;
+    }
+
+    public int getFilesHashed() {
+        return filesHashed;
+    }
+
+    public long getBytesHashed() {
+        return bytesHashed;
+    }
+
+    /**
+     * The number of files whose hash was reused from a previous build, instead of being calculated.
+     */
+    public int getHashesReused() {
+        return hashesReused;
+    }
+
+    public static class Phase {
+        private final TaskExecutionMetrics metrics;
+        private final String name;
+        private final long startOffsetNanos;
+        private long durationNanos;
+
+        private Phase(TaskExecutionMetrics metrics, String name, long startOffsetNanos) {
+            this.metrics = metrics;
+            this.name = name;
+            this.startOffsetNanos = startOffsetNanos;
+        }
+
+        public void finish() {
+            if (metrics != null) {
+                durationNanos = System.nanoTime() - metrics.startNanos - startOffsetNanos;
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The time this phase started, relative to the start of the execution of the task.
+         */
+        public long getStartOffsetNanos() {
+            return startOffsetNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
@@ -37,8 +37,13 @@ public class ValidatingTaskExecuter implements TaskExecuter {
 
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         List<String> messages = new ArrayList<String>();
-        for (TaskValidator validator : task.getValidators()) {
-            validator.validate(task, messages);
+        TaskExecutionMetrics.Phase phase = TaskExecutionMetrics.startPhase("Validating");
+        try {
+            for (TaskValidator validator : task.getValidators()) {
+                validator.validate(task, messages);
+            }
+        } finally {
+            phase.finish();
         }
         if (!messages.isEmpty()) {
             List<InvalidUserDataException> causes = new ArrayList<InvalidUserDataException>();
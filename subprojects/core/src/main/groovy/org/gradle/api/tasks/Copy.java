@@ -16,12 +16,12 @@
 
 package org.gradle.api.tasks;
 
-import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
-import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.internal.file.copy.IncrementalFileCopyAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -69,14 +69,17 @@ import java.io.File;
  */
 @ParallelizableTask
 public class Copy extends AbstractCopyTask {
+    private boolean incremental;
+
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        incremental = inputs.isIncremental();
+        copy();
+    }
 
     @Override
     protected CopyAction createCopyAction() {
-        File destinationDir = getDestinationDir();
-        if (destinationDir == null) {
-            throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
-        }
-        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        return IncrementalFileCopyAction.forTask(getFileLookup(), getDestinationDir(), getTemporaryDir(), incremental);
     }
 
     @Override
@@ -16,9 +16,9 @@
 
 package org.gradle.api.tasks;
 
-import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.*;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -27,14 +27,19 @@ import java.io.File;
  * Synchronises the contents of a destination directory with some source directories and files.
  */
 public class Sync extends AbstractCopyTask {
+    private boolean incremental;
+
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        incremental = inputs.isIncremental();
+        copy();
+    }
 
     @Override
     protected CopyAction createCopyAction() {
-        File destinationDir = getDestinationDir();
-        if (destinationDir == null) {
-            throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
-        }
-        return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)));
+        CopyAction copyAction = IncrementalFileCopyAction.forTask(getFileLookup(), getDestinationDir(), getTemporaryDir(), incremental);
+        // Files added to the destination directory do not make this task out of date, so always look for files that should not be there
+        return new SyncCopyActionDecorator(getDestinationDir(), copyAction);
     }
 
     @Override
@@ -17,6 +17,7 @@
 package org.gradle.api.tasks;
 
 import groovy.lang.Closure;
+import org.gradle.api.Incubating;
 import org.gradle.api.Task;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.specs.Spec;
@@ -51,6 +52,32 @@ public interface TaskOutputs {
      */
     void upToDateWhen(Spec<? super Task> upToDateSpec);
 
+    /**
+     * <p>Cache the results of the task only if the given closure returns true. The closure is executed at task execution time and is passed the
+     * task as a parameter. If the closure returns false, the outputs of the task are neither loaded from nor stored in the task output cache.</p>
+     *
+     * <p>You can add multiple such predicates. The results of the task are not cached when any predicate returns false, or when no predicate
+     * has been added.</p>
+     *
+     * @param cacheClosure The closure to use to determine whether the task outputs can be cached.
+     * @since 2.11
+     */
+    @Incubating
+    void cacheIf(Closure cacheClosure);
+
+    /**
+     * <p>Cache the results of the task only if the given spec is satisfied. The spec is evaluated at task execution time. If the spec is not
+     * satisfied, the outputs of the task are neither loaded from nor stored in the task output cache.</p>
+     *
+     * <p>You can add multiple such predicates. The results of the task are not cached when any predicate is not satisfied, or when no predicate
+     * has been added.</p>
+     *
+     * @param cacheSpec The spec to use to determine whether the task outputs can be cached.
+     * @since 2.11
+     */
+    @Incubating
+    void cacheIf(Spec<? super Task> cacheSpec);
+
     /**
      * Returns true if this task has declared any outputs. Note that a task may be able to produce output files and
      * still have an empty set of output files.
@@ -30,8 +30,11 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -39,6 +42,11 @@ import java.util.concurrent.locks.ReentrantLock;
 import static org.gradle.cache.internal.FileLockManager.LockMode.Exclusive;
 import static org.gradle.cache.internal.FileLockManager.LockMode.Shared;
 
+/**
+ * Coordinates access to the caches in a directory. When the cache is opened with {@link LockOptions#isConcurrentAccess()}, any number of threads may use the
+ * caches at the same time, sharing a single cross-process file lock. Each {@link MultiProcessSafePersistentIndexedCache} serializes access to its own backing
+ * file, so threads only contend when they use the same cache. Otherwise, one thread at a time may use the caches.
+ */
 @ThreadSafe
 public class DefaultCacheAccess implements CacheCoordinator {
 
@@ -53,13 +61,18 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private final Set<MultiProcessSafePersistentIndexedCache> caches = new HashSet<MultiProcessSafePersistentIndexedCache>();
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
-    private Thread owner;
+    // Modified while holding the lock, but may be queried without it
+    private final Set<Thread> owners = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
     private LockOptions lockOptions;
-    private FileLock fileLock;
+    private volatile FileLock fileLock;
     private FileLock.State stateAtOpen;
     private boolean contended;
+    private boolean workStarted;
     private final CacheAccessOperationsStack operations;
     private int cacheClosedCount;
+    private int lockAcquisitions;
+    private long lockAcquisitionTime;
+    private int releasesToOtherProcesses;
 
     public DefaultCacheAccess(String cacheDisplayName, File lockTarget, File baseDir, FileLockManager lockManager, CacheInitializationAction initializationAction) {
         this.cacheDisplayName = cacheDisplayName;
@@ -131,6 +144,9 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private void closeFileLock() {
         try {
             cacheClosedCount++;
+            if (contended) {
+                releasesToOtherProcesses++;
+            }
             try {
                 // Close the caches and then notify them of the final state, in case the caches do work on close
                 new CompositeStoppable().add(caches).stop();
@@ -145,6 +161,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
             fileLock = null;
             stateAtOpen = null;
             contended = false;
+            workStarted = false;
         }
     }
 
@@ -152,25 +169,41 @@ public class DefaultCacheAccess implements CacheCoordinator {
         lock.lock();
         try {
             // Take ownership
-            if (owner == null) {
-                owner = Thread.currentThread();
-            } else if (lockOptions.getMode() != Shared && owner != Thread.currentThread()) {
+            if (lockOptions.getMode() != Shared && hasOtherOwners()) {
                 // TODO:ADAM - The check for shared mode is a work around. Owner should release the lock
                 throw new IllegalStateException(String.format("Cannot close %s as it is currently being used by another thread.", cacheDisplayName));
             }
+            owners.add(Thread.currentThread());
             if (fileLock != null) {
                 closeFileLock();
             }
             if (cacheClosedCount != 1) {
                 LOG.debug("Cache {} was closed {} times.", cacheDisplayName, cacheClosedCount);
             }
+            reportLockStatistics();
         } finally {
             lockOptions = null;
-            owner = null;
+            owners.clear();
+            lockAcquisitions = 0;
+            lockAcquisitionTime = 0;
+            releasesToOtherProcesses = 0;
             lock.unlock();
         }
     }
 
+    private void reportLockStatistics() {
+        if (lockAcquisitions <= 1 && releasesToOtherProcesses == 0) {
+            return;
+        }
+        String message = "Acquired the lock on {} {} times, taking {} ms, and released it {} times at the request of another process.";
+        Object[] args = {cacheDisplayName, lockAcquisitions, TimeUnit.NANOSECONDS.toMillis(lockAcquisitionTime), releasesToOtherProcesses};
+        if (releasesToOtherProcesses > 0) {
+            LOG.info(message, args);
+        } else {
+            LOG.debug(message, args);
+        }
+    }
+
     public void useCache(String operationDisplayName, Runnable action) {
         useCache(operationDisplayName, Factories.toFactory(action));
     }
@@ -180,11 +213,10 @@ public class DefaultCacheAccess implements CacheCoordinator {
             throw new UnsupportedOperationException("Not implemented yet.");
         }
 
-        boolean wasStarted = false;
         lock.lock();
         try {
             takeOwnership(operationDisplayName);
-            wasStarted = onStartWork();
+            startWork();
         } finally {
             lock.unlock();
         }
@@ -194,8 +226,8 @@ public class DefaultCacheAccess implements CacheCoordinator {
             lock.lock();
             try {
                 try {
-                    if (wasStarted) {
-                        onEndWork();
+                    if (!hasOtherOwners() && operations.isInOutermostCacheAction()) {
+                        endWork();
                     }
                 } finally {
                     releaseOwnership();
@@ -209,14 +241,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private void takeOwnership(String operationDisplayName) {
         lock.lock();
         try {
-            while (owner != null && owner != Thread.currentThread()) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
-                }
-            }
-            owner = Thread.currentThread();
+            awaitOwnership();
             operations.pushCacheAction(operationDisplayName);
         } finally {
             lock.unlock();
@@ -228,7 +253,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
         try {
             operations.popCacheAction();
             if (!operations.isInCacheAction()) {
-                owner = null;
+                owners.remove(Thread.currentThread());
                 condition.signalAll();
             }
         } finally {
@@ -236,6 +261,34 @@ public class DefaultCacheAccess implements CacheCoordinator {
         }
     }
 
+    private void awaitOwnership() {
+        while (hasOtherOwners() && !canShareOwnership()) {
+            try {
+                condition.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        owners.add(Thread.currentThread());
+    }
+
+    private boolean canShareOwnership() {
+        if (lockOptions == null || !lockOptions.isConcurrentAccess()) {
+            return false;
+        }
+        // Once another process has asked for the lock, let the current owners finish so that the lock is handed over
+        return !contended || owners.contains(Thread.currentThread());
+    }
+
+    private boolean hasOtherOwners() {
+        for (Thread thread : owners) {
+            if (thread != Thread.currentThread()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public <T> T longRunningOperation(String operationDisplayName, Factory<? extends T> action) {
         boolean wasEnded = startLongRunningOperation(operationDisplayName);
         try {
@@ -254,8 +307,9 @@ public class DefaultCacheAccess implements CacheCoordinator {
             }
             if (operations.isInCacheAction()) {
                 checkThreadIsOwner();
-                wasEnded = onEndWork();
-                owner = null;
+                // Other threads may still be using the file lock
+                wasEnded = !hasOtherOwners() && onEndWork();
+                owners.remove(Thread.currentThread());
                 condition.signalAll();
             } else {
                 wasEnded = false;
@@ -272,9 +326,10 @@ public class DefaultCacheAccess implements CacheCoordinator {
         try {
             operations.popLongRunningOperation();
             if (operations.isInCacheAction()) {
-                restoreOwner();
-                if (wasEnded) {
-                    onStartWork();
+                awaitOwnership();
+                // The file lock may have been released while this thread was not an owner
+                if (wasEnded || fileLock == null) {
+                    startWork();
                 }
             }
         } finally {
@@ -285,7 +340,7 @@ public class DefaultCacheAccess implements CacheCoordinator {
     private void checkThreadIsOwner() {
         lock.lock();
         try {
-            if (owner != Thread.currentThread()) {
+            if (!owners.contains(Thread.currentThread())) {
                 throw new IllegalStateException(String.format("Cannot start long running operation, as the %s has not been locked.", cacheDisplayName));
             }
         } finally {
@@ -293,22 +348,6 @@ public class DefaultCacheAccess implements CacheCoordinator {
         }
     }
 
-    private void restoreOwner() {
-        lock.lock();
-        try {
-            while (owner != null) {
-                try {
-                    condition.await();
-                } catch (InterruptedException e) {
-                    throw UncheckedException.throwAsUncheckedException(e);
-                }
-            }
-            owner = Thread.currentThread();
-        } finally {
-            lock.unlock();
-        }
-    }
-
     public void longRunningOperation(String operationDisplayName, Runnable action) {
         longRunningOperation(operationDisplayName, Factories.toFactory(action));
     }
@@ -342,11 +381,27 @@ public class DefaultCacheAccess implements CacheCoordinator {
         return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer);
     }
 
+    private void startWork() {
+        if (onStartWork()) {
+            workStarted = true;
+        }
+    }
+
+    private void endWork() {
+        if (workStarted) {
+            workStarted = false;
+            onEndWork();
+        }
+    }
+
     private boolean onStartWork() {
         if (fileLock != null) {
             return false;
         }
+        long start = System.nanoTime();
         fileLock = lockManager.lock(lockTarget, lockOptions.withMode(Exclusive), cacheDisplayName, operations.getDescription());
+        lockAcquisitions++;
+        lockAcquisitionTime += System.nanoTime() - start;
         if (initializationAction.requiresInitialization(fileLock)) {
             fileLock.writeFile(new Runnable() {
                 public void run() {
@@ -375,13 +430,9 @@ public class DefaultCacheAccess implements CacheCoordinator {
     }
 
     private FileLock getLock() {
-        lock.lock();
-        try {
-            if (Thread.currentThread() != owner) {
-                throw new IllegalStateException(String.format("The %s has not been locked for this thread. File lock: %s, owner: %s", cacheDisplayName, fileLock != null, owner));
-            }
-        } finally {
-            lock.unlock();
+        // Does not need the lock: the file lock cannot be released while this thread is an owner
+        if (!owners.contains(Thread.currentThread())) {
+            throw new IllegalStateException(String.format("The %s has not been locked for this thread. File lock: %s, owners: %s", cacheDisplayName, fileLock != null, owners));
         }
         return fileLock;
     }
@@ -410,18 +461,19 @@ public class DefaultCacheAccess implements CacheCoordinator {
             public void run() {
                 lock.lock();
                 try {
-                    LOG.debug("Detected file lock contention of {} (fileLock={}, contended={}, owner={})", cacheDisplayName, fileLock != null, contended, owner);
+                    LOG.debug("Detected file lock contention of {} (fileLock={}, contended={}, owners={})", cacheDisplayName, fileLock != null, contended, owners);
                     if (fileLock == null) {
                         //the lock may have been closed
                         return;
                     }
-                    if (owner != null) {
+                    if (!owners.isEmpty()) {
                         contended = true;
                         return;
                     }
 
                     takeOwnership("Other process requested access to " + cacheDisplayName);
                     try {
+                        contended = true;
                         closeFileLock();
                     } finally {
                         releaseOwnership();
@@ -433,8 +485,8 @@ public class DefaultCacheAccess implements CacheCoordinator {
         };
     }
 
-    Thread getOwner() {
-        return owner;
+    Set<Thread> getOwners() {
+        return owners;
     }
 
     FileAccess getFileAccess() {
@@ -46,6 +46,11 @@ public class DefaultFileLockManager implements FileLockManager {
     private final IdGenerator<Long> generator;
     private final FileLockContentionHandler fileLockContentionHandler;
     private final long shortTimeoutMs = 10000;
+    // How long to wait for the owner to confirm that it has released a lock before checking the lock file again
+    private static final long RELEASE_WAIT_MS = 200L;
+    // After waiting for another process to release a lock, keep it for at least this long, so that a burst of short operations is not interrupted
+    // by every request for the lock. The requester pings again after RELEASE_WAIT_MS, so this must be shorter than that
+    private static final long MINIMUM_HOLD_AFTER_CONTENTION_MS = 100L;
 
     public DefaultFileLockManager(ProcessMetaDataProvider metaDataProvider, FileLockContentionHandler fileLockContentionHandler) {
         this(metaDataProvider, DEFAULT_LOCK_TIMEOUT, fileLockContentionHandler);
@@ -86,7 +91,7 @@ public class DefaultFileLockManager implements FileLockManager {
 
     public void allowContention(FileLock fileLock, Runnable whenContended) {
         DefaultFileLock internalLock = (DefaultFileLock) fileLock;
-        fileLockContentionHandler.start(internalLock.lockId, whenContended);
+        fileLockContentionHandler.start(internalLock.lockId, internalLock.whenContended(whenContended));
     }
 
     private class DefaultFileLock extends AbstractFileAccess implements FileLock {
@@ -97,9 +102,14 @@ public class DefaultFileLockManager implements FileLockManager {
         private final String operationDisplayName;
         private java.nio.channels.FileLock lock;
         private LockFileAccess lockFileAccess;
-        private LockState lockState;
+        private volatile LockState lockState;
+        // Writes may run concurrently on several threads: the first marks the lock file dirty and the last marks it clean again
+        private int writesInProgress;
+        private boolean dirtyBeforeWrites;
+        private boolean writeFailed;
         private int port;
         private final long lockId;
+        private long releasableAfter;
 
         public DefaultFileLock(File target, LockOptions options, String displayName, String operationDisplayName, int port) throws Throwable {
             this.port = port;
@@ -140,7 +150,7 @@ public class DefaultFileLockManager implements FileLockManager {
 
         public boolean getUnlockedCleanly() {
             assertOpen();
-            return !lockState.isDirty();
+            return !isDirty();
         }
 
         public State getState() {
@@ -169,14 +179,47 @@ public class DefaultFileLockManager implements FileLockManager {
             }
 
             try {
-                lockState = lockFileAccess.markDirty(lockState);
-                action.run();
-                lockState = lockFileAccess.markClean(lockState);
+                beginWrite();
+                boolean completed = false;
+                try {
+                    action.run();
+                    completed = true;
+                } finally {
+                    endWrite(completed);
+                }
             } catch (Throwable t) {
                 throw throwAsUncheckedException(t);
             }
         }
 
+        private synchronized void beginWrite() throws IOException {
+            if (writesInProgress == 0) {
+                dirtyBeforeWrites = lockState.isDirty();
+                writeFailed = false;
+                lockState = lockFileAccess.markDirty(lockState);
+            }
+            writesInProgress++;
+        }
+
+        private synchronized void endWrite(boolean completed) throws IOException {
+            writesInProgress--;
+            if (!completed) {
+                // Leave the file marked dirty, as a failed write would when run on its own
+                writeFailed = true;
+                dirtyBeforeWrites = true;
+            }
+            if (writesInProgress == 0 && !writeFailed) {
+                lockState = lockFileAccess.markClean(lockState);
+            }
+        }
+
+        /**
+         * Returns whether the target was left in an inconsistent state. Writes still in progress on other threads are not reported, as each cache serializes access to its own file.
+         */
+        private synchronized boolean isDirty() {
+            return writesInProgress > 0 ? dirtyBeforeWrites : lockState.isDirty();
+        }
+
         private void assertOpen() {
             if (lock == null) {
                 throw new IllegalStateException("This lock has been closed.");
@@ -185,22 +228,13 @@ public class DefaultFileLockManager implements FileLockManager {
 
         private void assertOpenAndIntegral() {
             assertOpen();
-            if (lockState.isDirty()) {
+            if (isDirty()) {
                 throw new FileIntegrityViolationException(String.format("The file '%s' was not unlocked cleanly", target));
             }
         }
 
         public void close() {
             CompositeStoppable stoppable = new CompositeStoppable();
-            stoppable.add(new Stoppable() {
-                public void stop() {
-                    try {
-                        fileLockContentionHandler.stop(lockId);
-                    } catch (Exception e) {
-                        throw new RuntimeException("Unable to stop listening for file lock requests for " + displayName, e);
-                    }
-                }
-            });
             stoppable.add(new Stoppable() {
                 public void stop() {
                     if (lockFileAccess == null) {
@@ -240,6 +274,16 @@ public class DefaultFileLockManager implements FileLockManager {
                     lockedFiles.remove(target);
                 }
             });
+            stoppable.add(new Stoppable() {
+                public void stop() {
+                    // Done once the lock has been released, as this tells the processes waiting for the lock that they can take it
+                    try {
+                        fileLockContentionHandler.stop(lockId);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Unable to stop listening for file lock requests for " + displayName, e);
+                    }
+                }
+            });
             stoppable.stop();
         }
 
@@ -247,6 +291,18 @@ public class DefaultFileLockManager implements FileLockManager {
             return mode;
         }
 
+        Runnable whenContended(final Runnable action) {
+            return new Runnable() {
+                public void run() {
+                    if (System.currentTimeMillis() < releasableAfter) {
+                        LOGGER.debug("Not releasing lock on {} yet, as it has only just been acquired.", displayName);
+                        return;
+                    }
+                    action.run();
+                }
+            };
+        }
+
         private LockState lock(FileLockManager.LockMode lockMode) throws Throwable {
             LOGGER.debug("Waiting to acquire {} lock on {}.", lockMode.toString().toLowerCase(), displayName);
             long waitUntil = System.currentTimeMillis() + lockTimeoutMs;
@@ -308,22 +364,32 @@ public class DefaultFileLockManager implements FileLockManager {
         }
 
         private java.nio.channels.FileLock lockStateRegion(LockMode lockMode, final long waitUntil) throws IOException, InterruptedException {
+            long startedWaiting = System.currentTimeMillis();
+            boolean waited = false;
             do {
                 java.nio.channels.FileLock fileLock = lockFileAccess.tryLockState(lockMode == LockMode.Shared);
                 if (fileLock != null) {
+                    if (waited) {
+                        LOGGER.debug("Waited {} ms for a different Gradle process to release the lock on {}.", System.currentTimeMillis() - startedWaiting, displayName);
+                        releasableAfter = System.currentTimeMillis() + MINIMUM_HOLD_AFTER_CONTENTION_MS;
+                    }
                     return fileLock;
                 }
+                waited = true;
                 if (port != -1) { //we don't like the assumption about the port very much
                     LockInfo lockInfo = readInformationRegion(System.currentTimeMillis()); //no need for timeout here, as we're already looping with timeout
                     if (lockInfo.port != -1) {
                         LOGGER.debug("The file lock is held by a different Gradle process (pid: {}, operation: {}). Will attempt to ping owner at port {}", lockInfo.pid, lockInfo.operation, lockInfo.port);
                         fileLockContentionHandler.pingOwner(lockInfo.port, lockInfo.lockId, displayName);
+                        // The owner replies as soon as it has released the lock. Older versions do not reply, so check the lock file again after a while
+                        fileLockContentionHandler.waitForRelease(lockInfo.lockId, RELEASE_WAIT_MS);
+                        continue;
                     } else {
                         LOGGER.debug("The file lock is held by a different Gradle process. I was unable to read on which port the owner listens for lock access requests.");
                     }
                 }
                 //TODO SF we should inform on the progress/status bar that we're waiting
-                Thread.sleep(200L);
+                Thread.sleep(RELEASE_WAIT_MS);
             } while (System.currentTimeMillis() < waitUntil);
             return null;
         }
@@ -19,6 +19,9 @@ import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
 import org.gradle.internal.Factory;
 
+/**
+ * Serializes access to the backing file of a single cache, so that several threads may use different caches of the same {@link DefaultCacheAccess} at the same time.
+ */
 public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
     private final FileAccess fileAccess;
     private final Factory<BTreePersistentIndexedCache<K, V>> factory;
@@ -29,7 +32,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
         this.fileAccess = fileAccess;
     }
 
-    public V get(final K key) {
+    public synchronized V get(final K key) {
         final PersistentIndexedCache<K, V> cache = getCache();
         try {
             return fileAccess.readFile(new Factory<V>() {
@@ -42,7 +45,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
         }
     }
 
-    public void put(final K key, final V value) {
+    public synchronized void put(final K key, final V value) {
         final PersistentIndexedCache<K, V> cache = getCache();
         // Use writeFile because the cache can internally recover from datafile
         // corruption, so we don't care at this level if it's corrupt
@@ -53,7 +56,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
         });
     }
 
-    public void remove(final K key) {
+    public synchronized void remove(final K key) {
         final PersistentIndexedCache<K, V> cache = getCache();
         // Use writeFile because the cache can internally recover from datafile
         // corruption, so we don't care at this level if it's corrupt
@@ -70,7 +73,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     public void onEndWork(FileLock.State currentCacheState) {
     }
 
-    public void close() {
+    public synchronized void close() {
         if (cache != null) {
             try {
                 fileAccess.writeFile(new Runnable() {
@@ -22,12 +22,17 @@ import java.io.*;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.SocketAddress;
 import java.net.SocketException;
+import java.util.Collection;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
 public class FileLockCommunicator {
     private static final byte PROTOCOL_VERSION = 1;
+    // Optional message type that follows the lock id. Older versions read only the protocol version and the lock id, and treat every message as a request to release
+    private static final byte RELEASE_REQUESTED_WITH_CONFIRMATION = 1;
+    private static final byte RELEASED = 2;
     private final DatagramSocket socket;
     private final InetAddressFactory addressFactory;
     private boolean stopped;
@@ -41,9 +46,12 @@ public class FileLockCommunicator {
         }
     }
 
+    /**
+     * Asks the owner of the given lock to release it. The owner replies with a confirmation once it has done so.
+     */
     public void pingOwner(int ownerPort, long lockId, String displayName) {
         try {
-            byte[] bytesToSend = encode(lockId);
+            byte[] bytesToSend = encode(lockId, RELEASE_REQUESTED_WITH_CONFIRMATION);
             // Ping the owner via all available local addresses
             for (InetAddress address : addressFactory.findLocalAddresses()) {
                 socket.send(new DatagramPacket(bytesToSend, bytesToSend.length, address, ownerPort));
@@ -53,12 +61,26 @@ public class FileLockCommunicator {
         }
     }
 
-    public long receive() throws GracefullyStoppedException {
+    /**
+     * Tells the processes that asked for the given lock that it has been released.
+     */
+    public void confirmRelease(Collection<SocketAddress> requesters, long lockId) {
         try {
-            byte[] bytes = new byte[9];
+            byte[] bytesToSend = encode(lockId, RELEASED);
+            for (SocketAddress requester : requesters) {
+                socket.send(new DatagramPacket(bytesToSend, bytesToSend.length, requester));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to confirm release of lock (lock id: %s)", lockId), e);
+        }
+    }
+
+    public FileLockPacket receive() throws GracefullyStoppedException {
+        try {
+            byte[] bytes = new byte[10];
             DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
             socket.receive(packet);
-            return decode(bytes);
+            return decode(bytes, packet.getLength(), packet.getSocketAddress());
         } catch (IOException e) {
             if (!stopped) {
                 throw new RuntimeException(e);
@@ -72,22 +94,25 @@ public class FileLockCommunicator {
         socket.close();
     }
 
-    private static byte[] encode(long lockId) throws IOException {
+    private static byte[] encode(long lockId, byte type) throws IOException {
         ByteArrayOutputStream packet = new ByteArrayOutputStream();
         DataOutputStream dataOutput = new DataOutputStream(packet);
         dataOutput.writeByte(PROTOCOL_VERSION);
         dataOutput.writeLong(lockId);
+        dataOutput.writeByte(type);
         dataOutput.flush();
         return packet.toByteArray();
     }
 
-    private static long decode(byte[] bytes) throws IOException {
-        DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(bytes));
+    private static FileLockPacket decode(byte[] bytes, int length, SocketAddress sender) throws IOException {
+        DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
         byte version = dataInput.readByte();
         if (version != PROTOCOL_VERSION) {
             throw new IllegalArgumentException(String.format("Unexpected protocol version %s received in lock contention notification message", version));
         }
-        return dataInput.readLong();
+        long lockId = dataInput.readLong();
+        byte type = length > 9 ? dataInput.readByte() : 0;
+        return new FileLockPacket(lockId, type == RELEASED, type == RELEASE_REQUESTED_WITH_CONFIRMATION, sender);
     }
 
     public int getPort() {
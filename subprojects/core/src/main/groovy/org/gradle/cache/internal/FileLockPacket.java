@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import java.net.SocketAddress;
+
+/**
+ * A message received by a {@link FileLockCommunicator}.
+ */
+public class FileLockPacket {
+    private final long lockId;
+    private final boolean released;
+    private final boolean confirmationRequested;
+    private final SocketAddress sender;
+
+    FileLockPacket(long lockId, boolean released, boolean confirmationRequested, SocketAddress sender) {
+        this.lockId = lockId;
+        this.released = released;
+        this.confirmationRequested = confirmationRequested;
+        this.sender = sender;
+    }
+
+    public long getLockId() {
+        return lockId;
+    }
+
+    /**
+     * Returns true if this packet reports that the owner has released the lock, false if this packet requests the owner to release it.
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Returns true if the sender of this request wants to be told when the lock has been released.
+     */
+    public boolean isConfirmationRequested() {
+        return confirmationRequested;
+    }
+
+    public SocketAddress getSender() {
+        return sender;
+    }
+}
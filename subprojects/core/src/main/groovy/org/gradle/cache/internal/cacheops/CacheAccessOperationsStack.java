@@ -41,6 +41,11 @@ public class CacheAccessOperationsStack {
         return stack != null && stack.isInCacheAction();
     }
 
+    public boolean isInOutermostCacheAction() {
+        CacheOperationStack stack = perThreadStacks.get(currentThread());
+        return stack != null && stack.isInOutermostCacheAction();
+    }
+
     public void pushLongRunningOperation(String operationDisplayName) {
         getStackForCurrentThread().pushLongRunningOperation(operationDisplayName);
     }
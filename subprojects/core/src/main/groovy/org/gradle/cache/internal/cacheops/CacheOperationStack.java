@@ -40,6 +40,11 @@ class CacheOperationStack {
         return !operations.isEmpty() && !operations.get(0).longRunningOperation;
     }
 
+    // whether the thread will stop using the cache once the current cache action completes
+    public boolean isInOutermostCacheAction() {
+        return isInCacheAction() && (operations.size() == 1 || operations.get(1).longRunningOperation);
+    }
+
     public boolean isInLongRunningOperation() {
         return !operations.isEmpty() && !isInCacheAction();
     }
@@ -23,6 +23,11 @@ public interface LockOptions {
 
     boolean isUseCrossVersionImplementation();
 
+    /**
+     * Whether several threads of this process may use the cache at the same time. When false, a thread using the cache waits for other threads to finish with it.
+     */
+    boolean isConcurrentAccess();
+
     /**
      * Creates a copy of these options with the given mode.
      */
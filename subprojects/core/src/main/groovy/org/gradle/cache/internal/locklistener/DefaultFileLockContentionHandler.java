@@ -19,21 +19,36 @@ package org.gradle.cache.internal.locklistener;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.FileLockCommunicator;
+import org.gradle.cache.internal.FileLockPacket;
 import org.gradle.cache.internal.GracefullyStoppedException;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
 
+import java.net.SocketAddress;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Hands file locks over between processes. The owner of a lock is pinged when another process wants it, and replies once it has released the lock, so
+ * that the waiting process does not need to poll the lock file.
+ */
 public class DefaultFileLockContentionHandler implements FileLockContentionHandler, Stoppable {
     private static final Logger LOGGER = Logging.getLogger(DefaultFileLockContentionHandler.class);
     private final Lock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
     private final Map<Long, Runnable> contendedActions = new HashMap<Long, Runnable>();
+    // Processes to notify when a lock owned by this process is released
+    private final Map<Long, Set<SocketAddress>> requesters = new HashMap<Long, Set<SocketAddress>>();
+    // Locks owned by other processes that this process is waiting for, and whether their release has been confirmed
+    private final Map<Long, Boolean> awaitedReleases = new HashMap<Long, Boolean>();
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
 
@@ -62,20 +77,31 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
 
             private void doRun() {
                 while (true) {
-                    long lockId;
+                    FileLockPacket packet;
                     try {
-                        lockId = communicator.receive();
+                        packet = communicator.receive();
                     } catch (GracefullyStoppedException e) {
                         return;
                     }
+                    long lockId = packet.getLockId();
                     lock.lock();
                     Runnable action;
                     try {
+                        if (packet.isReleased()) {
+                            if (awaitedReleases.containsKey(lockId)) {
+                                awaitedReleases.put(lockId, true);
+                                released.signalAll();
+                            }
+                            continue;
+                        }
                         action = contendedActions.get(lockId);
                         if (action == null) {
                             //received access request for lock that is already closed
                             continue;
                         }
+                        if (packet.isConfirmationRequested()) {
+                            requesters.get(lockId).add(packet.getSender());
+                        }
                     } finally {
                         lock.unlock();
                     }
@@ -92,21 +118,55 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
             if (communicator == null) {
                 throw new IllegalStateException("Must initialize the handler by reserving the port first.");
             }
-            if (executor == null) {
-                executor = executorFactory.create("File lock request listener");
-                executor.execute(listener());
-            }
+            startListener();
             if (contendedActions.containsKey(lockId)) {
                 throw new UnsupportedOperationException("Multiple contention actions for a given lock are currently not supported.");
             }
             contendedActions.put(lockId, whenContended);
+            requesters.put(lockId, new LinkedHashSet<SocketAddress>());
         } finally {
             lock.unlock();
         }
     }
 
+    private void startListener() {
+        if (executor == null) {
+            executor = executorFactory.create("File lock request listener");
+            executor.execute(listener());
+        }
+    }
+
     public void pingOwner(int port, long lockId, String displayName) {
-        getCommunicator().pingOwner(port, lockId, displayName);
+        FileLockCommunicator communicator = getCommunicator();
+        lock.lock();
+        try {
+            // Listen for the confirmation of the release, registering the wait before the owner can reply
+            startListener();
+            if (!awaitedReleases.containsKey(lockId)) {
+                awaitedReleases.put(lockId, false);
+            }
+        } finally {
+            lock.unlock();
+        }
+        communicator.pingOwner(port, lockId, displayName);
+    }
+
+    public boolean waitForRelease(long lockId, long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            long waitUntil = System.currentTimeMillis() + timeoutMs;
+            while (!Boolean.TRUE.equals(awaitedReleases.get(lockId))) {
+                long remaining = waitUntil - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                released.await(remaining, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        } finally {
+            awaitedReleases.remove(lockId);
+            lock.unlock();
+        }
     }
 
     private void assertNotStopped() {
@@ -116,13 +176,29 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
         }
     }
 
+    /**
+     * Stops handling contention for the given lock, and tells the processes that asked for it that it has been released. Should be called after the lock
+     * has been released.
+     */
     public void stop(long lockId) {
+        Set<SocketAddress> waiting;
+        FileLockCommunicator communicator;
         lock.lock();
         try {
             contendedActions.remove(lockId);
+            waiting = requesters.remove(lockId);
+            communicator = stopped ? null : this.communicator;
         } finally {
             lock.unlock();
         }
+        if (waiting != null && !waiting.isEmpty() && communicator != null) {
+            try {
+                communicator.confirmRelease(waiting, lockId);
+            } catch (RuntimeException e) {
+                // The requesters fall back to polling the lock file
+                LOGGER.debug("Could not confirm release of lock.", e);
+            }
+        }
     }
 
     public void stop() {
@@ -130,6 +206,8 @@ public class DefaultFileLockContentionHandler implements FileLockContentionHandl
         try {
             stopped = true;
             contendedActions.clear();
+            requesters.clear();
+            released.signalAll();
             if (communicator != null) {
                 communicator.stop();
             }
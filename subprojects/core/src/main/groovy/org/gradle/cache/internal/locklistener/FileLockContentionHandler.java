@@ -24,4 +24,11 @@ public interface FileLockContentionHandler {
     int reservePort();
 
     void pingOwner(int port, long lockId, String displayName);
+
+    /**
+     * Waits until the owner pinged by {@link #pingOwner(int, long, String)} confirms that it has released the given lock, or until the timeout expires.
+     *
+     * @return true if the owner confirmed the release, false on timeout.
+     */
+    boolean waitForRelease(long lockId, long timeoutMs) throws InterruptedException;
 }
@@ -16,17 +16,21 @@
 
 package org.gradle.initialization;
 
+import org.gradle.BuildAdapter;
 import org.gradle.BuildLogger;
+import org.gradle.BuildResult;
 import org.gradle.StartParameter;
 import org.gradle.TaskExecutionLogger;
 import org.gradle.api.internal.ExceptionAnalyser;
 import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.invocation.Gradle;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.logging.StandardOutputListener;
 import org.gradle.configuration.BuildConfigurer;
 import org.gradle.deployment.internal.DeploymentRegistry;
 import org.gradle.execution.BuildConfigurationActionExecuter;
 import org.gradle.execution.BuildExecuter;
+import org.gradle.internal.concurrent.PropagatingThreadLocal;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.featurelifecycle.ScriptUsageLocationReporter;
 import org.gradle.internal.progress.BuildOperationExecutor;
@@ -46,19 +50,19 @@ import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ReportGeneratingProfileListener;
 import org.gradle.util.DeprecationLogger;
 
+/**
+ * Each top-level build gets its own {@link NestedBuildTracker} and {@link BuildProgressLogger}, so that several top-level builds can run at the same time,
+ * for example in a daemon. A nested build finds the build that it is nested in through the tracker of the thread that creates it.
+ */
 public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
+    private static final PropagatingThreadLocal<NestedBuildTracker> CURRENT_TRACKER = new PropagatingThreadLocal<NestedBuildTracker>();
     private final ServiceRegistry sharedServices;
-    private final NestedBuildTracker tracker;
-    private final BuildProgressLogger buildProgressLogger;
 
     public DefaultGradleLauncherFactory(ServiceRegistry sharedServices) {
         this.sharedServices = sharedServices;
-        tracker = new NestedBuildTracker();
 
         // Register default loggers
         ListenerManager listenerManager = sharedServices.get(ListenerManager.class);
-        buildProgressLogger = new BuildProgressLogger(sharedServices.get(ProgressLoggerFactory.class));
-        listenerManager.addListener(new BuildProgressFilter(buildProgressLogger));
         listenerManager.useLogger(new DependencyResolutionLogger(sharedServices.get(ProgressLoggerFactory.class)));
     }
 
@@ -74,6 +78,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         BuildRequestMetaData requestMetaData;
         BuildCancellationToken cancellationToken;
         BuildEventConsumer buildEventConsumer;
+        NestedBuildTracker tracker = currentTracker();
         if (tracker.getCurrentBuild() != null) {
             ServiceRegistry services = tracker.getCurrentBuild().getServices();
             requestMetaData = new DefaultBuildRequestMetaData(services.get(BuildClientMetaData.class), System.currentTimeMillis());
@@ -86,12 +91,13 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         }
 
         final BuildScopeServices buildScopeServices = BuildScopeServices.singleSession(sharedServices, startParameter);
-        return doNewInstance(startParameter, cancellationToken, requestMetaData, buildEventConsumer, buildScopeServices);
+        return doNewInstance(startParameter, cancellationToken, requestMetaData, buildEventConsumer, buildScopeServices, tracker);
     }
 
     @Override
     public GradleLauncher newInstance(StartParameter startParameter, BuildRequestContext requestContext, ServiceRegistry parentRegistry) {
         // This should only be used for top-level builds
+        NestedBuildTracker tracker = currentTracker();
         assert tracker.getCurrentBuild() == null;
 
         if (!(parentRegistry instanceof BuildSessionScopeServices)) {
@@ -99,13 +105,18 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         }
 
         BuildScopeServices buildScopeServices = BuildScopeServices.forSession((BuildSessionScopeServices) parentRegistry);
-        DefaultGradleLauncher launcher = doNewInstance(startParameter, requestContext.getCancellationToken(), requestContext, requestContext.getEventConsumer(), buildScopeServices);
+        DefaultGradleLauncher launcher = doNewInstance(startParameter, requestContext.getCancellationToken(), requestContext, requestContext.getEventConsumer(), buildScopeServices, tracker);
         DeploymentRegistry deploymentRegistry = parentRegistry.get(DeploymentRegistry.class);
         deploymentRegistry.onNewBuild(launcher.getGradle());
         return launcher;
     }
 
-    private DefaultGradleLauncher doNewInstance(StartParameter startParameter, BuildCancellationToken cancellationToken, BuildRequestMetaData requestMetaData, BuildEventConsumer buildEventConsumer, BuildScopeServices serviceRegistry) {
+    private static NestedBuildTracker currentTracker() {
+        NestedBuildTracker tracker = CURRENT_TRACKER.get();
+        return tracker != null && tracker.getCurrentBuild() != null ? tracker : new NestedBuildTracker();
+    }
+
+    private DefaultGradleLauncher doNewInstance(StartParameter startParameter, BuildCancellationToken cancellationToken, BuildRequestMetaData requestMetaData, BuildEventConsumer buildEventConsumer, BuildScopeServices serviceRegistry, NestedBuildTracker tracker) {
         serviceRegistry.add(BuildRequestMetaData.class, requestMetaData);
         serviceRegistry.add(BuildClientMetaData.class, requestMetaData.getClient());
         serviceRegistry.add(BuildEventConsumer.class, buildEventConsumer);
@@ -118,12 +129,18 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         loggingManager.addStandardOutputListener(listenerManager.getBroadcaster(StandardOutputListener.class));
         loggingManager.addStandardErrorListener(listenerManager.getBroadcaster(StandardOutputListener.class));
 
-        LoggerProvider loggerProvider = (tracker.getCurrentBuild() == null) ? buildProgressLogger : LoggerProvider.NO_OP;
+        LoggerProvider loggerProvider = LoggerProvider.NO_OP;
+        if (tracker.getCurrentBuild() == null) {
+            BuildProgressLogger buildProgressLogger = new BuildProgressLogger(sharedServices.get(ProgressLoggerFactory.class));
+            listenerManager.addListener(new BuildProgressFilter(buildProgressLogger));
+            loggerProvider = buildProgressLogger;
+        }
         listenerManager.useLogger(new TaskExecutionLogger(serviceRegistry.get(ProgressLoggerFactory.class), loggerProvider));
         if (tracker.getCurrentBuild() == null) {
             listenerManager.useLogger(new BuildLogger(Logging.getLogger(BuildLogger.class), serviceRegistry.get(StyledTextOutputFactory.class), startParameter, requestMetaData));
         }
         listenerManager.addListener(tracker);
+        listenerManager.addListener(new CurrentTrackerListener(tracker));
 
         listenerManager.addListener(serviceRegistry.get(ProfileEventAdapter.class));
         if (startParameter.isProfile()) {
@@ -150,4 +167,27 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
             serviceRegistry
         );
     }
+
+    /**
+     * Makes the tracker of a build available to the thread that runs the build, and to the work that the thread hands to Gradle's executors.
+     */
+    private static class CurrentTrackerListener extends BuildAdapter {
+        private final NestedBuildTracker tracker;
+
+        CurrentTrackerListener(NestedBuildTracker tracker) {
+            this.tracker = tracker;
+        }
+
+        @Override
+        public void buildStarted(Gradle gradle) {
+            CURRENT_TRACKER.set(tracker);
+        }
+
+        @Override
+        public void buildFinished(BuildResult result) {
+            if (tracker.getCurrentBuild() == null) {
+                CURRENT_TRACKER.remove();
+            }
+        }
+    }
 }
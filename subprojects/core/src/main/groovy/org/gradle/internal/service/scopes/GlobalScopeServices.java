@@ -19,9 +19,9 @@ package org.gradle.internal.service.scopes;
 import com.google.common.collect.Iterables;
 import org.gradle.StartParameter;
 import org.gradle.api.internal.*;
+import org.gradle.api.internal.cache.ReleasableCacheRegistry;
 import org.gradle.api.internal.cache.StringInterner;
-import org.gradle.api.internal.changedetection.state.CachingFileSnapshotter;
-import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.changedetection.state.*;
 import org.gradle.api.internal.classpath.*;
 import org.gradle.api.internal.file.*;
 import org.gradle.api.internal.hash.DefaultHasher;
@@ -53,6 +53,7 @@ import org.gradle.internal.filewatch.DefaultFileWatcherFactory;
 import org.gradle.internal.filewatch.FileWatcherFactory;
 import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.service.ServiceLocator;
@@ -79,6 +80,7 @@ import java.util.List;
 public class GlobalScopeServices {
 
     private static final Logger LOGGER = Logging.getLogger(GlobalScopeServices.class);
+    private static final String WATCH_FILE_SYSTEM_PROPERTY = "org.gradle.daemon.watchfs";
     private final ClassPath additionalModuleClassPath;
 
     private GradleBuildEnvironment environment;
@@ -186,8 +188,12 @@ public class GlobalScopeServices {
             fileLockContentionHandler);
     }
 
-    InMemoryTaskArtifactCache createInMemoryTaskArtifactCache() {
-        return new InMemoryTaskArtifactCache();
+    ReleasableCacheRegistry createReleasableCacheRegistry() {
+        return new ReleasableCacheRegistry();
+    }
+
+    InMemoryTaskArtifactCache createInMemoryTaskArtifactCache(ReleasableCacheRegistry releasableCacheRegistry) {
+        return new InMemoryTaskArtifactCache(releasableCacheRegistry);
     }
 
     DefaultFileLockContentionHandler createFileLockContentionHandler(ExecutorFactory executorFactory, MessagingServices messagingServices) {
@@ -221,8 +227,10 @@ public class GlobalScopeServices {
         }
     }
 
-    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter) {
-        return new DefaultClassLoaderCache(classPathSnapshotter);
+    ClassLoaderCache createClassLoaderCache(ClassPathSnapshotter classPathSnapshotter, ReleasableCacheRegistry releasableCacheRegistry) {
+        DefaultClassLoaderCache classLoaderCache = new DefaultClassLoaderCache(classPathSnapshotter);
+        releasableCacheRegistry.register(classLoaderCache);
+        return classLoaderCache;
     }
 
     protected ModelSchemaAspectExtractor createModelSchemaAspectExtractor(ServiceRegistry serviceRegistry) {
@@ -258,6 +266,18 @@ public class GlobalScopeServices {
         return new DefaultFileWatcherFactory(executorFactory);
     }
 
+    FileSystemStateCache createFileSystemStateCache(GradleBuildEnvironment environment, FileWatcherFactory fileWatcherFactory, FileSystem fileSystem, TemporaryFileProvider temporaryFileProvider,
+                                                    ReleasableCacheRegistry releasableCacheRegistry) {
+        // Relies on the events of a watcher being delivered in order, which only holds on Linux
+        if (environment.isLongLivingProcess() && OperatingSystem.current().isLinux() && Boolean.getBoolean(WATCH_FILE_SYSTEM_PROPERTY)) {
+            WatchingFileSystemStateCache fileSystemStateCache = new WatchingFileSystemStateCache(fileWatcherFactory, fileSystem, temporaryFileProvider);
+            releasableCacheRegistry.register(fileSystemStateCache);
+            return fileSystemStateCache;
+        } else {
+            return new NoOpFileSystemStateCache();
+        }
+    }
+
     StringInterner createStringInterner() {
         return new StringInterner();
     }
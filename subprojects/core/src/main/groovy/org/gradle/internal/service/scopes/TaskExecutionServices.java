@@ -25,6 +25,7 @@ import org.gradle.api.internal.changedetection.changes.ShortCircuitTaskArtifactS
 import org.gradle.api.internal.changedetection.state.*;
 import org.gradle.api.internal.hash.DefaultHasher;
 import org.gradle.api.internal.tasks.TaskExecuter;
+import org.gradle.api.internal.tasks.cache.*;
 import org.gradle.api.internal.tasks.execution.*;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
@@ -40,10 +41,31 @@ import org.gradle.internal.operations.DefaultBuildOperationProcessor;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
 import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.service.ServiceRegistry;
+
+import java.net.URI;
 
 public class TaskExecutionServices {
+    /**
+     * Enables loading task outputs from, and storing them in, the task output cache, for those tasks that allow it.
+     */
+    public static final String CACHE_TASKS_PROPERTY = "org.gradle.cache.tasks";
+    /**
+     * The maximum size of the local task output cache, in megabytes.
+     */
+    public static final String CACHE_TASKS_MAX_SIZE_PROPERTY = "org.gradle.cache.tasks.max-size";
+    private static final long DEFAULT_CACHE_TASKS_MAX_SIZE = 5 * 1024;
+    /**
+     * The URI of a remote task output cache to use in addition to the local task output cache.
+     */
+    public static final String CACHE_TASKS_REMOTE_PROPERTY = "org.gradle.cache.tasks.remote";
+    /**
+     * How long to wait for an entry to be fetched from the remote task output cache before executing the task instead, in milliseconds.
+     */
+    public static final String CACHE_TASKS_REMOTE_TIMEOUT_PROPERTY = "org.gradle.cache.tasks.remote.timeout";
+    private static final long DEFAULT_CACHE_TASKS_REMOTE_TIMEOUT = 5000;
 
-    TaskExecuter createTaskExecuter(TaskArtifactStateRepository repository, ListenerManager listenerManager, Gradle gradle) {
+    TaskExecuter createTaskExecuter(TaskArtifactStateRepository repository, TaskOutputCache taskOutputCache, ListenerManager listenerManager, Gradle gradle, StartParameter startParameter) {
         // TODO - need a more comprehensible way to only collect inputs for the outer build
         //      - we are trying to ignore buildSrc here, but also avoid weirdness with use of GradleBuild tasks
         boolean isOuterBuild = gradle.getParent() == null;
@@ -51,24 +73,50 @@ public class TaskExecutionServices {
             ? listenerManager.getBroadcaster(TaskInputsListener.class)
             : TaskInputsListener.NOOP;
 
-        return new ExecuteAtMostOnceTaskExecuter(
-            new SkipOnlyIfTaskExecuter(
-                new SkipTaskWithNoActionsExecuter(
-                    new SkipEmptySourceFilesTaskExecuter(
-                        taskInputsListener,
-                        new ValidatingTaskExecuter(
-                            new SkipUpToDateTaskExecuter(repository,
-                                new PostExecutionAnalysisTaskExecuter(
-                                    new ExecuteActionsTaskExecuter(
-                                        listenerManager.getBroadcaster(TaskActionListener.class)
-                                    )
-                                )
-                            )
-                        )
+        TaskExecuter executer = new PostExecutionAnalysisTaskExecuter(
+            new ExecuteActionsTaskExecuter(
+                listenerManager.getBroadcaster(TaskActionListener.class)
+            )
+        );
+        if (Boolean.getBoolean(CACHE_TASKS_PROPERTY)) {
+            TaskOutputCacheStatistics statistics = new TaskOutputCacheStatistics(taskOutputCache.getDescription());
+            listenerManager.addListener(statistics);
+            executer = new SkipCachedTaskExecuter(taskOutputCache, new TaskOutputPacker(), statistics, executer);
+        }
+
+        executer = new SkipOnlyIfTaskExecuter(
+            new SkipTaskWithNoActionsExecuter(
+                new SkipEmptySourceFilesTaskExecuter(
+                    taskInputsListener,
+                    new ValidatingTaskExecuter(
+                        new SkipUpToDateTaskExecuter(repository, executer)
                     )
                 )
             )
         );
+        if (startParameter.isProfile()) {
+            executer = new RecordMetricsTaskExecuter(listenerManager.getBroadcaster(TaskExecutionMetricsListener.class), executer);
+        }
+
+        return new ExecuteAtMostOnceTaskExecuter(executer);
+    }
+
+    TaskOutputCache createTaskOutputCache(CacheRepository cacheRepository, ExecutorFactory executorFactory, ServiceRegistry services) {
+        long maxSize = Long.getLong(CACHE_TASKS_MAX_SIZE_PROPERTY, DEFAULT_CACHE_TASKS_MAX_SIZE);
+        TaskOutputCache localCache = new LocalDirectoryTaskOutputCache(cacheRepository, maxSize * 1024 * 1024);
+        String remoteUri = System.getProperty(CACHE_TASKS_REMOTE_PROPERTY);
+        if (remoteUri == null || !Boolean.getBoolean(CACHE_TASKS_PROPERTY)) {
+            // The remote cache is only used, and so only validated, when task output caching is enabled
+            return localCache;
+        }
+        URI uri = URI.create(remoteUri);
+        for (RemoteTaskOutputCacheFactory factory : services.getAll(RemoteTaskOutputCacheFactory.class)) {
+            if (factory.supports(uri)) {
+                long timeout = Long.getLong(CACHE_TASKS_REMOTE_TIMEOUT_PROPERTY, DEFAULT_CACHE_TASKS_REMOTE_TIMEOUT);
+                return new LocalAndRemoteTaskOutputCache(localCache, factory.createCache(uri), executorFactory, timeout);
+            }
+        }
+        throw new IllegalArgumentException(String.format("Remote task output cache URI '%s' is not supported.", uri));
     }
 
     TaskArtifactStateCacheAccess createCacheAccess(Gradle gradle, CacheRepository cacheRepository, InMemoryTaskArtifactCache inMemoryTaskArtifactCache, GradleBuildEnvironment environment) {
@@ -85,8 +133,9 @@ public class TaskExecutionServices {
         return new CachingFileSnapshotter(new DefaultHasher(), cacheAccess, stringInterner);
     }
 
-    TaskArtifactStateRepository createTaskArtifactStateRepository(Instantiator instantiator, TaskArtifactStateCacheAccess cacheAccess, StartParameter startParameter, FileSnapshotter fileSnapshotter, StringInterner stringInterner) {
-        FileCollectionSnapshotter fileCollectionSnapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess, stringInterner);
+    TaskArtifactStateRepository createTaskArtifactStateRepository(Instantiator instantiator, TaskArtifactStateCacheAccess cacheAccess, StartParameter startParameter, FileSnapshotter fileSnapshotter, StringInterner stringInterner,
+                                                                  FileSystemStateCache fileSystemStateCache) {
+        FileCollectionSnapshotter fileCollectionSnapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess, stringInterner, fileSystemStateCache);
         FileCollectionSnapshotter discoveredFileCollectionSnapshotter = new MinimalFileSetSnapshotter(fileSnapshotter, cacheAccess, stringInterner);
 
         FileCollectionSnapshotter outputFilesSnapshotter = new OutputFilesCollectionSnapshotter(fileCollectionSnapshotter, new RandomLongIdGenerator(), cacheAccess, stringInterner);
@@ -110,7 +159,8 @@ public class TaskExecutionServices {
                 instantiator,
                 outputFilesSnapshotter,
                 fileCollectionSnapshotter,
-                discoveredFileCollectionSnapshotter
+                discoveredFileCollectionSnapshotter,
+                new TaskCacheKeyCalculator(fileSnapshotter, cacheAccess)
             )
         );
     }
@@ -41,6 +41,7 @@ public class DefaultWorkerProcess implements WorkerProcess {
     private ExecHandle execHandle;
     private boolean running;
     private Throwable processFailure;
+    private ExecResult execResult;
     private final long connectTimeout;
 
     public DefaultWorkerProcess(int connectTimeoutValue, TimeUnit connectTimeoutUnits) {
@@ -93,6 +94,7 @@ public class DefaultWorkerProcess implements WorkerProcess {
                 processFailure = e;
             }
             running = false;
+            this.execResult = execResult;
             condition.signalAll();
         } finally {
             lock.unlock();
@@ -156,6 +158,15 @@ public class DefaultWorkerProcess implements WorkerProcess {
         }
     }
 
+    public ExecResult getExecResult() {
+        lock.lock();
+        try {
+            return execResult;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public ExecResult waitForStop() {
         try {
             return execHandle.waitForFinish().assertNormalExitValue();
@@ -16,6 +16,7 @@
 
 package org.gradle.process.internal;
 
+import org.gradle.api.Nullable;
 import org.gradle.messaging.remote.ObjectConnection;
 import org.gradle.process.ExecResult;
 
@@ -32,4 +33,10 @@ public interface WorkerProcess {
     ObjectConnection getConnection();
 
     ExecResult waitForStop();
+
+    /**
+     * Returns the result of the process once it has stopped, or null while it is still running.
+     */
+    @Nullable
+    ExecResult getExecResult();
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import com.google.common.base.Objects;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps worker processes for reuse until the pool is stopped, which saves starting a JVM and loading the classes of the tool that a worker runs for each
+ * piece of work.
+ *
+ * <p>A worker is started for a key, such as the class path of the tool it runs, and is only reused for work with an equal key. A worker does one piece of
+ * work at a time: it is reserved for the work, and then either released for reuse or, when it may have been left in an unknown state, discarded.</p>
+ *
+ * @param <K> The type of the key that workers are started for.
+ * @param <W> The type of the client that talks to a worker.
+ */
+@ThreadSafe
+public class WorkerProcessPool<K, W extends Stoppable> implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(WorkerProcessPool.class);
+
+    private final String displayName;
+    private final Object lock = new Object();
+    private final Map<W, K> allWorkers = new LinkedHashMap<W, K>();
+    private final List<W> idleWorkers = new ArrayList<W>();
+
+    public WorkerProcessPool(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Reserves an idle worker that was started for an equal key, or starts a new worker when there is none.
+     */
+    public W reserve(K key, Factory<? extends W> workerStarter) {
+        synchronized (lock) {
+            Iterator<W> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                W candidate = it.next();
+                if (Objects.equal(allWorkers.get(candidate), key)) {
+                    it.remove();
+                    return candidate;
+                }
+            }
+        }
+        // Workers are started concurrently
+        W worker = workerStarter.create();
+        synchronized (lock) {
+            allWorkers.put(worker, key);
+        }
+        return worker;
+    }
+
+    /**
+     * Makes a reserved worker available for reuse.
+     */
+    public void release(W worker) {
+        synchronized (lock) {
+            if (allWorkers.containsKey(worker)) {
+                idleWorkers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Stops a reserved worker, so that it is not reused.
+     */
+    public void discard(W worker) {
+        synchronized (lock) {
+            allWorkers.remove(worker);
+        }
+        try {
+            worker.stop();
+        } catch (Exception e) {
+            LOGGER.debug("Could not stop {}.", displayName, e);
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            LOGGER.debug("Stopping {} {}(s).", allWorkers.size(), displayName);
+            try {
+                CompositeStoppable.stoppable(allWorkers.keySet()).stop();
+            } finally {
+                allWorkers.clear();
+                idleWorkers.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.process.ExecResult;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands the results sent by a worker process over to the thread that waits for them, failing the wait when the worker process stops before it has sent
+ * the result.
+ *
+ * @param <R> The type of result.
+ */
+public class WorkerProcessResults<R> {
+    private static final long WORKER_CHECK_INTERVAL_MILLIS = 1000;
+    private final WorkerProcess workerProcess;
+    private final String workerDisplayName;
+    private final String workDisplayName;
+    private final BlockingQueue<R> results = new SynchronousQueue<R>();
+
+    /**
+     * @param workerDisplayName Names the worker process in failure messages, such as "FindBugs worker process".
+     * @param workDisplayName Names the work in failure messages, such as "the analysis".
+     */
+    public WorkerProcessResults(WorkerProcess workerProcess, String workerDisplayName, String workDisplayName) {
+        this.workerProcess = workerProcess;
+        this.workerDisplayName = workerDisplayName;
+        this.workDisplayName = workDisplayName;
+    }
+
+    /**
+     * Called when the worker process sends a result. Waits for a thread to receive it.
+     */
+    public void put(R result) {
+        try {
+            results.put(result);
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Waits for the worker process to send a result.
+     */
+    public R take() {
+        try {
+            while (true) {
+                R result = results.poll(WORKER_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    return result;
+                }
+                ExecResult execResult = workerProcess.getExecResult();
+                if (execResult != null) {
+                    // The result may have been sent just before the process stopped
+                    result = results.poll();
+                    if (result != null) {
+                        return result;
+                    }
+                    throw new ExecException(String.format("%s stopped with exit value %d before %s completed.", workerDisplayName, execResult.getExitValue(), workDisplayName));
+                }
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
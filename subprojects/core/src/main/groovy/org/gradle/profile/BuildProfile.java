@@ -63,6 +63,26 @@ public class BuildProfile {
         return buildStarted;
     }
 
+    public long getProfilingStarted() {
+        return profilingStarted;
+    }
+
+    public long getSettingsEvaluated() {
+        return settingsEvaluated;
+    }
+
+    public long getProjectsLoaded() {
+        return projectsLoaded;
+    }
+
+    public long getProjectsEvaluated() {
+        return projectsEvaluated;
+    }
+
+    public long getBuildFinished() {
+        return buildFinished;
+    }
+
     /**
      * Get a description of this profiled build. It contains info about tasks passed to gradle as targets from the command line.
      */
@@ -25,6 +25,8 @@ import org.gradle.api.artifacts.DependencyResolutionListener;
 import org.gradle.api.artifacts.ResolvableDependencies;
 import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.initialization.Settings;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetricsListener;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.tasks.TaskState;
 import org.gradle.initialization.BuildCompletionListener;
@@ -34,7 +36,7 @@ import org.gradle.internal.TimeProvider;
 /**
  * Adapts various events to build a {@link BuildProfile} model, and then notifies a {@link ReportGeneratingProfileListener} when the model is ready.
  */
-public class ProfileEventAdapter implements BuildListener, ProjectEvaluationListener, TaskExecutionListener, DependencyResolutionListener, BuildCompletionListener {
+public class ProfileEventAdapter implements BuildListener, ProjectEvaluationListener, TaskExecutionListener, TaskExecutionMetricsListener, DependencyResolutionListener, BuildCompletionListener {
     private final BuildRequestMetaData buildMetaData;
     private final TimeProvider timeProvider;
     private final ProfileListener listener;
@@ -108,6 +110,12 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         taskExecution.completed(state);
     }
 
+    // TaskExecutionMetricsListener
+    public void metricsCollected(Task task, TaskExecutionMetrics metrics) {
+        ProjectProfile projectProfile = buildProfile.getProjectProfile(task.getProject().getPath());
+        projectProfile.getTaskProfile(task.getPath()).setMetrics(metrics);
+    }
+
     // DependencyResolutionListener
     public void beforeResolve(ResolvableDependencies dependencies) {
         long now = timeProvider.getCurrentTime();
@@ -15,6 +15,7 @@
  */
 package org.gradle.profile;
 
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
 import org.gradle.internal.html.SimpleHtmlWriter;
 import org.gradle.reporting.DurationFormatter;
 import org.gradle.reporting.HtmlReportRenderer;
@@ -24,6 +25,7 @@ import org.gradle.reporting.TabbedPageRenderer;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 public class ProfileReportRenderer {
     private static final DurationFormatter DURATION_FORMAT = new DurationFormatter();
@@ -65,14 +67,18 @@ public class ProfileReportRenderer {
                 @Override
                 public void render(BuildProfile model, SimpleHtmlWriter htmlWriter) throws IOException {
                     CompositeOperation<Operation> profiledProjectConfiguration = model.getProjectConfiguration();
+                    boolean hasMetrics = hasMetrics(model);
 
                     htmlWriter.startElement("div").attribute("id", "tabs")
                         .startElement("ul").attribute("class", "tabLinks")
                             .startElement("li").startElement("a").attribute("href", "#tab0").characters("Summary").endElement().endElement()
                             .startElement("li").startElement("a").attribute("href", "#tab1").characters("Configuration").endElement().endElement()
                             .startElement("li").startElement("a").attribute("href", "#tab2").characters("Dependency Resolution").endElement().endElement()
-                            .startElement("li").startElement("a").attribute("href", "#tab3").characters("Task Execution").endElement().endElement()
-                        .endElement();
+                            .startElement("li").startElement("a").attribute("href", "#tab3").characters("Task Execution").endElement().endElement();
+                        if (hasMetrics) {
+                            htmlWriter.startElement("li").startElement("a").attribute("href", "#tab4").characters("Task Phases").endElement().endElement();
+                        }
+                    htmlWriter.endElement();
                         htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab0");
                             htmlWriter.startElement("h2").characters("Summary").endElement();
                             htmlWriter.startElement("table");
@@ -176,10 +182,68 @@ public class ProfileReportRenderer {
                                     }
                                 }
                             htmlWriter.endElement()
-                        .endElement()
-                    .endElement();
+                        .endElement();
+                        if (hasMetrics) {
+                            renderTaskPhases(model, htmlWriter);
+                        }
+                    htmlWriter.endElement();
                 }
             };
         }
+
+        private static boolean hasMetrics(BuildProfile model) {
+            for (ProjectProfile project : model.getProjects()) {
+                for (TaskExecution taskExecution : project.getTasks()) {
+                    if (taskExecution.getMetrics() != null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static void renderTaskPhases(BuildProfile model, SimpleHtmlWriter htmlWriter) throws IOException {
+            htmlWriter.startElement("div").attribute("class", "tab").attribute("id", "tab4");
+                htmlWriter.startElement("h2").characters("Task Phases").endElement()
+                .startElement("table")
+                    .startElement("thead")
+                        .startElement("tr")
+                            .startElement("th").characters("Task").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Duration").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Files Visited").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Files Hashed").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Bytes Hashed").endElement()
+                            .startElement("th").attribute("class", "numeric").characters("Hashes Reused").endElement()
+                        .endElement()
+                    .endElement();
+                    for (ProjectProfile project : model.getProjects()) {
+                        for (TaskExecution taskExecution : project.getTasks()) {
+                            TaskExecutionMetrics metrics = taskExecution.getMetrics();
+                            if (metrics == null) {
+                                continue;
+                            }
+                            htmlWriter.startElement("tr")
+                                .startElement("td").characters(taskExecution.getPath()).endElement()
+                                .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(taskExecution.getElapsedTime())).endElement()
+                                .startElement("td").attribute("class", "numeric").characters(String.valueOf(metrics.getFilesVisited())).endElement()
+                                .startElement("td").attribute("class", "numeric").characters(String.valueOf(metrics.getFilesHashed())).endElement()
+                                .startElement("td").attribute("class", "numeric").characters(String.valueOf(metrics.getBytesHashed())).endElement()
+                                .startElement("td").attribute("class", "numeric").characters(String.valueOf(metrics.getHashesReused())).endElement()
+                            .endElement();
+                            for (TaskExecutionMetrics.Phase phase : metrics.getPhases()) {
+                                htmlWriter.startElement("tr")
+                                    .startElement("td").attribute("class", "indentPath").characters(phase.getName()).endElement()
+                                    .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(TimeUnit.NANOSECONDS.toMillis(phase.getDurationNanos()))).endElement()
+                                    .startElement("td").endElement()
+                                    .startElement("td").endElement()
+                                    .startElement("td").endElement()
+                                    .startElement("td").endElement()
+                                .endElement();
+                            }
+                        }
+                    }
+                htmlWriter.endElement();
+            htmlWriter.endElement();
+        }
     }
 }
@@ -15,6 +15,8 @@
  */
 package org.gradle.profile;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
 import org.gradle.api.tasks.TaskState;
 
 /**
@@ -27,6 +29,7 @@ public class TaskExecution extends ContinuousOperation {
 
     private final String path;
     private TaskState state;
+    private TaskExecutionMetrics metrics;
 
     public TaskExecution(String taskPath) {
         super(taskPath);
@@ -52,4 +55,17 @@ public class TaskExecution extends ContinuousOperation {
         this.state = state;
         return this;
     }
+
+    /**
+     * Returns the phase timings and counters of this task execution, or null when these were not recorded.
+     */
+    @Nullable
+    public TaskExecutionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public TaskExecution setMetrics(TaskExecutionMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a {@link BuildProfile} as a JSON file in the trace event format, which can be loaded into {@code chrome://tracing}. Settings, configuration and
+ * dependency resolution are shown on a single build thread, and each task is shown on the thread that executed it, along with the phases of its
+ * execution when these were recorded.
+ */
+public class TraceEventReportRenderer {
+    private static final long BUILD_THREAD = 0;
+
+    public void writeTo(BuildProfile buildProfile, File file) {
+        try {
+            GFileUtils.mkdirs(file.getParentFile());
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            try {
+                render(buildProfile, writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void render(BuildProfile model, Writer writer) throws IOException {
+        EventWriter events = new EventWriter(writer, model.getProfilingStarted());
+        events.threadName(BUILD_THREAD, "Build");
+        events.complete("Startup", "build", model.getProfilingStarted(), model.getBuildStarted(), BUILD_THREAD, null);
+        events.complete("Settings and BuildSrc", "build", model.getBuildStarted(), model.getSettingsEvaluated(), BUILD_THREAD, null);
+        events.complete("Loading Projects", "build", model.getSettingsEvaluated(), model.getProjectsLoaded(), BUILD_THREAD, null);
+        events.complete("Configuring Projects", "build", model.getProjectsLoaded(), model.getProjectsEvaluated(), BUILD_THREAD, null);
+        for (ProjectProfile project : model.getProjects()) {
+            ContinuousOperation configuration = project.getConfigurationOperation();
+            events.complete(configuration.getDescription(), "configuration", configuration.getStartTime(), configuration.getStartTime() + configuration.getElapsedTime(), BUILD_THREAD, null);
+        }
+        for (ContinuousOperation dependencySet : model.getDependencySets()) {
+            events.complete(dependencySet.getDescription(), "dependencies", dependencySet.getStartTime(), dependencySet.getStartTime() + dependencySet.getElapsedTime(), BUILD_THREAD, null);
+        }
+
+        Set<Long> namedThreads = new HashSet<Long>();
+        for (ProjectProfile project : model.getProjects()) {
+            for (TaskExecution task : project.getTasks()) {
+                TaskExecutionMetrics metrics = task.getMetrics();
+                Map<String, Object> args = new LinkedHashMap<String, Object>();
+                args.put("status", task.getStatus());
+                long thread = BUILD_THREAD;
+                if (metrics != null) {
+                    thread = metrics.getThreadId();
+                    if (namedThreads.add(thread)) {
+                        events.threadName(thread, metrics.getThreadName());
+                    }
+                    args.put("filesVisited", metrics.getFilesVisited());
+                    args.put("filesHashed", metrics.getFilesHashed());
+                    args.put("bytesHashed", metrics.getBytesHashed());
+                    args.put("hashesReused", metrics.getHashesReused());
+                }
+                events.complete(task.getPath(), "task", task.getStartTime(), task.getStartTime() + task.getElapsedTime(), thread, args);
+                if (metrics != null) {
+                    long taskStartMicros = metrics.getStartTime() * 1000;
+                    for (TaskExecutionMetrics.Phase phase : metrics.getPhases()) {
+                        events.completeMicros(phase.getName(), "phase", taskStartMicros + phase.getStartOffsetNanos() / 1000, phase.getDurationNanos() / 1000, thread, null);
+                    }
+                }
+            }
+        }
+        events.finish();
+    }
+
+    private static class EventWriter {
+        private final Writer writer;
+        private final long originMicros;
+        private boolean first = true;
+
+        EventWriter(Writer writer, long origin) throws IOException {
+            this.writer = writer;
+            this.originMicros = origin * 1000;
+            writer.write("{\"traceEvents\":[");
+        }
+
+        void threadName(long thread, String name) throws IOException {
+            startEvent();
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+            writer.write(String.valueOf(thread));
+            writer.write(",\"args\":{\"name\":");
+            string(name);
+            writer.write("}}");
+        }
+
+        void complete(String name, String category, long start, long finish, long thread, @Nullable Map<String, Object> args) throws IOException {
+            if (start <= 0 || finish < start) {
+                // Not recorded, for example because the build failed before the operation finished
+                return;
+            }
+            completeMicros(name, category, start * 1000, (finish - start) * 1000, thread, args);
+        }
+
+        void completeMicros(String name, String category, long startMicros, long durationMicros, long thread, @Nullable Map<String, Object> args) throws IOException {
+            startEvent();
+            writer.write("{\"name\":");
+            string(name);
+            writer.write(",\"cat\":");
+            string(category);
+            writer.write(",\"ph\":\"X\",\"ts\":");
+            writer.write(String.valueOf(startMicros - originMicros));
+            writer.write(",\"dur\":");
+            writer.write(String.valueOf(Math.max(0, durationMicros)));
+            writer.write(",\"pid\":1,\"tid\":");
+            writer.write(String.valueOf(thread));
+            if (args != null) {
+                writer.write(",\"args\":{");
+                boolean firstArg = true;
+                for (Map.Entry<String, Object> entry : args.entrySet()) {
+                    if (!firstArg) {
+                        writer.write(',');
+                    }
+                    firstArg = false;
+                    string(entry.getKey());
+                    writer.write(':');
+                    if (entry.getValue() instanceof Number) {
+                        writer.write(entry.getValue().toString());
+                    } else {
+                        string(String.valueOf(entry.getValue()));
+                    }
+                }
+                writer.write('}');
+            }
+            writer.write('}');
+        }
+
+        void finish() throws IOException {
+            writer.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+        }
+
+        private void startEvent() throws IOException {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write('\n');
+        }
+
+        private void string(String value) throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                if (ch == '"' || ch == '\\') {
+                    writer.write('\\');
+                    writer.write(ch);
+                } else if (ch < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) ch));
+                } else {
+                    writer.write(ch);
+                }
+            }
+            writer.write('"');
+        }
+    }
+}
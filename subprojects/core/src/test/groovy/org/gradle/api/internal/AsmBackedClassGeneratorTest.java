@@ -38,6 +38,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -106,6 +107,34 @@ public class AsmBackedClassGeneratorTest {
         assertSame(generator.generate(Bean.class), generator.generate(Bean.class));
     }
 
+    @Test
+    public void generatesSubclassesConcurrently() throws Exception {
+        final List<Class<?>> types = Arrays.<Class<?>>asList(Bean.class, BeanWithConstructor.class, BeanWithComplexConstructor.class, BeanWithReadOnlyProperties.class);
+        final List<Class<?>> results = Collections.synchronizedList(new ArrayList<Class<?>>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final Class<?> type = types.get(i % types.size());
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    results.add(generator.generate(type));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(results.size(), equalTo(8));
+        for (Class<?> type : types) {
+            Class<?> generatedClass = generator.generate(type);
+            assertThat(Collections.frequency(results, generatedClass), equalTo(2));
+        }
+    }
+
     @Test
     public void doesNotDecorateAlreadyDecoratedClass() {
         Class<? extends Bean> generatedClass = generator.generate(Bean.class);
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache
+
+import spock.lang.Specification
+
+class ReleasableCacheRegistryTest extends Specification {
+    def registry = new ReleasableCacheRegistry()
+
+    def "releases least recently used cache first"() {
+        def cache1 = Mock(ReleasableCache)
+        def cache2 = Mock(ReleasableCache)
+        registry.register(cache1)
+        registry.register(cache2)
+
+        when:
+        def released = registry.releaseLeastRecentlyUsed()
+
+        then:
+        released == cache2
+        _ * cache1.lastUsed >> 200
+        _ * cache2.lastUsed >> 100
+        1 * cache2.release()
+        0 * cache1.release()
+    }
+
+    def "does not release caches that hold nothing"() {
+        def cache = Mock(ReleasableCache)
+        registry.register(cache)
+
+        when:
+        def released = registry.releaseLeastRecentlyUsed()
+
+        then:
+        released == null
+        _ * cache.lastUsed >> 0
+        0 * cache.release()
+    }
+
+    def "does not release unregistered cache"() {
+        def cache = Mock(ReleasableCache)
+        registry.register(cache)
+        registry.unregister(cache)
+
+        when:
+        def released = registry.releaseLeastRecentlyUsed()
+
+        then:
+        released == null
+        0 * cache._
+    }
+}
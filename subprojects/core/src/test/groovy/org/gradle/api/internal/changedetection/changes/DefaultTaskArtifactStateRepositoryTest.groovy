@@ -23,10 +23,12 @@ import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.changedetection.TaskArtifactState
 import org.gradle.api.internal.changedetection.state.*
 import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.api.internal.tasks.cache.TaskCacheKeyCalculator
 import org.gradle.api.tasks.incremental.InputFileDetails
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.internal.CacheScopeMapping
 import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.internal.hash.HashValue
 import org.gradle.internal.id.RandomLongIdGenerator
 import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.internal.serialize.DefaultSerializerRegistry
@@ -81,7 +83,8 @@ public class DefaultTaskArtifactStateRepositoryTest extends Specification {
         outputFilesSnapshotter.registerSerializers(serializerRegistry);
         discoveredFilesSnapshotter.registerSerializers(serializerRegistry);
         TaskHistoryRepository taskHistoryRepository = new CacheBackedTaskHistoryRepository(cacheAccess, new CacheBackedFileSnapshotRepository(cacheAccess, serializerRegistry.build(), new RandomLongIdGenerator()), stringInterner)
-        repository = new DefaultTaskArtifactStateRepository(taskHistoryRepository, DirectInstantiator.INSTANCE, outputFilesSnapshotter, inputFilesSnapshotter, discoveredFilesSnapshotter)
+        repository = new DefaultTaskArtifactStateRepository(taskHistoryRepository, DirectInstantiator.INSTANCE, outputFilesSnapshotter, inputFilesSnapshotter, discoveredFilesSnapshotter,
+            new TaskCacheKeyCalculator(snapshotter, cacheAccess))
     }
 
     def artifactsAreNotUpToDateWhenCacheIsEmpty() {
@@ -546,6 +549,65 @@ public class DefaultTaskArtifactStateRepositoryTest extends Specification {
         state2.executionHistory.outputFiles.files == [outputDirFile2] as Set
     }
 
+    def cacheKeyIsTheSameForTasksWithTheSameTypeAndInputs() {
+        expect:
+        cacheKey(builder.withPath("a").task()) == cacheKey(builder.withPath("b").task())
+        cacheKey(builder.task()) != null
+    }
+
+    def cacheKeyChangesWhenInputFileContentChanges() {
+        given:
+        def key = cacheKey(task)
+
+        when:
+        inputDirFile.text = "new content"
+
+        then:
+        cacheKey(task) != key
+    }
+
+    def cacheKeyChangesWhenInputPropertyChanges() {
+        expect:
+        cacheKey(builder.withProperty("prop", "other").task()) != cacheKey(builder.task())
+    }
+
+    def cacheKeyChangesWhenTaskTypeChanges() {
+        expect:
+        cacheKey(builder.withType(TaskSubType).task()) != cacheKey(builder.task())
+    }
+
+    def cacheKeyChangesWhenOutputFilesChange() {
+        expect:
+        cacheKey(builder.withOutputFiles(outputFile).task()) != cacheKey(builder.task())
+    }
+
+    def cacheKeyChangesWhenTaskActionsChange() {
+        given:
+        def task = builder.task()
+        def key = cacheKey(task)
+
+        when:
+        task.doLast {}
+
+        then:
+        cacheKey(task) != key
+    }
+
+    def cacheKeyChangesWhenTaskActionImplementationChanges() {
+        expect:
+        cacheKey(builder.task().doFirst { println "a" }) != cacheKey(builder.task().doFirst { println "b" })
+    }
+
+    def hasNoCacheKeyWhenInputPropertyCannotBeSerialized() {
+        expect:
+        cacheKey(builder.withProperty("prop", new Object()).task()) == null
+    }
+
+    private HashValue cacheKey(TaskInternal task) {
+        final state = repository.getStateFor(task)
+        return state.calculateCacheKey()
+    }
+
     private void outOfDate(TaskInternal task) {
         final state = repository.getStateFor(task)
         assert !state.upToDate
@@ -37,7 +37,7 @@ class DefaultTaskArtifactStateCacheAccessTest extends Specification {
         then:
         1 * cacheRepository.cache(gradle, "taskArtifacts") >> cacheBuilder
         1 * cacheBuilder.withDisplayName(_) >> cacheBuilder
-        1 * cacheBuilder.withLockOptions(LockOptionsBuilder.mode(FileLockManager.LockMode.None)) >> cacheBuilder
+        1 * cacheBuilder.withLockOptions(LockOptionsBuilder.mode(FileLockManager.LockMode.None).concurrentAccess()) >> cacheBuilder
         1 * cacheBuilder.open() >> backingCache
         0 * _._
     }
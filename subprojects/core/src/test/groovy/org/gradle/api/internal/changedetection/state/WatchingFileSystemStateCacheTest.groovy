@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.file.DefaultTemporaryFileProvider
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.collections.DirectoryFileTree
+import org.gradle.api.tasks.util.PatternSet
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.filewatch.DefaultFileWatcherFactory
+import org.gradle.internal.filewatch.FileWatcherFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.NativeServicesTestFixture
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+@Requires(TestPrecondition.LINUX)
+class WatchingFileSystemStateCacheTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final FileSnapshotter snapshotter = Mock()
+    FileWatcherFactory fileWatcherFactory
+    WatchingFileSystemStateCache cache
+
+    def setup() {
+        NativeServicesTestFixture.initialize()
+        fileWatcherFactory = new DefaultFileWatcherFactory(new DefaultExecutorFactory())
+        cache = new WatchingFileSystemStateCache(fileWatcherFactory, TestFiles.fileSystem(), new DefaultTemporaryFileProvider({ tmpDir.createDir("tmp") } as Factory))
+    }
+
+    def cleanup() {
+        cache.stop()
+        fileWatcherFactory.stop()
+    }
+
+    def "visits files and directories in the same order as the directory walker"() {
+        def root = tmpDir.createDir("root")
+        root.createFile("b.txt")
+        root.createFile("sub/c.txt")
+        root.createFile("a.txt")
+
+        when:
+        def paths = visit(new DirectoryFileTree(root))
+
+        then:
+        paths.sort(false) == ["a.txt", "b.txt", "sub", "sub/c.txt"]
+        paths[2..3] == ["sub", "sub/c.txt"]
+        visit(new DirectoryFileTree(root)) == paths
+    }
+
+    def "applies patterns of tree"() {
+        def root = tmpDir.createDir("root")
+        root.createFile("a.txt")
+        root.createFile("b.java")
+        root.createFile("excluded/c.txt")
+        def patterns = new PatternSet().include("**/*.txt").exclude("excluded")
+
+        expect:
+        visit(new DirectoryFileTree(root, patterns)) == ["a.txt"]
+    }
+
+    def "reuses snapshot of unchanged file"() {
+        def root = tmpDir.createDir("root")
+        def file = root.createFile("a.txt")
+        def snapshot = Stub(FileSnapshot)
+
+        when:
+        def first = snapshots(new DirectoryFileTree(root))
+        def second = snapshots(new DirectoryFileTree(root))
+
+        then:
+        1 * snapshotter.snapshot({ it.file == file } as FileVisitDetails) >> snapshot
+        first == [snapshot]
+        second == [snapshot]
+    }
+
+    def "discards state of changed file"() {
+        def root = tmpDir.createDir("root")
+        def file = root.createFile("a.txt")
+
+        when:
+        snapshots(new DirectoryFileTree(root))
+        file.text = "changed"
+        snapshots(new DirectoryFileTree(root))
+
+        then:
+        2 * snapshotter.snapshot(_) >> Stub(FileSnapshot)
+    }
+
+    def "sees files that are added to and removed from a directory"() {
+        def root = tmpDir.createDir("root")
+        root.createFile("sub/a.txt")
+
+        when:
+        visit(new DirectoryFileTree(root))
+        root.createFile("sub/b.txt")
+        root.file("sub/a.txt").delete()
+
+        then:
+        visit(new DirectoryFileTree(root)) == ["sub", "sub/b.txt"]
+
+        when:
+        root.file("sub").deleteDir()
+
+        then:
+        visit(new DirectoryFileTree(root)) == []
+    }
+
+    def "does not handle tree whose root does not exist"() {
+        expect:
+        !cache.visitTree(new DirectoryFileTree(tmpDir.file("missing")), Mock(FileVisitor))
+    }
+
+    def "does not handle tree that contains a symbolic link"() {
+        def root = tmpDir.createDir("root")
+        root.createFile("a.txt")
+        def target = tmpDir.createDir("target")
+        target.createFile("b.txt")
+        root.file("sub").createDir().file("link").createLink(target)
+        def visitor = Mock(FileVisitor)
+
+        when:
+        def handled = cache.visitTree(new DirectoryFileTree(root), visitor)
+
+        then:
+        !handled
+        0 * visitor._
+
+        expect:
+        !cache.visitTree(new DirectoryFileTree(root), visitor)
+    }
+
+    def "does not handle tree whose root is reached through a symbolic link"() {
+        def target = tmpDir.createDir("target")
+        target.createFile("a.txt")
+        def link = tmpDir.file("link")
+        link.createLink(target)
+
+        expect:
+        !cache.visitTree(new DirectoryFileTree(link), Mock(FileVisitor))
+    }
+
+    def "does not handle trees after it has been stopped"() {
+        def root = tmpDir.createDir("root")
+
+        when:
+        cache.stop()
+
+        then:
+        !cache.visitTree(new DirectoryFileTree(root), Mock(FileVisitor))
+    }
+
+    private List<String> visit(DirectoryFileTree tree) {
+        def paths = []
+        assert cache.visitTree(tree, new FileVisitor() {
+            void visitDir(FileVisitDetails dirDetails) {
+                paths << dirDetails.relativePath.pathString
+            }
+
+            void visitFile(FileVisitDetails fileDetails) {
+                paths << fileDetails.relativePath.pathString
+            }
+        })
+        return paths
+    }
+
+    private List<FileSnapshot> snapshots(DirectoryFileTree tree) {
+        def result = []
+        assert cache.visitTree(tree, new FileVisitor() {
+            void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            void visitFile(FileVisitDetails fileDetails) {
+                result << cache.snapshot(fileDetails, snapshotter)
+            }
+        })
+        return result
+    }
+}
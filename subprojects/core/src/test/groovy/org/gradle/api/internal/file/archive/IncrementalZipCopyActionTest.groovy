@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.api.tasks.bundling.ZipEntryCompression
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.ZipFile
+
+import static org.hamcrest.Matchers.equalTo
+
+class IncrementalZipCopyActionTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultExecutorFactory(), 4)
+    TestFile zipFile
+    TestFile stateFile
+
+    def setup() {
+        zipFile = tmpDir.file("test.zip")
+        stateFile = tmpDir.file("tmp/state.bin")
+    }
+
+    @Unroll
+    def "creates #compression ZIP file with entries in the order visited"() {
+        given:
+        def b = tmpDir.createFile("src/b.txt") << "contents of b"
+        def a = tmpDir.createFile("src/a.txt") << "contents of a"
+
+        when:
+        zip(compression, dir("dir"), file("dir/b.txt", b), file("a.txt", a), filtered("c.txt", "contents of c"))
+
+        then:
+        entryNames() == ["dir/", "dir/b.txt", "a.txt", "c.txt"]
+        def expandDir = tmpDir.file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("dir/b.txt").assertContents(equalTo("contents of b"))
+        expandDir.file("a.txt").assertContents(equalTo("contents of a"))
+        expandDir.file("c.txt").assertContents(equalTo("contents of c"))
+
+        where:
+        compression << ZipEntryCompression.values()
+    }
+
+    @Unroll
+    def "writes #compression entries in the order visited when many entries are visited"() {
+        given:
+        def files = (1..200).collect { i ->
+            def source = tmpDir.createFile("src/file${i}.txt") << "contents of file $i\n" * i
+            i % 2 == 0 ? file("file${i}.txt", source) : filtered("file${i}.txt", source.text)
+        }
+
+        when:
+        zip(compression, files as FileCopyDetailsInternal[])
+
+        then:
+        entryNames() == (1..200).collect { "file${it}.txt" }
+        def expandDir = tmpDir.file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("file150.txt").text == "contents of file 150\n" * 150
+        expandDir.file("file151.txt").text == "contents of file 151\n" * 151
+        stateFile.parentFile.list() as List == [stateFile.name]
+
+        where:
+        compression << ZipEntryCompression.values()
+    }
+
+    @Unroll
+    def "keeps large #compression entry without source file in a temporary file until it is written"() {
+        given:
+        def content = (1..200000).collect { "line $it" }.join("\n")
+
+        when:
+        zip(compression, filtered("large.txt", content), filtered("small.txt", "small"))
+
+        then:
+        def expandDir = tmpDir.file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("large.txt").text == content
+        expandDir.file("small.txt").text == "small"
+        stateFile.parentFile.list() as List == [stateFile.name]
+
+        where:
+        compression << ZipEntryCompression.values()
+    }
+
+    def "reuses compressed entries of previous archive whose source has not changed"() {
+        given:
+        def a = tmpDir.createFile("src/a.txt") << "contents of a"
+        def b = tmpDir.createFile("src/b.txt") << "contents of b"
+        zip(ZipEntryCompression.DEFLATED, file("a.txt", a), file("b.txt", b))
+
+        when:
+        // Same size and timestamp, so the entry is not compressed again
+        def lastModified = a.lastModified()
+        a.text = "CONTENTS OF A"
+        a.setLastModified(lastModified)
+        b << " changed"
+        zip(ZipEntryCompression.DEFLATED, file("a.txt", a), file("b.txt", b), file("copy/a.txt", a))
+
+        then:
+        entryNames() == ["a.txt", "b.txt", "copy/a.txt"]
+        def expandDir = tmpDir.file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("a.txt").assertContents(equalTo("contents of a"))
+        expandDir.file("b.txt").assertContents(equalTo("contents of b changed"))
+        expandDir.file("copy/a.txt").assertContents(equalTo("contents of a"))
+    }
+
+    def "rebuilds all entries when archive has been modified since it was created"() {
+        given:
+        def a = tmpDir.createFile("src/a.txt") << "contents of a"
+        zip(ZipEntryCompression.DEFLATED, file("a.txt", a))
+
+        when:
+        zipFile.text = "broken"
+        zip(ZipEntryCompression.DEFLATED, file("a.txt", a))
+
+        then:
+        def expandDir = tmpDir.file("expanded")
+        zipFile.unzipTo(expandDir)
+        expandDir.file("a.txt").assertContents(equalTo("contents of a"))
+    }
+
+    def "wraps failure to add element"() {
+        given:
+        def failure = new RuntimeException("broken")
+        def broken = Mock(FileCopyDetailsInternal)
+        broken.getRelativePath() >> RelativePath.parse(true, "file")
+        broken.copyTo(_ as OutputStream) >> { throw failure }
+
+        when:
+        zip(ZipEntryCompression.DEFLATED, broken)
+
+        then:
+        def e = thrown(Exception)
+        e.message == String.format("Could not add $broken to ZIP '%s'.", zipFile)
+        e.cause.is(failure)
+    }
+
+    private void zip(ZipEntryCompression compression, FileCopyDetailsInternal... files) {
+        def action = new IncrementalZipCopyAction(zipFile, compression, false, "UTF-8", new DocumentationRegistry(), stateFile, buildOperationProcessor)
+        action.execute(new CopyActionProcessingStream() {
+            public void process(CopyActionProcessingStreamAction streamAction) {
+                for (FileCopyDetailsInternal f : files) {
+                    streamAction.processFile(f)
+                }
+            }
+        })
+    }
+
+    private List<String> entryNames() {
+        def zip = new ZipFile(zipFile)
+        try {
+            return zip.entries().collect { it.name }
+        } finally {
+            zip.close()
+        }
+    }
+
+    private FileCopyDetailsInternal file(String path, File source) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 0644
+        mock.getSourceFile() >> source
+        mock
+    }
+
+    private FileCopyDetailsInternal filtered(String path, String content) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(true, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 0644
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            out << content
+        }
+        mock
+    }
+
+    private FileCopyDetailsInternal dir(String path) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> true
+        mock.getMode() >> 0755
+        mock
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class IncrementalFileCopyActionTest extends WorkspaceTest {
+    TestFile stateFile
+
+    def setup() {
+        stateFile = file("tmp/copied-files.bin")
+    }
+
+    def "copies all files when there is no previous state"() {
+        given:
+        file("src").with {
+            createFile("subdir/a.txt") << "a"
+            createFile("b.txt") << "b"
+        }
+
+        when:
+        def action = copyAction(true, false)
+        def result = copy(action) { it.from "src" }
+
+        then:
+        !action.hasPreviousState()
+        result.didWork
+        file("dest/subdir/a.txt").text == "a"
+        file("dest/b.txt").text == "b"
+        stateFile.file
+    }
+
+    def "does not copy file whose source and destination have not changed"() {
+        given:
+        def a = file("src/a.txt").createFile() << "a"
+        def b = file("src/b.txt").createFile() << "b"
+        copy(copyAction(true, false)) { it.from "src" }
+
+        when:
+        // Same size and timestamp, so the file is not copied again
+        def lastModified = a.lastModified()
+        a.text = "A"
+        a.setLastModified(lastModified)
+        b << " changed"
+        def action = copyAction(true, false)
+        def result = copy(action) { it.from "src" }
+
+        then:
+        action.hasPreviousState()
+        result.didWork
+        file("dest/a.txt").text == "a"
+        file("dest/b.txt").text == "b changed"
+    }
+
+    def "copies all files when previous state is not to be used"() {
+        given:
+        def a = file("src/a.txt").createFile() << "a"
+        copy(copyAction(true, false)) { it.from "src" }
+
+        when:
+        def lastModified = a.lastModified()
+        a.text = "A"
+        a.setLastModified(lastModified)
+        def action = copyAction(false, false)
+        copy(action) { it.from "src" }
+
+        then:
+        !action.hasPreviousState()
+        file("dest/a.txt").text == "A"
+    }
+
+    def "copies file again when destination has been modified"() {
+        given:
+        file("src/a.txt").createFile() << "a"
+        copy(copyAction(true, false)) { it.from "src" }
+
+        when:
+        file("dest/a.txt").text = "modified"
+        copy(copyAction(true, false)) { it.from "src" }
+
+        then:
+        file("dest/a.txt").text == "a"
+    }
+
+    def "always copies filtered files"() {
+        given:
+        file("src/a.txt").createFile() << "a"
+        copy(copyAction(true, false)) { it.from("src") { it.filter { it.toUpperCase() } } }
+
+        when:
+        file("dest/a.txt").text = "B"
+        file("dest/a.txt").setLastModified(file("dest/a.txt").lastModified() - 2000)
+        copy(copyAction(true, false)) { it.from("src") { it.filter { it.toUpperCase() } } }
+
+        then:
+        file("dest/a.txt").text == "A"
+    }
+
+    def "deletes stale files copied by previous execution"() {
+        given:
+        file("src").with {
+            createFile("subdir/a.txt")
+            createFile("b.txt")
+        }
+        file("dest/other.txt").createFile()
+        copy(copyAction(true, true)) { it.from "src" }
+
+        when:
+        file("src/subdir").deleteDir()
+        def result = copy(copyAction(true, true)) { it.from "src" }
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("b.txt", "other.txt")
+        !file("dest/subdir").exists()
+    }
+
+    def "does not delete stale files when previous state is not known"() {
+        given:
+        file("src/a.txt").createFile()
+        copy(copyAction(true, true)) { it.from "src" }
+
+        when:
+        file("src/a.txt").delete()
+        file("src/b.txt").createFile()
+        copy(copyAction(false, true)) { it.from "src" }
+
+        then:
+        file("dest").assertHasDescendants("a.txt", "b.txt")
+    }
+
+    private IncrementalFileCopyAction copyAction(boolean usePreviousState, boolean deleteStaleFiles) {
+        return new IncrementalFileCopyAction(TestFiles.fileLookup().getFileResolver(file("dest")), stateFile, usePreviousState, deleteStaleFiles)
+    }
+
+    private copy(CopyAction action, Closure configure) {
+        def resolver = TestFiles.resolver(testDirectory)
+        def copySpec = new DestinationRootCopySpec(resolver, new DefaultCopySpec(resolver, DirectInstantiator.INSTANCE))
+        copySpec.into("dest")
+        configure(copySpec.addChild())
+        return new CopyActionExecuter(DirectInstantiator.INSTANCE, TestFiles.fileSystem()).execute(copySpec, action)
+    }
+}
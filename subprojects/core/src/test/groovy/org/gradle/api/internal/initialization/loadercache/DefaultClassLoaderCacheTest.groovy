@@ -165,4 +165,30 @@ class DefaultClassLoaderCacheTest extends Specification {
         then:
         cache.size() == 0
     }
+
+    def "release discards all loaders and keeps the cache consistent"() {
+        def root = classLoader(classPath("root"))
+        def f1 = new FilteringClassLoader.Spec(["1"], [], [], [], [], [], [])
+        def loader = cache.get(id1, classPath("c1"), root, f1)
+        cache.get(id2, classPath("c1"), root, null)
+
+        when:
+        cache.release()
+
+        then:
+        cache.size() == 0
+        cache.lastUsed == 0
+        cache.assertInternalIntegrity()
+
+        when:
+        cache.remove(id1)
+
+        then:
+        noExceptionThrown()
+        cache.size() == 0
+
+        and:
+        !cache.get(id1, classPath("c1"), root, f1).is(loader)
+        cache.size() == 2
+    }
 }
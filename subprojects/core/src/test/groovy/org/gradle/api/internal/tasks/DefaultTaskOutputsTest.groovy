@@ -19,6 +19,7 @@ import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.TaskExecutionHistory
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.file.FileResolver
+import org.gradle.api.specs.Spec
 import org.gradle.util.UsesNativeServices
 import spock.lang.Specification
 
@@ -90,6 +91,36 @@ class DefaultTaskOutputsTest extends Specification {
         outputs.upToDateSpec.isSatisfiedBy(task)
     }
 
+    public void cachingIsNotAllowedByDefault() {
+        expect:
+        !outputs.cacheAllowed
+    }
+
+    public void canSpecifyCacheIfPredicateUsingClosure() {
+        boolean cacheAllowed = false
+
+        when:
+        outputs.cacheIf { cacheAllowed }
+
+        then:
+        !outputs.cacheAllowed
+
+        when:
+        cacheAllowed = true
+
+        then:
+        outputs.cacheAllowed
+    }
+
+    public void cachingIsNotAllowedWhenAnyCacheIfPredicateIsNotSatisfied() {
+        when:
+        outputs.cacheIf { true }
+        outputs.cacheIf({ false } as Spec)
+
+        then:
+        !outputs.cacheAllowed
+    }
+
     public void getPreviousFilesDelegatesToTaskHistory() {
         TaskExecutionHistory history = Mock()
         FileCollection outputFiles = Mock()
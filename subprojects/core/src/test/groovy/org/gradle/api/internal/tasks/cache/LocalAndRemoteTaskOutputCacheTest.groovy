@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashValue
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+
+class LocalAndRemoteTaskOutputCacheTest extends Specification {
+    def local = new InMemoryTaskOutputCache()
+    def remote = Mock(TaskOutputCache)
+    def executorFactory = new DefaultExecutorFactory()
+    def cache = new LocalAndRemoteTaskOutputCache(local, remote, executorFactory, 1000)
+    def key = new HashValue("1234")
+
+    def cleanup() {
+        cache.stop()
+        executorFactory.stop()
+    }
+
+    def "loads entry from local cache without using remote cache"() {
+        local.entries[key] = "content"
+
+        when:
+        def result = load(key)
+
+        then:
+        result == "content"
+        0 * remote._
+    }
+
+    def "fetches entry that is missing from local cache into local cache"() {
+        when:
+        def result = load(key)
+
+        then:
+        result == "content"
+        local.entries[key] == "content"
+        1 * remote.load(key, _) >> { HashValue k, TaskOutputCache.TaskOutputReader reader ->
+            reader.readFrom(new ByteArrayInputStream("content".bytes))
+            true
+        }
+    }
+
+    def "does not find entry that is missing from both caches"() {
+        when:
+        def result = load(key)
+
+        then:
+        result == null
+        1 * remote.load(key, _) >> false
+    }
+
+    def "reports entry as missing when remote cache is slow and continues fetching in the background"() {
+        def release = new CountDownLatch(1)
+        def slowCache = new LocalAndRemoteTaskOutputCache(local, remote, executorFactory, 100)
+
+        remote.load(key, _) >> { HashValue k, TaskOutputCache.TaskOutputReader reader ->
+            release.await()
+            reader.readFrom(new ByteArrayInputStream("content".bytes))
+            true
+        }
+
+        when:
+        def result = load(key, slowCache)
+        release.countDown()
+        slowCache.stop()
+
+        then:
+        result == null
+        local.entries[key] == "content"
+    }
+
+    def "uploads stored entry to remote cache in the background"() {
+        def uploaded = new ByteArrayOutputStream()
+
+        when:
+        cache.store(key, { OutputStream output -> output.write("content".bytes) } as TaskOutputCache.TaskOutputWriter)
+        cache.stop()
+
+        then:
+        local.entries[key] == "content"
+        uploaded.toString() == "content"
+        1 * remote.store(key, _) >> { HashValue k, TaskOutputCache.TaskOutputWriter writer -> writer.writeTo(uploaded) }
+    }
+
+    def "stops using remote cache after repeated failures"() {
+        when:
+        (LocalAndRemoteTaskOutputCache.MAX_REMOTE_FAILURES + 2).times {
+            assert load(new HashValue(Integer.toHexString(it))) == null
+        }
+        cache.store(key, { OutputStream output -> output.write("content".bytes) } as TaskOutputCache.TaskOutputWriter)
+
+        then:
+        LocalAndRemoteTaskOutputCache.MAX_REMOTE_FAILURES * remote.load(_, _) >> { throw new IOException("broken") }
+        0 * remote.store(_, _)
+        local.entries[key] == "content"
+    }
+
+    private String load(HashValue key, TaskOutputCache cache = this.cache) {
+        String result = null
+        cache.load(key, { InputStream input -> result = input.text } as TaskOutputCache.TaskOutputReader) ? result : null
+    }
+
+    private static class InMemoryTaskOutputCache implements TaskOutputCache {
+        final Map<HashValue, String> entries = new ConcurrentHashMap<HashValue, String>()
+
+        boolean load(HashValue key, TaskOutputCache.TaskOutputReader reader) {
+            def entry = entries[key]
+            if (entry == null) {
+                return false
+            }
+            reader.readFrom(new ByteArrayInputStream(entry.bytes))
+            return true
+        }
+
+        void store(HashValue key, TaskOutputCache.TaskOutputWriter writer) {
+            def output = new ByteArrayOutputStream()
+            writer.writeTo(output)
+            entries[key] = output.toString()
+        }
+
+        String getDescription() {
+            return "in-memory cache"
+        }
+    }
+}
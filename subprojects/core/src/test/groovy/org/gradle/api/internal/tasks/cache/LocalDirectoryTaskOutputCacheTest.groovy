@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache
+
+import org.gradle.cache.internal.CacheScopeMapping
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.internal.hash.HashValue
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.junit.Rule
+import spock.lang.Specification
+
+class LocalDirectoryTaskOutputCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cacheDir = tmpDir.createDir("task-outputs")
+    def mapping = Stub(CacheScopeMapping) {
+        getBaseDirectory(_, _, _) >> cacheDir
+    }
+    def cacheRepository = new DefaultCacheRepository(mapping, new InMemoryCacheFactory())
+    def cache = new LocalDirectoryTaskOutputCache(cacheRepository, 100)
+
+    def cleanup() {
+        cache.close()
+    }
+
+    def "loads entry that was stored"() {
+        def key = new HashValue("1234")
+
+        when:
+        store(key, "content")
+
+        then:
+        load(key) == "content"
+    }
+
+    def "does not find entry that was not stored"() {
+        expect:
+        load(new HashValue("1234")) == null
+    }
+
+    def "replaces existing entry"() {
+        def key = new HashValue("1234")
+
+        when:
+        store(key, "old")
+        store(key, "new")
+
+        then:
+        load(key) == "new"
+    }
+
+    def "does not leave partial entry behind when storing fails"() {
+        def key = new HashValue("1234")
+
+        when:
+        cache.store(key, { throw new IOException("broken") } as TaskOutputCache.TaskOutputWriter)
+
+        then:
+        thrown(IOException)
+        load(key) == null
+        cacheDir.listFiles().findAll { it.name.endsWith(".part") }.empty
+    }
+
+    def "removes least recently used entries when cache exceeds its size"() {
+        def first = new HashValue("1")
+        def second = new HashValue("2")
+        def third = new HashValue("3")
+
+        when:
+        store(first, "a" * 40)
+        store(second, "b" * 40)
+        entry(first).lastModified = System.currentTimeMillis() - 20000
+        entry(second).lastModified = System.currentTimeMillis() - 10000
+        load(first)
+        store(third, "c" * 40)
+
+        then:
+        load(first) != null
+        load(second) == null
+        load(third) != null
+    }
+
+    def "lists the cache directory only for the first store and once the size limit is exceeded"() {
+        def first = new HashValue("1")
+        def second = new HashValue("2")
+        def third = new HashValue("3")
+
+        when:
+        store(first, "a" * 40)
+        entry(second).text = "b" * 80
+        entry(second).lastModified = System.currentTimeMillis() - 10000
+        store(third, "c" * 40)
+
+        then:
+        entry(second).file
+
+        when:
+        entry(first).lastModified = System.currentTimeMillis() - 5000
+        store(third, "c" * 80)
+
+        then:
+        load(first) == null
+        load(second) == null
+        load(third) != null
+    }
+
+    private File entry(HashValue key) {
+        new File(cacheDir, key.asHexString() + ".tar")
+    }
+
+    private void store(HashValue key, String content) {
+        cache.store(key, { OutputStream output -> output.write(content.bytes) } as TaskOutputCache.TaskOutputWriter)
+    }
+
+    private String load(HashValue key) {
+        String result = null
+        cache.load(key, { InputStream input -> result = input.text } as TaskOutputCache.TaskOutputReader)
+        return result
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.cache
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+class TaskOutputPackerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def packer = new TaskOutputPacker()
+
+    def "restores output files and directories"() {
+        def outputFile = tmpDir.file("build/output.txt")
+        def outputDir = tmpDir.file("build/classes")
+        def missing = tmpDir.file("build/missing.txt")
+        outputFile.text = "output"
+        outputDir.createFile("a/A.class").text = "A"
+        outputDir.createFile("B.class").text = "B"
+        outputDir.createDir("empty")
+        def roots = [outputFile, outputDir, missing]
+
+        when:
+        def packed = pack(roots)
+        outputFile.text = "changed"
+        outputDir.file("a/A.class").delete()
+        outputDir.createFile("stale.class")
+        missing.text = "created"
+        unpack(roots, packed)
+
+        then:
+        outputFile.text == "output"
+        outputDir.file("a/A.class").text == "A"
+        outputDir.file("B.class").text == "B"
+        outputDir.file("empty").directory
+        !outputDir.file("stale.class").exists()
+        !missing.exists()
+    }
+
+    def "restores outputs that do not exist"() {
+        def outputFile = tmpDir.file("build/output.txt")
+        def outputDir = tmpDir.file("build/classes")
+        outputFile.text = "output"
+        outputDir.createFile("A.class").text = "A"
+        def roots = [outputFile, outputDir]
+
+        when:
+        def packed = pack(roots)
+        tmpDir.file("build").deleteDir()
+        unpack(roots, packed)
+
+        then:
+        outputFile.text == "output"
+        outputDir.file("A.class").text == "A"
+    }
+
+    @Requires(TestPrecondition.FILE_PERMISSIONS)
+    def "restores executable flag of files"() {
+        def outputDir = tmpDir.file("build/bin")
+        def executable = outputDir.createFile("tool")
+        executable.executable = true
+        def plain = outputDir.createFile("data")
+
+        when:
+        def packed = pack([outputDir])
+        outputDir.deleteDir()
+        unpack([outputDir], packed)
+
+        then:
+        executable.canExecute()
+        !plain.canExecute()
+    }
+
+    private byte[] pack(List<File> roots) {
+        def output = new ByteArrayOutputStream()
+        packer.pack(roots, output)
+        return output.toByteArray()
+    }
+
+    private void unpack(List<File> roots, byte[] packed) {
+        packer.unpack(roots, new ByteArrayInputStream(packed))
+    }
+}
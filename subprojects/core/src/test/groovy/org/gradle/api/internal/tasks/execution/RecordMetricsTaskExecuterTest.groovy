@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution
+
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.tasks.TaskExecuter
+import org.gradle.api.internal.tasks.TaskExecutionContext
+import org.gradle.api.internal.tasks.TaskStateInternal
+import spock.lang.Specification
+
+class RecordMetricsTaskExecuterTest extends Specification {
+    def target = Mock(TaskExecuter)
+    def listener = Mock(TaskExecutionMetricsListener)
+    def task = Mock(TaskInternal)
+    def state = Mock(TaskStateInternal)
+    def context = Mock(TaskExecutionContext)
+    final RecordMetricsTaskExecuter executer = new RecordMetricsTaskExecuter(listener, target)
+
+    def "records phases and counters of the task and notifies listener"() {
+        TaskExecutionMetrics metrics = null
+
+        when:
+        executer.execute(task, state, context)
+
+        then:
+        1 * target.execute(task, state, context) >> {
+            def phase = TaskExecutionMetrics.startPhase("Executing actions")
+            TaskExecutionMetrics.filesVisited(3)
+            TaskExecutionMetrics.fileHashed(100)
+            TaskExecutionMetrics.fileHashed(20)
+            TaskExecutionMetrics.hashReused()
+            phase.finish()
+        }
+        1 * listener.metricsCollected(task, _) >> { metrics = it[1] }
+        0 * _
+
+        and:
+        metrics.phases*.name == ["Executing actions"]
+        metrics.phases[0].durationNanos >= 0
+        metrics.filesVisited == 3
+        metrics.filesHashed == 2
+        metrics.bytesHashed == 120
+        metrics.hashesReused == 1
+        metrics.threadName == Thread.currentThread().name
+    }
+
+    def "detaches metrics from thread when task fails"() {
+        def failure = new RuntimeException()
+
+        when:
+        executer.execute(task, state, context)
+
+        then:
+        1 * target.execute(task, state, context) >> { throw failure }
+        RuntimeException e = thrown()
+        e == failure
+
+        when:
+        def phase = TaskExecutionMetrics.startPhase("Not recorded")
+        phase.finish()
+
+        then:
+        phase.durationNanos == 0
+    }
+
+    def "restores metrics of enclosing task when nested task completes"() {
+        TaskExecutionMetrics outer = null
+
+        when:
+        executer.execute(task, state, context)
+
+        then:
+        1 * target.execute(task, state, context) >> {
+            executer.execute(Mock(TaskInternal), state, context)
+            TaskExecutionMetrics.startPhase("Outer").finish()
+        }
+        1 * target.execute(_, state, context)
+        1 * listener.metricsCollected(task, _) >> { outer = it[1] }
+        1 * listener.metricsCollected(_, _)
+
+        and:
+        outer.phases*.name == ["Outer"]
+    }
+}
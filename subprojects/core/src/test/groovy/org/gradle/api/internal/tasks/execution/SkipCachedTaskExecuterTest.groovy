@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.execution
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.changedetection.TaskArtifactState
+import org.gradle.api.internal.tasks.TaskExecuter
+import org.gradle.api.internal.tasks.TaskExecutionContext
+import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.cache.TaskOutputCache
+import org.gradle.api.internal.tasks.cache.TaskOutputCacheStatistics
+import org.gradle.api.internal.tasks.cache.TaskOutputPacker
+import org.gradle.internal.hash.HashValue
+import spock.lang.Specification
+
+class SkipCachedTaskExecuterTest extends Specification {
+    def delegate = Mock(TaskExecuter)
+    def outputs = Mock(TaskOutputsInternal)
+    def outputFiles = Mock(FileCollection)
+    def task = Mock(TaskInternal)
+    def taskState = Mock(TaskStateInternal)
+    def taskContext = Mock(TaskExecutionContext)
+    def taskArtifactState = Mock(TaskArtifactState)
+    def cache = Mock(TaskOutputCache)
+    def packer = Mock(TaskOutputPacker)
+    def statistics = new TaskOutputCacheStatistics("cache")
+    def cacheKey = new HashValue("0123456789abcdef")
+    def outputFile = new File("output")
+
+    def executer = new SkipCachedTaskExecuter(cache, packer, statistics, delegate)
+
+    def setup() {
+        _ * task.outputs >> outputs
+        _ * outputs.files >> outputFiles
+        _ * outputFiles.files >> ([outputFile] as Set)
+        _ * cache.description >> "cache"
+    }
+
+    def "loads outputs from cache instead of executing task"() {
+        def input = new ByteArrayInputStream(new byte[0])
+
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * outputs.cacheAllowed >> true
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+
+        then:
+        1 * cache.load(cacheKey, _) >> { HashValue key, TaskOutputCache.TaskOutputReader reader ->
+            reader.readFrom(input)
+            return true
+        }
+        1 * packer.unpack([outputFile], input)
+
+        then:
+        1 * taskState.fromCache()
+        0 * delegate._
+        0 * cache.store(_, _)
+        statistics.hits == 1
+        statistics.misses == 0
+    }
+
+    def "executes task and stores its outputs on cache miss"() {
+        def output = new ByteArrayOutputStream()
+
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * outputs.cacheAllowed >> true
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+
+        then:
+        1 * cache.load(cacheKey, _) >> false
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        _ * taskState.failure >> null
+
+        then:
+        1 * cache.store(cacheKey, _) >> { HashValue key, TaskOutputCache.TaskOutputWriter writer ->
+            writer.writeTo(output)
+        }
+        1 * packer.pack([outputFile], output)
+        0 * taskState.fromCache()
+        statistics.misses == 1
+        statistics.stores == 1
+    }
+
+    def "does not store outputs when task fails"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * outputs.cacheAllowed >> true
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * cache.load(cacheKey, _) >> false
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        _ * taskState.failure >> new RuntimeException()
+        0 * cache.store(_, _)
+    }
+
+    def "executes task without using cache when caching is not allowed"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * outputs.cacheAllowed >> false
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        0 * taskArtifactState._
+        0 * cache._
+    }
+
+    def "executes task without using cache when task has no cache key"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * outputs.cacheAllowed >> true
+        1 * taskArtifactState.calculateCacheKey() >> null
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        0 * cache.load(_, _)
+        0 * cache.store(_, _)
+    }
+
+    def "executes task when outputs cannot be loaded from cache"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * outputs.cacheAllowed >> true
+        1 * taskArtifactState.calculateCacheKey() >> cacheKey
+        1 * cache.load(cacheKey, _) >> { throw new IOException("broken") }
+
+        then:
+        1 * delegate.execute(task, taskState, taskContext)
+        _ * taskState.failure >> null
+        1 * cache.store(cacheKey, _)
+        0 * taskState.fromCache()
+        statistics.failures == 1
+    }
+}
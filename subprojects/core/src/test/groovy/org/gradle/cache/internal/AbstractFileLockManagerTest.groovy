@@ -211,6 +211,33 @@ abstract class AbstractFileLockManagerTest extends Specification {
         thrown FileIntegrityViolationException
     }
 
+    def "integrity violation exception is thrown after a failed write that overlapped another write"() {
+        given:
+        def lock = createLock(Exclusive)
+        lock.writeFile {}
+
+        when:
+        lock.writeFile {
+            try {
+                lock.updateFile { throw new RuntimeException() }
+            } catch (RuntimeException e) {
+                // Expected
+            }
+        }
+
+        then:
+        !lock.unlockedCleanly
+
+        when:
+        lock.readFile({})
+
+        then:
+        thrown FileIntegrityViolationException
+
+        cleanup:
+        lock?.close()
+    }
+
     def "existing lock is unlocked cleanly after writeToFile() has been called"() {
         when:
         def lock = this.createLock(Exclusive)
@@ -57,7 +57,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        access.owner == Thread.currentThread()
+        access.owners == [Thread.currentThread()] as Set
 
         when:
         access.close()
@@ -68,7 +68,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        !access.owner
+        access.owners.empty
     }
 
     def "acquires lock on open and releases on close when lock mode is exclusive"() {
@@ -82,7 +82,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        access.owner == Thread.currentThread()
+        access.owners == [Thread.currentThread()] as Set
 
         when:
         access.close()
@@ -93,7 +93,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        !access.owner
+        access.owners.empty
     }
 
     def "initializes cache on open when lock mode is shared by upgrading lock"() {
@@ -122,7 +122,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        access.owner == Thread.currentThread()
+        access.owners == [Thread.currentThread()] as Set
     }
 
     def "initializes cache on open when lock mode is exclusive"() {
@@ -138,7 +138,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        access.owner == Thread.currentThread()
+        access.owners == [Thread.currentThread()] as Set
     }
 
     def "cleans up when cache validation fails"() {
@@ -242,7 +242,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        !access.owner
+        access.owners.empty
     }
 
     @Unroll
@@ -275,7 +275,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
 
         then:
         1 * action.create() >> {
-            assert access.owner == Thread.currentThread()
+            assert access.owners == [Thread.currentThread()] as Set
         }
 
         then:
@@ -283,7 +283,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         0 * _._
 
         and:
-        !access.owner
+        access.owners.empty
     }
 
     def "nested use cache operation does not release the lock"() {
@@ -297,12 +297,12 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         1 * lockManager.lock(lockFile, mode(Exclusive), "<display-name>", _) >> lock
         1 * action.create() >> {
             access.useCache("nested operation") {
-                assert access.owner == Thread.currentThread()
+                assert access.owners == [Thread.currentThread()] as Set
             }
         }
 
         then:
-        !access.owner
+        access.owners.empty
     }
 
     def "use cache operation reuses existing file lock"() {
@@ -314,18 +314,18 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
 
         then:
         1 * lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "some operation") >> lock
-        1 * action.create() >> { assert access.owner == Thread.currentThread() }
+        1 * action.create() >> { assert access.owners == [Thread.currentThread()] as Set }
 
         when:
         access.useCache("some other operation", action)
 
         then:
         0 * lockManager._
-        1 * action.create() >> { assert access.owner == Thread.currentThread() }
+        1 * action.create() >> { assert access.owners == [Thread.currentThread()] as Set }
         0 * _._
 
         and:
-        !access.owner
+        access.owners.empty
     }
 
     def "use cache operation does not allow shared locks"() {
@@ -340,6 +340,120 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         thrown(UnsupportedOperationException)
     }
 
+    def "threads use cache one at a time by default"() {
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", _) >> lock
+        access.open(mode(None))
+
+        when:
+        async {
+            start {
+                access.useCache("first operation") {
+                    instant.firstStarted
+                    thread.block()
+                    instant.firstFinished
+                }
+            }
+            start {
+                thread.blockUntil.firstStarted
+                access.useCache("second operation") {
+                    instant.secondStarted
+                }
+            }
+        }
+
+        then:
+        instant.secondStarted > instant.firstFinished
+        access.owners.empty
+    }
+
+    def "threads use cache at the same time when concurrent access is enabled"() {
+        given:
+        access.open(mode(None).concurrentAccess())
+
+        when:
+        async {
+            start {
+                access.useCache("first operation") {
+                    instant.firstStarted
+                    thread.blockUntil.secondStarted
+                    assert access.owners.size() == 2
+                }
+            }
+            start {
+                access.useCache("second operation") {
+                    instant.secondStarted
+                    thread.blockUntil.firstStarted
+                }
+            }
+        }
+
+        then:
+        1 * lockManager.lock(lockFile, mode(Exclusive).concurrentAccess(), "<display-name>", _) >> lock
+        access.owners.empty
+    }
+
+    def "file lock is released when the last of several concurrent operations completes after contention"() {
+        given:
+        def closed = false
+        access.open(mode(None).concurrentAccess())
+
+        when:
+        async {
+            start {
+                access.useCache("first operation") {
+                    instant.firstStarted
+                    thread.blockUntil.secondFinished
+                }
+            }
+            start {
+                thread.blockUntil.firstStarted
+                access.useCache("second operation") {
+                    access.whenContended().run()
+                }
+                assert !closed
+                instant.secondFinished
+            }
+        }
+
+        then:
+        1 * lockManager.lock(lockFile, mode(Exclusive).concurrentAccess(), "<display-name>", _) >> lock
+        1 * lock.close() >> { closed = true }
+        access.owners.empty
+    }
+
+    def "new threads wait for the file lock to be handed over after contention when concurrent access is enabled"() {
+        given:
+        def closed = false
+        access.open(mode(None).concurrentAccess())
+
+        when:
+        async {
+            start {
+                access.useCache("first operation") {
+                    instant.firstStarted
+                    access.whenContended().run()
+                    instant.contended
+                    thread.block()
+                    instant.firstFinished
+                }
+            }
+            start {
+                thread.blockUntil.contended
+                access.useCache("second operation") {
+                    assert closed
+                    instant.secondStarted
+                }
+            }
+        }
+
+        then:
+        2 * lockManager.lock(lockFile, mode(Exclusive).concurrentAccess(), "<display-name>", _) >> lock
+        1 * lock.close() >> { closed = true }
+        instant.secondStarted > instant.firstFinished
+        access.owners.empty
+    }
+
     def "long running operation pushes an operation and releases ownership but not lock"() {
         Factory<String> action = Mock()
 
@@ -348,7 +462,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
 
         then:
         1 * lockManager.lock(lockFile, mode(Exclusive), "<display-name>") >> lock
-        access.owner == Thread.currentThread()
+        access.owners == [Thread.currentThread()] as Set
 
         when:
         access.longRunningOperation("some operation", action)
@@ -359,14 +473,14 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
 
         then:
         1 * action.create() >> {
-            assert !access.owner
+            assert access.owners.empty
         }
 
         then:
         0 * _._
 
         then:
-        access.owner == Thread.currentThread()
+        access.owners == [Thread.currentThread()] as Set
     }
 
     def "long running operation closes the lock if contended during action"() {
@@ -417,7 +531,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
 
         then:
         1 * action.create() >> {
-            assert !access.owner
+            assert access.owners.empty
         }
 
         then:
@@ -435,7 +549,7 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         then:
         1 * action.create() >> {
             access.longRunningOperation("other operation") {
-                assert !access.owner
+                assert access.owners.empty
             }
         }
 
@@ -46,7 +46,7 @@ class FileLockCommunicatorTest extends ConcurrentSpecification {
 
     def "can receive lock id"() {
         start {
-            receivedId = communicator.receive()
+            receivedId = communicator.receive().lockId
         }
 
         poll {
@@ -53,6 +53,28 @@ class DefaultFileLockContentionHandlerTest extends ConcurrentSpecification {
         }
     }
 
+    def "owner confirms release to the process that requested the lock"() {
+        int port = handler.reservePort()
+        handler.start(10, { handler.stop(10) })
+
+        when:
+        client.pingOwner(port, 10, "lock 1")
+
+        then:
+        client.waitForRelease(10, 5000)
+    }
+
+    def "waiting for release times out when the owner does not release the lock"() {
+        int port = handler.reservePort()
+        handler.start(10, {} as Runnable)
+
+        when:
+        client.pingOwner(port, 10, "lock 1")
+
+        then:
+        !client.waitForRelease(10, 300)
+    }
+
     def "there is only one executor thread"() {
         def factory = Mock(ExecutorFactory)
         handler = new DefaultFileLockContentionHandler(factory, addressFactory)
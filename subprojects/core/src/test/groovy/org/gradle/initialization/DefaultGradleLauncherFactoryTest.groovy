@@ -15,6 +15,7 @@
  */
 package org.gradle.initialization
 
+import org.gradle.BuildResult
 import org.gradle.StartParameter
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.service.DefaultServiceRegistry
@@ -79,5 +80,44 @@ class DefaultGradleLauncherFactoryTest extends Specification {
         request.client == clientMetaData
         launcher.gradle.services.get(BuildCancellationToken) == cancellationToken
         launcher.gradle.services.get(BuildEventConsumer) == eventConsumer
+
+        cleanup:
+        parent.buildListener.buildFinished(new BuildResult(parent.gradle, null))
+    }
+
+    def "build started by another thread is not nested in running build"() {
+        def requestContext = Stub(BuildRequestContext) {
+            getCancellationToken() >> Stub(BuildCancellationToken)
+            getEventConsumer() >> Stub(BuildEventConsumer)
+        }
+
+        def parent = factory.newInstance(startParameter, requestContext, sessionServices)
+        parent.buildListener.buildStarted(parent.gradle)
+
+        when:
+        def launcher = null
+        Thread.start {
+            launcher = factory.newInstance(startParameter)
+        }.join()
+
+        then:
+        launcher.gradle.parent == null
+
+        cleanup:
+        parent.buildListener.buildFinished(new BuildResult(parent.gradle, null))
+    }
+
+    def "build is not nested once the running build has finished"() {
+        def requestContext = Stub(BuildRequestContext) {
+            getCancellationToken() >> Stub(BuildCancellationToken)
+            getEventConsumer() >> Stub(BuildEventConsumer)
+        }
+
+        def parent = factory.newInstance(startParameter, requestContext, sessionServices)
+        parent.buildListener.buildStarted(parent.gradle)
+        parent.buildListener.buildFinished(new BuildResult(parent.gradle, null))
+
+        expect:
+        factory.newInstance(startParameter).gradle.parent == null
     }
 }
@@ -32,15 +32,46 @@ import org.gradle.internal.operations.DefaultBuildOperationProcessor
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.service.DefaultServiceRegistry
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 class TaskExecutionServicesTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
     final ServiceRegistry parent = Mock()
     final Gradle gradle = Mock()
     final def services = new DefaultServiceRegistry(parent).addProvider(new TaskExecutionServices())
 
     def "makes a TaskExecutor available"() {
         given:
+        expectTaskExecuterServices()
+
+        expect:
+        services.get(TaskExecuter) instanceof ExecuteAtMostOnceTaskExecuter
+        services.get(TaskExecuter).is(services.get(TaskExecuter))
+    }
+
+    def "does not validate remote task output cache when task output caching is disabled"() {
+        given:
+        System.setProperty(TaskExecutionServices.CACHE_TASKS_REMOTE_PROPERTY, "unsupported://host/cache")
+        expectTaskExecuterServices()
+
+        expect:
+        services.get(TaskExecuter) instanceof ExecuteAtMostOnceTaskExecuter
+    }
+
+    def "makes a BuildOperationProcessor available"() {
+        given:
+        _ * parent.get(StartParameter) >> Mock(StartParameter)
+        _ * parent.get(ExecutorFactory) >> Mock(ExecutorFactory)
+
+        expect:
+        services.get(BuildOperationProcessor) instanceof DefaultBuildOperationProcessor
+        services.get(BuildOperationProcessor).is(services.get(BuildOperationProcessor))
+    }
+
+    private void expectTaskExecuterServices() {
         CacheRepository cacheRepository = Mock()
         CacheBuilder cacheBuilder = Mock()
         _ * parent.get(Gradle) >> gradle
@@ -52,23 +83,10 @@ class TaskExecutionServicesTest extends Specification {
         _ * parent.get(InMemoryTaskArtifactCache) >> Mock(InMemoryTaskArtifactCache)
         _ * parent.get(StartParameter) >> Mock(StartParameter)
         _ * parent.get(StringInterner) >> new StringInterner()
+        _ * parent.get(ExecutorFactory) >> Mock(ExecutorFactory)
         _ * cacheRepository.cache(gradle, 'taskArtifacts') >> cacheBuilder
         _ * cacheBuilder.withDisplayName(!null) >> cacheBuilder
         _ * cacheBuilder.withLockOptions(!null) >> cacheBuilder
         _ * cacheBuilder.open() >> Mock(PersistentCache)
-
-        expect:
-        services.get(TaskExecuter) instanceof ExecuteAtMostOnceTaskExecuter
-        services.get(TaskExecuter).is(services.get(TaskExecuter))
-    }
-
-    def "makes a BuildOperationProcessor available"() {
-        given:
-        _ * parent.get(StartParameter) >> Mock(StartParameter)
-        _ * parent.get(ExecutorFactory) >> Mock(ExecutorFactory)
-
-        expect:
-        services.get(BuildOperationProcessor) instanceof DefaultBuildOperationProcessor
-        services.get(BuildOperationProcessor).is(services.get(BuildOperationProcessor))
     }
 }
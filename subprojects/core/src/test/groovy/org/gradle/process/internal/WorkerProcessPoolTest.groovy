@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal
+
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.Stoppable
+import spock.lang.Specification
+
+class WorkerProcessPoolTest extends Specification {
+    def pool = new WorkerProcessPool<String, Stoppable>("test worker")
+
+    def "starts worker when there is no idle worker for key"() {
+        def worker = Mock(Stoppable)
+        def starter = Mock(Factory)
+
+        when:
+        def reserved = pool.reserve("key", starter)
+
+        then:
+        1 * starter.create() >> worker
+        reserved == worker
+    }
+
+    def "reuses released worker for equal key only"() {
+        def worker = Mock(Stoppable)
+        def other = Mock(Stoppable)
+        def starter = Mock(Factory)
+
+        given:
+        pool.reserve("key", { worker } as Factory)
+        pool.release(worker)
+
+        when:
+        def reserved = pool.reserve("other", starter)
+
+        then:
+        1 * starter.create() >> other
+        reserved == other
+
+        when:
+        reserved = pool.reserve("key", starter)
+
+        then:
+        0 * starter._
+        reserved == worker
+    }
+
+    def "does not hand out reserved worker again"() {
+        def worker = Mock(Stoppable)
+        def second = Mock(Stoppable)
+        def starter = Mock(Factory)
+
+        given:
+        pool.reserve("key", { worker } as Factory)
+
+        when:
+        def reserved = pool.reserve("key", starter)
+
+        then:
+        1 * starter.create() >> second
+        reserved == second
+    }
+
+    def "stops and forgets discarded worker"() {
+        def worker = Mock(Stoppable)
+        def second = Mock(Stoppable)
+        def starter = Mock(Factory)
+
+        given:
+        pool.reserve("key", { worker } as Factory)
+
+        when:
+        pool.discard(worker)
+        pool.release(worker)
+
+        then:
+        1 * worker.stop()
+
+        when:
+        def reserved = pool.reserve("key", starter)
+
+        then:
+        1 * starter.create() >> second
+        reserved == second
+    }
+
+    def "stops all workers when stopped"() {
+        def idle = Mock(Stoppable)
+        def busy = Mock(Stoppable)
+
+        given:
+        pool.reserve("key", { idle } as Factory)
+        pool.reserve("key", { busy } as Factory)
+        pool.release(idle)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * idle.stop()
+        1 * busy.stop()
+    }
+}
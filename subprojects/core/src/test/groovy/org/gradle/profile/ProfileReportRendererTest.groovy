@@ -17,6 +17,7 @@
 package org.gradle.profile
 
 import org.gradle.StartParameter
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics
 import org.gradle.api.tasks.TaskState
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -218,6 +219,52 @@ class ProfileReportRendererTest extends Specification {
 </div>"""))
     }
 
+    def "renders task phases when metrics were recorded"() {
+        def model = new BuildProfile(new StartParameter())
+        def file = temp.file("report.html")
+        def metrics = new TaskExecutionMetrics()
+        metrics.attach()
+        try {
+            TaskExecutionMetrics.startPhase("Executing actions").finish()
+            TaskExecutionMetrics.filesVisited(4)
+            TaskExecutionMetrics.fileHashed(1024)
+            TaskExecutionMetrics.hashReused()
+        } finally {
+            metrics.detach()
+        }
+        model.getProjectProfile("a").getTaskProfile("a:foo").completed(Stub(TaskState)).setMetrics(metrics).setStart(time(12, 25, 0)).setFinish(time(12, 26, 30))
+        model.getProjectProfile("a").getTaskProfile("a:bar").completed(Stub(TaskState)).setStart(time(12, 26, 30)).setFinish(time(12, 27, 0))
+
+        when:
+        new ProfileReportRenderer().writeTo(model, file)
+
+        then:
+        file.text.contains('<a href="#tab4">Task Phases</a>')
+        file.text.contains(toPlatformLineSeparators("""<tr>
+<td>a:foo</td>
+<td class="numeric">1m30.00s</td>
+<td class="numeric">4</td>
+<td class="numeric">1</td>
+<td class="numeric">1024</td>
+<td class="numeric">1</td>
+</tr>
+<tr>
+<td class="indentPath">Executing actions</td>"""))
+        !file.text.contains("<td>a:bar</td>")
+    }
+
+    def "does not render task phases when no metrics were recorded"() {
+        def model = new BuildProfile(new StartParameter())
+        def file = temp.file("report.html")
+        model.getProjectProfile("a").getTaskProfile("a:foo").completed(Stub(TaskState)).setStart(time(12, 25, 0)).setFinish(time(12, 26, 30))
+
+        when:
+        new ProfileReportRenderer().writeTo(model, file)
+
+        then:
+        !file.text.contains("Task Phases")
+    }
+
     private long time(int hour, int mins, int secs, int ms = 0) {
         def cal = new GregorianCalendar(2010, 1, 5, hour, mins, secs)
         cal.add(Calendar.MILLISECOND, ms)
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import groovy.json.JsonSlurper
+import org.gradle.StartParameter
+import org.gradle.api.internal.tasks.execution.TaskExecutionMetrics
+import org.gradle.api.tasks.TaskState
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TraceEventReportRendererTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
+    def "writes build operations and tasks as trace events"() {
+        def model = new BuildProfile(new StartParameter())
+        def file = temp.file("reports/profile.json")
+        model.profilingStarted = 1000
+        model.buildStarted = 1500
+        model.settingsEvaluated = 2000
+        model.projectsLoaded = 2500
+        model.projectsEvaluated = 4000
+        model.buildFinished = 10000
+        model.getProjectProfile(":a").configurationOperation.setStart(2600).setFinish(3000)
+        model.getDependencySetProfile(":a:compile").setStart(3100).setFinish(3200)
+        model.getProjectProfile(":a").getTaskProfile(":a:foo").completed(Stub(TaskState) { getSkipMessage() >> "UP-TO-DATE"; getSkipped() >> true }).setStart(5000).setFinish(6000)
+
+        when:
+        new TraceEventReportRenderer().writeTo(model, file)
+        def events = new JsonSlurper().parse(file).traceEvents
+
+        then:
+        def startup = events.find { it.name == "Startup" }
+        startup.ph == "X"
+        startup.ts == 0
+        startup.dur == 500000
+        events.find { it.name == ":a" && it.cat == "configuration" }.ts == 1600000
+        events.find { it.name == ":a:compile" }.dur == 100000
+
+        def task = events.find { it.name == ":a:foo" }
+        task.cat == "task"
+        task.ts == 4000000
+        task.dur == 1000000
+        task.args.status == "UP-TO-DATE"
+    }
+
+    def "writes phases of task on the thread that executed it"() {
+        def model = new BuildProfile(new StartParameter())
+        def file = temp.file("profile.json")
+        def metrics = new TaskExecutionMetrics()
+        metrics.attach()
+        try {
+            TaskExecutionMetrics.startPhase("Checking up-to-date").finish()
+            TaskExecutionMetrics.startPhase("Executing \"actions\"").finish()
+            TaskExecutionMetrics.fileHashed(12)
+        } finally {
+            metrics.detach()
+        }
+        model.profilingStarted = metrics.startTime
+        model.getProjectProfile(":a").getTaskProfile(":a:foo").completed(Stub(TaskState)).setMetrics(metrics).setStart(metrics.startTime).setFinish(metrics.startTime + 10)
+
+        when:
+        new TraceEventReportRenderer().writeTo(model, file)
+        def events = new JsonSlurper().parse(file).traceEvents
+
+        then:
+        def thread = events.find { it.ph == "M" && it.tid == Thread.currentThread().id }
+        thread.args.name == Thread.currentThread().name
+
+        def task = events.find { it.name == ":a:foo" }
+        task.tid == Thread.currentThread().id
+        task.args.filesHashed == 1
+        task.args.bytesHashed == 12
+
+        def phases = events.findAll { it.cat == "phase" }
+        phases*.name == ["Checking up-to-date", "Executing \"actions\""]
+        phases.every { it.tid == Thread.currentThread().id && it.ts >= 0 }
+    }
+}
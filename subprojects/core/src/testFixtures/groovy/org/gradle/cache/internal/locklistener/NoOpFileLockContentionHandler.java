@@ -28,4 +28,9 @@ public class NoOpFileLockContentionHandler implements FileLockContentionHandler
 
     public void pingOwner(int port, long lockId, String displayName) {
     }
+
+    public boolean waitForRelease(long lockId, long timeoutMs) throws InterruptedException {
+        Thread.sleep(timeoutMs);
+        return false;
+    }
 }
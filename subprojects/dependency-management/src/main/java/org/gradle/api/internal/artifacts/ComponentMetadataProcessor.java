@@ -22,7 +22,17 @@ public interface ComponentMetadataProcessor {
         @Override
         public void processMetadata(MutableModuleComponentResolveMetaData metadata) {
         }
+
+        @Override
+        public boolean hasRules() {
+            return false;
+        }
     };
 
     void processMetadata(MutableModuleComponentResolveMetaData metadata);
+
+    /**
+     * Returns true if any rule has been registered, meaning that meta-data may be modified by this processor.
+     */
+    boolean hasRules();
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.ResolveException;
 import org.gradle.api.artifacts.ResolvedConfiguration;
 import org.gradle.api.artifacts.result.ResolutionResult;
@@ -24,6 +25,7 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.Resol
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.ResolvedGraphResults;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.TransientConfigurationResultsBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResult;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphRecorder;
 
 public class DefaultResolverResults implements ResolverResults {
     private ResolvedConfiguration resolvedConfiguration;
@@ -33,6 +35,7 @@ public class DefaultResolverResults implements ResolverResults {
     private TransientConfigurationResultsBuilder transientConfigurationResultsBuilder;
     private ResolvedGraphResults graphResults;
     private ResolvedArtifactsBuilder artifactResults;
+    private ResolvedGraphRecorder graphRecorder;
 
     @Override
     public boolean hasError() {
@@ -102,13 +105,16 @@ public class DefaultResolverResults implements ResolverResults {
         this.graphResults = null;
         this.transientConfigurationResultsBuilder = null;
         this.artifactResults = null;
+        this.graphRecorder = null;
     }
 
     // State not exposed via BuildableResolverResults, that is only accessed via DefaultConfigurationResolver
-    public void retainState(ResolvedGraphResults graphResults, ResolvedArtifactsBuilder artifactResults, TransientConfigurationResultsBuilder transientConfigurationResultsBuilder) {
+    public void retainState(ResolvedGraphResults graphResults, ResolvedArtifactsBuilder artifactResults, TransientConfigurationResultsBuilder transientConfigurationResultsBuilder,
+                            @Nullable ResolvedGraphRecorder graphRecorder) {
         this.graphResults = graphResults;
         this.artifactResults = artifactResults;
         this.transientConfigurationResultsBuilder = transientConfigurationResultsBuilder;
+        this.graphRecorder = graphRecorder;
     }
 
     public ResolvedGraphResults getGraphResults() {
@@ -122,4 +128,9 @@ public class DefaultResolverResults implements ResolverResults {
     public TransientConfigurationResultsBuilder getTransientConfigurationResultsBuilder() {
         return transientConfigurationResultsBuilder;
     }
+
+    @Nullable
+    public ResolvedGraphRecorder getGraphRecorder() {
+        return graphRecorder;
+    }
 }
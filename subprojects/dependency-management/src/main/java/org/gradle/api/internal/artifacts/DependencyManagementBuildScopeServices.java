@@ -24,6 +24,7 @@ import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.ModuleVersio
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.SingleFileBackedModuleVersionsCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.*;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.InMemoryCachedRepositoryFactory;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.ParsedPomCache;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.*;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.DefaultModuleArtifactsCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.DefaultModuleMetaDataCache;
@@ -37,6 +38,7 @@ import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectDepende
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectPublicationRegistry;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultArtifactDependencyResolver;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.mvnsettings.*;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
 import org.gradle.api.internal.file.FileLookup;
@@ -70,6 +72,10 @@ class DependencyManagementBuildScopeServices {
         return new InMemoryCachedRepositoryFactory();
     }
 
+    ParsedPomCache createParsedPomCache() {
+        return new ParsedPomCache();
+    }
+
     DependencyManagementServices createDependencyManagementServices(ServiceRegistry parent) {
         return new DefaultDependencyManagementServices(parent);
     }
@@ -223,6 +229,10 @@ class DependencyManagementBuildScopeServices {
         return new ResolutionResultsStoreFactory(temporaryFileProvider);
     }
 
+    ResolvedGraphCache createResolvedGraphCache(CacheLockingManager cacheLockingManager, BuildCommencedTimeProvider timeProvider) {
+        return new ResolvedGraphCache(cacheLockingManager, timeProvider);
+    }
+
     ProjectPublicationRegistry createProjectPublicationRegistry() {
         return new DefaultProjectPublicationRegistry();
     }
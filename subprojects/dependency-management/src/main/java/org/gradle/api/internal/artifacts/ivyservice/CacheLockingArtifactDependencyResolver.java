@@ -21,6 +21,7 @@ import org.gradle.api.internal.artifacts.ResolveContext;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.internal.resolve.resolver.ArtifactResolver;
 
 import java.util.List;
 
@@ -42,4 +43,9 @@ public class CacheLockingArtifactDependencyResolver implements ArtifactDependenc
             }
         });
     }
+
+    @Override
+    public ArtifactResolver createArtifactResolver(ResolveContext resolveContext, List<? extends ResolutionAwareRepository> repositories, GlobalDependencyResolutionRules metadataHandler) {
+        return resolver.createArtifactResolver(resolveContext, repositories, metadataHandler);
+    }
 }
@@ -16,11 +16,22 @@
 
 package org.gradle.api.internal.artifacts.ivyservice;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.gradle.api.artifacts.ModuleDependency;
 import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.UnresolvedDependency;
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.result.ResolutionResult;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.internal.artifacts.*;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.DefaultModuleResolutionFilter;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultResolvedArtifactsBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactResults;
@@ -35,16 +46,27 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultDependencyGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.CachedResolvedGraph;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphRecorder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.StoreSet;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
 import org.gradle.api.internal.cache.BinaryStore;
 import org.gradle.api.internal.cache.Store;
 import org.gradle.internal.Factory;
 import org.gradle.internal.Transformers;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactMetaData;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ComponentArtifactMetaData;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resolve.resolver.ArtifactResolver;
 import org.gradle.util.CollectionUtils;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DefaultConfigurationResolver implements ConfigurationResolver {
     private final ArtifactDependencyResolver resolver;
@@ -52,30 +74,57 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
     private final GlobalDependencyResolutionRules metadataHandler;
     private final CacheLockingManager cacheLockingManager;
     private final ResolutionResultsStoreFactory storeFactory;
+    private final ResolvedGraphCache graphCache;
+    private final VersionSelectorScheme versionSelectorScheme;
     private final boolean buildProjectDependencies;
 
     public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, RepositoryHandler repositories,
                                         GlobalDependencyResolutionRules metadataHandler, CacheLockingManager cacheLockingManager,
-                                        ResolutionResultsStoreFactory storeFactory, boolean buildProjectDependencies) {
+                                        ResolutionResultsStoreFactory storeFactory, ResolvedGraphCache graphCache,
+                                        VersionSelectorScheme versionSelectorScheme, boolean buildProjectDependencies) {
         this.resolver = resolver;
         this.repositories = repositories;
         this.metadataHandler = metadataHandler;
         this.cacheLockingManager = cacheLockingManager;
         this.storeFactory = storeFactory;
+        this.graphCache = graphCache;
+        this.versionSelectorScheme = versionSelectorScheme;
         this.buildProjectDependencies = buildProjectDependencies;
     }
 
     public void resolve(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
         List<ResolutionAwareRepository> resolutionAwareRepositories = CollectionUtils.collect(repositories, Transformers.cast(ResolutionAwareRepository.class));
         StoreSet stores = storeFactory.createStoreSet();
+        DefaultResolverResults defaultResolverResults = (DefaultResolverResults) results;
+
+        List<ModuleDependency> moduleDependencies = Lists.newArrayList(configuration.getAllDependencies().withType(ModuleDependency.class));
+        HashValue graphKey = graphCache.hashInputs(configuration, moduleDependencies, resolutionAwareRepositories, metadataHandler);
+        if (graphKey != null) {
+            CachedResolvedGraph cachedGraph = graphCache.get(graphKey);
+            if (cachedGraph != null) {
+                // Creating the artifact resolver also applies the command-line overrides to the cache policy, so do this first
+                ArtifactResolver artifactResolver = resolver.createArtifactResolver(configuration, resolutionAwareRepositories, metadataHandler);
+                if (graphCache.isUpToDate(cachedGraph, configuration.getResolutionStrategy().getCachePolicy())) {
+                    replay(cachedGraph, moduleDependencies, artifactResolver, stores, defaultResolverResults);
+                    return;
+                }
+            }
+        }
 
         BinaryStore oldModelStore = stores.nextBinaryStore();
+        BinaryStore newModelStore = stores.nextBinaryStore();
+        ResolvedGraphRecorder graphRecorder = null;
+        if (graphKey != null) {
+            graphRecorder = new ResolvedGraphRecorder(graphKey, moduleDependencies, versionSelectorScheme, newModelStore, oldModelStore);
+            newModelStore = graphRecorder.getResolutionResultStore();
+            oldModelStore = graphRecorder.getResolvedConfigurationStore();
+        }
+
         Store<TransientConfigurationResults> oldModelCache = stores.oldModelCache();
         TransientConfigurationResultsBuilder oldTransientModelBuilder = new TransientConfigurationResultsBuilder(oldModelStore, oldModelCache);
         DefaultResolvedConfigurationBuilder oldModelBuilder = new DefaultResolvedConfigurationBuilder(oldTransientModelBuilder);
         ResolvedConfigurationDependencyGraphVisitor oldModelVisitor = new ResolvedConfigurationDependencyGraphVisitor(oldModelBuilder);
 
-        BinaryStore newModelStore = stores.nextBinaryStore();
         Store<ResolvedComponentResult> newModelCache = stores.newModelCache();
         ResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(newModelStore, newModelCache);
         DependencyGraphVisitor newModelVisitor = new ResolutionResultDependencyGraphVisitor(newModelBuilder);
@@ -85,16 +134,53 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
 
         ResolvedArtifactsBuilder artifactsBuilder = new DefaultResolvedArtifactsBuilder();
 
-        DependencyGraphVisitor graphVisitor = new CompositeDependencyGraphVisitor(oldModelVisitor, newModelVisitor, projectModelVisitor);
-        DependencyArtifactsVisitor artifactsVisitor = new CompositeDependencyArtifactsVisitor(oldModelVisitor, artifactsBuilder);
+        DependencyGraphVisitor graphVisitor;
+        DependencyArtifactsVisitor artifactsVisitor;
+        if (graphRecorder != null) {
+            graphVisitor = new CompositeDependencyGraphVisitor(oldModelVisitor, newModelVisitor, projectModelVisitor, graphRecorder);
+            artifactsVisitor = new CompositeDependencyArtifactsVisitor(oldModelVisitor, artifactsBuilder, graphRecorder);
+        } else {
+            graphVisitor = new CompositeDependencyGraphVisitor(oldModelVisitor, newModelVisitor, projectModelVisitor);
+            artifactsVisitor = new CompositeDependencyArtifactsVisitor(oldModelVisitor, artifactsBuilder);
+        }
 
         resolver.resolve(configuration, resolutionAwareRepositories, metadataHandler, graphVisitor, artifactsVisitor);
 
-        DefaultResolverResults defaultResolverResults = (DefaultResolverResults) results;
         defaultResolverResults.resolved(newModelBuilder.complete(), localComponentsResultBuilder.complete());
 
         ResolvedGraphResults graphResults = oldModelBuilder.complete();
-        defaultResolverResults.retainState(graphResults, artifactsBuilder, oldTransientModelBuilder);
+        defaultResolverResults.retainState(graphResults, artifactsBuilder, oldTransientModelBuilder, graphRecorder);
+    }
+
+    private void replay(CachedResolvedGraph graph, List<ModuleDependency> moduleDependencies, ArtifactResolver artifactResolver, StoreSet stores, DefaultResolverResults results) {
+        TransientConfigurationResultsBuilder oldTransientModelBuilder = new TransientConfigurationResultsBuilder(stores.nextBinaryStore(), stores.oldModelCache());
+        oldTransientModelBuilder.replay(graph.getResolvedConfiguration());
+
+        StreamingResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(stores.nextBinaryStore(), stores.newModelCache());
+        ResolutionResult resolutionResult = newModelBuilder.replay(graph.getResolutionResult());
+
+        Map<ResolvedConfigurationIdentifier, ModuleDependency> firstLevelDependencies = Maps.newHashMap();
+        for (Map.Entry<ResolvedConfigurationIdentifier, Integer> entry : graph.getFirstLevelDependencies().entrySet()) {
+            firstLevelDependencies.put(entry.getKey(), moduleDependencies.get(entry.getValue()));
+        }
+        ResolvedGraphResults graphResults = new DefaultResolvedGraphResults(Collections.<UnresolvedDependency>emptySet(), firstLevelDependencies);
+
+        ResolvedArtifactsBuilder artifactsBuilder = new DefaultResolvedArtifactsBuilder();
+        Map<ComponentArtifactIdentifier, ResolvedArtifact> allResolvedArtifacts = Maps.newHashMap();
+        for (Map.Entry<Long, CachedResolvedGraph.ArtifactSet> entry : graph.getArtifactSets().entrySet()) {
+            CachedResolvedGraph.ArtifactSet artifactSet = entry.getValue();
+            Set<ComponentArtifactMetaData> artifacts = Sets.newLinkedHashSet();
+            for (ModuleComponentArtifactIdentifier artifactId : artifactSet.getArtifacts()) {
+                artifacts.add(new DefaultModuleComponentArtifactMetaData(artifactId));
+            }
+            CachedResolvedGraph.Component owner = graph.getComponents().get(artifactSet.getOwner());
+            artifactsBuilder.visitArtifacts(null, null, new DefaultArtifactSet(artifactSet.getOwner(), owner.getModuleSource(), DefaultModuleResolutionFilter.all(),
+                artifacts, artifactResolver, allResolvedArtifacts, entry.getKey()));
+        }
+        artifactsBuilder.finishArtifacts();
+
+        results.resolved(resolutionResult, new DefaultResolvedLocalComponentsResultBuilder(buildProjectDependencies).complete());
+        results.retainState(graphResults, artifactsBuilder, oldTransientModelBuilder, null);
     }
 
     public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
@@ -103,6 +189,11 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         ResolvedArtifactResults artifactResults = defaultResolverResults.getResolvedArtifacts();
         TransientConfigurationResultsBuilder transientConfigurationResultsBuilder = defaultResolverResults.getTransientConfigurationResultsBuilder();
 
+        ResolvedGraphRecorder graphRecorder = defaultResolverResults.getGraphRecorder();
+        if (graphRecorder != null && !graphResults.hasError()) {
+            graphCache.put(graphRecorder, artifactResults);
+        }
+
         Factory<TransientConfigurationResults> transientConfigurationResultsFactory =
                 new TransientConfigurationResultsLoader(transientConfigurationResultsBuilder, graphResults, artifactResults);
 
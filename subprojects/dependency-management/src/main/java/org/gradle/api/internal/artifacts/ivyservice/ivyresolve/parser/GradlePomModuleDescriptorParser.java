@@ -48,9 +48,11 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     private static final String DEPENDENCY_IMPORT_SCOPE = "import";
     private final VersionSelectorScheme gradleVersionSelectorScheme;
     private final VersionSelectorScheme mavenVersionSelectorScheme;
+    private final ParsedPomCache parsedPomCache;
 
-    public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme) {
+    public GradlePomModuleDescriptorParser(VersionSelectorScheme gradleVersionSelectorScheme, ParsedPomCache parsedPomCache) {
         this.gradleVersionSelectorScheme = gradleVersionSelectorScheme;
+        this.parsedPomCache = parsedPomCache;
         mavenVersionSelectorScheme = new MavenVersionSelectorScheme(gradleVersionSelectorScheme);
     }
 
@@ -199,7 +201,7 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
     }
 
     /**
-     * Parses other POM.
+     * Parses other POM. The result is reused for later requests for the same unchanged POM.
      *
      * @param parseContext Parse context
      * @param parentId Parent module revision ID
@@ -209,9 +211,14 @@ public final class GradlePomModuleDescriptorParser extends AbstractModuleDescrip
      */
     private PomReader parseOtherPom(DescriptorParseContext parseContext, ModuleComponentIdentifier parentId) throws IOException, SAXException {
         LocallyAvailableExternalResource localResource = parseContext.getMetaDataArtifact(parentId, ArtifactType.MAVEN_POM);
-        PomReader pomReader = new PomReader(localResource);
+        PomReader pomReader = parsedPomCache.get(localResource);
+        if (pomReader != null) {
+            return pomReader;
+        }
+        pomReader = new PomReader(localResource);
         GradlePomModuleDescriptorBuilder mdBuilder = new GradlePomModuleDescriptorBuilder(pomReader, gradleVersionSelectorScheme, mavenVersionSelectorScheme);
         doParsePom(parseContext, mdBuilder, pomReader);
+        parsedPomCache.put(localResource, pomReader);
         return pomReader;
     }
 }
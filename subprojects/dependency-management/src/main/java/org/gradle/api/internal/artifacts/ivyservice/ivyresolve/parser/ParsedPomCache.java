@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.gradle.api.Nullable;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
+
+/**
+ * Keeps parent, imported and relocated POMs parsed for the whole build, as they are shared by many modules across all projects.
+ * Entries are keyed by the location and state of the local copy of the POM, so a changed POM is parsed again.
+ */
+public class ParsedPomCache {
+    private static final int MAX_CACHED_POMS = 500;
+    private final Cache<String, PomReader> parsedPoms = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_POMS).build();
+
+    @Nullable
+    public PomReader get(LocallyAvailableExternalResource resource) {
+        return parsedPoms.getIfPresent(getCacheKey(resource));
+    }
+
+    public void put(LocallyAvailableExternalResource resource, PomReader pomReader) {
+        parsedPoms.put(getCacheKey(resource), pomReader);
+    }
+
+    private String getCacheKey(LocallyAvailableExternalResource resource) {
+        LocallyAvailableResource localResource = resource.getLocalResource();
+        return resource.getURI() + "|" + localResource.getFile().getAbsolutePath() + "|" + localResource.getLastModified() + "|" + localResource.getContentLength();
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.apache.ivy.core.module.descriptor.*;
+import org.apache.ivy.core.module.id.ArtifactId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
+import org.gradle.api.internal.artifacts.ivyservice.IvyUtil;
+import org.gradle.api.internal.artifacts.ivyservice.NamespaceId;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Serializes a resolved module descriptor into a compact binary form, for storage in the module meta-data cache. Retains the same information as the
+ * ivy.xml written by {@link org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter}, but can be read back without XML parsing.
+ */
+public class ModuleDescriptorSerializer implements Serializer<ModuleDescriptor> {
+    private final ResolverStrategy resolverStrategy;
+    private final Field dependencyConfigField;
+
+    public ModuleDescriptorSerializer(ResolverStrategy resolverStrategy) {
+        this.resolverStrategy = resolverStrategy;
+        try {
+            dependencyConfigField = DefaultDependencyDescriptor.class.getDeclaredField("confs");
+        } catch (NoSuchFieldException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        dependencyConfigField.setAccessible(true);
+    }
+
+    public void write(Encoder encoder, ModuleDescriptor md) throws Exception {
+        new Writer(encoder, md).write();
+    }
+
+    public ModuleDescriptor read(Decoder decoder) throws Exception {
+        return new Reader(decoder).read();
+    }
+
+    private class Writer {
+        private final Encoder encoder;
+        private final ModuleDescriptor md;
+
+        Writer(Encoder encoder, ModuleDescriptor md) {
+            this.encoder = encoder;
+            this.md = md;
+        }
+
+        void write() throws Exception {
+            writeInfo();
+            writeConfigurations();
+            writeArtifacts();
+            writeDependencies();
+            writeExcludeRules(md.getAllExcludeRules());
+        }
+
+        private void writeInfo() throws IOException {
+            ModuleRevisionId moduleRevisionId = md.getModuleRevisionId();
+            ModuleRevisionId resolvedModuleRevisionId = md.getResolvedModuleRevisionId();
+            encoder.writeString(moduleRevisionId.getOrganisation());
+            encoder.writeString(moduleRevisionId.getName());
+            encoder.writeNullableString(resolvedModuleRevisionId.getBranch());
+            encoder.writeNullableString(resolvedModuleRevisionId.getRevision());
+            writeMap(md.getQualifiedExtraAttributes());
+            writeMap(md.getExtraAttributesNamespaces());
+
+            encoder.writeString(md.getStatus());
+            Date publicationDate = md.getResolvedPublicationDate();
+            encoder.writeBoolean(publicationDate != null);
+            if (publicationDate != null) {
+                encoder.writeLong(publicationDate.getTime());
+            }
+            encoder.writeBoolean(md.isDefault());
+
+            License[] licenses = md.getLicenses();
+            encoder.writeSmallInt(licenses.length);
+            for (License license : licenses) {
+                encoder.writeNullableString(license.getName());
+                encoder.writeNullableString(license.getUrl());
+            }
+            encoder.writeNullableString(md.getHomePage());
+            encoder.writeNullableString(md.getDescription());
+
+            List<Map.Entry<NamespaceId, String>> extraInfo = new ArrayList<Map.Entry<NamespaceId, String>>();
+            for (Object o : md.getExtraInfo().entrySet()) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                if (entry.getKey() instanceof NamespaceId && entry.getValue() != null && entry.getValue().toString().length() > 0) {
+                    extraInfo.add(new AbstractMap.SimpleEntry<NamespaceId, String>((NamespaceId) entry.getKey(), entry.getValue().toString()));
+                }
+            }
+            encoder.writeSmallInt(extraInfo.size());
+            for (Map.Entry<NamespaceId, String> entry : extraInfo) {
+                encoder.writeString(entry.getKey().getNamespace());
+                encoder.writeString(entry.getKey().getName());
+                encoder.writeString(entry.getValue());
+            }
+        }
+
+        private void writeConfigurations() throws IOException {
+            Configuration[] configurations = md.getConfigurations();
+            encoder.writeSmallInt(configurations.length);
+            for (Configuration configuration : configurations) {
+                encoder.writeString(configuration.getName());
+                encoder.writeString(configuration.getVisibility().toString());
+                encoder.writeNullableString(configuration.getDescription());
+                writeStrings(configuration.getExtends());
+                encoder.writeBoolean(configuration.isTransitive());
+                encoder.writeNullableString(configuration.getDeprecated());
+                writeMap(configuration.getQualifiedExtraAttributes());
+            }
+        }
+
+        private void writeArtifacts() throws IOException {
+            Artifact[] artifacts = md.getAllArtifacts();
+            encoder.writeSmallInt(artifacts.length);
+            for (Artifact artifact : artifacts) {
+                encoder.writeString(artifact.getName());
+                encoder.writeString(artifact.getType());
+                encoder.writeString(artifact.getExt());
+                writeMap(artifact.getQualifiedExtraAttributes());
+                writeStrings(artifact.getConfigurations());
+            }
+        }
+
+        private void writeDependencies() throws Exception {
+            DependencyDescriptor[] dependencies = md.getDependencies();
+            encoder.writeSmallInt(dependencies.length);
+            for (DependencyDescriptor dependency : dependencies) {
+                ModuleRevisionId revisionId = dependency.getDependencyRevisionId();
+                encoder.writeString(revisionId.getOrganisation());
+                encoder.writeString(revisionId.getName());
+                encoder.writeNullableString(revisionId.getBranch());
+                encoder.writeString(revisionId.getRevision());
+                writeMap(dependency.getQualifiedExtraAttributes());
+                ModuleRevisionId dynamicRevisionId = dependency.getDynamicConstraintDependencyRevisionId();
+                boolean dynamic = !dynamicRevisionId.equals(revisionId);
+                encoder.writeBoolean(dynamic);
+                if (dynamic) {
+                    encoder.writeNullableString(dynamicRevisionId.getBranch());
+                    encoder.writeString(dynamicRevisionId.getRevision());
+                }
+                encoder.writeBoolean(dependency.isForce());
+                encoder.writeBoolean(dependency.isChanging());
+                encoder.writeBoolean(dependency.isTransitive());
+
+                Map<String, List<String>> configMappings = getConfigMappings(dependency);
+                encoder.writeSmallInt(configMappings.size());
+                for (Map.Entry<String, List<String>> entry : configMappings.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    writeStrings(entry.getValue().toArray(new String[0]));
+                }
+
+                DependencyArtifactDescriptor[] dependencyArtifacts = dependency.getAllDependencyArtifacts();
+                encoder.writeSmallInt(dependencyArtifacts.length);
+                for (DependencyArtifactDescriptor dependencyArtifact : dependencyArtifacts) {
+                    encoder.writeString(dependencyArtifact.getName());
+                    encoder.writeString(dependencyArtifact.getType());
+                    encoder.writeString(dependencyArtifact.getExt());
+                    URL url = dependencyArtifact.getUrl();
+                    encoder.writeNullableString(url == null ? null : url.toString());
+                    writeMap(dependencyArtifact.getQualifiedExtraAttributes());
+                    writeStrings(dependencyArtifact.getConfigurations());
+                }
+
+                IncludeRule[] includeRules = dependency.getAllIncludeRules();
+                encoder.writeSmallInt(includeRules.length);
+                for (IncludeRule includeRule : includeRules) {
+                    writeArtifactId(includeRule.getId());
+                    encoder.writeString(includeRule.getMatcher().getName());
+                    writeMap(includeRule.getQualifiedExtraAttributes());
+                    writeStrings(includeRule.getConfigurations());
+                }
+
+                writeExcludeRules(dependency.getAllExcludeRules());
+            }
+        }
+
+        private Map<String, List<String>> getConfigMappings(DependencyDescriptor dependency) throws IllegalAccessException {
+            String[] moduleConfigurations = dependency.getModuleConfigurations();
+            Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+            if (dependency instanceof DefaultDependencyDescriptor) {
+                // The `getDependencyConfigurations()` implementation for DefaultDependencyDescriptor interprets the RHS of the configuration mappings,
+                // and gets it wrong for mappings such as '*->@' or '*->#'. So, instead, reach into the descriptor and get the raw mappings out.
+                @SuppressWarnings("unchecked")
+                Map<String, List<String>> rawMappings = (Map<String, List<String>>) dependencyConfigField.get(dependency);
+                for (String moduleConfiguration : moduleConfigurations) {
+                    result.put(moduleConfiguration, rawMappings.get(moduleConfiguration));
+                }
+            } else {
+                for (String moduleConfiguration : moduleConfigurations) {
+                    result.put(moduleConfiguration, Arrays.asList(dependency.getDependencyConfigurations(moduleConfiguration)));
+                }
+            }
+            return result;
+        }
+
+        private void writeExcludeRules(ExcludeRule[] excludeRules) throws IOException {
+            encoder.writeSmallInt(excludeRules.length);
+            for (ExcludeRule excludeRule : excludeRules) {
+                writeArtifactId(excludeRule.getId());
+                encoder.writeString(excludeRule.getMatcher().getName());
+                writeMap(excludeRule.getQualifiedExtraAttributes());
+                writeStrings(excludeRule.getConfigurations());
+            }
+        }
+
+        private void writeArtifactId(ArtifactId artifactId) throws IOException {
+            encoder.writeString(artifactId.getModuleId().getOrganisation());
+            encoder.writeString(artifactId.getModuleId().getName());
+            encoder.writeString(artifactId.getName());
+            encoder.writeString(artifactId.getType());
+            encoder.writeString(artifactId.getExt());
+        }
+
+        private void writeStrings(String[] values) throws IOException {
+            encoder.writeSmallInt(values.length);
+            for (String value : values) {
+                encoder.writeString(value);
+            }
+        }
+
+        private void writeMap(Map<?, ?> values) throws IOException {
+            encoder.writeSmallInt(values.size());
+            for (Map.Entry<?, ?> entry : values.entrySet()) {
+                encoder.writeString(entry.getKey().toString());
+                encoder.writeString(entry.getValue().toString());
+            }
+        }
+    }
+
+    private class Reader {
+        private final Decoder decoder;
+        private final DefaultModuleDescriptor md = new DefaultModuleDescriptor(XmlModuleDescriptorParser.getInstance(), null);
+
+        Reader(Decoder decoder) {
+            this.decoder = decoder;
+        }
+
+        ModuleDescriptor read() throws IOException {
+            readInfo();
+            readConfigurations();
+            readArtifacts();
+            readDependencies();
+            for (ExcludeRule excludeRule : readExcludeRules()) {
+                md.addExcludeRule(excludeRule);
+            }
+            return md;
+        }
+
+        private void readInfo() throws IOException {
+            String organisation = decoder.readString();
+            String name = decoder.readString();
+            String branch = decoder.readNullableString();
+            String revision = decoder.readNullableString();
+            Map<String, String> extraAttributes = readMap();
+            md.setModuleRevisionId(IvyUtil.createModuleRevisionId(organisation, name, branch, revision, extraAttributes));
+            for (Map.Entry<String, String> entry : readMap().entrySet()) {
+                md.addExtraAttributeNamespace(entry.getKey(), entry.getValue());
+            }
+
+            md.setStatus(decoder.readString());
+            if (decoder.readBoolean()) {
+                md.setPublicationDate(new Date(decoder.readLong()));
+            }
+            md.setDefault(decoder.readBoolean());
+
+            int licenseCount = decoder.readSmallInt();
+            for (int i = 0; i < licenseCount; i++) {
+                md.addLicense(new License(decoder.readNullableString(), decoder.readNullableString()));
+            }
+            md.setHomePage(decoder.readNullableString());
+            md.setDescription(decoder.readNullableString());
+
+            @SuppressWarnings("unchecked")
+            Map<Object, String> extraInfo = (Map) md.getExtraInfo();
+            int extraInfoCount = decoder.readSmallInt();
+            for (int i = 0; i < extraInfoCount; i++) {
+                NamespaceId id = new NamespaceId(decoder.readString(), decoder.readString());
+                extraInfo.put(id, decoder.readString());
+            }
+        }
+
+        private void readConfigurations() throws IOException {
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                String name = decoder.readString();
+                Configuration.Visibility visibility = Configuration.Visibility.getVisibility(decoder.readString());
+                String description = decoder.readNullableString();
+                String[] extendsFrom = readStrings();
+                boolean transitive = decoder.readBoolean();
+                String deprecated = decoder.readNullableString();
+                Configuration configuration = new Configuration(name, visibility, description, extendsFrom, transitive, deprecated);
+                for (Map.Entry<String, String> entry : readMap().entrySet()) {
+                    configuration.setExtraAttribute(entry.getKey(), entry.getValue());
+                }
+                md.addConfiguration(configuration);
+            }
+        }
+
+        private void readArtifacts() throws IOException {
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                String name = decoder.readString();
+                String type = decoder.readString();
+                String ext = decoder.readString();
+                MDArtifact artifact = new MDArtifact(md, name, type, ext, null, readMap());
+                for (String configuration : readStrings()) {
+                    artifact.addConfiguration(configuration);
+                    md.addArtifact(configuration, artifact);
+                }
+            }
+        }
+
+        private void readDependencies() throws IOException {
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                String organisation = decoder.readString();
+                String name = decoder.readString();
+                String branch = decoder.readNullableString();
+                String revision = decoder.readString();
+                Map<String, String> extraAttributes = readMap();
+                ModuleRevisionId revisionId = IvyUtil.createModuleRevisionId(organisation, name, branch, revision, extraAttributes);
+                ModuleRevisionId dynamicRevisionId;
+                if (decoder.readBoolean()) {
+                    String branchConstraint = decoder.readNullableString();
+                    String revisionConstraint = decoder.readString();
+                    dynamicRevisionId = IvyUtil.createModuleRevisionId(organisation, name, branchConstraint, revisionConstraint, extraAttributes, branchConstraint != null);
+                } else {
+                    dynamicRevisionId = IvyUtil.createModuleRevisionId(organisation, name, branch, revision, extraAttributes, false);
+                }
+                boolean force = decoder.readBoolean();
+                boolean changing = decoder.readBoolean();
+                boolean transitive = decoder.readBoolean();
+                DefaultDependencyDescriptor dependency = new DefaultDependencyDescriptor(md, revisionId, dynamicRevisionId, force, changing, transitive);
+                md.addDependency(dependency);
+
+                int mappingCount = decoder.readSmallInt();
+                for (int j = 0; j < mappingCount; j++) {
+                    String moduleConfiguration = decoder.readString();
+                    for (String dependencyConfiguration : readStrings()) {
+                        dependency.addDependencyConfiguration(moduleConfiguration, dependencyConfiguration);
+                    }
+                }
+
+                int artifactCount = decoder.readSmallInt();
+                for (int j = 0; j < artifactCount; j++) {
+                    String artifactName = decoder.readString();
+                    String type = decoder.readString();
+                    String ext = decoder.readString();
+                    String url = decoder.readNullableString();
+                    DefaultDependencyArtifactDescriptor artifact = new DefaultDependencyArtifactDescriptor(dependency, artifactName, type, ext, url == null ? null : new URL(url), readMap());
+                    for (String configuration : readStrings()) {
+                        artifact.addConfiguration(configuration);
+                        dependency.addDependencyArtifact(configuration, artifact);
+                    }
+                }
+
+                int includeCount = decoder.readSmallInt();
+                for (int j = 0; j < includeCount; j++) {
+                    ArtifactId artifactId = readArtifactId();
+                    PatternMatcher matcher = readMatcher();
+                    DefaultIncludeRule includeRule = new DefaultIncludeRule(artifactId, matcher, readMap());
+                    for (String configuration : readStrings()) {
+                        includeRule.addConfiguration(configuration);
+                        dependency.addIncludeRule(configuration, includeRule);
+                    }
+                }
+
+                for (DefaultExcludeRule excludeRule : readExcludeRules()) {
+                    for (String configuration : excludeRule.getConfigurations()) {
+                        dependency.addExcludeRule(configuration, excludeRule);
+                    }
+                }
+            }
+        }
+
+        private List<DefaultExcludeRule> readExcludeRules() throws IOException {
+            int count = decoder.readSmallInt();
+            List<DefaultExcludeRule> excludeRules = new ArrayList<DefaultExcludeRule>(count);
+            for (int i = 0; i < count; i++) {
+                ArtifactId artifactId = readArtifactId();
+                PatternMatcher matcher = readMatcher();
+                DefaultExcludeRule excludeRule = new DefaultExcludeRule(artifactId, matcher, readMap());
+                for (String configuration : readStrings()) {
+                    excludeRule.addConfiguration(configuration);
+                }
+                excludeRules.add(excludeRule);
+            }
+            return excludeRules;
+        }
+
+        private ArtifactId readArtifactId() throws IOException {
+            String organisation = decoder.readString();
+            String module = decoder.readString();
+            return IvyUtil.createArtifactId(organisation, module, decoder.readString(), decoder.readString(), decoder.readString());
+        }
+
+        private PatternMatcher readMatcher() throws IOException {
+            String matcherName = decoder.readString();
+            PatternMatcher matcher = resolverStrategy.getPatternMatcher(matcherName);
+            if (matcher == null) {
+                throw new IllegalArgumentException("unknown matcher " + matcherName);
+            }
+            return matcher;
+        }
+
+        private String[] readStrings() throws IOException {
+            String[] values = new String[decoder.readSmallInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = decoder.readString();
+            }
+            return values;
+        }
+
+        private Map<String, String> readMap() throws IOException {
+            int count = decoder.readSmallInt();
+            Map<String, String> values = new LinkedHashMap<String, String>(count);
+            for (int i = 0; i < count; i++) {
+                values.put(decoder.readString(), decoder.readString());
+            }
+            return values;
+        }
+    }
+}
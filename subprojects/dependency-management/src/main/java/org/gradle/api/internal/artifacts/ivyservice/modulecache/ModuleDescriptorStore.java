@@ -18,34 +18,37 @@ package org.gradle.api.internal.artifacts.ivyservice.modulecache;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.gradle.api.Action;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
-import org.gradle.api.internal.artifacts.ivyservice.IvyModuleDescriptorWriter;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
-import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.DescriptorParseContext;
-import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.resource.local.LocallyAvailableResource;
 import org.gradle.internal.resource.local.PathKeyFileStore;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 
+/**
+ * Stores resolved module descriptors in a compact binary format, so that a cache hit does not need to parse an ivy.xml file.
+ */
 public class ModuleDescriptorStore {
 
-    public static final String FILE_PATH_PATTERN = "%s/%s/%s/%s/ivy.xml";
-    private final IvyXmlModuleDescriptorParser descriptorParser;
+    public static final String FILE_PATH_PATTERN = "%s/%s/%s/%s/descriptor.bin";
     private final PathKeyFileStore metaDataStore;
-    private final IvyModuleDescriptorWriter descriptorWriter;
+    private final Serializer<ModuleDescriptor> descriptorSerializer;
 
-    public ModuleDescriptorStore(PathKeyFileStore metaDataStore, IvyModuleDescriptorWriter descriptorWriter, IvyXmlModuleDescriptorParser ivyXmlModuleDescriptorParser) {
+    public ModuleDescriptorStore(PathKeyFileStore metaDataStore, Serializer<ModuleDescriptor> descriptorSerializer) {
         this.metaDataStore = metaDataStore;
-        this.descriptorWriter = descriptorWriter;
-        this.descriptorParser = ivyXmlModuleDescriptorParser;
+        this.descriptorSerializer = descriptorSerializer;
     }
 
     public ModuleDescriptor getModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier) {
         String filePath = getFilePath(repository, moduleComponentIdentifier);
         final LocallyAvailableResource resource = metaDataStore.get(filePath);
         if (resource != null) {
-            return parseModuleDescriptorFile(resource.getFile());
+            return readModuleDescriptorFile(resource.getFile());
         }
         return null;
     }
@@ -55,7 +58,12 @@ public class ModuleDescriptorStore {
         return metaDataStore.add(filePath, new Action<File>() {
             public void execute(File moduleDescriptorFile) {
                 try {
-                    descriptorWriter.write(moduleDescriptor, moduleDescriptorFile);
+                    KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(moduleDescriptorFile));
+                    try {
+                        descriptorSerializer.write(encoder, moduleDescriptor);
+                    } finally {
+                        encoder.close();
+                    }
                 } catch (Exception e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
@@ -63,12 +71,20 @@ public class ModuleDescriptorStore {
         });
     }
 
-    private ModuleDescriptor parseModuleDescriptorFile(File moduleDescriptorFile) {
-        DescriptorParseContext parserSettings = new CachedModuleDescriptorParseContext();
-        return descriptorParser.parseMetaData(parserSettings, moduleDescriptorFile, false).getDescriptor();
+    private ModuleDescriptor readModuleDescriptorFile(File moduleDescriptorFile) {
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(moduleDescriptorFile));
+            try {
+                return descriptorSerializer.read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
     }
 
     private String getFilePath(ModuleComponentRepository repository, ModuleComponentIdentifier moduleComponentIdentifier) {
         return String.format(FILE_PATH_PATTERN, moduleComponentIdentifier.getGroup(), moduleComponentIdentifier.getModule(), moduleComponentIdentifier.getVersion(), repository.getId());
     }
-}
\ No newline at end of file
+}
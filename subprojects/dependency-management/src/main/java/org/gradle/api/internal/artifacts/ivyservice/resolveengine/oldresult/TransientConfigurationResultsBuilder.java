@@ -79,6 +79,19 @@ public class TransientConfigurationResultsBuilder {
         binaryData = binaryStore.done();
     }
 
+    /**
+     * Completes the results using content previously written by a builder of this type, rather than visiting the graph again.
+     */
+    public void replay(final byte[] content) {
+        binaryStore.write(new BinaryStore.WriteAction() {
+            public void write(Encoder encoder) throws IOException {
+                encoder.writeBytes(content);
+            }
+        });
+        LOG.debug("Flushing replayed resolved configuration data in {}.", binaryStore);
+        binaryData = binaryStore.done();
+    }
+
     public void firstLevelDependency(ResolvedConfigurationIdentifier id) {
         writeId(FIRST_LVL, id);
     }
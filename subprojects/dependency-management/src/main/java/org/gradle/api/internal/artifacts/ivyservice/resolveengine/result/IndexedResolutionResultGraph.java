@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.cache.BinaryStore;
+import org.gradle.internal.resolve.ModuleVersionResolveException;
+import org.gradle.internal.serialize.Decoder;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder.DEPENDENCY;
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder.MODULE;
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder.ROOT;
+
+/**
+ * A resolution result graph that reads components and their edges from the binary store on demand, using the positions recorded in a {@link ResolutionResultIndex}.
+ * Each component is read at most once, so the views handed out are stable for the lifetime of the graph.
+ */
+class IndexedResolutionResultGraph {
+    private final BinaryStore.BinaryData data;
+    private final ResolutionResultIndex index;
+    private final Map<ComponentSelector, ModuleVersionResolveException> failures;
+    private final Map<ModuleVersionIdentifier, LazyResolvedComponentResult> components = new HashMap<ModuleVersionIdentifier, LazyResolvedComponentResult>();
+    private final CachingDependencyResultFactory dependencyResultFactory = new CachingDependencyResultFactory();
+    private final ModuleVersionIdentifierSerializer moduleVersionIdentifierSerializer = new ModuleVersionIdentifierSerializer();
+    private final ModuleVersionSelectionSerializer moduleVersionSelectionSerializer = new ModuleVersionSelectionSerializer();
+    private final InternalDependencyResultSerializer internalDependencyResultSerializer = new InternalDependencyResultSerializer();
+    private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
+
+    IndexedResolutionResultGraph(BinaryStore.BinaryData data, ResolutionResultIndex index, Map<ComponentSelector, ModuleVersionResolveException> failures) {
+        this.data = data;
+        this.index = index;
+        this.failures = failures;
+    }
+
+    synchronized ResolvedComponentResult getRoot() {
+        return getComponent(index.getRoot());
+    }
+
+    synchronized LazyResolvedComponentResult getComponent(ModuleVersionIdentifier id) {
+        LazyResolvedComponentResult component = components.get(id);
+        if (component == null) {
+            Long position = index.getComponent(id);
+            if (position == null) {
+                throw new IllegalStateException("No resolution result was recorded for " + id + " in " + data);
+            }
+            component = data.read(position, new BinaryStore.ReadAction<LazyResolvedComponentResult>() {
+                public LazyResolvedComponentResult read(Decoder decoder) throws IOException {
+                    byte type = decoder.readByte();
+                    switch (type) {
+                        case ROOT:
+                            ModuleVersionIdentifier rootId = moduleVersionIdentifierSerializer.read(decoder);
+                            ComponentIdentifier componentIdentifier = componentIdentifierSerializer.read(decoder);
+                            return new LazyResolvedComponentResult(IndexedResolutionResultGraph.this, rootId, VersionSelectionReasons.ROOT, componentIdentifier);
+                        case MODULE:
+                            ModuleVersionSelection sel = moduleVersionSelectionSerializer.read(decoder);
+                            return new LazyResolvedComponentResult(IndexedResolutionResultGraph.this, sel.getId(), sel.getSelectionReason(), sel.getComponentId());
+                        default:
+                            throw new IOException("Unexpected value type read from stream: " + type);
+                    }
+                }
+            });
+            components.put(id, component);
+        }
+        return component;
+    }
+
+    synchronized Set<DependencyResult> loadDependencies(LazyResolvedComponentResult from) {
+        Set<DependencyResult> dependencies = new LinkedHashSet<DependencyResult>();
+        for (Long position : index.getDependencies(from.getModuleVersion())) {
+            List<InternalDependencyResult> results = data.read(position, new BinaryStore.ReadAction<List<InternalDependencyResult>>() {
+                public List<InternalDependencyResult> read(Decoder decoder) throws IOException {
+                    byte type = decoder.readByte();
+                    if (type != DEPENDENCY) {
+                        throw new IOException("Unexpected value type read from stream: " + type);
+                    }
+                    moduleVersionIdentifierSerializer.read(decoder);
+                    int size = decoder.readSmallInt();
+                    List<InternalDependencyResult> deps = new ArrayList<InternalDependencyResult>(size);
+                    for (int i = 0; i < size; i++) {
+                        deps.add(internalDependencyResultSerializer.read(decoder, failures));
+                    }
+                    return deps;
+                }
+            });
+            for (InternalDependencyResult d : results) {
+                if (d.getFailure() != null) {
+                    dependencies.add(dependencyResultFactory.createUnresolvedDependency(d.getRequested(), from, d.getReason(), d.getFailure()));
+                } else {
+                    dependencies.add(dependencyResultFactory.createResolvedDependency(d.getRequested(), from, getComponent(d.getSelected())));
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    synchronized Set<ResolvedDependencyResult> loadDependents(LazyResolvedComponentResult selected) {
+        Set<ResolvedDependencyResult> dependents = new LinkedHashSet<ResolvedDependencyResult>();
+        for (ModuleVersionIdentifier fromId : index.getDependents(selected.getModuleVersion())) {
+            for (DependencyResult dependency : getComponent(fromId).getDependencies()) {
+                if (dependency instanceof ResolvedDependencyResult && ((ResolvedDependencyResult) dependency).getSelected() == selected) {
+                    dependents.add((ResolvedDependencyResult) dependency);
+                }
+            }
+        }
+        return dependents;
+    }
+}
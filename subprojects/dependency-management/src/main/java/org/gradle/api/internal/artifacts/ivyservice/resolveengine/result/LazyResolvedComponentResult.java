@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.result.ComponentSelectionReason;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A {@link ResolvedComponentResult} whose dependencies and dependents are read from its graph when first queried.
+ */
+class LazyResolvedComponentResult implements ResolvedComponentResult {
+    private final IndexedResolutionResultGraph graph;
+    private final ModuleVersionIdentifier id;
+    private final ComponentSelectionReason selectionReason;
+    private final ComponentIdentifier componentId;
+    private Set<DependencyResult> dependencies;
+    private Set<ResolvedDependencyResult> dependents;
+
+    LazyResolvedComponentResult(IndexedResolutionResultGraph graph, ModuleVersionIdentifier id, ComponentSelectionReason selectionReason, ComponentIdentifier componentId) {
+        this.graph = graph;
+        this.id = id;
+        this.selectionReason = selectionReason;
+        this.componentId = componentId;
+    }
+
+    public ComponentIdentifier getId() {
+        return componentId;
+    }
+
+    public Set<DependencyResult> getDependencies() {
+        synchronized (graph) {
+            if (dependencies == null) {
+                dependencies = Collections.unmodifiableSet(graph.loadDependencies(this));
+            }
+            return dependencies;
+        }
+    }
+
+    public Set<ResolvedDependencyResult> getDependents() {
+        synchronized (graph) {
+            if (dependents == null) {
+                dependents = Collections.unmodifiableSet(graph.loadDependents(this));
+            }
+            return dependents;
+        }
+    }
+
+    public ComponentSelectionReason getSelectionReason() {
+        return selectionReason;
+    }
+
+    @Nullable
+    public ModuleVersionIdentifier getModuleVersion() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return getId().getDisplayName();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+
+import java.util.*;
+
+/**
+ * Positions of the records written by {@link StreamingResolutionResultBuilder}, so that individual components and their edges can be read without decoding the whole graph.
+ */
+class ResolutionResultIndex {
+    private ModuleVersionIdentifier root;
+    private final Map<ModuleVersionIdentifier, Long> components = new HashMap<ModuleVersionIdentifier, Long>();
+    private final Map<ModuleVersionIdentifier, List<Long>> dependencies = new HashMap<ModuleVersionIdentifier, List<Long>>();
+    private final Map<ModuleVersionIdentifier, Set<ModuleVersionIdentifier>> dependents = new HashMap<ModuleVersionIdentifier, Set<ModuleVersionIdentifier>>();
+
+    void root(ModuleVersionIdentifier id, long position) {
+        root = id;
+        components.put(id, position);
+    }
+
+    void component(ModuleVersionIdentifier id, long position) {
+        // The first record for a component wins, matching the way the graph is built from the stream
+        if (!components.containsKey(id)) {
+            components.put(id, position);
+        }
+    }
+
+    void dependencies(ModuleVersionIdentifier from, long position, Collection<? extends InternalDependencyResult> results) {
+        List<Long> positions = dependencies.get(from);
+        if (positions == null) {
+            positions = new ArrayList<Long>(1);
+            dependencies.put(from, positions);
+        }
+        positions.add(position);
+        for (InternalDependencyResult result : results) {
+            if (result.getFailure() == null) {
+                Set<ModuleVersionIdentifier> fromComponents = dependents.get(result.getSelected());
+                if (fromComponents == null) {
+                    fromComponents = new LinkedHashSet<ModuleVersionIdentifier>();
+                    dependents.put(result.getSelected(), fromComponents);
+                }
+                fromComponents.add(from);
+            }
+        }
+    }
+
+    ModuleVersionIdentifier getRoot() {
+        return root;
+    }
+
+    Long getComponent(ModuleVersionIdentifier id) {
+        return components.get(id);
+    }
+
+    List<Long> getDependencies(ModuleVersionIdentifier from) {
+        List<Long> positions = dependencies.get(from);
+        return positions == null ? Collections.<Long>emptyList() : positions;
+    }
+
+    Set<ModuleVersionIdentifier> getDependents(ModuleVersionIdentifier id) {
+        Set<ModuleVersionIdentifier> fromComponents = dependents.get(id);
+        return fromComponents == null ? Collections.<ModuleVersionIdentifier>emptySet() : fromComponents;
+    }
+}
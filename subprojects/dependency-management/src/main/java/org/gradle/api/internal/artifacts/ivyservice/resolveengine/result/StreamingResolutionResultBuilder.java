@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ComponentSelector;
@@ -40,10 +41,10 @@ import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
 public class StreamingResolutionResultBuilder implements ResolutionResultBuilder {
 
-    private final static byte ROOT = 1;
-    private final static byte MODULE = 2;
-    private final static byte DEPENDENCY = 3;
-    private final static byte DONE = 4;
+    final static byte ROOT = 1;
+    final static byte MODULE = 2;
+    final static byte DEPENDENCY = 3;
+    final static byte DONE = 4;
 
     private final Map<ComponentSelector, ModuleVersionResolveException> failures = new HashMap<ComponentSelector, ModuleVersionResolveException>();
     private final BinaryStore store;
@@ -52,6 +53,7 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
     private final Store<ResolvedComponentResult> cache;
     private final InternalDependencyResultSerializer internalDependencyResultSerializer = new InternalDependencyResultSerializer();
     private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
+    private final ResolutionResultIndex index = new ResolutionResultIndex();
 
     public StreamingResolutionResultBuilder(BinaryStore store, Store<ResolvedComponentResult> cache) {
         this.store = store;
@@ -65,11 +67,26 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
             }
         });
         BinaryStore.BinaryData data = store.done();
-        RootFactory rootSource = new RootFactory(data, failures, cache);
+        RootFactory rootSource = new RootFactory(data, index, failures, cache);
+        return new DefaultResolutionResult(rootSource);
+    }
+
+    /**
+     * Completes the result using content previously written by a builder of this type, rather than visiting the graph again.
+     */
+    public ResolutionResult replay(final byte[] content) {
+        store.write(new BinaryStore.WriteAction() {
+            public void write(Encoder encoder) throws IOException {
+                encoder.writeBytes(content);
+            }
+        });
+        BinaryStore.BinaryData data = store.done();
+        RootFactory rootSource = new RootFactory(data, null, failures, cache);
         return new DefaultResolutionResult(rootSource);
     }
 
     public ResolutionResultBuilder start(final ModuleVersionIdentifier root, final ComponentIdentifier componentIdentifier) {
+        index.root(root, store.getWritePosition());
         store.write(new BinaryStore.WriteAction() {
             public void write(Encoder encoder) throws IOException {
                 encoder.writeByte(ROOT);
@@ -84,6 +101,7 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
 
     public void resolvedModuleVersion(final ModuleVersionSelection moduleVersion) {
         if (visitedModules.add(moduleVersion.getId())) {
+            index.component(moduleVersion.getId(), store.getWritePosition());
             store.write(new BinaryStore.WriteAction() {
                 public void write(Encoder encoder) throws IOException {
                     encoder.writeByte(MODULE);
@@ -95,6 +113,7 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
 
     public void resolvedConfiguration(final ModuleVersionIdentifier from, final Collection<? extends InternalDependencyResult> dependencies) {
         if (!dependencies.isEmpty()) {
+            index.dependencies(from, store.getWritePosition(), dependencies);
             store.write(new BinaryStore.WriteAction() {
                 public void write(Encoder encoder) throws IOException {
                     encoder.writeByte(DEPENDENCY);
@@ -119,6 +138,7 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
         private final ModuleVersionSelectionSerializer moduleVersionSelectionSerializer = new ModuleVersionSelectionSerializer();
 
         private final BinaryStore.BinaryData data;
+        private final ResolutionResultIndex index;
         private final Map<ComponentSelector, ModuleVersionResolveException> failures;
         private final Store<ResolvedComponentResult> cache;
         private final Object lock = new Object();
@@ -126,15 +146,24 @@ public class StreamingResolutionResultBuilder implements ResolutionResultBuilder
         private final InternalDependencyResultSerializer internalDependencyResultSerializer = new InternalDependencyResultSerializer();
         private final ComponentIdentifierSerializer componentIdentifierSerializer = new ComponentIdentifierSerializer();
 
-        public RootFactory(BinaryStore.BinaryData data, Map<ComponentSelector, ModuleVersionResolveException> failures,
+        public RootFactory(BinaryStore.BinaryData data, @Nullable ResolutionResultIndex index, Map<ComponentSelector, ModuleVersionResolveException> failures,
                            Store<ResolvedComponentResult> cache) {
             this.data = data;
+            this.index = index;
             this.failures = failures;
             this.cache = cache;
         }
 
         public ResolvedComponentResult create() {
             synchronized (lock) {
+                if (index != null) {
+                    // Components and their edges are read from the store as they are queried
+                    return cache.load(new Factory<ResolvedComponentResult>() {
+                        public ResolvedComponentResult create() {
+                            return new IndexedResolutionResultGraph(data, index, failures).getRoot();
+                        }
+                    });
+                }
                 return cache.load(new Factory<ResolvedComponentResult>() {
                     public ResolvedComponentResult create() {
                         try {
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ModuleSource;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The persisted result of resolving a configuration: the serialized resolution result and resolved configuration streams,
+ * plus enough information to reattach the declared dependencies and to resolve artifact files again later.
+ */
+public class CachedResolvedGraph {
+    private final long createTimestamp;
+    private final byte[] resolutionResult;
+    private final byte[] resolvedConfiguration;
+    private final Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies;
+    private final Map<ModuleVersionIdentifier, Component> components;
+    private final Map<Long, ArtifactSet> artifactSets;
+
+    public CachedResolvedGraph(long createTimestamp, byte[] resolutionResult, byte[] resolvedConfiguration, Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies,
+                               Map<ModuleVersionIdentifier, Component> components, Map<Long, ArtifactSet> artifactSets) {
+        this.createTimestamp = createTimestamp;
+        this.resolutionResult = resolutionResult;
+        this.resolvedConfiguration = resolvedConfiguration;
+        this.firstLevelDependencies = firstLevelDependencies;
+        this.components = components;
+        this.artifactSets = artifactSets;
+    }
+
+    public long getCreateTimestamp() {
+        return createTimestamp;
+    }
+
+    /**
+     * The content written by {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder}.
+     */
+    public byte[] getResolutionResult() {
+        return resolutionResult;
+    }
+
+    /**
+     * The content written by {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.oldresult.TransientConfigurationResultsBuilder}.
+     */
+    public byte[] getResolvedConfiguration() {
+        return resolvedConfiguration;
+    }
+
+    /**
+     * Maps each first level node to the index of its declaring dependency, in the order the module dependencies of the configuration are iterated.
+     */
+    public Map<ResolvedConfigurationIdentifier, Integer> getFirstLevelDependencies() {
+        return firstLevelDependencies;
+    }
+
+    public Map<ModuleVersionIdentifier, Component> getComponents() {
+        return components;
+    }
+
+    public Map<Long, ArtifactSet> getArtifactSets() {
+        return artifactSets;
+    }
+
+    public static class Component {
+        private final ModuleSource moduleSource;
+        private final boolean changing;
+        private final boolean dynamic;
+
+        public Component(ModuleSource moduleSource, boolean changing, boolean dynamic) {
+            this.moduleSource = moduleSource;
+            this.changing = changing;
+            this.dynamic = dynamic;
+        }
+
+        public ModuleSource getModuleSource() {
+            return moduleSource;
+        }
+
+        public boolean isChanging() {
+            return changing;
+        }
+
+        /**
+         * Was this component selected for a dynamic version selector?
+         */
+        public boolean isDynamic() {
+            return dynamic;
+        }
+    }
+
+    public static class ArtifactSet {
+        private final ModuleVersionIdentifier owner;
+        private final List<ModuleComponentArtifactIdentifier> artifacts;
+
+        public ArtifactSet(ModuleVersionIdentifier owner, List<ModuleComponentArtifactIdentifier> artifacts) {
+            this.owner = owner;
+            this.artifacts = artifacts;
+        }
+
+        public ModuleVersionIdentifier getOwner() {
+            return owner;
+        }
+
+        public List<ModuleComponentArtifactIdentifier> getArtifacts() {
+            return artifacts;
+        }
+    }
+}
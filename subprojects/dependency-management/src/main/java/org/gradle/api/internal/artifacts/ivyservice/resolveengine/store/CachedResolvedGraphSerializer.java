@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.ModuleVersionIdentifierSerializer;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifierSerializer;
+import org.gradle.api.internal.artifacts.metadata.ModuleVersionArtifactIdentifierSerializer;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class CachedResolvedGraphSerializer implements Serializer<CachedResolvedGraph> {
+    private final ModuleVersionIdentifierSerializer moduleVersionIdentifierSerializer = new ModuleVersionIdentifierSerializer();
+    private final ResolvedConfigurationIdentifierSerializer resolvedConfigurationIdentifierSerializer = new ResolvedConfigurationIdentifierSerializer();
+    private final ModuleVersionArtifactIdentifierSerializer artifactIdentifierSerializer = new ModuleVersionArtifactIdentifierSerializer();
+
+    public void write(Encoder encoder, CachedResolvedGraph value) throws Exception {
+        encoder.writeLong(value.getCreateTimestamp());
+        encoder.writeBinary(value.getResolutionResult());
+        encoder.writeBinary(value.getResolvedConfiguration());
+
+        encoder.writeSmallInt(value.getFirstLevelDependencies().size());
+        for (Map.Entry<ResolvedConfigurationIdentifier, Integer> entry : value.getFirstLevelDependencies().entrySet()) {
+            resolvedConfigurationIdentifierSerializer.write(encoder, entry.getKey());
+            encoder.writeSmallInt(entry.getValue());
+        }
+
+        encoder.writeSmallInt(value.getComponents().size());
+        for (Map.Entry<ModuleVersionIdentifier, CachedResolvedGraph.Component> entry : value.getComponents().entrySet()) {
+            moduleVersionIdentifierSerializer.write(encoder, entry.getKey());
+            CachedResolvedGraph.Component component = entry.getValue();
+            encoder.writeBoolean(component.isChanging());
+            encoder.writeBoolean(component.isDynamic());
+            writeModuleSource(encoder, component.getModuleSource());
+        }
+
+        encoder.writeSmallInt(value.getArtifactSets().size());
+        for (Map.Entry<Long, CachedResolvedGraph.ArtifactSet> entry : value.getArtifactSets().entrySet()) {
+            encoder.writeLong(entry.getKey());
+            CachedResolvedGraph.ArtifactSet artifactSet = entry.getValue();
+            moduleVersionIdentifierSerializer.write(encoder, artifactSet.getOwner());
+            encoder.writeSmallInt(artifactSet.getArtifacts().size());
+            for (ModuleComponentArtifactIdentifier artifact : artifactSet.getArtifacts()) {
+                artifactIdentifierSerializer.write(encoder, artifact);
+            }
+        }
+    }
+
+    public CachedResolvedGraph read(Decoder decoder) throws Exception {
+        long createTimestamp = decoder.readLong();
+        byte[] resolutionResult = decoder.readBinary();
+        byte[] resolvedConfiguration = decoder.readBinary();
+
+        int count = decoder.readSmallInt();
+        Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies = new LinkedHashMap<ResolvedConfigurationIdentifier, Integer>(count);
+        for (int i = 0; i < count; i++) {
+            ResolvedConfigurationIdentifier id = resolvedConfigurationIdentifierSerializer.read(decoder);
+            firstLevelDependencies.put(id, decoder.readSmallInt());
+        }
+
+        count = decoder.readSmallInt();
+        Map<ModuleVersionIdentifier, CachedResolvedGraph.Component> components = new LinkedHashMap<ModuleVersionIdentifier, CachedResolvedGraph.Component>(count);
+        for (int i = 0; i < count; i++) {
+            ModuleVersionIdentifier id = moduleVersionIdentifierSerializer.read(decoder);
+            boolean changing = decoder.readBoolean();
+            boolean dynamic = decoder.readBoolean();
+            ModuleSource moduleSource = readModuleSource(decoder);
+            components.put(id, new CachedResolvedGraph.Component(moduleSource, changing, dynamic));
+        }
+
+        count = decoder.readSmallInt();
+        Map<Long, CachedResolvedGraph.ArtifactSet> artifactSets = new LinkedHashMap<Long, CachedResolvedGraph.ArtifactSet>(count);
+        for (int i = 0; i < count; i++) {
+            long id = decoder.readLong();
+            ModuleVersionIdentifier owner = moduleVersionIdentifierSerializer.read(decoder);
+            int artifactCount = decoder.readSmallInt();
+            List<ModuleComponentArtifactIdentifier> artifacts = new ArrayList<ModuleComponentArtifactIdentifier>(artifactCount);
+            for (int j = 0; j < artifactCount; j++) {
+                artifacts.add(artifactIdentifierSerializer.read(decoder));
+            }
+            artifactSets.put(id, new CachedResolvedGraph.ArtifactSet(owner, artifacts));
+        }
+
+        return new CachedResolvedGraph(createTimestamp, resolutionResult, resolvedConfiguration, firstLevelDependencies, components, artifactSets);
+    }
+
+    private void writeModuleSource(Encoder encoder, ModuleSource moduleSource) throws Exception {
+        // Java serialization reads ahead, so keep the module source in its own length-prefixed block
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream objectStream = new ObjectOutputStream(bytes);
+        objectStream.writeObject(moduleSource);
+        objectStream.close();
+        encoder.writeBinary(bytes.toByteArray());
+    }
+
+    private ModuleSource readModuleSource(Decoder decoder) throws Exception {
+        byte[] bytes = decoder.readBinary();
+        ClassLoaderObjectInputStream objectStream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), ModuleSource.class.getClassLoader());
+        try {
+            return (ModuleSource) objectStream.readObject();
+        } finally {
+            objectStream.close();
+        }
+    }
+}
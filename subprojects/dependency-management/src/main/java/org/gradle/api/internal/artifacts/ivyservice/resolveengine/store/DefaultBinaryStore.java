@@ -17,12 +17,16 @@ package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
 
 import org.gradle.api.internal.cache.BinaryStore;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.io.ByteBufferInputStream;
 import org.gradle.internal.io.RandomAccessFileInputStream;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
@@ -65,12 +69,23 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
         return "Binary store in " + file;
     }
 
+    public long getWritePosition() {
+        if (offset == -1) {
+            return 0;
+        }
+        return encoder.getWritePosition() - offset;
+    }
+
     public BinaryData done() {
         try {
+            int length = 0;
             if (encoder != null) {
                 encoder.flush();
+                if (offset != -1) {
+                    length = encoder.getWritePosition() - offset;
+                }
             }
-            return new SimpleBinaryData(file, offset, diagnose());
+            return new SimpleBinaryData(file, offset, length, diagnose());
         } finally {
             offset = -1;
         }
@@ -99,26 +114,36 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
     }
 
     private static class SimpleBinaryData implements BinaryStore.BinaryData {
+        private static final int RANDOM_READ_BUFFER_SIZE = 512;
+        // A mapped file cannot be deleted on Windows until the mapping is garbage collected, so the file is read instead
+        private static final boolean MAP_CONTENT = !OperatingSystem.current().isWindows();
         private final int offset;
+        private final int length;
         private final File inputFile;
         private final String sourceDescription;
 
+        private ByteBuffer content;
         private Decoder decoder;
         private CompositeStoppable resources;
 
-        public SimpleBinaryData(File inputFile, int offset, String sourceDescription) {
+        public SimpleBinaryData(File inputFile, int offset, int length, String sourceDescription) {
             this.inputFile = inputFile;
             this.offset = offset;
+            this.length = length;
             this.sourceDescription = sourceDescription;
         }
 
         public <T> T read(BinaryStore.ReadAction<T> readAction) {
             try {
                 if (decoder == null) {
-                    RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
-                    randomAccess.seek(offset);
-                    decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(randomAccess));
-                    resources = new CompositeStoppable().add(randomAccess, decoder);
+                    if (MAP_CONTENT) {
+                        decoder = new KryoBackedDecoder(new ByteBufferInputStream(content()));
+                    } else {
+                        RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
+                        randomAccess.seek(offset);
+                        decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(randomAccess));
+                        resources = new CompositeStoppable().add(randomAccess, decoder);
+                    }
                 }
                 return readAction.read(decoder);
             } catch (Exception e) {
@@ -126,7 +151,45 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
             }
         }
 
-        public void close() {
+        public <T> T read(long position, BinaryStore.ReadAction<T> readAction) {
+            try {
+                if (!MAP_CONTENT) {
+                    RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
+                    try {
+                        randomAccess.seek(offset + position);
+                        return readAction.read(new KryoBackedDecoder(new RandomAccessFileInputStream(randomAccess), RANDOM_READ_BUFFER_SIZE));
+                    } finally {
+                        randomAccess.close();
+                    }
+                }
+                ByteBuffer buffer = content();
+                buffer.position((int) position);
+                return readAction.read(new KryoBackedDecoder(new ByteBufferInputStream(buffer), RANDOM_READ_BUFFER_SIZE));
+            } catch (Exception e) {
+                throw new RuntimeException("Problems reading data at position " + position + " from " + sourceDescription, e);
+            }
+        }
+
+        /**
+         * Returns a view of the content, mapping the file region on first use. Each view has its own position, so concurrent reads do not interfere.
+         */
+        private synchronized ByteBuffer content() throws IOException {
+            if (content == null) {
+                if (length == 0) {
+                    content = ByteBuffer.allocate(0);
+                } else {
+                    RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
+                    try {
+                        content = randomAccess.getChannel().map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    } finally {
+                        randomAccess.close();
+                    }
+                }
+            }
+            return content.duplicate();
+        }
+
+        public synchronized void close() {
             try {
                 if (resources != null) {
                     resources.stop();
@@ -134,8 +197,10 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
             } catch (Exception e) {
                 throw new RuntimeException("Problems cleaning resources of " + sourceDescription, e);
             } finally {
+                // A mapped region cannot be released explicitly, it is unmapped once it is no longer referenced
                 decoder = null;
                 resources = null;
+                content = null;
             }
         }
 
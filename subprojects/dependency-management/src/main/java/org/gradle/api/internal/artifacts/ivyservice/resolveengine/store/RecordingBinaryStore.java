@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.api.internal.cache.BinaryStore;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@link BinaryStore} that keeps an in-memory copy of everything written to the backing store, so that the content can later be persisted and replayed.
+ *
+ * <p>Content is encoded once, using the same Kryo encoding as {@link DefaultBinaryStore}, and the encoded bytes are copied to the backing store.
+ */
+class RecordingBinaryStore implements BinaryStore {
+    private final BinaryStore delegate;
+    private final RecordedBytes recorded = new RecordedBytes();
+    private final KryoBackedEncoder encoder = new KryoBackedEncoder(recorded);
+
+    RecordingBinaryStore(BinaryStore delegate) {
+        this.delegate = delegate;
+    }
+
+    public void write(WriteAction write) {
+        final int start = recorded.size();
+        try {
+            write.write(encoder);
+        } catch (Exception e) {
+            throw new RuntimeException("Problems recording binary data for " + delegate, e);
+        }
+        encoder.flush();
+        delegate.write(new WriteAction() {
+            public void write(Encoder encoder) throws IOException {
+                recorded.writeTo(encoder, start);
+            }
+        });
+    }
+
+    public long getWritePosition() {
+        return delegate.getWritePosition();
+    }
+
+    public BinaryData done() {
+        return delegate.done();
+    }
+
+    /**
+     * Returns the bytes written to this store so far.
+     */
+    byte[] getRecordedBytes() {
+        return recorded.toByteArray();
+    }
+
+    public String toString() {
+        return "Recording " + delegate;
+    }
+
+    private static class RecordedBytes extends ByteArrayOutputStream {
+        void writeTo(Encoder encoder, int start) throws IOException {
+            encoder.writeBytes(buf, start, count - start);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.Module;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.ModuleInternal;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactResults;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * A persistent, cross-build cache of resolved dependency graphs. Entries are keyed by a hash of everything that is used as input to resolution, so an unchanged
+ * configuration can reuse the graph resolved by an earlier build without consulting any repository or module meta-data.
+ *
+ * <p>Only configurations whose graph is fully determined by declared data are cached: configurations with project dependencies or client modules, dependency
+ * substitution, component selection or component meta-data rules, module replacements, or local repositories are always resolved.
+ */
+public class ResolvedGraphCache {
+    private static final byte SEPARATOR = (byte) 0;
+    private static final byte NULL_VALUE = (byte) 1;
+
+    private final CacheLockingManager cacheLockingManager;
+    private final BuildCommencedTimeProvider timeProvider;
+    private PersistentIndexedCache<String, CachedResolvedGraph> cache;
+
+    public ResolvedGraphCache(CacheLockingManager cacheLockingManager, BuildCommencedTimeProvider timeProvider) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.timeProvider = timeProvider;
+    }
+
+    private PersistentIndexedCache<String, CachedResolvedGraph> getCache() {
+        if (cache == null) {
+            cache = initCache();
+        }
+        return cache;
+    }
+
+    private PersistentIndexedCache<String, CachedResolvedGraph> initCache() {
+        return cacheLockingManager.createCache("resolved-graphs", STRING_SERIALIZER, new CachedResolvedGraphSerializer());
+    }
+
+    /**
+     * Calculates the key for the given configuration.
+     *
+     * @return the key, or null when the result of resolving the configuration cannot be cached.
+     */
+    @Nullable
+    public HashValue hashInputs(ConfigurationInternal configuration, List<ModuleDependency> moduleDependencies, List<? extends ResolutionAwareRepository> repositories,
+                                GlobalDependencyResolutionRules metadataHandler) {
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (resolutionStrategy.getDependencySubstitution().hasDependencySubstitutionRules()
+            || !resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            || metadataHandler.getComponentMetadataProcessor().hasRules()
+            || metadataHandler.getModuleMetadataProcessor().getModuleReplacements().hasReplacements()) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, configuration.getPath());
+        Module module = configuration.getModule();
+        putString(hasher, module.getGroup());
+        putString(hasher, module.getName());
+        putString(hasher, module.getVersion());
+        putString(hasher, module.getStatus());
+        if (module instanceof ModuleInternal) {
+            putString(hasher, ((ModuleInternal) module).getProjectPath());
+        }
+
+        for (Configuration c : configuration.getHierarchy()) {
+            putString(hasher, c.getName());
+            hasher.putBoolean(c.isTransitive());
+            putExcludeRules(hasher, c.getExcludeRules());
+        }
+
+        for (ModuleDependency dependency : moduleDependencies) {
+            if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                return null;
+            }
+            ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+            putString(hasher, moduleDependency.getGroup());
+            putString(hasher, moduleDependency.getName());
+            putString(hasher, moduleDependency.getVersion());
+            putString(hasher, moduleDependency.getConfiguration());
+            hasher.putBoolean(moduleDependency.isTransitive());
+            hasher.putBoolean(moduleDependency.isForce());
+            hasher.putBoolean(moduleDependency.isChanging());
+            for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+                putString(hasher, artifact.getName());
+                putString(hasher, artifact.getType());
+                putString(hasher, artifact.getExtension());
+                putString(hasher, artifact.getClassifier());
+                putString(hasher, artifact.getUrl());
+            }
+            hasher.putByte(SEPARATOR);
+            putExcludeRules(hasher, moduleDependency.getExcludeRules());
+        }
+        hasher.putByte(SEPARATOR);
+
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            putString(hasher, forcedModule.getGroup());
+            putString(hasher, forcedModule.getName());
+            putString(hasher, forcedModule.getVersion());
+        }
+        hasher.putByte(SEPARATOR);
+        putString(hasher, resolutionStrategy.getConflictResolution().getClass().getName());
+
+        for (ResolutionAwareRepository repository : repositories) {
+            ConfiguredModuleComponentRepository resolver = repository.createResolver();
+            if (resolver.isLocal()) {
+                return null;
+            }
+            putString(hasher, resolver.getId());
+        }
+
+        return new HashValue(hasher.hash().asBytes());
+    }
+
+    private static void putExcludeRules(Hasher hasher, Iterable<ExcludeRule> excludeRules) {
+        for (ExcludeRule excludeRule : excludeRules) {
+            putString(hasher, excludeRule.getGroup());
+            putString(hasher, excludeRule.getModule());
+        }
+        hasher.putByte(SEPARATOR);
+    }
+
+    private static void putString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putByte(NULL_VALUE);
+        } else {
+            hasher.putUnencodedChars(value);
+        }
+        hasher.putByte(SEPARATOR);
+    }
+
+    @Nullable
+    public CachedResolvedGraph get(final HashValue key) {
+        return cacheLockingManager.useCache("load resolved graph", new Factory<CachedResolvedGraph>() {
+            public CachedResolvedGraph create() {
+                return getCache().get(key.asCompactString());
+            }
+        });
+    }
+
+    /**
+     * Stores the graph captured by the given recorder, if it can be cached.
+     */
+    public void put(final ResolvedGraphRecorder recorder, ResolvedArtifactResults artifactResults) {
+        final CachedResolvedGraph graph = recorder.complete(artifactResults, timeProvider.getCurrentTime());
+        if (graph == null) {
+            return;
+        }
+        cacheLockingManager.useCache("store resolved graph", new Runnable() {
+            public void run() {
+                getCache().put(recorder.getKey().asCompactString(), graph);
+            }
+        });
+    }
+
+    /**
+     * Checks the age of the given graph against the cache policy: a graph is stale when any component it contains would be refreshed, or when any dynamic version it
+     * selected would be looked up again.
+     */
+    public boolean isUpToDate(CachedResolvedGraph graph, CachePolicy cachePolicy) {
+        long ageMillis = timeProvider.getCurrentTime() - graph.getCreateTimestamp();
+        for (Map.Entry<ModuleVersionIdentifier, CachedResolvedGraph.Component> entry : graph.getComponents().entrySet()) {
+            ModuleVersionIdentifier id = entry.getKey();
+            CachedResolvedGraph.Component component = entry.getValue();
+            if (component.isDynamic() && cachePolicy.mustRefreshVersionList(id.getModule(), Collections.singleton(id), ageMillis)) {
+                return false;
+            }
+            ModuleComponentIdentifier componentId = DefaultModuleComponentIdentifier.newId(id);
+            DefaultResolvedModuleVersion version = new DefaultResolvedModuleVersion(id);
+            if (component.isChanging() ? cachePolicy.mustRefreshChangingModule(componentId, version, ageMillis) : cachePolicy.mustRefreshModule(componentId, version, ageMillis)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvedArtifactResults;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphEdge;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.cache.BinaryStore;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.component.model.ComponentResolveMetaData;
+import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.hash.HashValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Captures what is required to persist the result of resolving a configuration in a {@link ResolvedGraphCache}. A graph is only recorded when every component
+ * in it, other than the root, is a module component and the graph contains no failures.
+ */
+public class ResolvedGraphRecorder implements DependencyGraphVisitor, DependencyArtifactsVisitor {
+    private final HashValue key;
+    private final List<ModuleDependency> moduleDependencies;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final RecordingBinaryStore resolutionResultStore;
+    private final RecordingBinaryStore resolvedConfigurationStore;
+    private final Map<ResolvedConfigurationIdentifier, Integer> firstLevelDependencies = Maps.newLinkedHashMap();
+    private final Map<ModuleVersionIdentifier, ModuleSource> moduleSources = Maps.newLinkedHashMap();
+    private final Set<ModuleVersionIdentifier> changingModules = Sets.newHashSet();
+    private final Set<ModuleVersionIdentifier> dynamicModules = Sets.newHashSet();
+    private final Map<Long, ModuleVersionIdentifier> artifactSetOwners = Maps.newLinkedHashMap();
+    private DependencyGraphNode root;
+    private boolean cacheable = true;
+
+    public ResolvedGraphRecorder(HashValue key, List<ModuleDependency> moduleDependencies, VersionSelectorScheme versionSelectorScheme,
+                                 BinaryStore resolutionResultStore, BinaryStore resolvedConfigurationStore) {
+        this.key = key;
+        this.moduleDependencies = moduleDependencies;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.resolutionResultStore = new RecordingBinaryStore(resolutionResultStore);
+        this.resolvedConfigurationStore = new RecordingBinaryStore(resolvedConfigurationStore);
+    }
+
+    /**
+     * The key of the configuration inputs, as calculated by {@link ResolvedGraphCache#hashInputs}.
+     */
+    public HashValue getKey() {
+        return key;
+    }
+
+    /**
+     * The store that the resolution result should be written to.
+     */
+    public BinaryStore getResolutionResultStore() {
+        return resolutionResultStore;
+    }
+
+    /**
+     * The store that the resolved configuration should be written to.
+     */
+    public BinaryStore getResolvedConfigurationStore() {
+        return resolvedConfigurationStore;
+    }
+
+    public void start(DependencyGraphNode root) {
+        this.root = root;
+    }
+
+    public void visitNode(DependencyGraphNode node) {
+        for (DependencyGraphEdge dependency : node.getOutgoingEdges()) {
+            if (dependency.getFailure() != null) {
+                cacheable = false;
+            }
+        }
+        if (node.getNodeId() == root.getNodeId()) {
+            return;
+        }
+        if (!(node.getComponentId() instanceof ModuleComponentIdentifier)) {
+            cacheable = false;
+            return;
+        }
+        ComponentResolveMetaData component = node.getMetaData().getComponent();
+        moduleSources.put(node.toId(), component.getSource());
+        if (component.isChanging()) {
+            changingModules.add(node.toId());
+        }
+    }
+
+    public void visitEdge(DependencyGraphNode node) {
+        for (DependencyGraphEdge dependency : node.getIncomingEdges()) {
+            if (versionSelectorScheme.parseSelector(dependency.getRequestedModuleVersion().getVersion()).isDynamic()) {
+                dynamicModules.add(node.toId());
+            }
+            if (dependency.getFrom().getNodeId() == root.getNodeId()) {
+                int index = indexOf(dependency.getModuleDependency());
+                if (index < 0) {
+                    cacheable = false;
+                } else {
+                    firstLevelDependencies.put(node.getNodeId(), index);
+                }
+            }
+        }
+    }
+
+    private int indexOf(ModuleDependency moduleDependency) {
+        for (int i = 0; i < moduleDependencies.size(); i++) {
+            if (moduleDependencies.get(i) == moduleDependency) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void finish(DependencyGraphNode root) {
+    }
+
+    public void visitArtifacts(ResolvedConfigurationIdentifier parent, ResolvedConfigurationIdentifier child, ArtifactSet artifacts) {
+        artifactSetOwners.put(artifacts.getId(), child.getId());
+    }
+
+    public void finishArtifacts() {
+    }
+
+    /**
+     * Creates the cache entry for the recorded graph, once its artifacts have been resolved.
+     *
+     * @return the entry, or null when the graph cannot be cached.
+     */
+    public CachedResolvedGraph complete(ResolvedArtifactResults artifactResults, long timestamp) {
+        if (!cacheable) {
+            return null;
+        }
+
+        Map<Long, CachedResolvedGraph.ArtifactSet> artifactSets = Maps.newLinkedHashMap();
+        for (Map.Entry<Long, ModuleVersionIdentifier> entry : artifactSetOwners.entrySet()) {
+            Set<ResolvedArtifact> resolvedArtifacts = artifactResults.getArtifacts(entry.getKey());
+            List<ModuleComponentArtifactIdentifier> artifacts = new ArrayList<ModuleComponentArtifactIdentifier>(resolvedArtifacts.size());
+            for (ResolvedArtifact artifact : resolvedArtifacts) {
+                if (!(artifact.getId() instanceof ModuleComponentArtifactIdentifier)) {
+                    return null;
+                }
+                artifacts.add((ModuleComponentArtifactIdentifier) artifact.getId());
+            }
+            artifactSets.put(entry.getKey(), new CachedResolvedGraph.ArtifactSet(entry.getValue(), artifacts));
+        }
+
+        Map<ModuleVersionIdentifier, CachedResolvedGraph.Component> components = Maps.newLinkedHashMap();
+        for (Map.Entry<ModuleVersionIdentifier, ModuleSource> entry : moduleSources.entrySet()) {
+            ModuleVersionIdentifier id = entry.getKey();
+            components.put(id, new CachedResolvedGraph.Component(entry.getValue(), changingModules.contains(id), dynamicModules.contains(id)));
+        }
+
+        return new CachedResolvedGraph(timestamp, resolutionResultStore.getRecordedBytes(), resolvedConfigurationStore.getRecordedBytes(),
+            firstLevelDependencies, components, artifactSets);
+    }
+}
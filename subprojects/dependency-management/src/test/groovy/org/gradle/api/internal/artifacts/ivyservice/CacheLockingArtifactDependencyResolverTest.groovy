@@ -20,6 +20,7 @@ import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.internal.resolve.resolver.ArtifactResolver
 import spock.lang.Specification
 
 class CacheLockingArtifactDependencyResolverTest extends Specification {
@@ -43,4 +44,17 @@ class CacheLockingArtifactDependencyResolverTest extends Specification {
         }
         1 * target.resolve(configuration, repositories, metadataHandler, graphVisitor, artifactVisitor)
     }
+
+    def "creates artifact resolver using target resolver"() {
+        ConfigurationInternal configuration = Mock()
+        def artifactResolver = Mock(ArtifactResolver)
+
+        when:
+        def result = resolver.createArtifactResolver(configuration, repositories, metadataHandler)
+
+        then:
+        result == artifactResolver
+        1 * target.createArtifactResolver(configuration, repositories, metadataHandler) >> artifactResolver
+        0 * lockingManager._
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
 
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.internal.component.external.model.MavenModuleResolveMetaData
 import org.gradle.internal.resource.local.DefaultLocallyAvailableExternalResource
 import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
@@ -151,6 +152,54 @@ class GradlePomModuleDescriptorParserTest extends AbstractGradlePomModuleDescrip
         inheritedDep.moduleConfigurations == ['compile', 'runtime']
     }
 
+    def "reuses parsed parent pom for child poms parsed by parsers sharing a cache"() {
+        given:
+        def parent = tmpDir.file("parent.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <artifactId>parent</artifactId>
+    <version>version-one</version>
+
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>1.2</version>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        def childPom = { String artifactId ->
+            tmpDir.file("${artifactId}.xml") << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>${artifactId}</artifactId>
+
+    <parent>
+        <groupId>group-one</groupId>
+        <artifactId>parent</artifactId>
+        <version>version-one</version>
+    </parent>
+</project>
+"""
+        }
+        def parentResource = Spy(DefaultLocallyAvailableExternalResource, constructorArgs: [parent.toURI(), new DefaultLocallyAvailableResource(parent)])
+        parseContext.getMetaDataArtifact(_, MAVEN_POM) >> parentResource
+
+        when:
+        def first = parser.parseMetaData(parseContext, childPom("child-one"), true).descriptor
+        def otherParser = new GradlePomModuleDescriptorParser(new DefaultVersionSelectorScheme(), parsedPomCache)
+        def second = otherParser.parseMetaData(parseContext, childPom("child-two"), true).descriptor
+
+        then:
+        1 * parentResource.withContent(_)
+        first.moduleRevisionId == moduleId('group-one', 'child-one', 'version-one')
+        second.moduleRevisionId == moduleId('group-one', 'child-two', 'version-one')
+        first.dependencies*.dependencyRevisionId == [moduleId('group-two', 'artifact-two', '1.2')]
+        second.dependencies*.dependencyRevisionId == [moduleId('group-two', 'artifact-two', '1.2')]
+    }
+
     def "uses dependency management section to provide default values for a dependency"() {
         given:
         pomFile << """
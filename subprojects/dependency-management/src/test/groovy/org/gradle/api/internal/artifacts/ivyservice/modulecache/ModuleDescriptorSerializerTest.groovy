@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor
+import org.apache.ivy.plugins.matcher.ExactPatternMatcher
+import org.apache.ivy.plugins.matcher.GlobPatternMatcher
+import org.apache.ivy.plugins.matcher.RegexpPatternMatcher
+import org.gradle.api.internal.artifacts.ivyservice.IvyXmlModuleDescriptorWriter
+import org.gradle.api.internal.artifacts.ivyservice.NamespaceId
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.DescriptorParseContext
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.IvyXmlModuleDescriptorParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.ResolverStrategy
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+
+class ModuleDescriptorSerializerTest extends SerializerSpec {
+    @Rule TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    ResolverStrategy resolverStrategy = Stub()
+    ModuleDescriptorSerializer serializer = new ModuleDescriptorSerializer(resolverStrategy)
+
+    def setup() {
+        resolverStrategy.getPatternMatcher("exact") >> ExactPatternMatcher.INSTANCE
+        resolverStrategy.getPatternMatcher("glob") >> GlobPatternMatcher.INSTANCE
+        resolverStrategy.getPatternMatcher("regexp") >> RegexpPatternMatcher.INSTANCE
+    }
+
+    def "serializes minimal descriptor"() {
+        def md = parse """
+<ivy-module version="1.0">
+    <info organisation="myorg" module="mymodule" revision="myrev"/>
+</ivy-module>
+"""
+
+        when:
+        def result = serialize(md, serializer)
+
+        then:
+        result.moduleRevisionId == md.moduleRevisionId
+        result.status == "integration"
+        result.configurations*.name == ["default"]
+        result.getArtifacts("default")*.name == ["mymodule"]
+        result.dependencies.length == 0
+        asXml(result) == asXml(md)
+    }
+
+    def "serializes descriptor with configurations, artifacts, dependencies and excludes"() {
+        def md = parse """
+<ivy-module version="2.0" xmlns:e="http://ant.apache.org/ivy/extra" xmlns:ns="http://my.extra.info">
+    <info organisation="myorg" module="mymodule" branch="trunk" revision="myrev" status="milestone" publication="20041101110000" e:buildNr="12">
+        <license name="Apache" url="http://www.apache.org/licenses/LICENSE-2.0"/>
+        <description homepage="http://example.com">Some module</description>
+        <ns:someInfo>the value</ns:someInfo>
+    </info>
+    <configurations>
+        <conf name="compile" description="compile classpath"/>
+        <conf name="runtime" extends="compile" transitive="false"/>
+        <conf name="private" visibility="private" deprecated="20050101"/>
+    </configurations>
+    <publications>
+        <artifact name="mymodule" type="jar" ext="jar" conf="compile,runtime"/>
+        <artifact name="mymodule-sources" type="source" ext="jar" conf="private" e:classifier="sources"/>
+    </publications>
+    <dependencies>
+        <dependency org="other" name="lib" rev="1.+" revConstraint="[1.0,2.0)" force="true" changing="true" conf="compile->default;runtime->*,@"/>
+        <dependency org="other" name="withArtifacts" branch="b" rev="2.0" transitive="false" conf="*->#">
+            <artifact name="art" type="zip" ext="zip" url="http://example.com/art.zip" conf="compile"/>
+            <include name="inc" type="jar" ext="jar" matcher="glob" conf="runtime"/>
+            <exclude org="excluded" module="mod" name="*" type="*" ext="*" matcher="regexp" conf="compile"/>
+        </dependency>
+    </dependencies>
+    <exclude org="globally" module="excluded" matcher="exact" conf="runtime"/>
+</ivy-module>
+"""
+
+        when:
+        def result = serialize(md, serializer)
+
+        then:
+        result.resolvedModuleRevisionId == md.resolvedModuleRevisionId
+        result.resolvedModuleRevisionId.branch == "trunk"
+        result.qualifiedExtraAttributes == md.qualifiedExtraAttributes
+        result.publicationDate == md.publicationDate
+        result.extraInfo[new NamespaceId("http://my.extra.info", "someInfo")] == "the value"
+        result.configurations*.name == ["compile", "runtime", "private"]
+        result.dependencies*.dependencyRevisionId == md.dependencies*.dependencyRevisionId
+        result.dependencies*.dynamicConstraintDependencyRevisionId == md.dependencies*.dynamicConstraintDependencyRevisionId
+        result.dependencies[0].force
+        result.dependencies[0].changing
+        !result.dependencies[1].transitive
+        result.dependencies[1].allExcludeRules[0].matcher == RegexpPatternMatcher.INSTANCE
+        result.allExcludeRules.length == 1
+        asXml(result) == asXml(md)
+    }
+
+    private ModuleDescriptor parse(String text) {
+        def file = temporaryFolder.file("ivy.xml")
+        file.text = text
+        return new IvyXmlModuleDescriptorParser(resolverStrategy).parseMetaData(Mock(DescriptorParseContext), file, false).descriptor
+    }
+
+    private String asXml(ModuleDescriptor md) {
+        def file = temporaryFolder.file("out.xml")
+        new IvyXmlModuleDescriptorWriter().write(md, file)
+        return file.text
+    }
+}
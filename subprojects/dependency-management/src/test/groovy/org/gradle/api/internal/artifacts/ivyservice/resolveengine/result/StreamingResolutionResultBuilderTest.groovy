@@ -133,6 +133,34 @@ class StreamingResolutionResultBuilderTest extends Specification {
 """
     }
 
+    def "components are read on demand and each component is represented by a single view"() {
+        builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
+
+        builder.resolvedModuleVersion(sel("org", "dep1", "2.0", REQUESTED))
+        builder.resolvedModuleVersion(sel("org", "dep2", "2.0", REQUESTED))
+
+        builder.resolvedConfiguration(newId("org", "root", "1.0"), [
+            new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep1", "2.0"), newId("org", "dep1", "2.0"), REQUESTED, null),
+            new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep2", "2.0"), newId("org", "dep2", "2.0"), REQUESTED, null),
+        ])
+        builder.resolvedConfiguration(newId("org", "dep2", "2.0"), [
+            new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep1", "2.0"), newId("org", "dep1", "2.0"), REQUESTED, null),
+        ])
+
+        when:
+        def result = builder.complete()
+        def root = result.root
+        def dep1 = root.dependencies.find { it.requested.module == "dep1" }.selected
+        def dep2 = root.dependencies.find { it.requested.module == "dep2" }.selected
+
+        then:
+        dep2.dependencies.first().selected.is(dep1)
+        dep1.dependents*.from == [root, dep2]
+        dep2.dependents*.from == [root]
+        root.dependents.empty
+        result.allComponents.size() == 3
+    }
+
     private DefaultModuleVersionSelection sel(String org, String name, String ver, ComponentSelectionReason reason) {
         new DefaultModuleVersionSelection(newId(org, name, ver), reason, new DefaultModuleComponentIdentifier(org, name, ver))
     }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.api.internal.artifacts.ResolvedConfigurationIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.component.model.ModuleSource
+import org.gradle.internal.serialize.SerializerSpec
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+
+class CachedResolvedGraphSerializerTest extends SerializerSpec {
+    def serializer = new CachedResolvedGraphSerializer()
+
+    def "serializes resolved graph"() {
+        def dep1 = newId("org", "dep1", "1.0")
+        def dep2 = newId("org", "dep2", "2.0")
+        def artifact1 = new DefaultModuleComponentArtifactIdentifier(DefaultModuleComponentIdentifier.newId(dep1), new DefaultIvyArtifactName("dep1", "jar", "jar", "sources"))
+        def artifact2 = new DefaultModuleComponentArtifactIdentifier(DefaultModuleComponentIdentifier.newId(dep2), "dep2", "jar", "jar")
+        def graph = new CachedResolvedGraph(1234L, [1, 2, 3] as byte[], [4, 5] as byte[],
+            [(new ResolvedConfigurationIdentifier(dep1, "default")): 1, (new ResolvedConfigurationIdentifier(dep2, "runtime")): 0],
+            [(dep1): new CachedResolvedGraph.Component(new TestModuleSource(value: "one"), true, false), (dep2): new CachedResolvedGraph.Component(new TestModuleSource(value: "two"), false, true)],
+            [2L: new CachedResolvedGraph.ArtifactSet(dep1, [artifact1]), 3L: new CachedResolvedGraph.ArtifactSet(dep2, [artifact2]), 4L: new CachedResolvedGraph.ArtifactSet(dep2, [])])
+
+        when:
+        def result = serialize(graph, serializer)
+
+        then:
+        result.createTimestamp == 1234L
+        result.resolutionResult == [1, 2, 3] as byte[]
+        result.resolvedConfiguration == [4, 5] as byte[]
+        result.firstLevelDependencies == [(new ResolvedConfigurationIdentifier(dep1, "default")): 1, (new ResolvedConfigurationIdentifier(dep2, "runtime")): 0]
+
+        result.components.keySet() as List == [dep1, dep2]
+        result.components[dep1].moduleSource.value == "one"
+        result.components[dep1].changing
+        !result.components[dep1].dynamic
+        result.components[dep2].moduleSource.value == "two"
+        !result.components[dep2].changing
+        result.components[dep2].dynamic
+
+        result.artifactSets.keySet() as List == [2L, 3L, 4L]
+        result.artifactSets[2L].owner == dep1
+        result.artifactSets[2L].artifacts == [artifact1]
+        result.artifactSets[3L].owner == dep2
+        result.artifactSets[3L].artifacts == [artifact2]
+        result.artifactSets[4L].artifacts.empty
+    }
+
+    static class TestModuleSource implements ModuleSource {
+        String value
+    }
+}
@@ -70,6 +70,33 @@ class DefaultBinaryStoreTest extends Specification {
 
     }
 
+    def "data can be read from recorded positions"() {
+        def store = new DefaultBinaryStore(temp.file("foo.bin"))
+
+        when:
+        store.write({ it.writeString("ignored") } as BinaryStore.WriteAction)
+        store.done()
+        def first = store.writePosition
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        def second = store.writePosition
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        def data = store.done()
+
+        then:
+        first == 0
+        data.read(second, { it.readString() } as BinaryStore.ReadAction) == "x"
+        data.read(first, { it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read(second, { it.readString() } as BinaryStore.ReadAction) == "x"
+
+        and:
+        data.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data.close()
+
+        cleanup:
+        store.close()
+    }
+
     class SomeException extends RuntimeException {}
 
     def "write action exception is propagated to the client"() {
@@ -103,6 +130,24 @@ class DefaultBinaryStoreTest extends Specification {
         store.close()
     }
 
+    def "removes file when closed after data has been read"() {
+        def file = temp.file("foo.bin")
+        def store = new DefaultBinaryStore(file)
+        store.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        def position = store.writePosition
+        store.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        def data = store.done()
+        data.read({ it.readInt() } as BinaryStore.ReadAction)
+        data.read(position, { it.readString() } as BinaryStore.ReadAction)
+
+        when:
+        data.close()
+        store.close()
+
+        then:
+        !file.exists()
+    }
+
     def "may be empty"() {
         def store = new DefaultBinaryStore(temp.file("foo.bin"))
 
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store
+
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DefaultInternalDependencyResult
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DefaultModuleVersionSelection
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DummyStore
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder
+import org.gradle.api.internal.cache.BinaryStore
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultPrinter.printGraph
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.VersionSelectionReasons.REQUESTED
+
+class RecordingBinaryStoreTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def stores = []
+
+    def cleanup() {
+        stores*.close()
+    }
+
+    def "writes through to backing store and records content"() {
+        def backingStore = newStore("backing.bin")
+        def recordingStore = new RecordingBinaryStore(backingStore)
+
+        when:
+        recordingStore.write({ it.writeInt(10) } as BinaryStore.WriteAction)
+        recordingStore.write({ it.writeString("x") } as BinaryStore.WriteAction)
+        def data = recordingStore.done()
+
+        then:
+        data.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        data.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        data.close()
+
+        when:
+        def replayStore = newStore("replay.bin")
+        replayStore.write({ it.writeBytes(recordingStore.recordedBytes) } as BinaryStore.WriteAction)
+        def replayed = replayStore.done()
+
+        then:
+        replayed.read({ it.readInt() } as BinaryStore.ReadAction) == 10
+        replayed.read({ it.readString() } as BinaryStore.ReadAction) == "x"
+        replayed.close()
+    }
+
+    def "recorded resolution result can be replayed"() {
+        def recordingStore = new RecordingBinaryStore(newStore("backing.bin"))
+        def builder = new StreamingResolutionResultBuilder(recordingStore, new DummyStore())
+        builder.start(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
+        builder.resolvedModuleVersion(new DefaultModuleVersionSelection(newId("org", "dep1", "2.0"), REQUESTED, new DefaultModuleComponentIdentifier("org", "dep1", "2.0")))
+        builder.resolvedConfiguration(newId("org", "root", "1.0"), [
+            new DefaultInternalDependencyResult(DefaultModuleComponentSelector.newSelector("org", "dep1", "2.0"), newId("org", "dep1", "2.0"), REQUESTED, null)
+        ])
+        def original = builder.complete()
+
+        when:
+        def replayed = new StreamingResolutionResultBuilder(newStore("replay.bin"), new DummyStore()).replay(recordingStore.recordedBytes)
+
+        then:
+        printGraph(replayed.root) == printGraph(original.root)
+        printGraph(replayed.root) == """org:root:1.0
+  org:dep1:2.0 [root]
+"""
+    }
+
+    private DefaultBinaryStore newStore(String name) {
+        def store = new DefaultBinaryStore(temp.file(name))
+        stores << store
+        return store
+    }
+}
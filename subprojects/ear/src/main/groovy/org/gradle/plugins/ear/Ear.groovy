@@ -19,9 +19,13 @@ package org.gradle.plugins.ear
 import org.gradle.api.Action
 import org.gradle.api.file.CopySpec
 import org.gradle.api.file.FileCopyDetails
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.archive.IncrementalZipCopyAction
 import org.gradle.api.internal.file.collections.FileTreeAdapter
 import org.gradle.api.internal.file.collections.MapFileTree
+import org.gradle.api.internal.file.copy.CopyAction
 import org.gradle.api.tasks.bundling.Jar
+import org.gradle.internal.operations.BuildOperationProcessor
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.plugins.ear.descriptor.DeploymentDescriptor
 import org.gradle.plugins.ear.descriptor.EarModule
@@ -94,6 +98,12 @@ class Ear extends Jar {
         }
     }
 
+    @Override
+    protected CopyAction createCopyAction() {
+        return new IncrementalZipCopyAction(getArchivePath(), getEntryCompression(), isZip64(), getEncoding(), services.get(DocumentationRegistry),
+            new File(getTemporaryDir(), 'archive-entries.bin'), services.get(BuildOperationProcessor))
+    }
+
     @Inject
     protected Instantiator getInstantiator() {
         throw new UnsupportedOperationException();
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.internal.UncheckedException;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.report.DirectorySourceFileLocator;
+import org.jacoco.report.FileMultiReportOutput;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.MultiSourceFileLocator;
+import org.jacoco.report.csv.CSVFormatter;
+import org.jacoco.report.html.HTMLFormatter;
+import org.jacoco.report.xml.XMLFormatter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Merges execution data and generates coverage reports using the JaCoCo API. Runs in the JaCoCo worker process, where the JaCoCo classes are visible.
+ *
+ * <p>Execution data files are read one after the other into a single store, so only the merged execution data is held in memory. Class files are
+ * analyzed in parallel, and the report formats are written in parallel, using at most the number of threads given by the report spec.</p>
+ */
+public class JacocoExecuter {
+    private static final int TAB_WIDTH = 4;
+
+    void merge(JacocoMergeSpec spec) throws IOException {
+        ExecutionDataFiles executionData = new ExecutionDataFiles(spec.getExecutionData());
+        spec.getDestinationFile().getParentFile().mkdirs();
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(spec.getDestinationFile()));
+        try {
+            ExecutionDataWriter writer = new ExecutionDataWriter(outputStream);
+            executionData.sessionInfos.accept(writer);
+            executionData.executionData.accept(writer);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    void report(final JacocoReportSpec spec) throws Exception {
+        final ExecutionDataFiles executionData = new ExecutionDataFiles(spec.getExecutionData());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, spec.getMaxThreads()));
+        try {
+            final IBundleCoverage bundle = analyze(executor, executionData.executionData, spec);
+            final MultiSourceFileLocator sourceFileLocator = new MultiSourceFileLocator(TAB_WIDTH);
+            for (File sourceDir : spec.getSourceDirs()) {
+                sourceFileLocator.add(new DirectorySourceFileLocator(sourceDir, null, TAB_WIDTH));
+            }
+
+            List<Callable<Void>> reports = new ArrayList<Callable<Void>>();
+            if (spec.getHtmlDir() != null) {
+                reports.add(new ReportWriter(executionData, bundle, sourceFileLocator) {
+                    IReportVisitor createVisitor() throws IOException {
+                        return new HTMLFormatter().createVisitor(new FileMultiReportOutput(spec.getHtmlDir()));
+                    }
+                });
+            }
+            if (spec.getXmlFile() != null) {
+                reports.add(new ReportWriter(executionData, bundle, sourceFileLocator) {
+                    IReportVisitor createVisitor() throws IOException {
+                        return new XMLFormatter().createVisitor(open(spec.getXmlFile()));
+                    }
+                });
+            }
+            if (spec.getCsvFile() != null) {
+                reports.add(new ReportWriter(executionData, bundle, sourceFileLocator) {
+                    IReportVisitor createVisitor() throws IOException {
+                        return new CSVFormatter().createVisitor(open(spec.getCsvFile()));
+                    }
+                });
+            }
+            waitFor(executor.invokeAll(reports));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IBundleCoverage analyze(ExecutorService executor, final ExecutionDataStore executionData, JacocoReportSpec spec) throws Exception {
+        List<File> files = new ArrayList<File>();
+        for (File classDir : spec.getClassDirs()) {
+            collectFiles(classDir, files);
+        }
+
+        // Each file is analyzed into its own builder, as the builder is not thread-safe
+        List<Callable<Collection<IClassCoverage>>> analyses = new ArrayList<Callable<Collection<IClassCoverage>>>(files.size());
+        for (final File file : files) {
+            analyses.add(new Callable<Collection<IClassCoverage>>() {
+                public Collection<IClassCoverage> call() throws Exception {
+                    CoverageBuilder builder = new CoverageBuilder();
+                    new Analyzer(executionData, builder).analyzeAll(file);
+                    return builder.getClasses();
+                }
+            });
+        }
+
+        CoverageBuilder builder = new CoverageBuilder();
+        for (Collection<IClassCoverage> classes : waitFor(executor.invokeAll(analyses))) {
+            for (IClassCoverage classCoverage : classes) {
+                builder.visitCoverage(classCoverage);
+            }
+        }
+        return builder.getBundle(spec.getName());
+    }
+
+    private static void collectFiles(File file, List<File> files) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            files.add(file);
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            collectFiles(child, files);
+        }
+    }
+
+    private static OutputStream open(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        return new BufferedOutputStream(new FileOutputStream(file));
+    }
+
+    private static <T> List<T> waitFor(List<Future<T>> futures) throws Exception {
+        List<T> results = new ArrayList<T>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private static class ExecutionDataFiles {
+        final SessionInfoStore sessionInfos = new SessionInfoStore();
+        final ExecutionDataStore executionData = new ExecutionDataStore();
+
+        ExecutionDataFiles(List<File> files) throws IOException {
+            for (File file : files) {
+                InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+                try {
+                    ExecutionDataReader reader = new ExecutionDataReader(inputStream);
+                    reader.setSessionInfoVisitor(sessionInfos);
+                    reader.setExecutionDataVisitor(executionData);
+                    reader.read();
+                } finally {
+                    inputStream.close();
+                }
+            }
+        }
+    }
+
+    private abstract static class ReportWriter implements Callable<Void> {
+        private final ExecutionDataFiles executionData;
+        private final IBundleCoverage bundle;
+        private final ISourceFileLocator sourceFileLocator;
+
+        ReportWriter(ExecutionDataFiles executionData, IBundleCoverage bundle, ISourceFileLocator sourceFileLocator) {
+            this.executionData = executionData;
+            this.bundle = bundle;
+            this.sourceFileLocator = sourceFileLocator;
+        }
+
+        abstract IReportVisitor createVisitor() throws IOException;
+
+        public Void call() throws Exception {
+            IReportVisitor visitor = createVisitor();
+            // The formatters may sort the session and execution data, so each gets its own copy
+            visitor.visitInfo(executionData.sessionInfos.getInfos(), new ArrayList<ExecutionData>(executionData.executionData.getContents()));
+            visitor.visitBundle(bundle, sourceFileLocator);
+            visitor.visitEnd();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import com.google.common.base.Objects;
+import org.gradle.api.Nullable;
+
+import java.io.File;
+import java.util.List;
+
+public class JacocoReportSpec implements JacocoSpec {
+    private final String name;
+    private final List<File> executionData;
+    private final List<File> classDirs;
+    private final List<File> sourceDirs;
+    private final File htmlDir;
+    private final File xmlFile;
+    private final File csvFile;
+    private final int maxThreads;
+
+    public JacocoReportSpec(String name, List<File> executionData, List<File> classDirs, List<File> sourceDirs,
+                            @Nullable File htmlDir, @Nullable File xmlFile, @Nullable File csvFile, int maxThreads) {
+        this.name = name;
+        this.executionData = executionData;
+        this.classDirs = classDirs;
+        this.sourceDirs = sourceDirs;
+        this.htmlDir = htmlDir;
+        this.xmlFile = xmlFile;
+        this.csvFile = csvFile;
+        this.maxThreads = maxThreads;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<File> getExecutionData() {
+        return executionData;
+    }
+
+    /**
+     * The directories and archives holding the classes to report coverage for.
+     */
+    public List<File> getClassDirs() {
+        return classDirs;
+    }
+
+    public List<File> getSourceDirs() {
+        return sourceDirs;
+    }
+
+    @Nullable
+    public File getHtmlDir() {
+        return htmlDir;
+    }
+
+    @Nullable
+    public File getXmlFile() {
+        return xmlFile;
+    }
+
+    @Nullable
+    public File getCsvFile() {
+        return csvFile;
+    }
+
+    /**
+     * The number of threads to analyze classes and write reports with, which is the maximum number of workers of the build.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void execute(JacocoExecuter executer) throws Exception {
+        executer.report(this);
+    }
+
+    public String toString() {
+        return Objects.toStringHelper(this).add("name", name).add("executionData", executionData).add("classDirs", classDirs).toString();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessResults;
+
+public class JacocoWorkerClient implements JacocoWorkerClientProtocol, Stoppable {
+    private final WorkerProcess workerProcess;
+    private final JacocoWorkerServerProtocol server;
+    private final WorkerProcessResults<JacocoResult> results;
+
+    public JacocoWorkerClient(WorkerProcess workerProcess, JacocoWorkerServerProtocol server) {
+        this.workerProcess = workerProcess;
+        this.server = server;
+        this.results = new WorkerProcessResults<JacocoResult>(workerProcess, "JaCoCo worker process", "the job");
+    }
+
+    public JacocoResult execute(JacocoSpec spec) {
+        // A worker runs a single job at a time
+        server.execute(spec);
+        return results.take();
+    }
+
+    public void stop() {
+        server.stop();
+        workerProcess.waitForStop();
+    }
+
+    public void executed(JacocoResult result) {
+        results.put(result);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import com.google.common.collect.ImmutableSet;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * Runs JaCoCo in worker processes, so that the analysis of large code bases does not use the heap of the build process. Workers are kept for reuse by
+ * later JaCoCo tasks until the end of the build session, which saves starting a JVM for each task.
+ */
+@ThreadSafe
+public class JacocoWorkerManager implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(JacocoWorkerManager.class);
+
+    private final Factory<WorkerProcessBuilder> workerFactory;
+    private final WorkerProcessPool<Set<File>, JacocoWorkerClient> workers = new WorkerProcessPool<Set<File>, JacocoWorkerClient>("JaCoCo worker");
+
+    public JacocoWorkerManager(Factory<WorkerProcessBuilder> workerFactory) {
+        this.workerFactory = workerFactory;
+    }
+
+    public void runWorker(final File workingDir, Iterable<File> jacocoClasspath, JacocoSpec spec) {
+        final Set<File> classpath = ImmutableSet.copyOf(jacocoClasspath);
+        JacocoWorkerClient client = workers.reserve(classpath, new Factory<JacocoWorkerClient>() {
+            public JacocoWorkerClient create() {
+                return startWorker(workingDir, classpath);
+            }
+        });
+        JacocoResult result;
+        try {
+            result = client.execute(spec);
+        } catch (RuntimeException e) {
+            // Do not reuse a worker that may be in an unknown state
+            workers.discard(client);
+            throw e;
+        }
+        if (result.getFailure() != null) {
+            workers.discard(client);
+            throw new GradleException("JaCoCo encountered an error.", result.getFailure());
+        }
+        workers.release(client);
+    }
+
+    private JacocoWorkerClient startWorker(File workingDir, Set<File> jacocoClasspath) {
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.setBaseName("Gradle JaCoCo Worker");
+        builder.applicationClasspath(jacocoClasspath);
+        builder.sharedPackages("org.jacoco");
+        builder.getJavaCommand().setWorkingDir(workingDir);
+        WorkerProcess process = builder.worker(new JacocoWorkerServer()).build();
+        process.start();
+
+        JacocoWorkerServerProtocol server = process.getConnection().addOutgoing(JacocoWorkerServerProtocol.class);
+        JacocoWorkerClient client = new JacocoWorkerClient(process, server);
+        process.getConnection().addIncoming(JacocoWorkerClientProtocol.class, client);
+        process.getConnection().connect();
+        LOGGER.info("Started JaCoCo worker with class path {}.", jacocoClasspath);
+        return client;
+    }
+
+    public void stop() {
+        workers.stop();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.api.Action;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.process.internal.WorkerProcessContext;
+
+import java.io.Serializable;
+import java.util.concurrent.CountDownLatch;
+
+public class JacocoWorkerServer implements Action<WorkerProcessContext>, JacocoWorkerServerProtocol, Serializable {
+    private static final Logger LOGGER = Logging.getLogger(JacocoWorkerServer.class);
+
+    private volatile JacocoWorkerClientProtocol client;
+    private volatile CountDownLatch stop;
+
+    public void execute(WorkerProcessContext context) {
+        stop = new CountDownLatch(1);
+        client = context.getServerConnection().addOutgoing(JacocoWorkerClientProtocol.class);
+        context.getServerConnection().addIncoming(JacocoWorkerServerProtocol.class, this);
+        context.getServerConnection().connect();
+        try {
+            stop.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public void execute(JacocoSpec spec) {
+        client.executed(execute(new JacocoExecuter(), spec));
+    }
+
+    JacocoResult execute(JacocoExecuter executer, JacocoSpec spec) {
+        LOGGER.debug("Executing JaCoCo worker for {}.", spec);
+        try {
+            spec.execute(executer);
+            return new JacocoResult(null);
+        } catch (Throwable t) {
+            return new JacocoResult(t);
+        }
+    }
+
+    public void stop() {
+        stop.countDown();
+    }
+}
@@ -18,17 +18,20 @@ package org.gradle.testing.jacoco.tasks
 import org.gradle.api.Incubating
 import org.gradle.api.Task
 import org.gradle.api.file.FileCollection
-import org.gradle.api.internal.project.IsolatedAntBuilder
 import org.gradle.api.tasks.InputFiles
 import org.gradle.api.tasks.OutputFile
 import org.gradle.api.tasks.TaskAction
 import org.gradle.api.tasks.TaskCollection
+import org.gradle.internal.jacoco.JacocoMergeSpec
+import org.gradle.internal.jacoco.JacocoWorkerManager
 import org.gradle.testing.jacoco.plugins.JacocoTaskExtension
 
 import javax.inject.Inject
 
 /**
  * Task to merge multiple execution data files into one.
+ *
+ * <p>The execution data files are read one after the other, in a worker process that is reused by later JaCoCo tasks of the build.</p>
  */
 @Incubating
 class JacocoMerge extends JacocoBase {
@@ -45,18 +48,14 @@ class JacocoMerge extends JacocoBase {
     File destinationFile
 
     @Inject
-    protected IsolatedAntBuilder getAntBuilder() {
+    protected JacocoWorkerManager getWorkerManager() {
         throw new UnsupportedOperationException();
     }
 
     @TaskAction
     void merge() {
-        antBuilder.withClasspath(getJacocoClasspath()).execute {
-            ant.taskdef(name: 'jacocoMerge', classname: 'org.jacoco.ant.MergeTask')
-            ant.jacocoMerge(destfile: getDestinationFile()) {
-                getExecutionData().addToAntBuilder(ant, 'resources')
-            }
-        }
+        def spec = new JacocoMergeSpec(getExecutionData().files as List, getDestinationFile())
+        workerManager.runWorker(getProject().getProjectDir(), getJacocoClasspath(), spec)
     }
 
     /**
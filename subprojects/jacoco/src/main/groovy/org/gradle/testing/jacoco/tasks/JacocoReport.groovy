@@ -18,10 +18,11 @@ package org.gradle.testing.jacoco.tasks
 import org.gradle.api.Incubating
 import org.gradle.api.Task
 import org.gradle.api.file.FileCollection
-import org.gradle.api.internal.project.IsolatedAntBuilder
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.tasks.*
+import org.gradle.internal.jacoco.JacocoReportSpec
 import org.gradle.internal.jacoco.JacocoReportsContainerImpl
+import org.gradle.internal.jacoco.JacocoWorkerManager
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.testing.jacoco.plugins.JacocoTaskExtension
 
@@ -29,6 +30,9 @@ import javax.inject.Inject
 
 /**
  * Task to generate HTML, Xml and CSV reports of Jacoco coverage data.
+ *
+ * <p>The reports are generated in a worker process, which is reused by later JaCoCo tasks of the build. The class files are analyzed in parallel, and
+ * the reports are written concurrently.</p>
  */
 @Incubating
 class JacocoReport extends JacocoBase implements Reporting<JacocoReportsContainer> {
@@ -78,37 +82,21 @@ class JacocoReport extends JacocoBase implements Reporting<JacocoReportsContaine
     }
 
     @Inject
-    protected IsolatedAntBuilder getAntBuilder() {
+    protected JacocoWorkerManager getWorkerManager() {
         throw new UnsupportedOperationException();
     }
 
     @TaskAction
     void generate() {
-        antBuilder.withClasspath(getJacocoClasspath()).execute {
-            ant.taskdef(name: 'jacocoReport', classname: 'org.jacoco.ant.ReportTask')
-            ant.jacocoReport {
-                executiondata {
-                    getExecutionData().addToAntBuilder(ant, 'resources')
-                }
-                structure(name: getProject().getName()) {
-                    classfiles {
-                        getAllClassDirs().filter { it.exists() }.addToAntBuilder(ant, 'resources')
-                    }
-                    sourcefiles {
-                        getAllSourceDirs().filter { it.exists() }.addToAntBuilder(ant, 'resources')
-                    }
-                }
-                if(reports.html.isEnabled()) {
-                    html(destdir: reports.html.destination)
-                }
-                if(reports.xml.isEnabled()) {
-                    xml(destfile: reports.xml.destination)
-                }
-                if(reports.csv.isEnabled()) {
-                    csv(destfile: reports.csv.destination)
-                }
-            }
-        }
+        def spec = new JacocoReportSpec(getProject().getName(),
+            getExecutionData().files as List,
+            getAllClassDirs().filter { it.exists() }.files as List,
+            getAllSourceDirs().filter { it.exists() }.files as List,
+            reports.html.isEnabled() ? reports.html.destination : null,
+            reports.xml.isEnabled() ? reports.xml.destination : null,
+            reports.csv.isEnabled() ? reports.csv.destination : null,
+            getProject().getGradle().getStartParameter().getMaxWorkerCount())
+        workerManager.runWorker(getProject().getProjectDir(), getJacocoClasspath(), spec)
     }
 
     /**
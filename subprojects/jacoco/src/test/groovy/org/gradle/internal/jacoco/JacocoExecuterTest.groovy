@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.jacoco.core.data.ExecutionData
+import org.jacoco.core.data.ExecutionDataReader
+import org.jacoco.core.data.ExecutionDataStore
+import org.jacoco.core.data.ExecutionDataWriter
+import org.jacoco.core.data.SessionInfo
+import org.jacoco.core.data.SessionInfoStore
+import org.junit.Rule
+import spock.lang.Specification
+
+class JacocoExecuterTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def executer = new JacocoExecuter()
+
+    def "merges execution data files"() {
+        def first = executionData("first.exec", new SessionInfo("first", 1, 2), new ExecutionData(1, "org/A", [true, false] as boolean[]))
+        def second = executionData("second.exec", new SessionInfo("second", 3, 4),
+            new ExecutionData(1, "org/A", [false, true] as boolean[]), new ExecutionData(2, "org/B", [true] as boolean[]))
+        def destination = tmpDir.file("merged/merged.exec")
+
+        when:
+        executer.merge(new JacocoMergeSpec([first, second], destination))
+
+        then:
+        def sessions = new SessionInfoStore()
+        def data = new ExecutionDataStore()
+        read(destination, sessions, data)
+        sessions.infos*.id == ["first", "second"]
+        data.get(1).probes == [true, true] as boolean[]
+        data.get(2).probes == [true] as boolean[]
+    }
+
+    def "writes HTML report"() {
+        def htmlDir = tmpDir.file("reports/html")
+
+        when:
+        executer.report(reportSpec(htmlDir, null, null))
+
+        then:
+        htmlDir.file("index.html").assertIsFile()
+        htmlDir.file("org.gradle.internal.jacoco/index.html").assertIsFile()
+    }
+
+    def "writes XML report"() {
+        def xmlFile = tmpDir.file("reports/report.xml")
+
+        when:
+        executer.report(reportSpec(null, xmlFile, null))
+
+        then:
+        xmlFile.text.contains('<report name="test">')
+        xmlFile.text.contains('<sessioninfo id="session"')
+        xmlFile.text.contains('<class name="org/gradle/internal/jacoco/JacocoResult"')
+    }
+
+    def "writes CSV report"() {
+        def csvFile = tmpDir.file("reports/report.csv")
+
+        when:
+        executer.report(reportSpec(null, null, csvFile))
+
+        then:
+        def lines = csvFile.readLines()
+        lines[0].startsWith("GROUP,PACKAGE,CLASS,")
+        lines.any { it.startsWith("test,org.gradle.internal.jacoco,JacocoResult,") }
+    }
+
+    def "writes all reports from one analysis"() {
+        def htmlDir = tmpDir.file("reports/html")
+        def xmlFile = tmpDir.file("reports/report.xml")
+        def csvFile = tmpDir.file("reports/report.csv")
+
+        when:
+        executer.report(reportSpec(htmlDir, xmlFile, csvFile))
+
+        then:
+        htmlDir.file("index.html").assertIsFile()
+        xmlFile.assertIsFile()
+        csvFile.assertIsFile()
+    }
+
+    private JacocoReportSpec reportSpec(File htmlDir, File xmlFile, File csvFile) {
+        def classDir = tmpDir.createDir("classes")
+        def classFile = classDir.file("org/gradle/internal/jacoco/JacocoResult.class")
+        classFile.parentFile.mkdirs()
+        classFile.bytes = getClass().getResourceAsStream("/org/gradle/internal/jacoco/JacocoResult.class").bytes
+        def executionData = executionData("test.exec", new SessionInfo("session", 1, 2))
+        return new JacocoReportSpec("test", [executionData], [classDir], [], htmlDir, xmlFile, csvFile, 2)
+    }
+
+    private TestFile executionData(String name, SessionInfo session, ExecutionData... classes) {
+        def file = tmpDir.file(name)
+        file.withOutputStream { outputStream ->
+            def writer = new ExecutionDataWriter(outputStream)
+            writer.visitSessionInfo(session)
+            classes.each { writer.visitClassExecution(it) }
+        }
+        return file
+    }
+
+    private static void read(File file, SessionInfoStore sessions, ExecutionDataStore data) {
+        file.withInputStream { inputStream ->
+            def reader = new ExecutionDataReader(inputStream)
+            reader.sessionInfoVisitor = sessions
+            reader.executionDataVisitor = data
+            reader.read()
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+class JacocoWorkerServerTest extends Specification {
+
+    def executer = Mock(JacocoExecuter)
+    def spec = Mock(JacocoSpec)
+    @Subject server = new JacocoWorkerServer()
+
+    def "failure provides result"() {
+        def failure = new IOException("broken")
+
+        when:
+        def result = server.execute(executer, spec)
+
+        then:
+        1 * spec.execute(executer) >> { throw failure }
+
+        and:
+        result.failure == failure
+    }
+
+    def "success provides result without failure"() {
+        when:
+        def result = server.execute(executer, spec)
+
+        then:
+        1 * spec.execute(executer)
+
+        and:
+        result.failure == null
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.language.jvm.tasks;
 
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.IncrementalFileCopyAction;
 import org.gradle.api.tasks.Copy;
 import org.gradle.language.base.internal.tasks.SimpleStaleClassCleaner;
 import org.gradle.language.base.internal.tasks.StaleClassCleaner;
@@ -26,10 +28,15 @@ import org.gradle.language.base.internal.tasks.StaleClassCleaner;
 public class ProcessResources extends Copy {
 
     @Override
-    protected void copy() {
-        StaleClassCleaner cleaner = new SimpleStaleClassCleaner(getOutputs());
-        cleaner.setDestinationDir(getDestinationDir());
-        cleaner.execute();
-        super.copy();
+    protected CopyAction createCopyAction() {
+        IncrementalFileCopyAction copyAction = (IncrementalFileCopyAction) super.createCopyAction();
+        copyAction.setDeleteStaleFiles(true);
+        if (!copyAction.hasPreviousState()) {
+            // The resources copied by the last execution are not known, so remove everything it produced
+            StaleClassCleaner cleaner = new SimpleStaleClassCleaner(getOutputs());
+            cleaner.setDestinationDir(getDestinationDir());
+            cleaner.execute();
+        }
+        return copyAction;
     }
 }
\ No newline at end of file
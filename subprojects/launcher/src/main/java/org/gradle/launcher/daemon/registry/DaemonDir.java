@@ -25,11 +25,13 @@ public class DaemonDir {
     private final File baseDir;
     private final File versionedDir;
     private final File registryFile;
+    private final File mappedRegistryFile;
 
     public DaemonDir(File baseDir) {
         this.baseDir = baseDir;
         this.versionedDir = new File(baseDir, String.format("%s", GradleVersion.current().getVersion()));
         this.registryFile = new File(versionedDir, "registry.bin");
+        this.mappedRegistryFile = new File(versionedDir, "registry.slots");
         GFileUtils.mkdirs(this.versionedDir);
     }
 
@@ -44,4 +46,8 @@ public class DaemonDir {
     public File getRegistry() {
         return registryFile;
     }
+
+    public File getMappedRegistry() {
+        return mappedRegistryFile;
+    }
 }
@@ -20,6 +20,7 @@ import org.gradle.api.internal.cache.CacheAccessSerializer;
 import org.gradle.api.internal.cache.MapBackedCache;
 import org.gradle.cache.internal.FileLockManager;
 import org.gradle.internal.Factory;
+import org.gradle.internal.os.OperatingSystem;
 
 import java.io.File;
 import java.util.HashMap;
@@ -52,10 +53,19 @@ public class DaemonRegistryServices {
     }
 
     DaemonRegistry createDaemonRegistry(DaemonDir daemonDir, final FileLockManager fileLockManager) {
-        final File daemonRegistryFile = daemonDir.getRegistry();
+        if (OperatingSystem.current().isWindows()) {
+            // A mapped file cannot be deleted on Windows while any process has it mapped, so keep using the serialized registry there
+            final File daemonRegistryFile = daemonDir.getRegistry();
+            return daemonRegistryCache.get(daemonRegistryFile, new Factory<DaemonRegistry>() {
+                public DaemonRegistry create() {
+                    return new PersistentDaemonRegistry(daemonRegistryFile, fileLockManager);
+                }
+            });
+        }
+        final File daemonRegistryFile = daemonDir.getMappedRegistry();
         return daemonRegistryCache.get(daemonRegistryFile, new Factory<DaemonRegistry>() {
             public DaemonRegistry create() {
-                return new PersistentDaemonRegistry(daemonRegistryFile, fileLockManager);
+                return new MappedDaemonRegistry(daemonRegistryFile);
             }
         });
     }
@@ -0,0 +1,439 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.launcher.daemon.context.DaemonContext;
+import org.gradle.messaging.remote.Address;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A daemon registry backed by a memory-mapped file with a fixed number of slots, one per daemon.
+ *
+ * <p>Each slot holds the serialized address, context and password of a daemon, plus its idle flag. Updates lock only the slot they change, and
+ * changing the busy/idle state of a daemon writes a single byte rather than the whole registry. Readers do not lock at all: each slot carries a
+ * generation counter that is odd while the slot is being written, and a checksum of its contents, and a read is retried when either does not match.
+ * Deserialized entries are cached per slot, so that a client only deserializes the daemons that have changed since its last query.</p>
+ *
+ * <p>Slot layout: generation (long), payload length (int, 0 for a free slot), payload checksum (int), idle flag (byte), payload.</p>
+ *
+ * <p>The registry file is held open between queries, as its channel is used for the slot locks. It is closed when the registry is stopped, and reopened
+ * if the registry is used again afterwards.</p>
+ */
+public class MappedDaemonRegistry implements DaemonRegistry, Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(MappedDaemonRegistry.class);
+
+    private static final int MAGIC = 0x6744726d;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    static final int SLOT_COUNT = 128;
+    static final int SLOT_SIZE = 8192;
+    private static final int GENERATION_OFFSET = 0;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int CHECKSUM_OFFSET = 12;
+    private static final int IDLE_OFFSET = 16;
+    private static final int PAYLOAD_OFFSET = 20;
+    static final int MAX_PAYLOAD_SIZE = SLOT_SIZE - PAYLOAD_OFFSET;
+    private static final int MAX_OPTIMISTIC_READS = 100;
+
+    private final File registryFile;
+    private final Lock lock = new ReentrantLock();
+    private final Entry[] entries = new Entry[SLOT_COUNT];
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+
+    public MappedDaemonRegistry(File registryFile) {
+        this.registryFile = registryFile;
+    }
+
+    public List<DaemonInfo> getAll() {
+        ByteBuffer buffer = getBuffer();
+        List<DaemonInfo> result = new ArrayList<DaemonInfo>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            DaemonInfo info = read(buffer, slot);
+            if (info != null) {
+                result.add(info);
+            }
+        }
+        return result;
+    }
+
+    public List<DaemonInfo> getIdle() {
+        List<DaemonInfo> out = new ArrayList<DaemonInfo>();
+        for (DaemonInfo info : getAll()) {
+            if (info.isIdle()) {
+                out.add(info);
+            }
+        }
+        return out;
+    }
+
+    public List<DaemonInfo> getBusy() {
+        List<DaemonInfo> out = new ArrayList<DaemonInfo>();
+        for (DaemonInfo info : getAll()) {
+            if (!info.isIdle()) {
+                out.add(info);
+            }
+        }
+        return out;
+    }
+
+    public void remove(Address address) {
+        LOGGER.debug("Removing daemon address: {}", address);
+        update(address, new SlotUpdate() {
+            public void update(ByteBuffer buffer, int slotOffset) {
+                buffer.putInt(slotOffset + LENGTH_OFFSET, 0);
+                buffer.putInt(slotOffset + CHECKSUM_OFFSET, 0);
+            }
+        });
+    }
+
+    public void markBusy(Address address) {
+        LOGGER.debug("Marking busy by address: {}", address);
+        setIdle(address, false);
+    }
+
+    public void markIdle(Address address) {
+        LOGGER.debug("Marking idle by address: {}", address);
+        setIdle(address, true);
+    }
+
+    private void setIdle(Address address, final boolean idle) {
+        update(address, new SlotUpdate() {
+            public void update(ByteBuffer buffer, int slotOffset) {
+                buffer.put(slotOffset + IDLE_OFFSET, idle ? (byte) 1 : (byte) 0);
+            }
+        });
+        // Else, has been removed by something else - ignore
+    }
+
+    public void store(Address address, DaemonContext daemonContext, String password, final boolean idle) {
+        LOGGER.debug("Storing daemon address: {}, context: {}", address, daemonContext);
+        final byte[] payload = serialize(new DaemonInfo(address, daemonContext, password, false));
+        if (payload.length > MAX_PAYLOAD_SIZE) {
+            LOGGER.warn("Could not register daemon {} as its details are too large ({} bytes) for the daemon registry {}.", address, payload.length, registryFile);
+            return;
+        }
+        SlotUpdate write = new SlotUpdate() {
+            public void update(ByteBuffer buffer, int slotOffset) {
+                ByteBuffer target = buffer.duplicate();
+                target.position(slotOffset + PAYLOAD_OFFSET);
+                target.put(payload);
+                buffer.put(slotOffset + IDLE_OFFSET, idle ? (byte) 1 : (byte) 0);
+                buffer.putInt(slotOffset + CHECKSUM_OFFSET, checksum(payload));
+                buffer.putInt(slotOffset + LENGTH_OFFSET, payload.length);
+            }
+        };
+        if (update(address, write)) {
+            return;
+        }
+        ByteBuffer buffer = getBuffer();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if (buffer.getInt(slotOffset(slot) + LENGTH_OFFSET) == 0 && updateSlot(slot, null, write)) {
+                return;
+            }
+        }
+        LOGGER.warn("Could not register daemon {} as the daemon registry {} is full.", address, registryFile);
+    }
+
+    /**
+     * Applies the given update to the slot that holds the given address, if any.
+     */
+    private boolean update(Address address, SlotUpdate update) {
+        ByteBuffer buffer = getBuffer();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            DaemonInfo info = read(buffer, slot);
+            if (info != null && info.getAddress().equals(address) && updateSlot(slot, address, update)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the given update to the given slot, provided it still holds the expected address, or is still free when the expected address is null.
+     */
+    private boolean updateSlot(int slot, @Nullable Address expected, SlotUpdate update) {
+        int slotOffset = slotOffset(slot);
+        lock.lock();
+        try {
+            ByteBuffer buffer = getBuffer();
+            FileLock slotLock = file.getChannel().lock(slotOffset, SLOT_SIZE, false);
+            try {
+                repairIfInterrupted(buffer, slotOffset);
+                DaemonInfo current = readLocked(buffer, slot);
+                boolean matches = expected == null ? current == null : current != null && current.getAddress().equals(expected);
+                if (!matches) {
+                    return false;
+                }
+                long generation = buffer.getLong(slotOffset + GENERATION_OFFSET);
+                buffer.putLong(slotOffset + GENERATION_OFFSET, generation + 1);
+                update.update(buffer, slotOffset);
+                buffer.putLong(slotOffset + GENERATION_OFFSET, generation + 2);
+                return true;
+            } finally {
+                slotLock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not update daemon registry %s.", registryFile), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    private DaemonInfo read(ByteBuffer buffer, int slot) {
+        int slotOffset = slotOffset(slot);
+        for (int attempt = 0; attempt < MAX_OPTIMISTIC_READS; attempt++) {
+            long generation = buffer.getLong(slotOffset + GENERATION_OFFSET);
+            if ((generation & 1) != 0) {
+                // Being written
+                Thread.yield();
+                continue;
+            }
+            SlotContent content = readContent(buffer, slotOffset);
+            if (buffer.getLong(slotOffset + GENERATION_OFFSET) == generation && (content == null || content.isValid())) {
+                return toInfo(slot, content);
+            }
+        }
+
+        // The slot is contended, or a writer has died part way through an update. Fall back to reading under the slot lock
+        lock.lock();
+        try {
+            ByteBuffer lockedBuffer = getBuffer();
+            FileLock slotLock = file.getChannel().lock(slotOffset, SLOT_SIZE, false);
+            try {
+                repairIfInterrupted(lockedBuffer, slotOffset);
+                return readLocked(lockedBuffer, slot);
+            } finally {
+                slotLock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read daemon registry %s.", registryFile), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    private DaemonInfo readLocked(ByteBuffer buffer, int slot) {
+        SlotContent content = readContent(buffer, slotOffset(slot));
+        if (content != null && !content.isValid()) {
+            LOGGER.debug("Ignoring corrupt entry {} in daemon registry {}.", slot, registryFile);
+            return null;
+        }
+        return toInfo(slot, content);
+    }
+
+    /**
+     * Completes an update that was abandoned by a process that crashed while holding the slot lock, by marking the slot as free.
+     */
+    private void repairIfInterrupted(ByteBuffer buffer, int slotOffset) {
+        long generation = buffer.getLong(slotOffset + GENERATION_OFFSET);
+        if ((generation & 1) != 0) {
+            buffer.putInt(slotOffset + LENGTH_OFFSET, 0);
+            buffer.putLong(slotOffset + GENERATION_OFFSET, generation + 1);
+        }
+    }
+
+    @Nullable
+    private static SlotContent readContent(ByteBuffer buffer, int slotOffset) {
+        int length = buffer.getInt(slotOffset + LENGTH_OFFSET);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+            return new SlotContent(new byte[0], 0, false);
+        }
+        boolean idle = buffer.get(slotOffset + IDLE_OFFSET) != 0;
+        int checksum = buffer.getInt(slotOffset + CHECKSUM_OFFSET);
+        byte[] payload = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(slotOffset + PAYLOAD_OFFSET);
+        source.get(payload);
+        return new SlotContent(payload, checksum, idle);
+    }
+
+    @Nullable
+    private DaemonInfo toInfo(int slot, @Nullable SlotContent content) {
+        if (content == null) {
+            return null;
+        }
+        DaemonInfo template;
+        synchronized (entries) {
+            Entry entry = entries[slot];
+            if (entry == null || !Arrays.equals(entry.payload, content.payload)) {
+                entry = new Entry(content.payload, deserialize(content.payload));
+                entries[slot] = entry;
+            }
+            template = entry.info;
+        }
+        return new DaemonInfo(template.getAddress(), template.getContext(), template.getPassword(), content.idle);
+    }
+
+    private ByteBuffer getBuffer() {
+        lock.lock();
+        try {
+            if (buffer == null) {
+                buffer = open();
+            }
+            return buffer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        lock.lock();
+        try {
+            buffer = null;
+            if (file != null) {
+                RandomAccessFile current = file;
+                file = null;
+                current.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not close daemon registry %s.", registryFile), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MappedByteBuffer open() {
+        long size = HEADER_SIZE + (long) SLOT_COUNT * SLOT_SIZE;
+        try {
+            registryFile.getParentFile().mkdirs();
+            RandomAccessFile file = new RandomAccessFile(registryFile, "rw");
+            try {
+                MappedByteBuffer buffer = map(file, size);
+                this.file = file;
+                return buffer;
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            } catch (RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not open daemon registry %s.", registryFile), e);
+        }
+    }
+
+    private MappedByteBuffer map(RandomAccessFile file, long size) throws IOException {
+        FileChannel channel = file.getChannel();
+        FileLock headerLock = channel.lock(0, HEADER_SIZE, false);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getInt(8) != SLOT_COUNT || buffer.getInt(12) != SLOT_SIZE) {
+                LOGGER.debug("Initializing daemon registry {}.", registryFile);
+                for (int i = 0; i < size; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.putInt(4, FORMAT_VERSION);
+                buffer.putInt(8, SLOT_COUNT);
+                buffer.putInt(12, SLOT_SIZE);
+                buffer.putInt(0, MAGIC);
+            }
+            return buffer;
+        } finally {
+            headerLock.release();
+        }
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] serialize(DaemonInfo info) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+            outputStream.writeObject(info);
+            outputStream.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static DaemonInfo deserialize(byte[] payload) {
+        try {
+            ObjectInputStream inputStream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(payload), MappedDaemonRegistry.class.getClassLoader());
+            return (DaemonInfo) inputStream.readObject();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public String toString() {
+        return String.format("MappedDaemonRegistry[file=%s]", registryFile);
+    }
+
+    private interface SlotUpdate {
+        void update(ByteBuffer buffer, int slotOffset);
+    }
+
+    private static class SlotContent {
+        final byte[] payload;
+        final int checksum;
+        final boolean idle;
+
+        SlotContent(byte[] payload, int checksum, boolean idle) {
+            this.payload = payload;
+            this.checksum = checksum;
+            this.idle = idle;
+        }
+
+        boolean isValid() {
+            return payload.length > 0 && checksum(payload) == checksum;
+        }
+    }
+
+    private static class Entry {
+        final byte[] payload;
+        final DaemonInfo info;
+
+        Entry(byte[] payload, DaemonInfo info) {
+            this.payload = payload;
+            this.info = info;
+        }
+    }
+}
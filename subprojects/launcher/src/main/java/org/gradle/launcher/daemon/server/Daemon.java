@@ -39,6 +39,10 @@ import java.util.concurrent.locks.ReentrantLock;
  * See {@link org.gradle.launcher.daemon.client.DaemonClient} for a description of the daemon communication protocol.
  */
 public class Daemon implements Stoppable {
+    /**
+     * The maximum number of builds that the daemon runs concurrently, when they have the same build environment. Defaults to 1.
+     */
+    public static final String MAX_CONCURRENT_BUILDS_PROPERTY = "org.gradle.daemon.maxconcurrentbuilds";
     private static final Logger LOGGER = Logging.getLogger(Daemon.class);
 
     private final DaemonServerConnector connector;
@@ -122,7 +126,8 @@ public class Daemon implements Stoppable {
             // 3. start accepting incoming connections
             // 4. advertise presence in registry
 
-            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand);
+            int maxConcurrentBuilds = Math.max(1, Integer.getInteger(MAX_CONCURRENT_BUILDS_PROPERTY, 1));
+            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, maxConcurrentBuilds);
             connectionHandler = new DefaultIncomingConnectionHandler(commandExecuter, daemonContext, stateCoordinator, executorFactory);
             connectorAddress = connector.start(connectionHandler);
             LOGGER.debug("Daemon starting at: {}, with address: {}", new Date(), connectorAddress);
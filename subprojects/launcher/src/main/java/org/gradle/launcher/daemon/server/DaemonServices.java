@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.internal.cache.ReleasableCacheRegistry;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.classpath.ClassPath;
@@ -78,8 +79,8 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new File(get(DaemonDir.class).getVersionedDir(), fileName);
     }
 
-    protected DaemonHealthServices createDaemonHealthServices() {
-        return new DefaultDaemonHealthServices();
+    protected DaemonHealthServices createDaemonHealthServices(ReleasableCacheRegistry releasableCacheRegistry, ExecutorFactory executorFactory) {
+        return new DefaultDaemonHealthServices(releasableCacheRegistry, executorFactory);
     }
 
     protected Daemon createDaemon(BuildExecuter buildActionExecuter) {
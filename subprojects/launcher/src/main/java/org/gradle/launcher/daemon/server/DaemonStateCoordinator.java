@@ -29,7 +29,12 @@ import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -41,6 +46,10 @@ import java.util.concurrent.locks.ReentrantLock;
  * This class has no knowledge of the Daemon's internals and is designed to be used internally by the daemon to coordinate itself and allow worker threads to control the daemon's busy/idle status.
  *
  * This is not exposed to clients of the daemon.
+ *
+ * By default, the daemon runs a single command at a time. When created with a limit greater than 1, the daemon also accepts commands while other
+ * commands are running, up to the limit, provided that all of them were started with equal environments. The daemon is reported as busy to the
+ * registry only once the limit has been reached.
  */
 public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private static final Logger LOGGER = Logging.getLogger(DaemonStateCoordinator.class);
@@ -53,22 +62,35 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
 
     private State state = State.Running;
     private long lastActivityAt = -1;
-    private String currentCommandExecution;
-    private Object result;
+    private final Map<String, CommandExecution> commands = new LinkedHashMap<String, CommandExecution>();
+    private final ThreadLocal<CommandExecution> workerCommand = new ThreadLocal<CommandExecution>();
     private volatile DefaultBuildCancellationToken cancellationToken;
 
     private final StoppableExecutor executor;
     private final Runnable onStartCommand;
     private final Runnable onFinishCommand;
+    private final int maxConcurrentCommands;
 
     public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand) {
-        this(executorFactory, onStartCommand, onFinishCommand, 10 * 1000L);
+        this(executorFactory, onStartCommand, onFinishCommand, 1);
+    }
+
+    public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, int maxConcurrentCommands) {
+        this(executorFactory, onStartCommand, onFinishCommand, maxConcurrentCommands, 10 * 1000L);
     }
 
     DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, long cancelTimeoutMs) {
+        this(executorFactory, onStartCommand, onFinishCommand, 1, cancelTimeoutMs);
+    }
+
+    DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, int maxConcurrentCommands, long cancelTimeoutMs) {
+        if (maxConcurrentCommands < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent commands must be at least 1.");
+        }
         executor = executorFactory.create("Daemon worker");
         this.onStartCommand = onStartCommand;
         this.onFinishCommand = onFinishCommand;
+        this.maxConcurrentCommands = maxConcurrentCommands;
         this.cancelTimeoutMs = cancelTimeoutMs;
         updateActivityTimestamp();
         cancellationToken = new DefaultBuildCancellationToken();
@@ -187,23 +209,63 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         stopNow("forceful stop requested");
     }
 
-    public BuildCancellationToken getCancellationToken() {
-        return cancellationToken;
+    public void requestForcefulStop(String commandDisplayName) {
+        if (maxConcurrentCommands == 1) {
+            requestForcefulStop();
+        } else {
+            cancelBuild(commandDisplayName);
+        }
     }
 
-    private void updateCancellationToken() {
-        cancellationToken = new DefaultBuildCancellationToken();
+    public BuildCancellationToken getCancellationToken() {
+        CommandExecution command = workerCommand.get();
+        return command != null ? command.cancellationToken : cancellationToken;
     }
 
     public void cancelBuild() {
-        long waitUntil = System.currentTimeMillis() + cancelTimeoutMs;
-        Date expiry = new Date(waitUntil);
-        LOGGER.debug("Cancel requested: will wait for daemon to become idle.");
+        List<CommandExecution> running;
+        lock.lock();
+        try {
+            running = new ArrayList<CommandExecution>(commands.values());
+        } finally {
+            lock.unlock();
+        }
+        if (running.isEmpty()) {
+            cancel(cancellationToken);
+        }
+        awaitCancelled(running);
+    }
+
+    public void cancelBuild(String commandDisplayName) {
+        CommandExecution command;
+        lock.lock();
+        try {
+            command = commands.get(commandDisplayName);
+        } finally {
+            lock.unlock();
+        }
+        if (command == null) {
+            LOGGER.debug("Cancel: {} is not running.", commandDisplayName);
+            return;
+        }
+        awaitCancelled(Collections.singletonList(command));
+    }
+
+    private void cancel(DefaultBuildCancellationToken token) {
         try {
-            cancellationToken.cancel();
+            token.cancel();
         } catch (Exception ex) {
             LOGGER.error("Cancel processing failed. Will continue.", ex);
         }
+    }
+
+    private void awaitCancelled(List<CommandExecution> toCancel) {
+        long waitUntil = System.currentTimeMillis() + cancelTimeoutMs;
+        Date expiry = new Date(waitUntil);
+        LOGGER.debug("Cancel requested: will wait for daemon to become idle.");
+        for (CommandExecution command : toCancel) {
+            cancel(command.cancellationToken);
+        }
 
         lock.lock();
         try {
@@ -211,7 +273,7 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 try {
                     switch (state) {
                         case Running:
-                            if (isIdle()) {
+                            if (!isAnyRunning(toCancel)) {
                                 LOGGER.debug("Cancel: daemon is idle now.");
                                 return;
                             }
@@ -230,6 +292,11 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
+            if (maxConcurrentCommands > 1 && commands.size() > toCancel.size()) {
+                LOGGER.debug("Cancel: command is still running after grace period. Will abandon it and stop once the other commands have finished.");
+                abandon(toCancel);
+                return;
+            }
             LOGGER.debug("Cancel: daemon is still busy after grace period. Will force stop.");
             stopNow("cancel requested");
         } finally {
@@ -237,40 +304,66 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    public void runCommand(final Runnable command, String commandDisplayName) throws DaemonUnavailableException {
-        onStartCommand(commandDisplayName);
+    private void abandon(List<CommandExecution> toAbandon) {
+        for (CommandExecution command : toAbandon) {
+            if (command.result == null) {
+                command.result = new DaemonStoppedException();
+            }
+        }
+        beginStopping();
+        condition.signalAll();
+    }
+
+    private boolean isAnyRunning(List<CommandExecution> candidates) {
+        for (CommandExecution command : candidates) {
+            if (commands.get(command.displayName) == command) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void runCommand(Runnable command, String commandDisplayName) throws DaemonUnavailableException {
+        runCommand(command, commandDisplayName, null);
+    }
+
+    public void runCommand(final Runnable command, String commandDisplayName, Object environment) throws DaemonUnavailableException {
+        final CommandExecution execution = onStartCommand(commandDisplayName, environment);
         try {
             executor.execute(new Runnable() {
                 public void run() {
+                    workerCommand.set(execution);
                     try {
                         command.run();
-                        onCommandSuccessful();
+                        onCommandSuccessful(execution);
                     } catch (Throwable t) {
-                        onCommandFailed(t);
+                        onCommandFailed(execution, t);
+                    } finally {
+                        workerCommand.remove();
                     }
                 }
             });
-            waitForCommandCompletion();
+            waitForCommandCompletion(execution);
         } finally {
-            onFinishCommand();
+            onFinishCommand(execution);
         }
     }
 
-    private void waitForCommandCompletion() {
+    private void waitForCommandCompletion(CommandExecution execution) {
         lock.lock();
         try {
-            while ((state == State.Running || state == State.StopRequested) && result == null) {
+            while ((state == State.Running || state == State.StopRequested) && execution.result == null) {
                 try {
                     condition.await();
                 } catch (InterruptedException e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
-            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", currentCommandExecution, result, state);
-            if (result instanceof Throwable) {
-                throw UncheckedException.throwAsUncheckedException((Throwable) result);
+            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", execution.displayName, execution.result, state);
+            if (execution.result instanceof Throwable) {
+                throw UncheckedException.throwAsUncheckedException((Throwable) execution.result);
             }
-            if (result != null) {
+            if (execution.result != null) {
                 return;
             }
             switch (state) {
@@ -286,27 +379,27 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onCommandFailed(Throwable failure) {
+    private void onCommandFailed(CommandExecution execution, Throwable failure) {
         lock.lock();
         try {
-            result = failure;
+            execution.result = failure;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onCommandSuccessful() {
+    private void onCommandSuccessful(CommandExecution execution) {
         lock.lock();
         try {
-            result = this;
+            execution.result = this;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onStartCommand(String commandDisplayName) {
+    private CommandExecution onStartCommand(String commandDisplayName, Object environment) {
         lock.lock();
         try {
             switch (state) {
@@ -317,18 +410,25 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 case Stopped:
                     throw new DaemonUnavailableException("This daemon has stopped.");
             }
-            if (currentCommandExecution != null) {
-                throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", currentCommandExecution));
+            if (!commands.isEmpty()) {
+                CommandExecution running = commands.values().iterator().next();
+                if (commands.size() >= maxConcurrentCommands || environment == null || !environment.equals(running.environment) || commands.containsKey(commandDisplayName)) {
+                    throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", running.displayName));
+                }
             }
 
             LOGGER.debug("Command execution: started {} after {} minutes of idle", commandDisplayName, getIdleMinutes());
             try {
-                onStartCommand.run();
-                currentCommandExecution = commandDisplayName;
-                result = null;
+                // The daemon is unavailable to clients once it runs as many commands as it can
+                if (commands.size() + 1 == maxConcurrentCommands) {
+                    onStartCommand.run();
+                }
+                CommandExecution execution = new CommandExecution(commandDisplayName, environment);
+                commands.put(commandDisplayName, execution);
+                cancellationToken = execution.cancellationToken;
                 updateActivityTimestamp();
-                updateCancellationToken();
                 condition.signalAll();
+                return execution;
             } catch (Throwable throwable) {
                 setState(State.Broken);
                 throw UncheckedException.throwAsUncheckedException(throwable);
@@ -338,17 +438,19 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onFinishCommand() {
+    private void onFinishCommand(CommandExecution execution) {
         lock.lock();
         try {
-            LOGGER.debug("Command execution: completed {}", currentCommandExecution);
-            currentCommandExecution = null;
-            result = null;
+            LOGGER.debug("Command execution: completed {}", execution.displayName);
+            boolean wasUnavailable = commands.size() == maxConcurrentCommands;
+            commands.remove(execution.displayName);
             updateActivityTimestamp();
             switch (state) {
                 case Running:
                     try {
-                        onFinishCommand.run();
+                        if (wasUnavailable) {
+                            onFinishCommand.run();
+                        }
                         condition.signalAll();
                     } catch (Throwable throwable) {
                         setState(State.Broken);
@@ -356,7 +458,11 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                     }
                     break;
                 case StopRequested:
-                    stopNow("command completed and stop requested");
+                    if (commands.isEmpty()) {
+                        stopNow("command completed and stop requested");
+                    } else {
+                        condition.signalAll();
+                    }
                     break;
                 case Stopped:
                     break;
@@ -396,10 +502,22 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     boolean isIdle() {
-        return state == State.Running && currentCommandExecution == null;
+        return state == State.Running && commands.isEmpty();
     }
 
     boolean isBusy() {
-        return state == State.Running && currentCommandExecution != null;
+        return state == State.Running && !commands.isEmpty();
+    }
+
+    private static class CommandExecution {
+        private final String displayName;
+        private final Object environment;
+        private final DefaultBuildCancellationToken cancellationToken = new DefaultBuildCancellationToken();
+        private Object result;
+
+        CommandExecution(String displayName, Object environment) {
+            this.displayName = displayName;
+            this.environment = environment;
+        }
     }
 }
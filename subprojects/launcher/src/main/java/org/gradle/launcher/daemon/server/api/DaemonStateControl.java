@@ -35,6 +35,15 @@ public interface DaemonStateControl {
      */
     void requestForcefulStop();
 
+    /**
+     * Requests a forceful stop of the given command, for example because its client has disconnected. When this daemon runs a single command at a time,
+     * this is the same as {@link #requestForcefulStop()}. Otherwise, the command is cancelled in the same way as {@link #cancelBuild(String)}, leaving any other
+     * command that is running in this daemon alone, and this method blocks in the same way.
+     *
+     * @param commandDisplayName The display name that the command was started with.
+     */
+    void requestForcefulStop(String commandDisplayName);
+
     /**
      * Communicates a request for build cancellation. Note that this method blocks until the operation has been cancelled.
      *
@@ -43,15 +52,26 @@ public interface DaemonStateControl {
      */
     void cancelBuild();
 
+    /**
+     * Communicates a request for cancellation of the given command, leaving any other command that is running in this daemon alone. Note that this method blocks
+     * until the operation has been cancelled, in the same way as {@link #cancelBuild()}. Does nothing when the given command is not running.
+     *
+     * <p>When the command does not finish in a timely manner and other commands are running, the command is abandoned: the blocked call to {@link #runCommand}
+     * fails with {@link DaemonStoppedException}, and the daemon stops once the other commands have finished.</p>
+     *
+     * @param commandDisplayName The display name that the command was started with.
+     */
+    void cancelBuild(String commandDisplayName);
+
     /**
      * Returns a cancellation token used to communicate cancel requests to commands processed in this daemon.
      *
-     * @return Created cancellation token associated with currently running command or an arbitrary instance if no command is running.
+     * @return Created cancellation token associated with the command running on the calling thread, or with the most recently started command, or an arbitrary instance if no command is running.
      */
     BuildCancellationToken getCancellationToken();
 
     /**
-     * Runs the given long running command. No more than 1 command may be running at any given time.
+     * Runs the given long running command. No other command may be running at the same time.
      *
      * @param command The command to run
      * @param commandDisplayName The command's display name, used for logging and error messages.
@@ -62,4 +82,18 @@ public interface DaemonStateControl {
      * The caller should note that the command may still be running at the time the method returns but should consider the command as abandoned.
      */
     void runCommand(Runnable command, String commandDisplayName) throws DaemonUnavailableException, DaemonStoppedException;
+
+    /**
+     * Runs the given long running command. When the daemon accepts concurrent commands, the command may run at the same time as other commands
+     * that were started with an equal environment, up to the limit of the daemon.
+     *
+     * @param command The command to run
+     * @param commandDisplayName The command's display name, used for logging and error messages. Must be unique amongst the running commands.
+     * @param environment The environment that the command requires, or null when the command cannot run alongside other commands.
+     *
+     * @throws DaemonUnavailableException When this daemon is unable to run the command, either because it is currently executing other commands that
+     * the command cannot run alongside, or is currently stopping.
+     * @throws DaemonStoppedException When this daemon started executing the command but was unable to complete it because the daemon is about to stop.
+     */
+    void runCommand(Runnable command, String commandDisplayName, Object environment) throws DaemonUnavailableException, DaemonStoppedException;
 }
@@ -38,18 +38,19 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
     private final LoggingOutputInternal loggingOutput;
     private final BuildActionExecuter<BuildActionParameters> actionExecuter;
     private final DaemonHealthServices healthServices;
-    private final ProcessEnvironment processEnvironment;
     private final File daemonLog;
     private final ServiceRegistry contextServices;
+    private final EstablishBuildEnvironment establishBuildEnvironment;
+    private final ForwardClientInput forwardClientInput = new ForwardClientInput();
 
     public DefaultDaemonCommandExecuter(BuildActionExecuter<BuildActionParameters> actionExecuter, ServiceRegistry contextServices, ProcessEnvironment processEnvironment,
                                         LoggingManagerInternal loggingOutput, File daemonLog, DaemonHealthServices healthServices) {
-        this.processEnvironment = processEnvironment;
         this.daemonLog = daemonLog;
         this.loggingOutput = loggingOutput;
         this.actionExecuter = actionExecuter;
         this.healthServices = healthServices;
         this.contextServices = contextServices;
+        this.establishBuildEnvironment = new EstablishBuildEnvironment(processEnvironment);
     }
 
     public void executeCommand(DaemonConnection connection, Command command, DaemonContext daemonContext, DaemonStateControl daemonStateControl) {
@@ -70,10 +71,10 @@ public class DefaultDaemonCommandExecuter implements DaemonCommandExecuter {
             new ReturnResult(),
             new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
             healthServices.getGCHintAction(), //TODO SF needs to happen after the result is returned to the client
-            new EstablishBuildEnvironment(processEnvironment),
+            establishBuildEnvironment,
             new LogToClient(loggingOutput, daemonDiagnostics), // from this point down, logging is sent back to the client
             healthServices.getHealthTrackerAction(),
-            new ForwardClientInput(),
+            forwardClientInput,
             new RequestStopIfSingleUsedDaemon(),
             new ResetDeprecationLogger(),
             new WatchForDisconnection(),
@@ -24,6 +24,7 @@ import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -31,50 +32,97 @@ import java.util.Properties;
 
 /**
  * Aims to make the local environment the same as the client's environment.
+ *
+ * <p>A single instance is shared by all commands run by the daemon. When builds run concurrently, they have equal environments, so the environment is
+ * established by the first of these builds and restored once the last of them has completed.</p>
  */
 public class EstablishBuildEnvironment extends BuildCommandOnly {
     private final static Logger LOGGER = Logging.getLogger(EstablishBuildEnvironment.class);
 
     private final ProcessEnvironment processEnvironment;
+    private final Object lock = new Object();
+    private int activeBuilds;
+    private Properties originalSystemProperties;
+    private Map<String, String> originalEnv;
+    private File originalProcessDir;
+    private Locale originalLocale;
 
     public EstablishBuildEnvironment(ProcessEnvironment processEnvironment) {
         this.processEnvironment = processEnvironment;
     }
 
-    protected void doBuild(DaemonCommandExecution execution, Build build) {
-        Properties originalSystemProperties = new Properties();
-        originalSystemProperties.putAll(System.getProperties());
-        Map<String, String> originalEnv = new HashMap<String, String>(System.getenv());
-        File originalProcessDir = GFileUtils.canonicalise(new File("."));
-
+    /**
+     * Returns the parts of the client's environment that this action applies to the daemon process. Builds with equal environments can run concurrently.
+     */
+    public static Object environmentOf(Build build) {
+        Map<String, String> systemProperties = new HashMap<String, String>();
         for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
-            if (SystemProperties.getInstance().getStandardProperties().contains(entry.getKey())) {
-                continue;
+            if (isApplied(entry.getKey())) {
+                systemProperties.put(entry.getKey(), entry.getValue());
             }
-            if (SystemProperties.getInstance().getNonStandardImportantProperties().contains(entry.getKey())) {
-                continue;
-            }
-            if (entry.getKey().startsWith("sun.") || entry.getKey().startsWith("awt.")
-                    || entry.getKey().contains(".awt.")) {
-                continue;
-            }
-            System.setProperty(entry.getKey(), entry.getValue());
         }
+        return Arrays.asList(systemProperties, new HashMap<String, String>(build.getParameters().getEnvVariables()), build.getParameters().getCurrentDir());
+    }
 
-        LOGGER.debug("Configuring env variables: {}", build.getParameters().getEnvVariables());
-        processEnvironment.maybeSetEnvironment(build.getParameters().getEnvVariables());
-        processEnvironment.maybeSetProcessDir(build.getParameters().getCurrentDir());
-
-        // Capture and restore this in case the build code calls Locale.setDefault()
-        Locale locale = Locale.getDefault();
+    private static boolean isApplied(String systemProperty) {
+        if (SystemProperties.getInstance().getStandardProperties().contains(systemProperty)) {
+            return false;
+        }
+        if (SystemProperties.getInstance().getNonStandardImportantProperties().contains(systemProperty)) {
+            return false;
+        }
+        return !(systemProperty.startsWith("sun.") || systemProperty.startsWith("awt.") || systemProperty.contains(".awt."));
+    }
 
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        establish(build);
         try {
             execution.proceed();
         } finally {
+            restore();
+        }
+    }
+
+    private void establish(Build build) {
+        synchronized (lock) {
+            if (activeBuilds++ > 0) {
+                LOGGER.debug("Build environment has already been established by a concurrent build.");
+                return;
+            }
+
+            originalSystemProperties = new Properties();
+            originalSystemProperties.putAll(System.getProperties());
+            originalEnv = new HashMap<String, String>(System.getenv());
+            originalProcessDir = GFileUtils.canonicalise(new File("."));
+
+            for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
+                if (isApplied(entry.getKey())) {
+                    System.setProperty(entry.getKey(), entry.getValue());
+                }
+            }
+
+            LOGGER.debug("Configuring env variables: {}", build.getParameters().getEnvVariables());
+            processEnvironment.maybeSetEnvironment(build.getParameters().getEnvVariables());
+            processEnvironment.maybeSetProcessDir(build.getParameters().getCurrentDir());
+
+            // Capture and restore this in case the build code calls Locale.setDefault()
+            originalLocale = Locale.getDefault();
+        }
+    }
+
+    private void restore() {
+        synchronized (lock) {
+            if (--activeBuilds > 0) {
+                return;
+            }
             System.setProperties(originalSystemProperties);
             processEnvironment.maybeSetEnvironment(originalEnv);
             processEnvironment.maybeSetProcessDir(originalProcessDir);
-            Locale.setDefault(locale);
+            Locale.setDefault(originalLocale);
+            originalSystemProperties = null;
+            originalEnv = null;
+            originalProcessDir = null;
+            originalLocale = null;
         }
     }
 }
@@ -29,14 +29,32 @@ import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Listens for ForwardInput commands during the execution and sends that to a piped input stream that we install.
+ *
+ * <p>A single instance is shared by all commands run by the daemon. When builds run concurrently, only the first of these builds receives the input
+ * of its client, as there is a single stdin for the daemon process.</p>
  */
 public class ForwardClientInput implements DaemonCommandAction {
     private static final Logger LOGGER = Logging.getLogger(ForwardClientInput.class);
+    private final AtomicBoolean stdinInUse = new AtomicBoolean();
 
     public void execute(final DaemonCommandExecution execution) {
+        if (!stdinInUse.compareAndSet(false, true)) {
+            LOGGER.info("The daemon's stdin is in use by a concurrent build, the input of this client will not be forwarded.");
+            execution.proceed();
+            return;
+        }
+        try {
+            forwardInput(execution);
+        } finally {
+            stdinInUse.set(false);
+        }
+    }
+
+    private void forwardInput(final DaemonCommandExecution execution) {
         final PipedOutputStream inputSource = new PipedOutputStream();
         final PipedInputStream replacementStdin;
         try {
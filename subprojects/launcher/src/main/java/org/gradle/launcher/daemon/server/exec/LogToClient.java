@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.server.exec;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.PropagatingThreadLocal;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.protocol.Build;
@@ -26,11 +27,19 @@ import org.gradle.logging.internal.LoggingOutputInternal;
 import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
 
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
 public class LogToClient extends BuildCommandOnly {
 
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
 
+    // The build that the current thread, and the work that it hands to Gradle's executors, produce output for. Used to keep the output of concurrent builds apart.
+    // The owner is not inherited by new threads, as pooled threads outlive the build that created them
+    private static final PropagatingThreadLocal<Object> OUTPUT_OWNER = new PropagatingThreadLocal<Object>();
+    private static final Set<Object> RUNNING_BUILDS = new CopyOnWriteArraySet<Object>();
+
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
 
@@ -46,10 +55,11 @@ public class LogToClient extends BuildCommandOnly {
         }
 
         final LogLevel buildLogLevel = build.getParameters().getLogLevel();
+        final Object owner = new Object();
         OutputEventListener listener = new OutputEventListener() {
             public void onOutput(OutputEvent event) {
                 try {
-                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0) {
+                    if (event.getLogLevel() != null && event.getLogLevel().compareTo(buildLogLevel) >= 0 && isOutputOf(owner)) {
                         execution.getConnection().logEvent(event);
                     }
                 } catch (Exception e) {
@@ -60,13 +70,23 @@ public class LogToClient extends BuildCommandOnly {
         };
 
         LOGGER.debug(DaemonMessages.ABOUT_TO_START_RELAYING_LOGS);
+        RUNNING_BUILDS.add(owner);
+        OUTPUT_OWNER.set(owner);
         loggingOutput.addOutputEventListener(listener);
         try {
             LOGGER.info("{}{}). The daemon log file: {}", DaemonMessages.STARTED_RELAYING_LOGS, diagnostics.getPid(), diagnostics.getDaemonLog());
             execution.proceed();
         } finally {
             loggingOutput.removeOutputEventListener(listener);
+            OUTPUT_OWNER.remove();
+            RUNNING_BUILDS.remove(owner);
         }
     }
+
+    private static boolean isOutputOf(Object build) {
+        Object owner = OUTPUT_OWNER.get();
+        // Output from threads that do not belong to another running build, such as the daemon's own threads, is sent to every client
+        return owner == null || owner == build || !RUNNING_BUILDS.contains(owner);
+    }
 }
 
@@ -51,7 +51,7 @@ public class StartBuildOrRespondWithBusy extends BuildCommandOnly {
                 }
             };
 
-            stateCoordinator.runCommand(command, execution.toString());
+            stateCoordinator.runCommand(command, execution.toString(), EstablishBuildEnvironment.environmentOf(build));
         } catch (DaemonUnavailableException e) {
             LOGGER.info("Daemon will not handle the command {} because is unavailable: {}", build, e.getMessage());
             execution.getConnection().daemonUnavailable(new DaemonUnavailable(e.getMessage()));
@@ -28,8 +28,8 @@ public class WatchForDisconnection implements DaemonCommandAction {
         // Watch for the client disconnecting before we call stop()
         execution.getConnection().onDisconnect(new Runnable() {
             public void run() {
-                LOGGER.warn("client disconnection detected, stopping the daemon");
-                execution.getDaemonStateControl().requestForcefulStop();
+                LOGGER.warn("client disconnection detected, stopping the build");
+                execution.getDaemonStateControl().requestForcefulStop(execution.toString());
             }
         });
 
@@ -16,10 +16,16 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.api.internal.cache.ReleasableCache;
+import org.gradle.api.internal.cache.ReleasableCacheRegistry;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+import org.gradle.launcher.daemon.server.api.DaemonStateControl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class DaemonHealthTracker implements DaemonCommandAction {
 
@@ -28,14 +34,22 @@ class DaemonHealthTracker implements DaemonCommandAction {
     private final DaemonStats stats;
     private final DaemonStatus status;
     private final HealthLogger logger;
+    private final ReleasableCacheRegistry caches;
+    private final Executor executor;
+    private final AtomicBoolean checkPending = new AtomicBoolean();
 
-    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger) {
+    /**
+     * @param executor Runs the health check after each build, so that the client does not wait for it.
+     */
+    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger, ReleasableCacheRegistry caches, Executor executor) {
         this.stats = stats;
         this.status = status;
         this.logger = logger;
+        this.caches = caches;
+        this.executor = executor;
     }
 
-    public void execute(DaemonCommandExecution execution) {
+    public void execute(final DaemonCommandExecution execution) {
         if (execution.isSingleUseDaemon()) {
             execution.proceed();
             return;
@@ -49,8 +63,48 @@ class DaemonHealthTracker implements DaemonCommandAction {
             stats.buildFinished();
         }
 
-        if(status.isDaemonTired(stats)) {
-            execution.getDaemonStateControl().requestStop();
+        // A check that has not started yet covers this build as well
+        if (checkPending.compareAndSet(false, true)) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    checkPending.set(false);
+                    checkHealth(execution.getDaemonStateControl());
+                }
+            });
+        }
+    }
+
+    private void checkHealth(DaemonStateControl daemonStateControl) {
+        boolean cachesLeft = releaseCacheUnderMemoryPressure();
+
+        if (status.isDaemonTired(stats)) {
+            LOG.info("The daemon performance has degraded, the daemon will stop.");
+            daemonStateControl.requestStop();
+        } else if (!cachesLeft && status.isMemoryExhausted(stats)) {
+            LOG.info("The daemon is running out of memory, with {}% of the tenured space in use after releasing all caches. The daemon will stop.", stats.getTenuredUsedAfterCollection());
+            daemonStateControl.requestStop();
+        }
+    }
+
+    /**
+     * Releases the least recently used in-memory cache when the daemon is under memory pressure. Releases at most one cache, and collects at most once,
+     * per check. When the daemon is still under pressure, the next check releases the next cache.
+     *
+     * @return true when a cache was released, false when there was nothing left to release or no need to release anything.
+     */
+    private boolean releaseCacheUnderMemoryPressure() {
+        if (!status.isUnderMemoryPressure(stats)) {
+            return false;
+        }
+        int tenuredUsed = stats.getTenuredUsedAfterCollection();
+        ReleasableCache released = caches.releaseLeastRecentlyUsed();
+        if (released == null) {
+            LOG.info("The daemon is under memory pressure, with {}% of the tenured space in use, but there are no caches left to release.", tenuredUsed);
+            return false;
         }
+        LOG.info("The daemon is under memory pressure, with {}% of the tenured space in use. Released the {}.", tenuredUsed, released.getDisplayName());
+        // Collect, so that the memory retained after collection reflects the released cache
+        System.gc();
+        return true;
     }
 }
@@ -89,6 +89,13 @@ class DaemonStats {
         }
     }
 
+    /**
+     * 0-100, the percentage of the tenured heap space retained after the most recent collection, or -1 when not known. See {@link MemoryInfo#getTenuredUsedAfterCollection()}
+     */
+    int getTenuredUsedAfterCollection() {
+        return memory.getTenuredUsedAfterCollection();
+    }
+
     /**
      * 0-100, the percentage of memory used of total memory available to the process
      */
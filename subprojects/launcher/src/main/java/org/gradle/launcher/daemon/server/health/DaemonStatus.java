@@ -24,25 +24,52 @@ class DaemonStatus {
 
     public static final String EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.expire-at";
     static final int DEFAULT_EXPIRE_AT = 0;
+    public static final String RELEASE_CACHES_AT_PROPERTY = "org.gradle.daemon.performance.release-caches-at";
+    static final int DEFAULT_RELEASE_CACHES_AT = 80;
+    public static final String TENURED_EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.tenured-expire-at";
+    static final int DEFAULT_TENURED_EXPIRE_AT = 95;
 
     boolean isDaemonTired(DaemonStats stats) {
-        String expireAt = System.getProperty(EXPIRE_AT_PROPERTY);
-        int threshold = parseValue(expireAt, DEFAULT_EXPIRE_AT);
+        int threshold = parseValue(EXPIRE_AT_PROPERTY, DEFAULT_EXPIRE_AT);
         return threshold != 0 //zero means the feature is off
                 && stats.getMemoryUsed() > 85 //the daemon is not tired if the memory is not sufficiently exhausted
                 && stats.getCurrentPerformance() <= threshold; //performance below threshold
     }
 
-    private static int parseValue(String expireAt, int defaultValue) {
-        if (expireAt == null) {
+    /**
+     * The daemon is under memory pressure when the tenured space retained after collection reaches the threshold. The in-memory caches should be released.
+     */
+    boolean isUnderMemoryPressure(DaemonStats stats) {
+        return isTenuredUsedAtLeast(stats, parseValue(RELEASE_CACHES_AT_PROPERTY, DEFAULT_RELEASE_CACHES_AT));
+    }
+
+    /**
+     * The daemon's memory is exhausted when the tenured space retained after collection reaches the threshold, even though there is nothing left to release.
+     */
+    boolean isMemoryExhausted(DaemonStats stats) {
+        return isTenuredUsedAtLeast(stats, parseValue(TENURED_EXPIRE_AT_PROPERTY, DEFAULT_TENURED_EXPIRE_AT));
+    }
+
+    private static boolean isTenuredUsedAtLeast(DaemonStats stats, int threshold) {
+        if (threshold == 0) {
+            //zero means the feature is off
+            return false;
+        }
+        int tenuredUsed = stats.getTenuredUsedAfterCollection();
+        return tenuredUsed >= 0 && tenuredUsed >= threshold;
+    }
+
+    private static int parseValue(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
             return defaultValue;
         }
         try {
-            return Integer.parseInt(expireAt);
+            return Integer.parseInt(value);
         } catch (Exception e) {
             throw new GradleException(format(
                     "System property '%s' has incorrect value: '%s'. The value needs to be integer.",
-                    EXPIRE_AT_PROPERTY, expireAt));
+                    property, value));
         }
     }
 }
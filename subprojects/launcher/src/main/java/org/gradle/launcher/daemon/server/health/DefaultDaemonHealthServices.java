@@ -16,6 +16,8 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.api.internal.cache.ReleasableCacheRegistry;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 
 public class DefaultDaemonHealthServices implements DaemonHealthServices {
@@ -24,7 +26,11 @@ public class DefaultDaemonHealthServices implements DaemonHealthServices {
     private final DaemonStats stats = new DaemonStats();
     private final DaemonStatus status = new DaemonStatus();
     private final HealthLogger logger = new HealthLogger();
-    private final DaemonHealthTracker tracker = new DaemonHealthTracker(stats, status, logger);
+    private final DaemonHealthTracker tracker;
+
+    public DefaultDaemonHealthServices(ReleasableCacheRegistry releasableCacheRegistry, ExecutorFactory executorFactory) {
+        tracker = new DaemonHealthTracker(stats, status, logger, releasableCacheRegistry, executorFactory.create("Daemon health check"));
+    }
 
     /**
      * {@inheritDoc}
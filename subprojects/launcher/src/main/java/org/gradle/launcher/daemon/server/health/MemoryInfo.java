@@ -16,8 +16,13 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import org.gradle.internal.util.NumberUtil;
+
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 
 class MemoryInfo {
 
@@ -58,4 +63,29 @@ class MemoryInfo {
         //querying runtime for each invocation
         return Runtime.getRuntime().totalMemory();
     }
+
+    /**
+     * 0-100, the percentage of the tenured (old generation) heap space that was in use after the most recent collection of that space,
+     * or -1 when this is not known, for example when no such collection has happened yet.
+     * Unlike the used or committed memory, this does not include garbage, so it measures the memory that is actually retained.
+     */
+    int getTenuredUsedAfterCollection() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !isTenured(pool.getName())) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage == null || usage.getUsed() == 0) {
+                continue;
+            }
+            long max = usage.getMax() > 0 ? usage.getMax() : totalMemory;
+            return NumberUtil.percentOf(usage.getUsed(), max);
+        }
+        return -1;
+    }
+
+    private static boolean isTenured(String poolName) {
+        // The names of the pools of the HotSpot collectors: "Tenured Gen", "PS Old Gen", "CMS Old Gen", "G1 Old Gen"
+        return poolName.contains("Old Gen") || poolName.contains("Tenured");
+    }
 }
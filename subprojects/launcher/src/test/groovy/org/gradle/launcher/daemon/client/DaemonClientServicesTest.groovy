@@ -16,11 +16,13 @@
 package org.gradle.launcher.daemon.client
 
 import org.gradle.initialization.BuildLayoutParameters
+import org.gradle.internal.os.OperatingSystem
 import org.gradle.internal.service.ServiceRegistryBuilder
 import org.gradle.internal.service.scopes.GlobalScopeServices
 import org.gradle.launcher.daemon.configuration.DaemonParameters
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.registry.DaemonRegistry
+import org.gradle.launcher.daemon.registry.MappedDaemonRegistry
 import org.gradle.launcher.daemon.registry.PersistentDaemonRegistry
 import org.gradle.logging.LoggingServiceRegistry
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -42,8 +44,11 @@ class DaemonClientServicesTest extends Specification {
     final services = new DaemonClientServices(parentServices, parameters, System.in)
 
     def "makes a DaemonRegistry available"() {
-        expect:
-        services.get(DaemonRegistry.class) instanceof PersistentDaemonRegistry
+        when:
+        def registry = services.get(DaemonRegistry.class)
+
+        then:
+        OperatingSystem.current().windows ? registry instanceof PersistentDaemonRegistry : registry instanceof MappedDaemonRegistry
     }
 
     def "makes a DaemonConnector available"() {
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.registry
+
+import org.gradle.internal.nativeintegration.ProcessEnvironment
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.context.DaemonContextBuilder
+import org.gradle.messaging.remote.Address
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+@Requires(TestPrecondition.NOT_WINDOWS)
+class MappedDaemonRegistryTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    int addressCounter = 0
+    def file = tmp.file("registry.slots")
+    def registry = new MappedDaemonRegistry(file)
+
+    def "empty registry has no daemons"() {
+        expect:
+        registry.all.empty
+        registry.idle.empty
+        registry.busy.empty
+    }
+
+    def "stores and queries daemons"() {
+        def idle = address()
+        def busy = address()
+        def context = daemonContext()
+
+        when:
+        registry.store(idle, context, "password", true)
+        registry.store(busy, context, "other", false)
+
+        then:
+        registry.all*.address == [idle, busy]
+        registry.idle*.address == [idle]
+        registry.busy*.address == [busy]
+        registry.all[0].password == "password"
+        registry.all[0].context.uid == context.uid
+    }
+
+    def "updates busy and idle state of daemon"() {
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        registry.markBusy(address)
+
+        then:
+        registry.idle.empty
+        registry.busy*.address == [address]
+
+        when:
+        registry.markIdle(address)
+
+        then:
+        registry.idle*.address == [address]
+        registry.busy.empty
+    }
+
+    def "storing an address again replaces its entry"() {
+        def address = address()
+
+        when:
+        registry.store(address, daemonContext(), "password", true)
+        registry.store(address, daemonContext(), "changed", false)
+
+        then:
+        registry.all.size() == 1
+        registry.all[0].password == "changed"
+        !registry.all[0].idle
+    }
+
+    def "reuses slot of removed daemon"() {
+        def first = address()
+        def second = address()
+        def third = address()
+        registry.store(first, daemonContext(), "password", true)
+        registry.store(second, daemonContext(), "password", true)
+
+        when:
+        registry.remove(first)
+        registry.store(third, daemonContext(), "password", true)
+
+        then:
+        registry.all*.address == [third, second]
+    }
+
+    def "safely removes from registry"() {
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        registry.remove(address)
+
+        then:
+        registry.all.empty
+
+        and: //it is safe to remove it again
+        registry.remove(address)
+    }
+
+    def "mark busy and idle ignore entry that has been removed"() {
+        def address = address()
+
+        when:
+        registry.markBusy(address)
+        registry.markIdle(address)
+
+        then:
+        registry.all.empty
+    }
+
+    def "sees changes made by another registry instance"() {
+        def other = new MappedDaemonRegistry(file)
+        def address = address()
+
+        when:
+        registry.store(address, daemonContext(), "password", true)
+
+        then:
+        other.idle*.address == [address]
+
+        when:
+        registry.markBusy(address)
+
+        then:
+        other.busy*.address == [address]
+
+        when:
+        other.remove(address)
+
+        then:
+        registry.all.empty
+    }
+
+    def "ignores daemon when registry is full"() {
+        def context = daemonContext()
+
+        when:
+        (MappedDaemonRegistry.SLOT_COUNT + 1).times {
+            registry.store(address(), context, "password", true)
+        }
+
+        then:
+        registry.all.size() == MappedDaemonRegistry.SLOT_COUNT
+    }
+
+    def "ignores corrupt entry"() {
+        registry.store(address(), daemonContext(), "password", true)
+
+        when:
+        corruptPayloadOfFirstSlot()
+
+        then:
+        registry.all.empty
+    }
+
+    def "frees entry that was abandoned part way through an update"() {
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        markFirstSlotAsBeingWritten()
+
+        then:
+        registry.all.empty
+
+        when:
+        registry.store(address, daemonContext(), "password", true)
+
+        then:
+        registry.all*.address == [address]
+    }
+
+    def "closes registry file when stopped and reopens it when used again"() {
+        def address = address()
+        registry.store(address, daemonContext(), "password", true)
+
+        when:
+        registry.stop()
+
+        then:
+        registry.@file == null
+
+        and:
+        registry.all*.address == [address]
+        registry.@file != null
+
+        cleanup:
+        registry.stop()
+    }
+
+    private void corruptPayloadOfFirstSlot() {
+        withFirstSlot { ByteBuffer slot -> slot.put(30, (byte) (slot.get(30) ^ 0xff)) }
+    }
+
+    private void markFirstSlotAsBeingWritten() {
+        withFirstSlot { ByteBuffer slot -> slot.putLong(0, slot.getLong(0) + 1) }
+    }
+
+    private void withFirstSlot(Closure action) {
+        def raf = new RandomAccessFile(file, "rw")
+        try {
+            action(raf.channel.map(FileChannel.MapMode.READ_WRITE, 64, MappedDaemonRegistry.SLOT_SIZE))
+        } finally {
+            raf.close()
+        }
+    }
+
+    DaemonContext daemonContext() {
+        new DaemonContextBuilder([maybeGetPid: {null}] as ProcessEnvironment).with {
+            daemonRegistryDir = tmp.createDir("daemons")
+            create()
+        }
+    }
+
+    Address address(int i = addressCounter++) {
+        new TestAddress(i.toString())
+    }
+
+    private static class TestAddress implements Address {
+        final String displayName
+
+        TestAddress(String displayName) {
+            this.displayName = displayName
+        }
+
+        boolean equals(o) {
+            o instanceof TestAddress && displayName == o.displayName
+        }
+
+        int hashCode() {
+            displayName.hashCode()
+        }
+    }
+}
@@ -18,7 +18,9 @@ package org.gradle.launcher.daemon.server
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import spock.lang.Unroll
 
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 
 class DaemonStateCoordinatorTest extends ConcurrentSpec {
@@ -593,4 +595,201 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         2 * onFinishCommand.run()
         0 * _._
     }
+
+    def "runs commands with equal environments concurrently up to the limit"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, 2000)
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                coordinator.runCommand(command1, "command1", "env")
+            }
+            thread.blockUntil.running
+            coordinator.runCommand(command2, "command2", "env")
+            instant.finished
+        }
+
+        then:
+        !coordinator.stopped
+        coordinator.idle
+
+        and:
+        1 * command1.run() >> {
+            instant.running
+            thread.blockUntil.finished
+        }
+        1 * command2.run() >> {
+            assert coordinator.busy
+        }
+        1 * onStartCommand.run()
+        1 * onFinishCommand.run()
+        0 * _._
+    }
+
+    @Unroll
+    def "cannot run command alongside another command when #description"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, 2000)
+        Runnable command = Mock()
+
+        given:
+        command.run() >> { coordinator.runCommand(Mock(Runnable), otherName, otherEnvironment) }
+
+        when:
+        coordinator.runCommand(command, "command", "env")
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == 'This daemon is currently executing: command'
+
+        where:
+        description                    | otherName | otherEnvironment
+        "environments are different"   | "other"   | "other env"
+        "command requires exclusivity" | "other"   | null
+        "display names are the same"   | "command" | "env"
+    }
+
+    def "cannot run more commands than the limit"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, 2000)
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        given:
+        command1.run() >> { coordinator.runCommand(command2, "command2", "env") }
+        command2.run() >> { coordinator.runCommand(Mock(Runnable), "command3", "env") }
+
+        when:
+        coordinator.runCommand(command1, "command1", "env")
+
+        then:
+        DaemonUnavailableException e = thrown()
+        e.message == 'This daemon is currently executing: command1'
+    }
+
+    def "cancelBuild for a command does not affect other running commands"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, 2000)
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                coordinator.runCommand(command1, "command1", "env")
+            }
+            thread.blockUntil.running1
+            start {
+                coordinator.runCommand(command2, "command2", "env")
+            }
+            thread.blockUntil.running2
+            coordinator.cancelBuild("command2")
+            instant.cancelled
+        }
+
+        then:
+        !coordinator.stopped
+        coordinator.idle
+
+        and:
+        1 * command1.run() >> {
+            instant.running1
+            thread.blockUntil.cancelled
+            assert !coordinator.cancellationToken.cancellationRequested
+        }
+        1 * command2.run() >> {
+            def cancelled = new CountDownLatch(1)
+            coordinator.cancellationToken.addCallback { cancelled.countDown() }
+            instant.running2
+            cancelled.await()
+        }
+        1 * onStartCommand.run()
+        1 * onFinishCommand.run()
+        0 * _._
+    }
+
+    def "requestForcefulStop for a command cancels only that command when commands run concurrently"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, 2000)
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                coordinator.runCommand(command1, "command1", "env")
+            }
+            thread.blockUntil.running1
+            start {
+                coordinator.runCommand(command2, "command2", "env")
+            }
+            thread.blockUntil.running2
+            coordinator.requestForcefulStop("command2")
+            instant.stopped
+        }
+
+        then:
+        !coordinator.stopped
+        !coordinator.willRefuseNewCommands
+        coordinator.idle
+
+        and:
+        1 * command1.run() >> {
+            instant.running1
+            thread.blockUntil.stopped
+            assert !coordinator.cancellationToken.cancellationRequested
+        }
+        1 * command2.run() >> {
+            def cancelled = new CountDownLatch(1)
+            coordinator.cancellationToken.addCallback { cancelled.countDown() }
+            instant.running2
+            cancelled.await()
+        }
+        1 * onStartCommand.run()
+        1 * onFinishCommand.run()
+        0 * _._
+    }
+
+    def "cancelBuild abandons command that does not complete in short time and stops daemon once other commands have finished"() {
+        def coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, 2, 100)
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                coordinator.runCommand(command1, "command1", "env")
+                instant.finished1
+            }
+            thread.blockUntil.running1
+            start {
+                try {
+                    coordinator.runCommand(command2, "command2", "env")
+                } catch (DaemonStoppedException e) {
+                    instant.abandoned
+                }
+            }
+            thread.blockUntil.running2
+            coordinator.cancelBuild("command2")
+            instant.cancelled
+        }
+
+        then:
+        instant.abandoned > instant.running2
+        coordinator.stopped
+
+        and:
+        1 * command1.run() >> {
+            instant.running1
+            thread.blockUntil.cancelled
+            assert !coordinator.stopped
+            assert coordinator.willRefuseNewCommands
+            assert !coordinator.cancellationToken.cancellationRequested
+        }
+        1 * command2.run() >> {
+            instant.running2
+            thread.blockUntil.finished1
+        }
+        1 * onStartCommand.run()
+        0 * onFinishCommand.run()
+        0 * _._
+    }
 }
@@ -16,10 +16,14 @@
 
 package org.gradle.launcher.daemon.server.health
 
+import org.gradle.api.internal.cache.ReleasableCache
+import org.gradle.api.internal.cache.ReleasableCacheRegistry
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution
 import org.gradle.launcher.daemon.server.api.DaemonStateControl
 import spock.lang.Specification
 
+import java.util.concurrent.Executor
+
 class DaemonHealthTrackerTest extends Specification {
 
     def control = Mock(DaemonStateControl)
@@ -29,7 +33,13 @@ class DaemonHealthTrackerTest extends Specification {
     def stats = Mock(DaemonStats)
     def status = Mock(DaemonStatus)
     def logger = Mock(HealthLogger)
-    def tracker = new DaemonHealthTracker(stats, status, logger)
+    def caches = Mock(ReleasableCacheRegistry)
+    def executor = Mock(Executor)
+    def tracker = new DaemonHealthTracker(stats, status, logger, caches, executor)
+
+    def setup() {
+        _ * executor.execute(_) >> { Runnable action -> action.run() }
+    }
 
     def "tracks start and complete events"() {
         when: tracker.execute(exec)
@@ -66,4 +76,64 @@ class DaemonHealthTrackerTest extends Specification {
         then:
         0 * control.requestStop()
     }
+
+    def "checks health after the build without blocking the build"() {
+        when: tracker.execute(exec)
+
+        then: 1 * exec.proceed()
+        then: 1 * stats.buildFinished()
+        then: 1 * executor.execute(_)
+        0 * status._
+        0 * caches._
+    }
+
+    def "releases one cache per build under memory pressure"() {
+        def cache1 = Stub(ReleasableCache)
+        def cache2 = Stub(ReleasableCache)
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * status.isUnderMemoryPressure(stats) >> true
+        1 * caches.releaseLeastRecentlyUsed() >> cache1
+        0 * status.isMemoryExhausted(stats)
+        0 * control.requestStop()
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * status.isUnderMemoryPressure(stats) >> true
+        1 * caches.releaseLeastRecentlyUsed() >> cache2
+        0 * status.isMemoryExhausted(stats)
+        0 * control.requestStop()
+    }
+
+    def "stops after the build when memory is exhausted after releasing caches"() {
+        when: tracker.execute(exec)
+
+        then:
+        1 * status.isUnderMemoryPressure(stats) >> true
+        1 * caches.releaseLeastRecentlyUsed() >> null
+        1 * status.isMemoryExhausted(stats) >> true
+        1 * control.requestStop()
+    }
+
+    def "does not stop when memory is exhausted and caches are left to release"() {
+        when: tracker.execute(exec)
+
+        then:
+        1 * status.isUnderMemoryPressure(stats) >> true
+        1 * caches.releaseLeastRecentlyUsed() >> Stub(ReleasableCache)
+        0 * status.isMemoryExhausted(stats)
+        0 * control.requestStop()
+    }
+
+    def "does not release caches when there is no memory pressure"() {
+        when: tracker.execute(exec)
+
+        then:
+        1 * status.isUnderMemoryPressure(stats) >> false
+        0 * caches._
+        0 * control.requestStop()
+    }
 }
@@ -24,6 +24,8 @@ import spock.lang.Subject
 import spock.lang.Unroll
 
 import static org.gradle.launcher.daemon.server.health.DaemonStatus.EXPIRE_AT_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.RELEASE_CACHES_AT_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.TENURED_EXPIRE_AT_PROPERTY
 
 class DaemonStatusTest extends Specification {
 
@@ -73,4 +75,45 @@ class DaemonStatusTest extends Specification {
         then:
         !status.isDaemonTired(stats)
     }
+
+    @Unroll
+    def "knows when daemon is under memory pressure"() {
+        when:
+        if (threshold != null) {
+            System.setProperty(RELEASE_CACHES_AT_PROPERTY, threshold.toString())
+        }
+        stats.getTenuredUsedAfterCollection() >> tenured
+
+        then:
+        status.isUnderMemoryPressure(stats) == pressure
+
+        where:
+        threshold | tenured | pressure
+        null      | 80      | true
+        null      | 79      | false
+        null      | -1      | false
+        60        | 60      | true
+        60        | 59      | false
+        0         | 100     | false
+    }
+
+    @Unroll
+    def "knows when daemon memory is exhausted"() {
+        when:
+        if (threshold != null) {
+            System.setProperty(TENURED_EXPIRE_AT_PROPERTY, threshold.toString())
+        }
+        stats.getTenuredUsedAfterCollection() >> tenured
+
+        then:
+        status.isMemoryExhausted(stats) == exhausted
+
+        where:
+        threshold | tenured | exhausted
+        null      | 95      | true
+        null      | 94      | false
+        null      | -1      | false
+        90        | 90      | true
+        0         | 100     | false
+    }
 }
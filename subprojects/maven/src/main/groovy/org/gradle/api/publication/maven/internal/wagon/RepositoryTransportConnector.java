@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publication.maven.internal.wagon;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.internal.resource.local.ByteArrayLocalResource;
+import org.gradle.internal.resource.local.FileLocalResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonatype.aether.repository.RemoteRepository;
+import org.sonatype.aether.spi.connector.ArtifactDownload;
+import org.sonatype.aether.spi.connector.ArtifactUpload;
+import org.sonatype.aether.spi.connector.MetadataDownload;
+import org.sonatype.aether.spi.connector.MetadataUpload;
+import org.sonatype.aether.spi.connector.RepositoryConnector;
+import org.sonatype.aether.transfer.ArtifactNotFoundException;
+import org.sonatype.aether.transfer.ArtifactTransferException;
+import org.sonatype.aether.transfer.MetadataNotFoundException;
+import org.sonatype.aether.transfer.MetadataTransferException;
+import org.sonatype.aether.util.layout.MavenDefaultLayout;
+import org.sonatype.aether.util.layout.RepositoryLayout;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * A repository connector that transfers files using the Gradle transport for the repository.
+ *
+ * <p>Artifacts are uploaded concurrently, using the build operation processor, so the number of parallel uploads is bounded by the
+ * maximum number of workers. The SHA1 and MD5 checksums of each file are calculated in a single read of the file. An artifact whose
+ * remote SHA1 checksum already matches the local file is not uploaded again, so that a publication that failed part way through can be
+ * resumed. This is not done for snapshots, as their files are given a new name each time they are published.</p>
+ *
+ * <p>Metadata is uploaded sequentially, after the artifacts, as the deployer requires.</p>
+ */
+class RepositoryTransportConnector implements RepositoryConnector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RepositoryTransportConnector.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RepositoryLayout layout = new MavenDefaultLayout();
+    private final RemoteRepository repository;
+    private final RepositoryTransportWagonAdapter adapter;
+    private final BuildOperationProcessor buildOperationProcessor;
+
+    RepositoryTransportConnector(RemoteRepository repository, RepositoryTransportWagonAdapter adapter, BuildOperationProcessor buildOperationProcessor) {
+        this.repository = repository;
+        this.adapter = adapter;
+        this.buildOperationProcessor = buildOperationProcessor;
+    }
+
+    public void get(@Nullable Collection<? extends ArtifactDownload> artifactDownloads, @Nullable Collection<? extends MetadataDownload> metadataDownloads) {
+        if (artifactDownloads != null) {
+            for (ArtifactDownload download : artifactDownloads) {
+                try {
+                    if (!download(layout.getPath(download.getArtifact()).toString(), download.getFile())) {
+                        download.setException(new ArtifactNotFoundException(download.getArtifact(), repository));
+                    }
+                } catch (Exception e) {
+                    download.setException(new ArtifactTransferException(download.getArtifact(), repository, e));
+                }
+            }
+        }
+        if (metadataDownloads != null) {
+            for (MetadataDownload download : metadataDownloads) {
+                try {
+                    if (!download(layout.getPath(download.getMetadata()).toString(), download.getFile())) {
+                        download.setException(new MetadataNotFoundException(download.getMetadata(), repository));
+                    }
+                } catch (Exception e) {
+                    download.setException(new MetadataTransferException(download.getMetadata(), repository, e));
+                }
+            }
+        }
+    }
+
+    public void put(@Nullable Collection<? extends ArtifactUpload> artifactUploads, @Nullable Collection<? extends MetadataUpload> metadataUploads) {
+        if (artifactUploads != null && !artifactUploads.isEmpty()) {
+            BuildOperationQueue<ArtifactUploadOperation> queue = buildOperationProcessor.newQueue(new ArtifactUploadWorker(), null);
+            for (ArtifactUpload upload : artifactUploads) {
+                queue.add(new ArtifactUploadOperation(upload));
+            }
+            // Each operation records its failure on the upload, which is where the deployer looks for it
+            queue.waitForCompletion();
+        }
+        if (metadataUploads != null) {
+            for (MetadataUpload upload : metadataUploads) {
+                try {
+                    upload(layout.getPath(upload.getMetadata()).toString(), upload.getFile(), false);
+                } catch (Exception e) {
+                    upload.setException(new MetadataTransferException(upload.getMetadata(), repository, e));
+                }
+            }
+        }
+    }
+
+    public void close() {
+    }
+
+    private boolean download(String resourceName, File destination) throws Exception {
+        LOGGER.info("Downloading: {} from repository {} at {}", resourceName, repository.getId(), repository.getUrl());
+        File parentDir = destination.getParentFile();
+        if (parentDir != null && !parentDir.isDirectory() && !parentDir.mkdirs()) {
+            throw new IOException(String.format("Could not create directory '%s'.", parentDir));
+        }
+        return adapter.getRemoteFile(destination, resourceName);
+    }
+
+    private void upload(String resourceName, File file, boolean resumable) throws IOException {
+        Checksums checksums = Checksums.of(file);
+        if (resumable && checksums.sha1.equals(getRemoteSha1(resourceName))) {
+            LOGGER.info("Skipping upload of {} to repository {} at {}, as it is already up-to-date", resourceName, repository.getId(), repository.getUrl());
+            return;
+        }
+        LOGGER.info("Uploading: {} to repository {} at {}", resourceName, repository.getId(), repository.getUrl());
+        adapter.putRemoteFile(new FileLocalResource(file), resourceName);
+        // Checksums are uploaded after the file, so a matching remote checksum means the file itself is complete
+        adapter.putRemoteFile(new ByteArrayLocalResource(checksums.md5.getBytes("US-ASCII")), resourceName + ".md5");
+        adapter.putRemoteFile(new ByteArrayLocalResource(checksums.sha1.getBytes("US-ASCII")), resourceName + ".sha1");
+    }
+
+    @Nullable
+    private String getRemoteSha1(String resourceName) {
+        String content = adapter.getRemoteText(resourceName + ".sha1");
+        if (content == null) {
+            return null;
+        }
+        try {
+            HashValue hash = HashValue.parse(content);
+            return hash == null ? null : hash.asZeroPaddedHexString(40);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private class ArtifactUploadOperation implements BuildOperation {
+        private final ArtifactUpload upload;
+
+        ArtifactUploadOperation(ArtifactUpload upload) {
+            this.upload = upload;
+        }
+
+        void run() {
+            try {
+                upload(layout.getPath(upload.getArtifact()).toString(), upload.getFile(), !upload.getArtifact().isSnapshot());
+            } catch (Exception e) {
+                upload.setException(new ArtifactTransferException(upload.getArtifact(), repository, e));
+            }
+        }
+
+        public String getDescription() {
+            return "Upload " + upload.getArtifact() + " to " + repository.getUrl();
+        }
+    }
+
+    private static class ArtifactUploadWorker implements BuildOperationWorker<ArtifactUploadOperation> {
+        public String getDisplayName() {
+            return "Maven artifact upload";
+        }
+
+        public void execute(ArtifactUploadOperation operation) {
+            operation.run();
+        }
+    }
+
+    private static class Checksums {
+        final String sha1;
+        final String md5;
+
+        private Checksums(String sha1, String md5) {
+            this.sha1 = sha1;
+            this.md5 = md5;
+        }
+
+        static Checksums of(File file) throws IOException {
+            MessageDigest sha1 = createDigest("SHA1");
+            MessageDigest md5 = createDigest("MD5");
+            InputStream inputStream = new FileInputStream(file);
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int nread;
+                while ((nread = inputStream.read(buffer)) >= 0) {
+                    sha1.update(buffer, 0, nread);
+                    md5.update(buffer, 0, nread);
+                }
+            } finally {
+                inputStream.close();
+            }
+            return new Checksums(new HashValue(sha1.digest()).asZeroPaddedHexString(40), new HashValue(md5.digest()).asZeroPaddedHexString(32));
+        }
+
+        private static MessageDigest createDigest(String algorithm) {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+}
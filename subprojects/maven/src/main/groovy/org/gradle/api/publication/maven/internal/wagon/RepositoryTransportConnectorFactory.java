@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publication.maven.internal.wagon;
+
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.sonatype.aether.RepositorySystemSession;
+import org.sonatype.aether.repository.RemoteRepository;
+import org.sonatype.aether.spi.connector.RepositoryConnector;
+import org.sonatype.aether.spi.connector.RepositoryConnectorFactory;
+import org.sonatype.aether.transfer.NoRepositoryConnectorException;
+
+import java.net.URI;
+
+/**
+ * Provides connectors that transfer artifacts and metadata to the repository being published to, using the Gradle transport
+ * for that repository. Takes precedence over the Wagon based connector.
+ */
+public class RepositoryTransportConnectorFactory implements RepositoryConnectorFactory {
+    private final RepositoryTransportWagonAdapter adapter;
+    private final URI rootUri;
+    private final BuildOperationProcessor buildOperationProcessor;
+
+    public RepositoryTransportConnectorFactory(RepositoryTransportWagonAdapter adapter, URI rootUri, BuildOperationProcessor buildOperationProcessor) {
+        this.adapter = adapter;
+        this.rootUri = rootUri;
+        this.buildOperationProcessor = buildOperationProcessor;
+    }
+
+    public RepositoryConnector newInstance(RepositorySystemSession session, RemoteRepository repository) throws NoRepositoryConnectorException {
+        if (!"default".equals(repository.getContentType()) || !rootUri.toString().equals(repository.getUrl())) {
+            throw new NoRepositoryConnectorException(repository);
+        }
+        return new RepositoryTransportConnector(repository, adapter, buildOperationProcessor);
+    }
+
+    public int getPriority() {
+        return 10;
+    }
+}
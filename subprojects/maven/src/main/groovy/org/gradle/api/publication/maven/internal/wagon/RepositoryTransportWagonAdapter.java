@@ -16,15 +16,18 @@
 
 package org.gradle.api.publication.maven.internal.wagon;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.wagon.ResourceDoesNotExistException;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransport;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.ResourceException;
 import org.gradle.internal.resource.local.LocalResource;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 
 public class RepositoryTransportWagonAdapter {
@@ -50,6 +53,25 @@ public class RepositoryTransportWagonAdapter {
         return true;
     }
 
+    /**
+     * Returns the content of the given remote resource as text, or null when the resource does not exist.
+     */
+    public String getRemoteText(String resourceName) throws ResourceException {
+        ExternalResource resource = transport.getRepository().getResource(getUriForResource(resourceName));
+        if (resource == null) {
+            return null;
+        }
+        try {
+            return resource.withContent(new ExternalResource.ContentAction<String>() {
+                public String execute(InputStream inputStream, ExternalResourceMetaData metaData) throws IOException {
+                    return IOUtils.toString(inputStream, "UTF-8");
+                }
+            });
+        } finally {
+            resource.close();
+        }
+    }
+
     public void putRemoteFile(LocalResource localResource, String resourceName) throws IOException {
         transport.getRepository().withProgressLogging().put(localResource, getUriForResource(resourceName));
     }
@@ -24,11 +24,14 @@ import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransp
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
 import org.gradle.api.publication.maven.internal.action.MavenDeployAction;
 import org.gradle.api.publication.maven.internal.action.MavenPublishAction;
+import org.gradle.api.publication.maven.internal.wagon.RepositoryTransportConnectorFactory;
 import org.gradle.api.publication.maven.internal.wagon.RepositoryTransportDeployWagon;
 import org.gradle.api.publication.maven.internal.wagon.RepositoryTransportWagonAdapter;
 import org.gradle.internal.Factory;
 import org.gradle.internal.artifacts.repositories.AuthenticationSupportedInternal;
+import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.logging.LoggingManagerInternal;
+import org.sonatype.aether.spi.connector.RepositoryConnectorFactory;
 
 import java.io.File;
 import java.net.URI;
@@ -36,15 +39,17 @@ import java.net.URI;
 public class MavenRemotePublisher extends AbstractMavenPublisher {
     private final Factory<File> temporaryDirFactory;
     private final RepositoryTransportFactory repositoryTransportFactory;
+    private final BuildOperationProcessor buildOperationProcessor;
 
-    public MavenRemotePublisher(Factory<LoggingManagerInternal> loggingManagerFactory, LocalMavenRepositoryLocator mavenRepositoryLocator, Factory<File> temporaryDirFactory, RepositoryTransportFactory repositoryTransportFactory) {
+    public MavenRemotePublisher(Factory<LoggingManagerInternal> loggingManagerFactory, LocalMavenRepositoryLocator mavenRepositoryLocator, Factory<File> temporaryDirFactory, RepositoryTransportFactory repositoryTransportFactory, BuildOperationProcessor buildOperationProcessor) {
         super(loggingManagerFactory, mavenRepositoryLocator);
         this.temporaryDirFactory = temporaryDirFactory;
         this.repositoryTransportFactory = repositoryTransportFactory;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     protected MavenPublishAction createDeployTask(File pomFile, LocalMavenRepositoryLocator mavenRepositoryLocator, MavenArtifactRepository artifactRepository) {
-        GradleWagonMavenDeployAction deployTask = new GradleWagonMavenDeployAction(pomFile, artifactRepository, repositoryTransportFactory);
+        GradleWagonMavenDeployAction deployTask = new GradleWagonMavenDeployAction(pomFile, artifactRepository, repositoryTransportFactory, buildOperationProcessor);
         deployTask.setLocalMavenRepositoryLocation(temporaryDirFactory.create());
         deployTask.setRepositories(createMavenRemoteRepository(artifactRepository), null);
         return deployTask;
@@ -57,18 +62,21 @@ public class MavenRemotePublisher extends AbstractMavenPublisher {
     }
 
     /**
-     * A deploy action that uses a Gradle provided wagon implementation.
+     * A deploy action that transfers files using the Gradle transport for the repository. Uses a connector that uploads artifacts
+     * concurrently, and falls back to a Gradle provided wagon implementation for any other repository Maven asks for.
      */
     private static class GradleWagonMavenDeployAction extends MavenDeployAction {
-        private final MavenArtifactRepository artifactRepository;
         private final RepositoryTransportFactory repositoryTransportFactory;
+        private final RepositoryTransportWagonAdapter adapter;
 
-        public GradleWagonMavenDeployAction(File pomFile, MavenArtifactRepository artifactRepository, RepositoryTransportFactory repositoryTransportFactory) {
+        public GradleWagonMavenDeployAction(File pomFile, MavenArtifactRepository artifactRepository, RepositoryTransportFactory repositoryTransportFactory, BuildOperationProcessor buildOperationProcessor) {
             super(pomFile, null);
-            this.artifactRepository = artifactRepository;
             this.repositoryTransportFactory = repositoryTransportFactory;
 
+            String protocol = artifactRepository.getUrl().getScheme().toLowerCase();
+            adapter = createAdapter(protocol, artifactRepository, repositoryTransportFactory);
             registerWagonProtocols();
+            getContainer().addComponent(new RepositoryTransportConnectorFactory(adapter, artifactRepository.getUrl(), buildOperationProcessor), RepositoryConnectorFactory.class, "gradle");
         }
 
         private void registerWagonProtocols() {
@@ -80,8 +88,6 @@ public class MavenRemotePublisher extends AbstractMavenPublisher {
 
         @Override
         public void publish() {
-            String protocol = artifactRepository.getUrl().getScheme().toLowerCase();
-            RepositoryTransportWagonAdapter adapter = createAdapter(protocol, artifactRepository, repositoryTransportFactory);
             RepositoryTransportDeployWagon.contextualize(adapter);
             try {
                 super.publish();
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publication.maven.internal.wagon
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.sonatype.aether.repository.RemoteRepository
+import org.sonatype.aether.spi.connector.ArtifactUpload
+import org.sonatype.aether.util.artifact.DefaultArtifact
+import spock.lang.Specification
+
+class RepositoryTransportConnectorTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final RepositoryTransportWagonAdapter adapter = Mock()
+    final RemoteRepository repository = new RemoteRepository("remote", "default", "http://somewhere/maven")
+    final connector = new RepositoryTransportConnector(repository, adapter, new DefaultBuildOperationProcessor(new DefaultExecutorFactory(), 2))
+
+    def "uploads each artifact followed by its checksums"() {
+        def jar = tmpDir.createFile("module.jar") << "jar content"
+        def pom = tmpDir.createFile("module.pom") << "pom content"
+        def uploads = [upload("group:module:jar:1.0", jar), upload("group:module:pom:1.0", pom)]
+
+        when:
+        connector.put(uploads, null)
+
+        then:
+        1 * adapter.getRemoteText("group/module/1.0/module-1.0.jar.sha1") >> null
+        1 * adapter.getRemoteText("group/module/1.0/module-1.0.pom.sha1") >> null
+        1 * adapter.putRemoteFile({ it.open().text == "jar content" }, "group/module/1.0/module-1.0.jar")
+        1 * adapter.putRemoteFile({ it.open().text == HashUtil.sha1(jar).asZeroPaddedHexString(40) }, "group/module/1.0/module-1.0.jar.sha1")
+        1 * adapter.putRemoteFile({ it.open().text == HashUtil.createHash(jar, "MD5").asZeroPaddedHexString(32) }, "group/module/1.0/module-1.0.jar.md5")
+        1 * adapter.putRemoteFile({ it.open().text == "pom content" }, "group/module/1.0/module-1.0.pom")
+        2 * adapter.putRemoteFile(_, { it.startsWith("group/module/1.0/module-1.0.pom.") })
+        0 * adapter._
+        uploads.every { it.exception == null }
+    }
+
+    def "does not upload artifact whose remote checksum matches"() {
+        def jar = tmpDir.createFile("module.jar") << "jar content"
+
+        when:
+        connector.put([upload("group:module:jar:1.0", jar)], null)
+
+        then:
+        1 * adapter.getRemoteText("group/module/1.0/module-1.0.jar.sha1") >> HashUtil.sha1(jar).asHexString() + "  module-1.0.jar"
+        0 * adapter._
+    }
+
+    def "uploads artifact whose remote checksum does not match"() {
+        def jar = tmpDir.createFile("module.jar") << "jar content"
+
+        when:
+        connector.put([upload("group:module:jar:1.0", jar)], null)
+
+        then:
+        1 * adapter.getRemoteText("group/module/1.0/module-1.0.jar.sha1") >> HashUtil.sha1("other".bytes).asHexString()
+        1 * adapter.putRemoteFile(_, "group/module/1.0/module-1.0.jar")
+        2 * adapter.putRemoteFile(_, _)
+    }
+
+    def "does not check remote checksum of snapshot artifact"() {
+        def jar = tmpDir.createFile("module.jar") << "jar content"
+
+        when:
+        connector.put([upload("group:module:jar:1.0-20160101.120000-1", jar)], null)
+
+        then:
+        0 * adapter.getRemoteText(_)
+        3 * adapter.putRemoteFile(_, _)
+    }
+
+    def "records upload failure on the upload"() {
+        def jar = tmpDir.createFile("module.jar") << "jar content"
+        def failure = new IOException("broken")
+        def upload = upload("group:module:jar:1.0", jar)
+
+        when:
+        connector.put([upload], null)
+
+        then:
+        1 * adapter.putRemoteFile(_, "group/module/1.0/module-1.0.jar") >> { throw failure }
+        upload.exception.cause == failure
+    }
+
+    private static ArtifactUpload upload(String coordinates, File file) {
+        return new ArtifactUpload(new DefaultArtifact(coordinates).setFile(file), file)
+    }
+}
@@ -18,10 +18,14 @@ package org.gradle.api.tasks.bundling
 
 import org.gradle.api.file.CopySpec
 import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.DocumentationRegistry
+import org.gradle.api.internal.file.archive.IncrementalZipCopyAction
+import org.gradle.api.internal.file.copy.CopyAction
 import org.gradle.api.internal.file.copy.DefaultCopySpec
 import org.gradle.api.tasks.InputFile
 import org.gradle.api.tasks.InputFiles
 import org.gradle.api.tasks.Optional
+import org.gradle.internal.operations.BuildOperationProcessor
 import org.gradle.util.ConfigureUtil
 
 /**
@@ -62,6 +66,12 @@ class War extends Jar {
         }
     }
 
+    @Override
+    protected CopyAction createCopyAction() {
+        return new IncrementalZipCopyAction(getArchivePath(), getEntryCompression(), isZip64(), getEncoding(), services.get(DocumentationRegistry),
+            new File(getTemporaryDir(), 'archive-entries.bin'), services.get(BuildOperationProcessor))
+    }
+
     CopySpec getWebInf() {
         return webInf.addChild()
     }
@@ -38,8 +38,15 @@ import java.io.IOException;
 public class HttpClientHelper implements Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 8;
     private CloseableHttpClient client;
-    private final BasicHttpContext httpContext = new BasicHttpContext();
+    // Requests may be made concurrently, for example when publishing, so each thread uses its own context
+    private final ThreadLocal<BasicHttpContext> httpContext = new ThreadLocal<BasicHttpContext>() {
+        @Override
+        protected BasicHttpContext initialValue() {
+            return new BasicHttpContext();
+        }
+    };
     private final HttpSettings settings;
 
     public HttpClientHelper(HttpSettings settings) {
@@ -97,9 +104,10 @@ public class HttpClientHelper implements Closeable {
 
     public HttpResponse performHttpRequest(HttpRequestBase request) throws IOException {
         // Without this, HTTP Client prohibits multiple redirects to the same location within the same context
-        httpContext.removeAttribute(HttpClientContext.REDIRECT_LOCATIONS);
+        BasicHttpContext context = httpContext.get();
+        context.removeAttribute(HttpClientContext.REDIRECT_LOCATIONS);
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
-        return getClient().execute(request, httpContext);
+        return getClient().execute(request, context);
     }
 
     private HttpResponse processResponse(String source, String method, HttpResponse response) {
@@ -120,6 +128,8 @@ public class HttpClientHelper implements Closeable {
         if (client == null) {
             HttpClientBuilder builder = HttpClientBuilder.create();
             builder.setRedirectStrategy(new AlwaysRedirectRedirectStrategy());
+            builder.setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+            builder.setMaxConnTotal(MAX_CONNECTIONS_PER_ROUTE * 2);
             new HttpClientConfigurer(settings).configure(builder);
             this.client = builder.build();
         }
@@ -16,6 +16,7 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.gradle.api.internal.tasks.cache.RemoteTaskOutputCacheFactory;
 import org.gradle.authentication.http.BasicAuthentication;
 import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.internal.authentication.DefaultBasicAuthentication;
@@ -51,6 +52,10 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
         ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
             return new HttpConnectorFactory(sslContextFactory);
         }
+
+        RemoteTaskOutputCacheFactory createHttpTaskOutputCacheFactory(SslContextFactory sslContextFactory) {
+            return new HttpTaskOutputCacheFactory(sslContextFactory);
+        }
     }
 
     private static class AuthenticationSchemeAction {
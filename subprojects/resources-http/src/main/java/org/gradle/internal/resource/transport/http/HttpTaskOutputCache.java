@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentProducer;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.EntityTemplate;
+import org.apache.http.util.EntityUtils;
+import org.gradle.api.internal.tasks.cache.TaskOutputCache;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * A {@link TaskOutputCache} that is backed by an HTTP server. An entry is fetched with a {@code GET} and stored with a {@code PUT} of the URL made up of
+ * the root URL of the cache and the cache key. Entries are streamed in both directions, without being buffered in memory.
+ */
+public class HttpTaskOutputCache implements TaskOutputCache, Closeable {
+    private final URI root;
+    private final HttpClientHelper http;
+    private final RequestConfig requestConfig;
+
+    public HttpTaskOutputCache(URI root, HttpClientHelper http, int timeoutMillis) {
+        this.root = root.getPath().endsWith("/") ? root : URI.create(root + "/");
+        this.http = http;
+        this.requestConfig = RequestConfig.custom().setConnectTimeout(timeoutMillis).setSocketTimeout(timeoutMillis).build();
+    }
+
+    public boolean load(HashValue key, TaskOutputReader reader) throws IOException {
+        HttpGet request = new HttpGet(getEntry(key));
+        HttpResponse response = perform(request);
+        HttpEntity entity = response.getEntity();
+        try {
+            if (http.wasMissing(response)) {
+                return false;
+            }
+            checkSuccessful(request, response);
+            InputStream content = entity.getContent();
+            try {
+                reader.readFrom(content);
+            } finally {
+                content.close();
+            }
+            return true;
+        } finally {
+            EntityUtils.consume(entity);
+        }
+    }
+
+    public void store(HashValue key, final TaskOutputWriter writer) throws IOException {
+        HttpPut request = new HttpPut(getEntry(key));
+        EntityTemplate entity = new EntityTemplate(new ContentProducer() {
+            public void writeTo(OutputStream output) throws IOException {
+                writer.writeTo(output);
+            }
+        });
+        entity.setContentType(ContentType.APPLICATION_OCTET_STREAM.toString());
+        entity.setChunked(true);
+        request.setEntity(entity);
+        HttpResponse response = perform(request);
+        EntityUtils.consume(response.getEntity());
+        checkSuccessful(request, response);
+    }
+
+    private HttpResponse perform(HttpRequestBase request) throws IOException {
+        request.setConfig(requestConfig);
+        return http.performHttpRequest(request);
+    }
+
+    private void checkSuccessful(HttpRequestBase request, HttpResponse response) throws IOException {
+        if (!http.wasSuccessful(response)) {
+            throw new IOException(String.format("Could not %s '%s'. Received status code %s from server: %s",
+                request.getMethod(), request.getURI(), response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase()));
+        }
+    }
+
+    private URI getEntry(HashValue key) {
+        return root.resolve(key.asHexString());
+    }
+
+    public String getDescription() {
+        return "remote task output cache at " + root;
+    }
+
+    public void close() throws IOException {
+        http.close();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.gradle.api.internal.tasks.cache.RemoteTaskOutputCacheFactory;
+import org.gradle.api.internal.tasks.cache.TaskOutputCache;
+import org.gradle.authentication.Authentication;
+
+import java.net.URI;
+import java.util.Collections;
+
+public class HttpTaskOutputCacheFactory implements RemoteTaskOutputCacheFactory {
+    private static final int TIMEOUT_MILLIS = 30000;
+    private final SslContextFactory sslContextFactory;
+
+    public HttpTaskOutputCacheFactory(SslContextFactory sslContextFactory) {
+        this.sslContextFactory = sslContextFactory;
+    }
+
+    public boolean supports(URI uri) {
+        return "http".equals(uri.getScheme()) || "https".equals(uri.getScheme());
+    }
+
+    public TaskOutputCache createCache(URI uri) {
+        HttpClientHelper http = new HttpClientHelper(new DefaultHttpSettings(Collections.<Authentication>emptyList(), sslContextFactory));
+        return new HttpTaskOutputCache(uri, http, TIMEOUT_MILLIS);
+    }
+}
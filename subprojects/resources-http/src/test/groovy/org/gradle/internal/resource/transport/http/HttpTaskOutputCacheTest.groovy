@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.api.internal.tasks.cache.TaskOutputCache
+import org.gradle.internal.hash.HashValue
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class HttpTaskOutputCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Rule FileBackedHttpCacheServer server = new FileBackedHttpCacheServer(tmpDir.file("server"))
+    def key = new HashValue("1234")
+    HttpTaskOutputCache cache
+
+    def setup() {
+        cache = new HttpTaskOutputCacheFactory(new DefaultSslContextFactory()).createCache(server.uri)
+    }
+
+    def cleanup() {
+        cache.close()
+    }
+
+    def "loads entry that was stored"() {
+        when:
+        store(key, "content")
+
+        then:
+        load(key) == "content"
+        new File(server.dir, key.asHexString()).text == "content"
+    }
+
+    def "does not find entry that was not stored"() {
+        expect:
+        load(key) == null
+        server.getCount == 1
+    }
+
+    def "can store entry after looking it up"() {
+        expect:
+        load(key) == null
+        store(key, "content")
+        load(key) == "content"
+    }
+
+    def "fails when server responds with an error"() {
+        server.statusCode = 500
+
+        when:
+        load(key)
+
+        then:
+        IOException e = thrown()
+        e.message.contains("Received status code 500")
+
+        when:
+        store(key, "content")
+
+        then:
+        e = thrown()
+        e.message.contains("Received status code 500")
+    }
+
+    def "supports http and https URIs"() {
+        def factory = new HttpTaskOutputCacheFactory(new DefaultSslContextFactory())
+
+        expect:
+        factory.supports(new URI("http://localhost/cache/"))
+        factory.supports(new URI("https://localhost/cache/"))
+        !factory.supports(new URI("file:/cache/"))
+    }
+
+    private String load(HashValue key) {
+        String result = null
+        cache.load(key, { InputStream input -> result = input.text } as TaskOutputCache.TaskOutputReader) ? result : null
+    }
+
+    private void store(HashValue key, String content) {
+        cache.store(key, { OutputStream output -> output.write(content.bytes) } as TaskOutputCache.TaskOutputWriter)
+    }
+}
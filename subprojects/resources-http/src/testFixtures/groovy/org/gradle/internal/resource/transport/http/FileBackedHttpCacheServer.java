@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.rules.ExternalResource;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A tiny HTTP server that stores entries as files in a directory, for use as a remote task output cache in tests. {@code GET /<key>} returns the
+ * content of the file for the key, or a 404 when there is no such file, and {@code PUT /<key>} replaces the file for the key.
+ *
+ * <p>Can be used as a JUnit rule, or started and stopped explicitly.</p>
+ */
+public class FileBackedHttpCacheServer extends ExternalResource {
+    private final File dir;
+    private final AtomicInteger gets = new AtomicInteger();
+    private final AtomicInteger puts = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile int statusCode;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FileBackedHttpCacheServer(File dir) {
+        this.dir = dir;
+    }
+
+    public void start() throws IOException {
+        dir.mkdirs();
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("localhost"), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    respond(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    protected void before() throws Throwable {
+        start();
+    }
+
+    @Override
+    protected void after() {
+        stop();
+    }
+
+    public URI getUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    /**
+     * Delays each response by the given amount, to simulate a slow server.
+     */
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Makes the server fail each request with the given status code, or behave normally when the given status code is 0.
+     */
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public int getGetCount() {
+        return gets.get();
+    }
+
+    public int getPutCount() {
+        return puts.get();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (method.equals("GET")) {
+            gets.incrementAndGet();
+        } else if (method.equals("PUT")) {
+            puts.incrementAndGet();
+        }
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+        if (statusCode != 0) {
+            sendError(exchange, statusCode);
+            return;
+        }
+
+        String name = exchange.getRequestURI().getPath().substring(1);
+        if (name.length() == 0 || name.contains("/")) {
+            sendError(exchange, 400);
+            return;
+        }
+        File file = new File(dir, name);
+        if (method.equals("GET")) {
+            if (!file.isFile()) {
+                sendError(exchange, 404);
+                return;
+            }
+            exchange.sendResponseHeaders(200, file.length());
+            copy(new FileInputStream(file), exchange.getResponseBody());
+        } else if (method.equals("PUT")) {
+            File partial = new File(dir, name + ".part-" + Thread.currentThread().getId());
+            copy(exchange.getRequestBody(), new FileOutputStream(partial));
+            file.delete();
+            if (!partial.renameTo(file)) {
+                throw new IOException(String.format("Could not rename %s to %s.", partial, file));
+            }
+            exchange.sendResponseHeaders(200, -1);
+        } else {
+            sendError(exchange, 405);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int statusCode) throws IOException {
+        // The server does not keep the connection usable after an error response, so tell the client not to reuse it
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(statusCode, -1);
+    }
+
+    private static void copy(InputStream input, OutputStream output) throws IOException {
+        try {
+            IOUtils.copyLarge(input, output);
+        } finally {
+            IOUtils.closeQuietly(input);
+            output.close();
+        }
+    }
+}
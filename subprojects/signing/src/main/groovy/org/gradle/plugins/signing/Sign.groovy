@@ -27,10 +27,14 @@ import org.gradle.api.InvalidUserDataException
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.file.collections.SimpleFileCollection
 import org.gradle.api.internal.DefaultDomainObjectSet
+import org.gradle.internal.operations.BuildOperationProcessor
 
+import org.gradle.plugins.signing.internal.SignatureGenerator
 import org.gradle.plugins.signing.signatory.Signatory
 import org.gradle.plugins.signing.type.SignatureType
 
+import javax.inject.Inject
+
 
 /**
  * A task for creating digital signature files for one or more; tasks, files, publishable artifacts or configurations.
@@ -155,6 +159,8 @@ class Sign extends DefaultTask implements SignatureSpec {
     
     /**
      * Generates the signature files.
+     *
+     * <p>The files are signed in parallel. A file whose content has not changed since it was last signed by this task keeps its existing signature.</p>
      */
     @TaskAction
     void generate() {
@@ -162,7 +168,12 @@ class Sign extends DefaultTask implements SignatureSpec {
             throw new InvalidUserDataException("Cannot perform signing task '${getPath()}' because it has no configured signatory")
         }
         
-        getSignatures()*.generate()
+        new SignatureGenerator(getBuildOperationProcessor()).generate(getSignatures(), new File(getTemporaryDir(), "signed-files.bin"))
+    }
+
+    @Inject
+    BuildOperationProcessor getBuildOperationProcessor() {
+        throw new UnsupportedOperationException()
     }
     
     /**
@@ -29,6 +29,7 @@ import org.gradle.plugins.signing.type.SignatureTypeProvider
 import org.gradle.plugins.signing.type.DefaultSignatureTypeProvider
 
 import org.gradle.plugins.signing.signatory.pgp.PgpSignatoryProvider
+import org.gradle.plugins.signing.internal.PgpSignatoryCache
 import java.util.concurrent.Callable
 import org.gradle.api.artifacts.maven.MavenDeployment
 import org.gradle.util.ConfigureUtil
@@ -147,7 +148,7 @@ class SigningExtension {
      * Provides the signatory provider. Called once during construction.
      */
     protected SignatoryProvider createSignatoryProvider() {
-        new PgpSignatoryProvider()
+        new PgpSignatoryProvider(project.services.get(PgpSignatoryCache))
     }
     
     /**
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.signing.internal;
+
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.plugins.signing.signatory.pgp.PgpSignatory;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the PGP signatories created during a build, so that a key ring is read and its secret key decrypted once per build rather than each
+ * time a signatory is requested. A cached signatory is discarded when its key ring file changes.
+ */
+public class PgpSignatoryCache {
+    private final Map<List<Object>, PgpSignatory> signatories = new HashMap<List<Object>, PgpSignatory>();
+
+    public synchronized PgpSignatory get(String name, String keyId, File keyRing, String password, Factory<PgpSignatory> factory) {
+        List<Object> key = Arrays.<Object>asList(name, keyId, keyRing.getAbsoluteFile(), keyRing.length(), keyRing.lastModified(), HashUtil.sha256(password.getBytes()));
+        PgpSignatory signatory = signatories.get(key);
+        if (signatory == null) {
+            signatory = factory.create();
+            signatories.put(key, signatory);
+        }
+        return signatory;
+    }
+}
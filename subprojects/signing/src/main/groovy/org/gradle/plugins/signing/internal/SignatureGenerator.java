@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.signing.internal;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.plugins.signing.Signature;
+import org.gradle.plugins.signing.signatory.Signatory;
+import org.gradle.plugins.signing.signatory.pgp.PgpSignatory;
+import org.gradle.plugins.signing.type.SignatureType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates many signatures at once, signing the files in parallel.
+ *
+ * <p>Each file is read once, to calculate both its signature and a hash of its content. When a state file is given, the hash of each signed file is recorded
+ * in it. A file whose size and timestamp are unchanged since it was last signed is not read again, and a file whose content is unchanged keeps its existing
+ * signature.</p>
+ */
+public class SignatureGenerator {
+    private static final Logger LOGGER = Logging.getLogger(SignatureGenerator.class);
+    private static final byte STATE_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BuildOperationProcessor buildOperationProcessor;
+
+    public SignatureGenerator(BuildOperationProcessor buildOperationProcessor) {
+        this.buildOperationProcessor = buildOperationProcessor;
+    }
+
+    public void generate(Collection<Signature> signatures, @Nullable File stateFile) {
+        Map<String, SignedFile> previousStates = stateFile == null ? new HashMap<String, SignedFile>() : readStates(stateFile);
+        Map<String, SignedFile> states = new ConcurrentHashMap<String, SignedFile>();
+        if (stateFile != null) {
+            // The recorded state is no longer valid if signing does not complete
+            stateFile.delete();
+        }
+
+        BuildOperationQueue<SignFile> queue = buildOperationProcessor.newQueue(new SignFileWorker(), null);
+        for (Signature signature : signatures) {
+            File toSign = signature.getToSign();
+            Signatory signatory = signature.getSignatory();
+            SignatureType signatureType = signature.getSignatureType();
+            if (toSign == null || signatory == null || signatureType == null) {
+                // Let the signature decide whether this is a failure
+                signature.generate();
+                continue;
+            }
+            String path = toSign.getAbsolutePath();
+            queue.add(new SignFile(toSign, signatory, signatureType, previousStates.get(path), states));
+        }
+        queue.waitForCompletion();
+
+        if (stateFile != null) {
+            writeStates(stateFile, states);
+        }
+    }
+
+    private static Map<String, SignedFile> readStates(File stateFile) {
+        Map<String, SignedFile> states = new HashMap<String, SignedFile>();
+        if (!stateFile.isFile()) {
+            return states;
+        }
+        try {
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)));
+            try {
+                if (inputStream.readByte() != STATE_VERSION) {
+                    return states;
+                }
+                int count = inputStream.readInt();
+                for (int i = 0; i < count; i++) {
+                    String path = inputStream.readUTF();
+                    states.put(path, new SignedFile(inputStream.readUTF(), inputStream.readLong(), inputStream.readLong(), inputStream.readUTF(), inputStream.readLong()));
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            LOGGER.info("Could not read signing state from {}, signing all files.", stateFile, e);
+            states.clear();
+        }
+        return states;
+    }
+
+    private static void writeStates(File stateFile, Map<String, SignedFile> states) {
+        try {
+            stateFile.getParentFile().mkdirs();
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile)));
+            try {
+                outputStream.writeByte(STATE_VERSION);
+                outputStream.writeInt(states.size());
+                for (Map.Entry<String, SignedFile> entry : states.entrySet()) {
+                    SignedFile state = entry.getValue();
+                    outputStream.writeUTF(entry.getKey());
+                    outputStream.writeUTF(state.signer);
+                    outputStream.writeLong(state.length);
+                    outputStream.writeLong(state.lastModified);
+                    outputStream.writeUTF(state.contentHash);
+                    outputStream.writeLong(state.signatureLastModified);
+                }
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String signerOf(Signatory signatory, SignatureType signatureType) {
+        String signer = signatory.getName() + ":" + signatureType.getClass().getName() + ":" + signatureType.getExtension();
+        if (signatory instanceof PgpSignatory) {
+            signer += ":" + ((PgpSignatory) signatory).getKeyId().getAsHex();
+        }
+        return signer;
+    }
+
+    private static class SignedFile {
+        final String signer;
+        final long length;
+        final long lastModified;
+        final String contentHash;
+        final long signatureLastModified;
+
+        SignedFile(String signer, long length, long lastModified, String contentHash, long signatureLastModified) {
+            this.signer = signer;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+            this.signatureLastModified = signatureLastModified;
+        }
+    }
+
+    private static class SignFile implements BuildOperation {
+        private final File toSign;
+        private final Signatory signatory;
+        private final SignatureType signatureType;
+        private final SignedFile previous;
+        private final Map<String, SignedFile> states;
+        private final String signer;
+
+        SignFile(File toSign, Signatory signatory, SignatureType signatureType, @Nullable SignedFile previous, Map<String, SignedFile> states) {
+            this.toSign = toSign;
+            this.signatory = signatory;
+            this.signatureType = signatureType;
+            this.previous = previous;
+            this.states = states;
+            this.signer = signerOf(signatory, signatureType);
+        }
+
+        void run() throws IOException {
+            File signatureFile = signatureType.fileFor(toSign);
+            long length = toSign.length();
+            long lastModified = toSign.lastModified();
+            boolean hasSignature = previous != null && previous.signer.equals(signer) && signatureFile.lastModified() == previous.signatureLastModified;
+            if (hasSignature && previous.length == length && previous.lastModified == lastModified) {
+                LOGGER.debug("Not signing {} as it has not changed since it was last signed.", toSign);
+                states.put(toSign.getAbsolutePath(), previous);
+                return;
+            }
+
+            MessageDigest digest = createDigest();
+            ByteArrayOutputStream signature = new ByteArrayOutputStream();
+            InputStream inputStream = new DigestInputStream(new BufferedInputStream(new FileInputStream(toSign), BUFFER_SIZE), digest);
+            try {
+                signatureType.sign(signatory, inputStream, signature);
+            } finally {
+                inputStream.close();
+            }
+            String contentHash = new HashValue(digest.digest()).asHexString();
+
+            if (hasSignature && previous.contentHash.equals(contentHash)) {
+                LOGGER.debug("Keeping existing signature of {} as its content has not changed.", toSign);
+            } else {
+                FileOutputStream outputStream = new FileOutputStream(signatureFile);
+                try {
+                    signature.writeTo(outputStream);
+                } finally {
+                    outputStream.close();
+                }
+            }
+            states.put(toSign.getAbsolutePath(), new SignedFile(signer, length, lastModified, contentHash, signatureFile.lastModified()));
+        }
+
+        public String getDescription() {
+            return "Sign " + toSign;
+        }
+
+        private static MessageDigest createDigest() {
+            try {
+                return MessageDigest.getInstance("SHA1");
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class SignFileWorker implements BuildOperationWorker<SignFile> {
+        public String getDisplayName() {
+            return "signature generator";
+        }
+
+        public void execute(SignFile operation) {
+            try {
+                operation.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -20,10 +20,25 @@ import org.bouncycastle.openpgp.PGPSecretKeyRingCollection
 
 import org.gradle.api.Project
 import org.gradle.api.InvalidUserDataException
+import org.gradle.internal.Factory
+import org.gradle.plugins.signing.internal.PgpSignatoryCache
 
 class PgpSignatoryFactory {
     
     static private final PROPERTIES = ["keyId", "secretKeyRingFile", "password"]
+
+    final private PgpSignatoryCache signatoryCache
+
+    PgpSignatoryFactory() {
+        this(null)
+    }
+
+    /**
+     * Creates a factory that reuses the signatories held by the given cache, if not {@code null}.
+     */
+    PgpSignatoryFactory(PgpSignatoryCache signatoryCache) {
+        this.signatoryCache = signatoryCache
+    }
     
     PgpSignatory createSignatory(Project project, boolean required = false) {
         readProperties(project, null, "default", required)
@@ -64,7 +79,11 @@ class PgpSignatoryFactory {
     }
     
     PgpSignatory createSignatory(String name, String keyId, File keyRing, String password) {
-        createSignatory(name, readSecretKey(keyId, keyRing), password)
+        if (signatoryCache == null) {
+            return createSignatory(name, readSecretKey(keyId, keyRing), password)
+        }
+        // Reading the key ring and decrypting the secret key is expensive, so only do it once per build
+        signatoryCache.get(name, keyId, keyRing, password, { createSignatory(name, readSecretKey(keyId, keyRing), password) } as Factory)
     }
     
     PgpSignatory createSignatory(String name, PGPSecretKey secretKey, String password) {
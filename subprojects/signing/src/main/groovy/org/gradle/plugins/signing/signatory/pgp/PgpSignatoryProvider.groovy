@@ -22,11 +22,23 @@ import org.gradle.util.ConfigureUtil
 import org.gradle.api.Project
 
 import org.gradle.plugins.signing.SigningExtension
+import org.gradle.plugins.signing.internal.PgpSignatoryCache
 
 class PgpSignatoryProvider implements SignatoryProvider<PgpSignatory> {
     
-    private final factory = new PgpSignatoryFactory()
+    private final PgpSignatoryFactory factory
     private final Map<String, PgpSignatory> signatories = [:]
+
+    PgpSignatoryProvider() {
+        this(null)
+    }
+
+    /**
+     * Creates a provider whose signatories are shared through the given cache, if not {@code null}.
+     */
+    PgpSignatoryProvider(PgpSignatoryCache signatoryCache) {
+        factory = new PgpSignatoryFactory(signatoryCache)
+    }
     
     void configure(SigningExtension settings, Closure closure) {
         ConfigureUtil.configure(closure, new Dsl(settings.project, signatories, factory))
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.signing.internal
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.plugins.signing.SignOperation
+import org.gradle.plugins.signing.Signature
+import org.gradle.plugins.signing.SigningProjectSpec
+import org.gradle.plugins.signing.type.SignatureType
+
+class SignatureGeneratorSpec extends SigningProjectSpec {
+    def generator = new SignatureGenerator(new DefaultBuildOperationProcessor(new DefaultExecutorFactory(), 2))
+    def stateFile = tmpDir.file("state/signed-files.bin")
+    List<File> inputs
+
+    def setup() {
+        applyPlugin()
+        addSigningProperties()
+        inputs = (1..5).collect { tmpDir.createFile("input${it}.txt") << "content $it" }
+    }
+
+    def "signs each file"() {
+        when:
+        generator.generate(signatures(), stateFile)
+
+        then:
+        inputs.every { signatureOf(it).file }
+        stateFile.file
+    }
+
+    def "does not sign file again when it has not changed"() {
+        given:
+        def signatureType = Spy(signing.signatureType.getClass())
+        generator.generate(signatures(signatureType), stateFile)
+        def content = signatureOf(inputs[0]).bytes
+
+        when:
+        generator.generate(signatures(signatureType), stateFile)
+
+        then:
+        0 * signatureType.sign(*_)
+
+        and:
+        signatureOf(inputs[0]).bytes == content
+    }
+
+    def "keeps existing signature when only the timestamp of a file has changed"() {
+        given:
+        generator.generate(signatures(), stateFile)
+        def signature = signatureOf(inputs[0])
+        def content = signature.bytes
+        inputs[0].lastModified = inputs[0].lastModified() - 10000
+
+        when:
+        generator.generate(signatures(), stateFile)
+
+        then:
+        signature.bytes == content
+    }
+
+    def "signs file again when its content has changed"() {
+        given:
+        generator.generate(signatures(), stateFile)
+        def signature = signatureOf(inputs[0])
+        signature.text = "previous signature"
+        inputs[0] << "more content"
+
+        when:
+        generator.generate(signatures(), stateFile)
+
+        then:
+        signature.text != "previous signature"
+    }
+
+    def "signs file again when its signature has been removed"() {
+        given:
+        generator.generate(signatures(), stateFile)
+        def signature = signatureOf(inputs[0])
+        signature.delete()
+
+        when:
+        generator.generate(signatures(), stateFile)
+
+        then:
+        signature.file
+    }
+
+    def "signs all files when there is no state file"() {
+        given:
+        generator.generate(signatures(), null)
+        def signature = signatureOf(inputs[0])
+        signature.text = "previous signature"
+
+        when:
+        generator.generate(signatures(), null)
+
+        then:
+        signature.text != "previous signature"
+    }
+
+    def "reuses the signatory during a build"() {
+        expect:
+        signing.signatory.is(signing.signatory)
+    }
+
+    private List<Signature> signatures(SignatureType signatureType = signing.signatureType) {
+        def spec = new SignOperation(signatory: signing.signatory, signatureType: signatureType)
+        inputs.collect { new Signature(it, spec) }
+    }
+
+    private File signatureOf(File input) {
+        signing.signatureType.fileFor(input)
+    }
+}
@@ -24,22 +24,31 @@ import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Base class for detectors that scan class files with ASM. Test classes may be processed by several threads at the same time, which share the verdicts
+ * for super classes.
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final ConcurrentMap<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
     private final List<String> knownTestCaseClassNames;
 
@@ -49,38 +58,46 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
+    /**
+     * Reads the given super class from the test class directories or the library jars.
+     *
+     * @return The visitor for the class, or null when the class file cannot be found.
+     */
+    private TestClassVisitor superClassVisitor(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
-            final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
-            if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+        for (File testClassDirectory : testClassDirectories) {
+            final File superTestClassFile = new File(testClassDirectory, superClassName + ".class");
+            if (superTestClassFile.exists()) {
+                return classVisitor(superTestClassFile);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else { // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+        // super test class file not in test class directories
+        byte[] superTestClassBytes = classFileExtractionManager.getLibraryClassBytes(superClassName);
+        if (superTestClassBytes == null) {
+            return null;
+        }
+        final TestClassVisitor classVisitor = createClassVisitor();
+        try {
+            new ClassReader(superTestClassBytes).accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file " + superClassName + " from the test classpath", e);
         }
+        return classVisitor;
     }
 
-    private void prepareClasspath() {
+    private synchronized void prepareClasspath() {
         if (testClassDirectories != null) {
             return;
         }
@@ -127,23 +144,29 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     }
 
     public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+        return processTestClass(classVisitor(testClassFile), false);
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
-
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
+    /**
+     * Determines whether the class read by the given visitor is a test, going up the inheritance tree using {@link #processSuperClass(String)} when required.
+     */
+    protected abstract boolean processTestClass(TestClassVisitor classVisitor, boolean superClass);
 
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+    protected boolean processSuperClass(String superClassName) {
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest != null) {
+            return isSuperTest;
+        }
 
-            superClasses.put(testClassFile, isTest);
+        // Another thread may be processing the same class, in which case both reach the same verdict
+        boolean isTest = false;
+        final TestClassVisitor classVisitor = superClassVisitor(superClassName);
+        if (classVisitor != null) {
+            isTest = processTestClass(classVisitor, true);
         } else {
-            isTest = isSuperTest;
+            LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file", superClassName);
         }
+        superClasses.put(superClassName, isTest);
 
         return isTest;
     }
@@ -15,34 +15,30 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.text.StrBuilder;
 import org.gradle.api.GradleException;
-import org.gradle.api.internal.file.DefaultTemporaryFileProvider;
-import org.gradle.api.internal.file.TemporaryFileProvider;
-import org.gradle.internal.Factory;
-import org.gradle.util.JarUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
- * This class manages class file extraction from library jar files.
+ * This class manages reading class files from library jar files. Class files are read into memory, rather than extracted to disk. Safe for use by
+ * multiple threads.
  */
 public class ClassFileExtractionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
     private final Map<String, Set<File>> packageJarFilesMappings;
-    private final Map<String, File> extractedJarClasses;
     private final Set<String> unextractableClasses;
-    private final TemporaryFileProvider tempDirProvider;
 
-    public ClassFileExtractionManager(final Factory<File> tempDirFactory) {
-        assert tempDirFactory != null;
-        tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
+    public ClassFileExtractionManager() {
         packageJarFilesMappings = new HashMap<String, Set<File>>();
-        extractedJarClasses = new HashMap<String, File>();
         unextractableClasses = new TreeSet<String>();
     }
 
@@ -51,7 +47,7 @@ public class ClassFileExtractionManager {
      *
      * @param libraryJar Jar file to add to the index.
      */
-    public void addLibraryJar(final File libraryJar) {
+    public synchronized void addLibraryJar(final File libraryJar) {
         new JarFilePackageLister().listJarPackages(libraryJar, new JarFilePackageListener() {
             public void receivePackage(String packageName) {
                 Set<File> jarFiles = packageJarFilesMappings.get(packageName);
@@ -66,62 +62,66 @@ public class ClassFileExtractionManager {
     }
 
     /**
-     * Retrieve the file that contains the extracted class file. <p/> This method will extract the class file if it is
-     * not extracted yet. Extracted class files are deleted on exit of the Gradle process. The same class is only
-     * extracted once.
+     * Retrieve the content of the given class file from the library jars.
      *
-     * @param className Name of the class to extract.
-     * @return File that contains the extracted class file.
+     * @param className Name of the class to read.
+     * @return The content of the class file, or null when the class is not found in any library jar.
      */
-    public File getLibraryClassFile(final String className) {
-        if (unextractableClasses.contains(className)) {
-            return null;
-        } else {
-            if (!extractedJarClasses.containsKey(className)) {
-                if (!extractClassFile(className)) {
-                    unextractableClasses.add(className);
-                }
+    public byte[] getLibraryClassBytes(final String className) {
+        final Set<File> packageJarFiles;
+        synchronized (this) {
+            if (unextractableClasses.contains(className)) {
+                return null;
             }
+            packageJarFiles = packageJarFilesMappings.get(classNamePackage(className));
+        }
 
-            return extractedJarClasses.get(className);
+        byte[] classBytes = readClassFile(className, packageJarFiles);
+        if (classBytes == null) {
+            synchronized (this) {
+                unextractableClasses.add(className);
+            }
         }
+        return classBytes;
     }
 
-    private boolean extractClassFile(final String className) {
-        boolean classFileExtracted = false;
+    private byte[] readClassFile(final String className, Set<File> packageJarFiles) {
+        if (packageJarFiles == null || packageJarFiles.isEmpty()) {
+            // super class not on the classpath - unable to scan parent class
+            return null;
+        }
 
-        final File extractedClassFile = tempFile();
         final String classFileName = new StrBuilder().append(className).append(".class").toString();
-        final String classNamePackage = classNamePackage(className);
-        final Set<File> packageJarFiles = packageJarFilesMappings.get(classNamePackage);
-
-        File classFileSourceJar = null;
-
-        if (packageJarFiles != null && !packageJarFiles.isEmpty()) {
-            final Iterator<File> packageJarFilesIt = packageJarFiles.iterator();
-
-            while (!classFileExtracted && packageJarFilesIt.hasNext()) {
-                final File jarFile = packageJarFilesIt.next();
-
-                try {
-                    classFileExtracted = JarUtil.extractZipEntry(jarFile, classFileName, extractedClassFile);
-
-                    if (classFileExtracted) {
-                        classFileSourceJar = jarFile;
-                    }
-                } catch (IOException e) {
-                    throw new GradleException("failed to extract class file from jar (" + jarFile + ")", e);
+        for (File jarFile : packageJarFiles) {
+            try {
+                byte[] classBytes = readZipEntry(jarFile, classFileName);
+                if (classBytes != null) {
+                    LOGGER.debug("read class {} from {}", className, jarFile.getName());
+                    return classBytes;
                 }
+            } catch (IOException e) {
+                throw new GradleException("failed to read class file from jar (" + jarFile + ")", e);
             }
+        }
+        return null;
+    }
 
-            if (classFileExtracted) {
-                LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
-
-                extractedJarClasses.put(className, extractedClassFile);
+    private static byte[] readZipEntry(File jarFile, String entryName) throws IOException {
+        ZipFile zipFile = new ZipFile(jarFile);
+        try {
+            ZipEntry zipEntry = zipFile.getEntry(entryName);
+            if (zipEntry == null) {
+                return null;
             }
-        } // super class not on the classpath - unable to scan parent class
-
-        return classFileExtracted;
+            InputStream inputStream = zipFile.getInputStream(zipEntry);
+            try {
+                return IOUtils.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } finally {
+            zipFile.close();
+        }
     }
 
     private String classNamePackage(final String className) {
@@ -133,8 +133,4 @@ public class ClassFileExtractionManager {
             return className.substring(0, lastSlashIndex + 1);
         }
     }
-
-    private File tempFile() {
-        return tempDirProvider.createTemporaryFile("jar_extract_", "_tmp"); // Could throw UncheckedIOException
-    }
 }
@@ -22,30 +22,55 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>When an executor factory and more than one thread are provided, class files are handed to the detector by up to that many threads. The detected test classes are passed to the
+ * test class processor on the scanning thread as soon as they are found, in the order in which the class files were visited.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
+    private static final int MAX_PENDING_CLASS_FILES_PER_THREAD = 64;
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, ExecutorFactory executorFactory, int maxThreads) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
     }
 
     public void run() {
         if (testFrameworkDetector == null) {
             filenameScan();
-        } else {
+        } else if (executorFactory == null || maxThreads < 2) {
             detectionScan();
+        } else {
+            parallelDetectionScan();
         }
     }
 
@@ -58,6 +83,53 @@ public class DefaultTestClassScanner implements Runnable {
         });
     }
 
+    private void parallelDetectionScan() {
+        final int threads = maxThreads;
+        final DetectedTestClassCollector collector = new DetectedTestClassCollector();
+        final LinkedList<Future<List<TestClassRunInfo>>> pending = new LinkedList<Future<List<TestClassRunInfo>>>();
+        final StoppableExecutor executor = executorFactory.create("Test class detection", threads);
+        try {
+            testFrameworkDetector.startDetection(collector);
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    final File testClassFile = fileDetails.getFile();
+                    pending.add(executor.submit(new Callable<List<TestClassRunInfo>>() {
+                        public List<TestClassRunInfo> call() {
+                            return collector.detect(testClassFile);
+                        }
+                    }));
+                    publishDetectedClasses(pending, threads * MAX_PENDING_CLASS_FILES_PER_THREAD);
+                }
+            });
+            publishDetectedClasses(pending, 0);
+        } finally {
+            for (Future<List<TestClassRunInfo>> future : pending) {
+                future.cancel(false);
+            }
+            executor.stop();
+        }
+    }
+
+    /**
+     * Passes on the test classes detected in the oldest class files, waiting for detection to complete while more than the given number of class files are pending.
+     */
+    private void publishDetectedClasses(LinkedList<Future<List<TestClassRunInfo>>> pending, int maxPending) {
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.getFirst().isDone())) {
+            List<TestClassRunInfo> testClasses;
+            try {
+                testClasses = pending.getFirst().get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+            pending.removeFirst();
+            for (TestClassRunInfo testClass : testClasses) {
+                testClassProcessor.processTestClass(testClass);
+            }
+        }
+    }
+
     private void filenameScan() {
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
@@ -68,6 +140,34 @@ public class DefaultTestClassScanner implements Runnable {
         });
     }
 
+    /**
+     * Collects the test classes that the detector publishes while processing a class file on the current thread.
+     */
+    private class DetectedTestClassCollector implements TestClassProcessor {
+        private final ThreadLocal<List<TestClassRunInfo>> detected = new ThreadLocal<List<TestClassRunInfo>>();
+
+        List<TestClassRunInfo> detect(File testClassFile) {
+            List<TestClassRunInfo> testClasses = new ArrayList<TestClassRunInfo>(1);
+            detected.set(testClasses);
+            try {
+                testFrameworkDetector.processTestClass(testClassFile);
+            } finally {
+                detected.remove();
+            }
+            return testClasses;
+        }
+
+        public void startProcessing(TestResultProcessor resultProcessor) {
+        }
+
+        public void processTestClass(TestClassRunInfo testClass) {
+            detected.get().add(testClass);
+        }
+
+        public void stop() {
+        }
+    }
+
     private abstract class ClassFileVisitor extends EmptyFileVisitor {
         public void visitFile(FileVisitDetails fileDetails) {
             final File file = fileDetails.getFile();
@@ -28,6 +28,7 @@ import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.progress.OperationIdGenerator;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
@@ -38,10 +39,14 @@ import org.gradle.process.internal.WorkerProcessBuilder;
 public class DefaultTestExecuter implements TestExecuter {
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactory;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkerCount;
 
-    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactory) {
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactory, ExecutorFactory executorFactory, int maxWorkerCount) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
+        this.executorFactory = executorFactory;
+        this.maxWorkerCount = maxWorkerCount;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
@@ -69,7 +74,7 @@ public class DefaultTestExecuter implements TestExecuter {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
             testFrameworkDetector.setTestClassesDirectory(testTask.getTestClassesDir());
             testFrameworkDetector.setTestClasspath(testTask.getClasspath());
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory, maxWorkerCount);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -23,6 +23,10 @@ import java.io.File;
 public interface TestFrameworkDetector {
     void startDetection(TestClassProcessor testClassProcessor);
 
+    /**
+     * Determines whether the given class file contains a test, and passes it to the test class processor when it does. May be called by several threads at the
+     * same time, in which case the test class is passed to the processor on the calling thread.
+     */
     boolean processTestClass(File testClassFile);
 
     void setTestClassesDirectory(File testClassesDir);
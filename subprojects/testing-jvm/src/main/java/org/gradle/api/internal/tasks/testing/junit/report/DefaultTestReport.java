@@ -17,12 +17,19 @@ package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.html.SimpleHtmlWriter;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.reporting.HtmlPageBuilder;
 import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
@@ -36,13 +43,32 @@ import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
 public class DefaultTestReport implements TestReporter {
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
+    private final BuildOperationProcessor buildOperationProcessor;
+
+    public DefaultTestReport(BuildOperationProcessor buildOperationProcessor) {
+        this.buildOperationProcessor = buildOperationProcessor;
+    }
 
     public void generateReport(TestResultsProvider resultsProvider, File reportDir) {
+        generateReport(resultsProvider, reportDir, null);
+    }
+
+    /**
+     * Generates the report, skipping the pages that the given manifest reports as up-to-date.
+     */
+    public void generateReport(TestResultsProvider resultsProvider, File reportDir, @Nullable TestReportManifest manifest) {
         LOG.info("Generating HTML test report...");
 
         Clock clock = new Clock();
         AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        if (manifest != null) {
+            manifest.start(reportDir);
+        }
+        generateFiles(model, resultsProvider, reportDir, manifest);
+        if (manifest != null) {
+            manifest.save();
+            LOG.info("Skipped {} test html pages with unchanged results.", manifest.getUpToDatePages());
+        }
         LOG.info("Finished generating test html results ({}) into: {}", clock.getTime(), reportDir);
     }
 
@@ -68,26 +94,62 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
+    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir, @Nullable final TestReportManifest manifest) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
                 public void render(AllTestResults model, HtmlReportBuilder output) throws IOException {
-                    PackagePageRenderer packagePageRenderer = new PackagePageRenderer();
-                    ClassPageRenderer classPageRenderer = new ClassPageRenderer(resultsProvider);
-
-                    output.renderHtmlPage("index.html", model, new OverviewPageRenderer());
+                    // Each page is rendered by its own renderer, as the renderers hold state about the page being rendered
+                    BuildOperationQueue<HtmlReportFileGenerator<?>> queue = buildOperationProcessor.newQueue(new HtmlReportFileGeneratorWorker(), null);
+                    queue.add(new HtmlReportFileGenerator<AllTestResults>("index.html", model, new OverviewPageRenderer(), output));
                     for (PackageTestResults packageResults : model.getPackages()) {
-                        output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, packagePageRenderer);
+                        if (manifest == null || !manifest.isUpToDate(packageResults, new File(reportDir, packageResults.getBaseUrl()))) {
+                            queue.add(new HtmlReportFileGenerator<PackageTestResults>(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
+                        }
                         for (ClassTestResults classResults : packageResults.getClasses()) {
-                            output.renderHtmlPage(classResults.getBaseUrl(), classResults, classPageRenderer);
+                            if (manifest == null || !manifest.isUpToDate(classResults, new File(reportDir, classResults.getBaseUrl()))) {
+                                queue.add(new HtmlReportFileGenerator<ClassTestResults>(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                            }
                         }
                     }
+                    queue.waitForCompletion();
                 }
             }, reportDir);
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
+
+    private static class HtmlReportFileGenerator<T> implements BuildOperation {
+        private final String fileUrl;
+        private final T results;
+        private final ReportRenderer<T, HtmlPageBuilder<SimpleHtmlWriter>> renderer;
+        private final HtmlReportBuilder output;
+
+        HtmlReportFileGenerator(String fileUrl, T results, ReportRenderer<T, HtmlPageBuilder<SimpleHtmlWriter>> renderer, HtmlReportBuilder output) {
+            this.fileUrl = fileUrl;
+            this.results = results;
+            this.renderer = renderer;
+            this.output = output;
+        }
+
+        void generate() {
+            output.renderHtmlPage(fileUrl, results, renderer);
+        }
+
+        public String getDescription() {
+            return "Generate HTML test report page " + fileUrl;
+        }
+    }
+
+    private static class HtmlReportFileGeneratorWorker implements BuildOperationWorker<HtmlReportFileGenerator<?>> {
+        public String getDisplayName() {
+            return "HTML test report generator";
+        }
+
+        public void execute(HtmlReportFileGenerator<?> generator) {
+            generator.generate();
+        }
+    }
 }
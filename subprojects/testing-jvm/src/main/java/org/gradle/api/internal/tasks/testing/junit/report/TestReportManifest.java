@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records a fingerprint of the results that each package and class page of a test report was rendered from, so that pages whose results have not changed
+ * since the previous report are not rendered again. The index page summarizes all results, so it is always rendered.
+ *
+ * <p>The fingerprint of a class is provided by the caller, and should change whenever the results or output of the class may have changed. A class without a
+ * fingerprint is always rendered.</p>
+ */
+public class TestReportManifest {
+    private static final Logger LOGGER = Logging.getLogger(TestReportManifest.class);
+    private static final byte VERSION = 1;
+    private static final byte SEPARATOR = 0;
+
+    private final File manifestFile;
+    private final Transformer<String, Long> classFingerprints;
+    private final Map<String, String> previousPages = new HashMap<String, String>();
+    private final Map<String, String> pages = new HashMap<String, String>();
+    private String reportKey;
+    private int upToDatePages;
+
+    public TestReportManifest(File manifestFile, Transformer<String, Long> classFingerprints) {
+        this.manifestFile = manifestFile;
+        this.classFingerprints = classFingerprints;
+    }
+
+    /**
+     * Loads the manifest of the previous report into the given directory. The manifest is removed until the new report has been written, so that a failed
+     * report does not leave pages behind that are considered up-to-date.
+     */
+    void start(File reportDir) {
+        reportKey = reportDir.getAbsolutePath() + ":" + GradleVersion.current().getVersion();
+        previousPages.clear();
+        pages.clear();
+        upToDatePages = 0;
+        if (!manifestFile.isFile()) {
+            return;
+        }
+        try {
+            read();
+        } catch (Exception e) {
+            LOGGER.debug("Could not read test report manifest {}. All pages will be rendered.", manifestFile, e);
+            previousPages.clear();
+        }
+        if (!manifestFile.delete()) {
+            throw new UncheckedIOException(String.format("Could not delete test report manifest %s.", manifestFile));
+        }
+    }
+
+    boolean isUpToDate(ClassTestResults classResults, File pageFile) {
+        return isUpToDate(classResults.getBaseUrl(), classFingerprints.transform(classResults.getId()), pageFile);
+    }
+
+    boolean isUpToDate(PackageTestResults packageResults, File pageFile) {
+        Hasher hasher = Hashing.md5().newHasher();
+        for (ClassTestResults classResults : packageResults.getClasses()) {
+            String classFingerprint = classFingerprints.transform(classResults.getId());
+            if (classFingerprint == null) {
+                return false;
+            }
+            hasher.putUnencodedChars(classResults.getName());
+            hasher.putByte(SEPARATOR);
+            hasher.putUnencodedChars(classFingerprint);
+            hasher.putByte(SEPARATOR);
+        }
+        return isUpToDate(packageResults.getBaseUrl(), hasher.hash().toString(), pageFile);
+    }
+
+    private boolean isUpToDate(String page, @Nullable String fingerprint, File pageFile) {
+        if (fingerprint == null) {
+            return false;
+        }
+        pages.put(page, fingerprint);
+        if (fingerprint.equals(previousPages.get(page)) && pageFile.isFile()) {
+            upToDatePages++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of pages of the current report that were found to be up-to-date.
+     */
+    int getUpToDatePages() {
+        return upToDatePages;
+    }
+
+    /**
+     * Writes the manifest for the pages of the current report. Should be called once all pages have been rendered.
+     */
+    void save() {
+        manifestFile.getParentFile().mkdirs();
+        KryoBackedEncoder encoder;
+        try {
+            encoder = new KryoBackedEncoder(new FileOutputStream(manifestFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            encoder.writeByte(VERSION);
+            encoder.writeString(reportKey);
+            encoder.writeSmallInt(pages.size());
+            for (Map.Entry<String, String> entry : pages.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeString(entry.getValue());
+            }
+        } finally {
+            encoder.close();
+        }
+    }
+
+    private void read() throws Exception {
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(manifestFile));
+        try {
+            if (decoder.readByte() != VERSION || !decoder.readString().equals(reportKey)) {
+                return;
+            }
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                previousPages.put(decoder.readString(), decoder.readString());
+            }
+        } finally {
+            decoder.close();
+        }
+    }
+}
@@ -16,9 +16,11 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import org.gradle.api.Action;
@@ -28,6 +30,7 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
@@ -96,6 +99,18 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
         }
     }
 
+    /**
+     * Returns the providers that contributed results to the class with the given id, in the order they were given to this provider. Can be used once the
+     * classes have been visited.
+     */
+    public Collection<TestResultsProvider> getProviders(long classId) {
+        return Collections2.transform(classOutputProviders.get(classId), new Function<DelegateProvider, TestResultsProvider>() {
+            public TestResultsProvider apply(DelegateProvider delegateProvider) {
+                return delegateProvider.provider;
+            }
+        });
+    }
+
     public boolean hasOutput(long id, final TestOutputEvent.Destination destination) {
         return Iterables.any(
                 classOutputProviders.get(id),
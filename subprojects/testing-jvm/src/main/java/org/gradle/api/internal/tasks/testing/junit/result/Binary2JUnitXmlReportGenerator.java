@@ -23,6 +23,12 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.util.Clock;
 import org.gradle.internal.FileUtils;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperation;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorker;
+import org.gradle.internal.operations.MultipleBuildOperationFailures;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -35,32 +41,33 @@ public class Binary2JUnitXmlReportGenerator {
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
+    private final BuildOperationProcessor buildOperationProcessor;
     JUnitXmlResultWriter saxWriter;
     private final static Logger LOG = Logging.getLogger(Binary2JUnitXmlReportGenerator.class);
 
-    public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation) {
+    public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, BuildOperationProcessor buildOperationProcessor) {
         this.testResultsDir = testResultsDir;
         this.testResultsProvider = testResultsProvider;
+        this.buildOperationProcessor = buildOperationProcessor;
         this.saxWriter = new JUnitXmlResultWriter(getHostname(), testResultsProvider, outputAssociation);
     }
 
     public void generate() {
         Clock clock = new Clock();
+        final BuildOperationQueue<JUnitXmlReportFileGenerator> queue = buildOperationProcessor.newQueue(new JUnitXmlReportFileGeneratorWorker(), null);
         testResultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult result) {
-                File file = new File(testResultsDir, getReportFileName(result));
-                OutputStream output = null;
-                try {
-                    output = new BufferedOutputStream(new FileOutputStream(file));
-                    saxWriter.write(result, output);
-                    output.close();
-                } catch (Exception e) {
-                    throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), file), e);
-                } finally {
-                    IOUtils.closeQuietly(output);
-                }
+                queue.add(new JUnitXmlReportFileGenerator(result, new File(testResultsDir, getReportFileName(result)), saxWriter));
             }
         });
+        try {
+            queue.waitForCompletion();
+        } catch (MultipleBuildOperationFailures e) {
+            if (e.getCauses().size() == 1) {
+                throw UncheckedException.throwAsUncheckedException(e.getCauses().get(0));
+            }
+            throw e;
+        }
         LOG.info("Finished generating test XML results ({}) into: {}", clock.getTime(), testResultsDir);
     }
 
@@ -75,4 +82,43 @@ public class Binary2JUnitXmlReportGenerator {
             return "localhost";
         }
     }
-}
\ No newline at end of file
+
+    private static class JUnitXmlReportFileGenerator implements BuildOperation {
+        private final TestClassResult result;
+        private final File reportFile;
+        private final JUnitXmlResultWriter saxWriter;
+
+        JUnitXmlReportFileGenerator(TestClassResult result, File reportFile, JUnitXmlResultWriter saxWriter) {
+            this.result = result;
+            this.reportFile = reportFile;
+            this.saxWriter = saxWriter;
+        }
+
+        void generate() {
+            OutputStream output = null;
+            try {
+                output = new BufferedOutputStream(new FileOutputStream(reportFile));
+                saxWriter.write(result, output);
+                output.close();
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), reportFile), e);
+            } finally {
+                IOUtils.closeQuietly(output);
+            }
+        }
+
+        public String getDescription() {
+            return "Generate junit XML test report for " + result.getClassName();
+        }
+    }
+
+    private static class JUnitXmlReportFileGeneratorWorker implements BuildOperationWorker<JUnitXmlReportFileGenerator> {
+        public String getDisplayName() {
+            return "JUnit XML test report generator";
+        }
+
+        public void execute(JUnitXmlReportFileGenerator generator) {
+            generator.generate();
+        }
+    }
+}
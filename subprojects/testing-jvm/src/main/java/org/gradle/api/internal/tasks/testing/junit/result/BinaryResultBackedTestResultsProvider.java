@@ -16,20 +16,59 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import org.gradle.api.Action;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 public class BinaryResultBackedTestResultsProvider implements TestResultsProvider {
     private final TestOutputStore.Reader outputReader;
     private final TestResultSerializer resultSerializer;
+    private final File resultsDir;
+    private String contentHash;
 
     public BinaryResultBackedTestResultsProvider(File resultsDir) {
         this.outputReader = new TestOutputStore(resultsDir).reader();
         this.resultSerializer = new TestResultSerializer(resultsDir);
+        this.resultsDir = resultsDir;
+    }
+
+    /**
+     * Returns a hash of the binary results, which changes whenever the results are written again. The results file and the output index are hashed in full.
+     * The output itself is only represented by its size, as its position in the output file is recorded by the index, and the results include the start time
+     * of each test class.
+     */
+    public String getContentHash() {
+        if (contentHash == null) {
+            try {
+                Hasher hasher = Hashing.md5().newHasher();
+                File[] files = resultsDir.listFiles();
+                if (files != null) {
+                    Arrays.sort(files);
+                    for (File file : files) {
+                        if (!file.isFile()) {
+                            continue;
+                        }
+                        hasher.putUnencodedChars(file.getName());
+                        hasher.putLong(file.length());
+                        if (!file.getName().equals("output.bin")) {
+                            hasher.putBytes(Files.hash(file, Hashing.md5()).asBytes());
+                        }
+                    }
+                }
+                contentHash = hasher.hash().toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return contentHash;
     }
 
     public boolean hasOutput(long id, TestOutputEvent.Destination destination) {
@@ -21,18 +21,28 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.io.ByteBufferInputStream;
 import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class TestOutputStore {
 
+    private static final int MESSAGE_CHUNK_SIZE = 8192;
+
     private final File resultsDir;
     private final Charset messageStorageCharset;
 
@@ -216,9 +226,14 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Reads the output of a test run. A reader can be used by multiple threads concurrently. Where possible, the outputs file is mapped into memory once and each
+     * read decodes from its own view of the mapping. Otherwise reads take turns on a shared file handle.
+     */
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private ByteBuffer content;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -263,7 +278,11 @@ public class TestOutputStore {
 
                 try {
                     dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
+                    // A mapped file cannot be replaced on Windows until the mapping is garbage collected, and the outputs file is rewritten by the next test run
+                    if (!OperatingSystem.current().isWindows() && dataFile.length() <= Integer.MAX_VALUE) {
+                        content = dataFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, dataFile.length());
+                    }
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             } else { // no outputs file
@@ -277,6 +296,8 @@ public class TestOutputStore {
         }
 
         public void close() throws IOException {
+            // A mapped region cannot be released explicitly, it is unmapped once it is no longer referenced
+            content = null;
             if (dataFile != null) {
                 dataFile.close();
             }
@@ -333,50 +354,105 @@ public class TestOutputStore {
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
+                ByteBuffer mapped = content;
+                if (mapped != null) {
+                    ByteBuffer buffer = mapped.duplicate();
+                    buffer.position((int) region.start);
+                    KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteBufferInputStream(buffer));
+                    readRegion(decoder, region, classId, testId, stdout, ignoreClassLevel, ignoreTestLevel, writer);
+                } else {
+                    synchronized (dataFile) {
+                        dataFile.seek(region.start);
+                        KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
+                        readRegion(decoder, region, classId, testId, stdout, ignoreClassLevel, ignoreTestLevel, writer);
                     }
+                }
+            } catch (IOException e1) {
+                throw new UncheckedIOException(e1);
+            }
+        }
 
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
+        private void readRegion(KryoBackedDecoder decoder, Region region, long classId, long testId, boolean stdout, boolean ignoreClassLevel, boolean ignoreTestLevel, java.io.Writer writer) throws IOException {
+            long maxPos = region.stop - region.start;
+            MessageCopier copier = null;
+            while (decoder.getReadPosition() <= maxPos) {
+                boolean readStdout = decoder.readBoolean();
+                long readClassId = decoder.readSmallLong();
+                long readTestId = decoder.readSmallLong();
+                int readLength = decoder.readSmallInt();
 
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
+                boolean isClassLevel = readTestId == 0;
 
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
+                if (stdout != readStdout || classId != readClassId) {
+                    decoder.skipBytes(readLength);
+                    continue;
+                }
+
+                if (ignoreClassLevel && isClassLevel) {
+                    decoder.skipBytes(readLength);
+                    continue;
+                }
 
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
+                if (ignoreTestLevel && !isClassLevel) {
+                    decoder.skipBytes(readLength);
+                    continue;
+                }
+
+                if (testId == 0 || testId == readTestId) {
+                    if (copier == null) {
+                        copier = new MessageCopier(messageStorageCharset.newDecoder());
                     }
+                    copier.copy(decoder, readLength, writer);
+                } else {
+                    decoder.skipBytes(readLength);
                 }
-            } catch (IOException e1) {
-                throw new UncheckedIOException(e1);
+            }
+        }
+    }
+
+    /**
+     * Decodes messages to a writer in fixed size chunks, so that large messages are not held in memory as a whole.
+     */
+    private static class MessageCopier {
+        private final CharsetDecoder charsetDecoder;
+        private final ByteBuffer bytes = ByteBuffer.allocate(MESSAGE_CHUNK_SIZE);
+        private final CharBuffer chars = CharBuffer.allocate(MESSAGE_CHUNK_SIZE);
+
+        MessageCopier(CharsetDecoder charsetDecoder) {
+            // Match the behaviour of new String(bytes, charset)
+            this.charsetDecoder = charsetDecoder.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        void copy(KryoBackedDecoder decoder, int length, java.io.Writer writer) throws IOException {
+            charsetDecoder.reset();
+            bytes.clear();
+            int remaining = length;
+            boolean endOfInput;
+            do {
+                // Bytes of an incomplete character are left over from the previous chunk
+                int count = Math.min(remaining, bytes.remaining());
+                decoder.readBytes(bytes.array(), bytes.position(), count);
+                bytes.position(bytes.position() + count);
+                remaining -= count;
+                endOfInput = remaining == 0;
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = charsetDecoder.decode(bytes, chars, endOfInput);
+                    flush(writer);
+                } while (result.isOverflow());
+                bytes.compact();
+            } while (!endOfInput);
+            while (charsetDecoder.flush(chars).isOverflow()) {
+                flush(writer);
+            }
+            flush(writer);
+        }
+
+        private void flush(java.io.Writer writer) throws IOException {
+            if (chars.position() > 0) {
+                writer.write(chars.array(), 0, chars.position());
+                chars.clear();
             }
         }
     }
@@ -56,7 +56,7 @@ public class TestNGTestFramework implements TestFramework {
         options = instantiator.newInstance(TestNGOptions.class, testTask.getProject().getProjectDir());
         options.setAnnotationsOnSourceCompatibility(JavaVersion.toVersion(testTask.getProject().property("sourceCompatibility")));
         conventionMapOutputDirectory(options, testTask.getReports().getHtml());
-        detector = new TestNGDetector(new ClassFileExtractionManager(testTask.getTemporaryDirFactory()));
+        detector = new TestNGDetector(new ClassFileExtractionManager());
         classLoaderFactory = new TestClassLoaderFactory(classLoaderCache, testTask);
     }
 
@@ -22,6 +22,7 @@ import org.gradle.api.Transformer;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.file.UnionFileCollection;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
+import org.gradle.api.internal.tasks.testing.junit.report.TestReportManifest;
 import org.gradle.api.internal.tasks.testing.junit.result.AggregateTestResultsProvider;
 import org.gradle.api.internal.tasks.testing.junit.result.BinaryResultBackedTestResultsProvider;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
@@ -29,9 +30,13 @@ import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.internal.operations.BuildOperationProcessor;
 
+import javax.inject.Inject;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -46,6 +51,11 @@ public class TestReport extends DefaultTask {
     private File destinationDir;
     private List<Object> results = new ArrayList<Object>();
 
+    @Inject
+    protected BuildOperationProcessor getBuildOperationProcessor() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Returns the directory to write the HTML report to.
      */
@@ -126,8 +136,9 @@ public class TestReport extends DefaultTask {
         TestResultsProvider resultsProvider = createAggregateProvider();
         try {
             if (resultsProvider.isHasResults()) {
-                DefaultTestReport testReport = new DefaultTestReport();
-                testReport.generateReport(resultsProvider, getDestinationDir());
+                DefaultTestReport testReport = new DefaultTestReport(getBuildOperationProcessor());
+                TestReportManifest manifest = new TestReportManifest(new File(getTemporaryDir(), "report.manifest"), new ClassFingerprints(resultsProvider));
+                testReport.generateReport(resultsProvider, getDestinationDir(), manifest);
             } else {
                 getLogger().info("{} - no binary test results found in dirs: {}.", getPath(), getTestResultDirs().getFiles());
                 setDidWork(false);
@@ -155,4 +166,27 @@ public class TestReport extends DefaultTask {
             throw e;
         }
     }
+
+    /**
+     * Fingerprints the results of a class by the binary results it was aggregated from, so that only the pages of classes whose results directories were
+     * written again are rendered.
+     */
+    private static class ClassFingerprints implements Transformer<String, Long> {
+        private final TestResultsProvider resultsProvider;
+
+        ClassFingerprints(TestResultsProvider resultsProvider) {
+            this.resultsProvider = resultsProvider;
+        }
+
+        public String transform(Long classId) {
+            Collection<TestResultsProvider> providers = resultsProvider instanceof AggregateTestResultsProvider
+                ? ((AggregateTestResultsProvider) resultsProvider).getProviders(classId)
+                : Collections.singleton(resultsProvider);
+            StringBuilder fingerprint = new StringBuilder();
+            for (TestResultsProvider provider : providers) {
+                fingerprint.append(((BinaryResultBackedTestResultsProvider) provider).getContentHash()).append(';');
+            }
+            return fingerprint.toString();
+        }
+    }
 }
@@ -27,6 +27,9 @@ import org.jmock.Sequence
 import org.gradle.api.file.FileTree
 import static org.hamcrest.Matchers.*
 import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 
 @RunWith(JMock.class)
 public class DefaultTestClassScannerTest {
@@ -55,4 +58,67 @@ public class DefaultTestClassScannerTest {
         
         scanner.run()
     }
+
+    @Test
+    public void detectsClassesConcurrentlyAndPassesTestClassesToProcessorInVisitOrder() {
+        def names = (1..200).collect { it % 3 == 0 ? "Test${it}.class" : "Helper${it}.class" }
+        def detector = new TestFrameworkDetector() {
+            TestClassProcessor processor
+
+            void startDetection(TestClassProcessor testClassProcessor) {
+                processor = testClassProcessor
+            }
+
+            boolean processTestClass(File testClassFile) {
+                // Make the first class files slow to process, so they complete after the following ones
+                sleep(names.indexOf(testClassFile.name) < 10 ? 50 : 0)
+                if (testClassFile.name.startsWith("Test")) {
+                    processor.processTestClass(new DefaultTestClassRunInfo(testClassFile.name))
+                    return true
+                }
+                return false
+            }
+
+            void setTestClassesDirectory(File testClassesDir) {}
+
+            void setTestClasspath(org.gradle.api.file.FileCollection classpath) {}
+        }
+        def received = []
+        def threads = [] as Set
+        def testClassProcessor = [processTestClass: { TestClassRunInfo testClass ->
+            received << testClass.testClassName
+            threads << Thread.currentThread()
+        }] as TestClassProcessor
+
+        context.checking {
+            one(files).visit(withParam(notNullValue()))
+            will { visitor ->
+                names.each { name -> visitor.visitFile({ new File(name) } as FileVisitDetails) }
+            }
+        }
+
+        new DefaultTestClassScanner(files, detector, testClassProcessor, new DefaultExecutorFactory(), 4).run()
+
+        assert received == names.findAll { it.startsWith("Test") }
+        assert threads == [Thread.currentThread()] as Set
+    }
+
+    @Test
+    public void detectsClassesOnScanningThreadWhenLimitedToOneWorker() {
+        def detectionThreads = [] as Set
+        def detector = [startDetection: { TestClassProcessor testClassProcessor -> },
+                        processTestClass: { File testClassFile -> detectionThreads << Thread.currentThread(); false }] as TestFrameworkDetector
+
+        context.checking {
+            one(files).visit(withParam(notNullValue()))
+            will { visitor ->
+                visitor.visitFile({ new File("Test1.class") } as FileVisitDetails)
+                visitor.visitFile({ new File("Test2.class") } as FileVisitDetails)
+            }
+        }
+
+        new DefaultTestClassScanner(files, detector, processor, new DefaultExecutorFactory(), 1).run()
+
+        assert detectionThreads == [Thread.currentThread()] as Set
+    }
 }
@@ -22,6 +22,7 @@ import org.gradle.api.file.FileTree
 import org.gradle.api.internal.tasks.testing.TestFramework
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.tasks.testing.Test
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
 import spock.lang.Specification
@@ -40,7 +41,7 @@ class DefaultTestExecuterTest extends Specification {
     FileCollection testClasspath = Mock()
     Project project = Mock()
 
-    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory)
+    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, new DefaultExecutorFactory(), 4)
 
     def setup() {
         _ * testTask.testFramework >> testFramework
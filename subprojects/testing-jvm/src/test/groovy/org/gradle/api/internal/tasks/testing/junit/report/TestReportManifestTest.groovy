@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.report
+
+import org.gradle.api.Transformer
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestReportManifestTest extends Specification {
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final TestFile reportDir = tmpDir.file('report')
+    final Map<Long, String> fingerprints = [:]
+    final manifest = new TestReportManifest(tmpDir.file("tmp/report.manifest"), { Long id -> fingerprints[id] } as Transformer)
+    final model = new AllTestResults()
+    final fooTest = model.addTestClass(1, "org.gradle.FooTest")
+    final barTest = model.addTestClass(2, "org.gradle.BarTest")
+    final packageResults = fooTest.packageResults
+
+    def "pages are not up-to-date for first report"() {
+        fingerprints[1L] = "a"
+        fingerprints[2L] = "b"
+
+        when:
+        manifest.start(reportDir)
+
+        then:
+        !manifest.isUpToDate(fooTest, page(fooTest))
+        !manifest.isUpToDate(packageResults, page(packageResults))
+        manifest.upToDatePages == 0
+    }
+
+    def "pages are up-to-date when fingerprints have not changed since previous report"() {
+        fingerprints[1L] = "a"
+        fingerprints[2L] = "b"
+        report()
+
+        when:
+        manifest.start(reportDir)
+
+        then:
+        manifest.isUpToDate(fooTest, page(fooTest))
+        manifest.isUpToDate(barTest, page(barTest))
+        manifest.isUpToDate(packageResults, page(packageResults))
+        manifest.upToDatePages == 3
+    }
+
+    def "class and package pages are not up-to-date when fingerprint of class has changed"() {
+        fingerprints[1L] = "a"
+        fingerprints[2L] = "b"
+        report()
+        fingerprints[1L] = "changed"
+
+        when:
+        manifest.start(reportDir)
+
+        then:
+        !manifest.isUpToDate(fooTest, page(fooTest))
+        manifest.isUpToDate(barTest, page(barTest))
+        !manifest.isUpToDate(packageResults, page(packageResults))
+    }
+
+    def "pages are not up-to-date when class has no fingerprint"() {
+        fingerprints[1L] = "a"
+        report()
+        fingerprints.remove(1L)
+
+        when:
+        manifest.start(reportDir)
+
+        then:
+        !manifest.isUpToDate(fooTest, page(fooTest))
+        !manifest.isUpToDate(packageResults, page(packageResults))
+    }
+
+    def "page is not up-to-date when page file has been removed"() {
+        fingerprints[1L] = "a"
+        fingerprints[2L] = "b"
+        report()
+        page(fooTest).delete()
+
+        when:
+        manifest.start(reportDir)
+
+        then:
+        !manifest.isUpToDate(fooTest, page(fooTest))
+        manifest.isUpToDate(barTest, page(barTest))
+    }
+
+    def "pages are not up-to-date when previous report did not complete"() {
+        fingerprints[1L] = "a"
+        fingerprints[2L] = "b"
+        report()
+        manifest.start(reportDir)
+
+        when:
+        manifest.start(reportDir)
+
+        then:
+        !manifest.isUpToDate(fooTest, page(fooTest))
+    }
+
+    def "pages are not up-to-date when report is written to a different directory"() {
+        fingerprints[1L] = "a"
+        fingerprints[2L] = "b"
+        report()
+        def otherDir = tmpDir.file("other")
+        reportDir.copyTo(otherDir)
+
+        when:
+        manifest.start(otherDir)
+
+        then:
+        !manifest.isUpToDate(fooTest, otherDir.file(fooTest.baseUrl))
+    }
+
+    private void report() {
+        manifest.start(reportDir)
+        [fooTest, barTest].each { manifest.isUpToDate(it, page(it).touch()) }
+        manifest.isUpToDate(packageResults, page(packageResults).touch())
+        manifest.save()
+    }
+
+    private TestFile page(CompositeTestResults results) {
+        reportDir.file(results.baseUrl)
+    }
+}
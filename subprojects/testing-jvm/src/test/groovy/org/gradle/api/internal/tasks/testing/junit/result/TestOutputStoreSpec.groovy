@@ -20,6 +20,9 @@ import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.test.fixtures.file.WorkspaceTest
 
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
 
@@ -145,6 +148,49 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads messages larger than the read buffer"() {
+        // Multi-byte characters end up split across chunk boundaries
+        def message = "\u00e9\u20ac\ud83d\ude00x" * 5000
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, message))
+        writer.onOutput(1, 1, output(StdOut, "[out-2]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectOutput(reader, 1, 1, StdOut) == "[out-1]" + message + "[out-2]"
+
+        cleanup:
+        reader.close()
+    }
+
+    def "can read output from multiple threads concurrently"() {
+        def executor = Executors.newFixedThreadPool(4)
+
+        when:
+        def writer = output.writer()
+        20.times { classId ->
+            10.times { testId ->
+                writer.onOutput(classId, testId + 1, output(StdOut, "[out-$classId-$testId]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+        def futures = (0..<20).collect { classId ->
+            executor.submit({ collectAllOutput(reader, classId, StdOut) } as Callable)
+        }
+
+        then:
+        futures.collect { it.get() } == (0..<20).collect { classId -> (0..<10).collect { "[out-$classId-$it]" }.join("") }
+
+        cleanup:
+        executor.shutdown()
+        reader.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import org.gradle.api.Action;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * The base class for view classes generated by {@link ViewClassGenerator}. Each generated method dispatches to a method table that is resolved once
+ * for the view type and source type, rather than on every call.
+ *
+ * <p>This class, and its nested {@link State} class, are the only types from this package that are referenced by generated classes.</p>
+ *
+ * <p>A generated view is serialized as the equivalent proxy based view, so that it can be deserialized without the generated class.</p>
+ */
+public abstract class GeneratedView implements Serializable {
+    private static final Object NOT_CACHED = new Object();
+    private final Class<?> viewInterface;
+    private final GeneratedViewFactory.ViewType viewType;
+    private final Object delegate;
+    private final ProtocolToModelAdapter adapter;
+    private final Action<? super SourceObjectMapping> mapper;
+    private final Object[] properties;
+
+    protected GeneratedView(State state) {
+        this.viewInterface = state.viewInterface;
+        this.viewType = state.viewType;
+        this.delegate = state.delegate;
+        this.adapter = state.adapter;
+        this.mapper = state.mapper;
+        this.properties = new Object[viewType.getPropertyCount()];
+        Arrays.fill(properties, NOT_CACHED);
+        viewType.copySimpleProperties(this);
+    }
+
+    /**
+     * Called by the generated method with the given index.
+     */
+    protected final Object dispatch(int method, Object[] params) throws Throwable {
+        return viewType.getMethod(method).invoke(this, params);
+    }
+
+    Object getDelegate() {
+        return delegate;
+    }
+
+    boolean isCached(int property) {
+        return properties[property] != NOT_CACHED;
+    }
+
+    Object getCached(int property) {
+        return properties[property];
+    }
+
+    void cache(int property, Object value) {
+        properties[property] = value;
+    }
+
+    Object convert(Object value, Type targetType) {
+        return adapter.convert(value, targetType, mapper);
+    }
+
+    protected final Object writeReplace() throws ObjectStreamException {
+        return adapter.createProxy(viewInterface, delegate, mapper);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof GeneratedView)) {
+            return false;
+        }
+        GeneratedView other = (GeneratedView) o;
+        return delegate.equals(other.delegate);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    /**
+     * The constructor argument of a generated view class.
+     */
+    public static class State {
+        private final Class<?> viewInterface;
+        private final GeneratedViewFactory.ViewType viewType;
+        private final Object delegate;
+        private final ProtocolToModelAdapter adapter;
+        private final Action<? super SourceObjectMapping> mapper;
+
+        State(Class<?> viewInterface, GeneratedViewFactory.ViewType viewType, Object delegate, ProtocolToModelAdapter adapter, Action<? super SourceObjectMapping> mapper) {
+            this.viewInterface = viewInterface;
+            this.viewType = viewType;
+            this.delegate = delegate;
+            this.adapter = adapter;
+            this.mapper = mapper;
+        }
+    }
+}
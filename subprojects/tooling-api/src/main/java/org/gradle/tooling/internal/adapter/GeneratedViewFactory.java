@@ -0,0 +1,291 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import org.gradle.api.Action;
+import org.gradle.internal.UncheckedException;
+import org.gradle.tooling.model.internal.Exceptions;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.regex.Matcher;
+
+/**
+ * Creates view objects using classes generated by {@link ViewClassGenerator}. The generated class is cached per view type, and the method table
+ * that maps the view type onto the source type is cached per (view type, source type) pair, so that no method lookup happens when a view
+ * method is called.
+ *
+ * <p>Applies the same rules as the proxy based views created by {@link ProtocolToModelAdapter}: property values are cached, {@code isXSupported()}
+ * methods check for the associated getter, and getters that take a default value fall back to that value.</p>
+ */
+class GeneratedViewFactory {
+    private static final Object[] EMPTY = new Object[0];
+    private static final Set<Class<?>> SIMPLE_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+        Boolean.TYPE, Character.TYPE, Byte.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE,
+        Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, String.class));
+
+    private final ViewClassGenerator generator = new ViewClassGenerator();
+    private final Map<Class<?>, ViewClassGenerator.GeneratedViewClass> viewClasses = new HashMap<Class<?>, ViewClassGenerator.GeneratedViewClass>();
+    private final Map<ViewTypeKey, ViewType> viewTypes = new HashMap<ViewTypeKey, ViewType>();
+
+    /**
+     * Creates a view of the given source object, or returns null when a class cannot be generated for the given view type.
+     */
+    <T> T create(Class<T> viewType, Object sourceObject, ProtocolToModelAdapter adapter, Action<? super SourceObjectMapping> mapper) {
+        ViewType type = getViewType(viewType, sourceObject.getClass());
+        if (type == null) {
+            return null;
+        }
+        try {
+            return viewType.cast(type.constructor.newInstance(new GeneratedView.State(viewType, type, sourceObject, adapter, mapper)));
+        } catch (InvocationTargetException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private synchronized ViewType getViewType(Class<?> viewType, Class<?> sourceType) {
+        ViewTypeKey key = new ViewTypeKey(viewType, sourceType);
+        if (viewTypes.containsKey(key)) {
+            return viewTypes.get(key);
+        }
+        ViewClassGenerator.GeneratedViewClass viewClass = getViewClass(viewType);
+        ViewType type = viewClass == null ? null : new ViewType(viewClass, sourceType);
+        viewTypes.put(key, type);
+        return type;
+    }
+
+    private ViewClassGenerator.GeneratedViewClass getViewClass(Class<?> viewType) {
+        if (viewClasses.containsKey(viewType)) {
+            return viewClasses.get(viewType);
+        }
+        ViewClassGenerator.GeneratedViewClass viewClass = generator.canGenerate(viewType) ? generator.generate(viewType) : null;
+        viewClasses.put(viewType, viewClass);
+        return viewClass;
+    }
+
+    private static class ViewTypeKey {
+        private final Class<?> viewType;
+        private final Class<?> sourceType;
+
+        ViewTypeKey(Class<?> viewType, Class<?> sourceType) {
+            this.viewType = viewType;
+            this.sourceType = sourceType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            ViewTypeKey other = (ViewTypeKey) obj;
+            return viewType.equals(other.viewType) && sourceType.equals(other.sourceType);
+        }
+
+        @Override
+        public int hashCode() {
+            return viewType.hashCode() ^ sourceType.hashCode();
+        }
+    }
+
+    /**
+     * The method table of a generated view class for a particular source type.
+     */
+    static class ViewType {
+        private final Constructor<? extends GeneratedView> constructor;
+        private final ViewMethod[] methods;
+        private final List<PropertyMethod> simpleProperties = new ArrayList<PropertyMethod>();
+        private final int propertyCount;
+
+        ViewType(ViewClassGenerator.GeneratedViewClass viewClass, Class<?> sourceType) {
+            this.constructor = viewClass.getConstructor();
+            List<Method> viewMethods = viewClass.getMethods();
+            Map<String, Integer> propertySlots = new HashMap<String, Integer>();
+            methods = new ViewMethod[viewMethods.size()];
+            for (int i = 0; i < methods.length; i++) {
+                methods[i] = resolve(viewMethods.get(i), sourceType, propertySlots);
+            }
+            propertyCount = propertySlots.size();
+        }
+
+        int getPropertyCount() {
+            return propertyCount;
+        }
+
+        ViewMethod getMethod(int index) {
+            return methods[index];
+        }
+
+        void copySimpleProperties(GeneratedView view) {
+            for (PropertyMethod property : simpleProperties) {
+                property.copy(view);
+            }
+        }
+
+        private ViewMethod resolve(Method viewMethod, Class<?> sourceType, Map<String, Integer> propertySlots) {
+            String name = viewMethod.getName();
+            Class<?>[] parameterTypes = viewMethod.getParameterTypes();
+
+            Matcher matcher = ProtocolToModelAdapter.IS_SUPPORT_METHOD.matcher(name);
+            if (matcher.matches()) {
+                String getterName = String.format("get%s", matcher.group(1));
+                return new ConstantMethod(ProtocolToModelAdapter.locateMethod(sourceType, getterName, new Class<?>[0]) != null);
+            }
+
+            boolean isGetter = ProtocolToModelAdapter.isGetterName(name);
+            Method sourceMethod = ProtocolToModelAdapter.locateMethod(sourceType, name, parameterTypes);
+            if (sourceMethod != null) {
+                if (isGetter && parameterTypes.length == 0) {
+                    PropertyMethod property = new PropertyMethod(viewMethod, sourceMethod, slot(name, propertySlots));
+                    if (SIMPLE_TYPES.contains(viewMethod.getReturnType())) {
+                        simpleProperties.add(property);
+                    }
+                    return property;
+                }
+                return new DelegatingMethod(viewMethod, sourceMethod);
+            }
+
+            if (isGetter && parameterTypes.length == 1) {
+                Method getter = ProtocolToModelAdapter.locateMethod(sourceType, name, new Class<?>[0]);
+                PropertyMethod property = getter == null ? null : new PropertyMethod(viewMethod, getter, slot(name, propertySlots));
+                return new DefaultValueMethod(property);
+            }
+
+            return new UnsupportedMethod(viewMethod.getDeclaringClass().getSimpleName() + "." + name + "()");
+        }
+
+        private static int slot(String name, Map<String, Integer> propertySlots) {
+            Integer slot = propertySlots.get(name);
+            if (slot == null) {
+                slot = propertySlots.size();
+                propertySlots.put(name, slot);
+            }
+            return slot;
+        }
+    }
+
+    abstract static class ViewMethod {
+        abstract Object invoke(GeneratedView view, Object[] params) throws Throwable;
+    }
+
+    private static class DelegatingMethod extends ViewMethod {
+        private final Method viewMethod;
+        private final Method sourceMethod;
+
+        DelegatingMethod(Method viewMethod, Method sourceMethod) {
+            this.viewMethod = viewMethod;
+            this.sourceMethod = sourceMethod;
+        }
+
+        @Override
+        Object invoke(GeneratedView view, Object[] params) throws Throwable {
+            Object result;
+            try {
+                result = sourceMethod.invoke(view.getDelegate(), params);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result == null || viewMethod.getReturnType().isPrimitive()) {
+                return result;
+            }
+            if (SIMPLE_TYPES.contains(viewMethod.getReturnType()) && viewMethod.getReturnType().isInstance(result)) {
+                return result;
+            }
+            return view.convert(result, viewMethod.getGenericReturnType());
+        }
+    }
+
+    private static class PropertyMethod extends DelegatingMethod {
+        private final int slot;
+
+        PropertyMethod(Method viewMethod, Method sourceMethod, int slot) {
+            super(viewMethod, sourceMethod);
+            this.slot = slot;
+        }
+
+        @Override
+        Object invoke(GeneratedView view, Object[] params) throws Throwable {
+            if (view.isCached(slot)) {
+                return view.getCached(slot);
+            }
+            Object value = super.invoke(view, EMPTY);
+            view.cache(slot, value);
+            return value;
+        }
+
+        void copy(GeneratedView view) {
+            try {
+                invoke(view, EMPTY);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // Leave the property uncached, so that the failure is reported when the property is queried
+            }
+        }
+    }
+
+    private static class DefaultValueMethod extends ViewMethod {
+        private final PropertyMethod getter;
+
+        DefaultValueMethod(PropertyMethod getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        Object invoke(GeneratedView view, Object[] params) throws Throwable {
+            if (getter != null) {
+                Object value = getter.invoke(view, EMPTY);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return params[0];
+        }
+    }
+
+    private static class ConstantMethod extends ViewMethod {
+        private final Object value;
+
+        ConstantMethod(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object invoke(GeneratedView view, Object[] params) {
+            return value;
+        }
+    }
+
+    private static class UnsupportedMethod extends ViewMethod {
+        private final String methodName;
+
+        UnsupportedMethod(String methodName) {
+            this.methodName = methodName;
+        }
+
+        @Override
+        Object invoke(GeneratedView view, Object[] params) {
+            throw Exceptions.unsupportedMethod(methodName);
+        }
+    }
+}
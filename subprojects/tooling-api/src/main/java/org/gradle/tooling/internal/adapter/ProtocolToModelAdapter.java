@@ -42,18 +42,30 @@ public class ProtocolToModelAdapter implements Serializable {
         }
     };
     private static final Object[] EMPTY = new Object[0];
-    private static final Pattern IS_SUPPORT_METHOD = Pattern.compile("is(\\w+)Supported");
+    static final Pattern IS_SUPPORT_METHOD = Pattern.compile("is(\\w+)Supported");
     private static final Pattern GETTER_METHOD = Pattern.compile("get(\\w+)");
     private static final Pattern IS_METHOD = Pattern.compile("is(\\w+)");
     private final TargetTypeProvider targetTypeProvider;
     private final CollectionMapper collectionMapper = new CollectionMapper();
+    private final boolean generateViewClasses;
+    private transient GeneratedViewFactory generatedViewFactory;
 
     public ProtocolToModelAdapter() {
         this(IDENTITY_TYPE_PROVIDER);
     }
 
     public ProtocolToModelAdapter(TargetTypeProvider targetTypeProvider) {
+        this(targetTypeProvider, false);
+    }
+
+    /**
+     * @param generateViewClasses When true, views are instances of generated classes that resolve the source object's methods once per view type and source type, instead of
+     * {@link Proxy} instances that resolve methods on each call. Generated views eagerly copy simple property values from the source object, and are serialized as the equivalent
+     * proxy. Views that use a mix-in are always created as proxies.
+     */
+    public ProtocolToModelAdapter(TargetTypeProvider targetTypeProvider, boolean generateViewClasses) {
         this.targetTypeProvider = targetTypeProvider;
+        this.generateViewClasses = generateViewClasses;
     }
 
     /**
@@ -104,13 +116,37 @@ public class ProtocolToModelAdapter implements Serializable {
         if (targetType.isEnum()) {
             return adaptToEnum(targetType, sourceObject);
         }
-        Object proxy = Proxy.newProxyInstance(wrapperType.getClassLoader(), new Class<?>[]{wrapperType}, new InvocationHandlerImpl(sourceObject, overrideMethodInvoker, mapper));
+        if (generateViewClasses && mixInMethodInvoker == null && overrideMethodInvoker == NO_OP_HANDLER) {
+            T view = generatedViewFactory().create(wrapperType, sourceObject, this, mapper);
+            if (view != null) {
+                return view;
+            }
+        }
+        Object proxy = createProxy(wrapperType, sourceObject, overrideMethodInvoker, mapper);
         if (mixInMethodInvoker != null) {
             mixInMethodInvoker.setProxy(proxy);
         }
         return wrapperType.cast(proxy);
     }
 
+    /**
+     * Creates a proxy based view of the given source object, without a mix-in. Used as the serialized form of a generated view.
+     */
+    Object createProxy(Class<?> wrapperType, Object sourceObject, Action<? super SourceObjectMapping> mapper) {
+        return createProxy(wrapperType, sourceObject, NO_OP_HANDLER, mapper);
+    }
+
+    private Object createProxy(Class<?> wrapperType, Object sourceObject, MethodInvoker overrideMethodInvoker, Action<? super SourceObjectMapping> mapper) {
+        return Proxy.newProxyInstance(wrapperType.getClassLoader(), new Class<?>[]{wrapperType}, new InvocationHandlerImpl(sourceObject, overrideMethodInvoker, mapper));
+    }
+
+    private synchronized GeneratedViewFactory generatedViewFactory() {
+        if (generatedViewFactory == null) {
+            generatedViewFactory = new GeneratedViewFactory();
+        }
+        return generatedViewFactory;
+    }
+
     private static <T, S> T adaptToEnum(Class<T> targetType, S sourceObject) {
         try {
             String literal;
@@ -133,6 +169,9 @@ public class ProtocolToModelAdapter implements Serializable {
      * Unpacks the source object from a given view object.
      */
     public Object unpack(Object viewObject) {
+        if (viewObject instanceof GeneratedView) {
+            return ((GeneratedView) viewObject).getDelegate();
+        }
         if (!Proxy.isProxyClass(viewObject.getClass()) || !(Proxy.getInvocationHandler(viewObject) instanceof InvocationHandlerImpl)) {
             throw new IllegalArgumentException("The given object is not a view object");
         }
@@ -140,6 +179,87 @@ public class ProtocolToModelAdapter implements Serializable {
         return handler.delegate;
     }
 
+    Object convert(Object value, Type targetType, Action<? super SourceObjectMapping> mapping) {
+        if (targetType instanceof ParameterizedType) {
+            ParameterizedType parameterizedTargetType = (ParameterizedType) targetType;
+            if (parameterizedTargetType.getRawType() instanceof Class) {
+                Class<?> rawClass = (Class<?>) parameterizedTargetType.getRawType();
+                if (Iterable.class.isAssignableFrom(rawClass)) {
+                    Type targetElementType = getElementType(parameterizedTargetType, 0);
+                    Collection<Object> convertedElements = collectionMapper.createEmptyCollection(rawClass);
+                    for (Object element : (Iterable<?>) value) {
+                        convertedElements.add(convert(element, targetElementType, mapping));
+                    }
+                    if (rawClass.equals(DomainObjectSet.class)) {
+                        return new ImmutableDomainObjectSet(convertedElements);
+                    } else {
+                        return convertedElements;
+                    }
+                }
+                if (Map.class.isAssignableFrom(rawClass)) {
+                    Type targetKeyType = getElementType(parameterizedTargetType, 0);
+                    Type targetValueType = getElementType(parameterizedTargetType, 1);
+                    Map<Object, Object> convertedElements = collectionMapper.createEmptyMap(rawClass);
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        convertedElements.put(convert(entry.getKey(), targetKeyType, mapping), convert(entry.getValue(), targetValueType, mapping));
+                    }
+                    return convertedElements;
+                }
+            }
+        }
+        if (targetType instanceof Class) {
+            if (((Class) targetType).isPrimitive()) {
+                return value;
+            }
+            return adapt((Class) targetType, value, mapping);
+        }
+        throw new UnsupportedOperationException(String.format("Cannot convert object of %s to %s.", value.getClass(), targetType));
+    }
+
+    private static Type getElementType(ParameterizedType type, int index) {
+        Type elementType = type.getActualTypeArguments()[index];
+        if (elementType instanceof WildcardType) {
+            WildcardType wildcardType = (WildcardType) elementType;
+            return wildcardType.getUpperBounds()[0];
+        }
+        return elementType;
+    }
+
+    static boolean isGetterName(String methodName) {
+        return GETTER_METHOD.matcher(methodName).matches() || IS_METHOD.matcher(methodName).matches();
+    }
+
+    /**
+     * Locates the method of the given source class that should be invoked for the given method name and parameter types, or null when there is no such method.
+     */
+    static Method locateMethod(Class<?> sourceClass, String name, Class<?>[] parameterTypes) {
+        Method match;
+        try {
+            match = sourceClass.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+
+        LinkedList<Class<?>> queue = new LinkedList<Class<?>>();
+        queue.add(sourceClass);
+        while (!queue.isEmpty()) {
+            Class<?> c = queue.removeFirst();
+            try {
+                match = c.getMethod(name, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                // ignore
+            }
+            for (Class<?> interfaceType : c.getInterfaces()) {
+                queue.addFirst(interfaceType);
+            }
+            if (c.getSuperclass() != null) {
+                queue.addFirst(c.getSuperclass());
+            }
+        }
+        match.setAccessible(true);
+        return match;
+    }
+
     private static class DefaultSourceObjectMapping implements SourceObjectMapping {
         private final Object protocolObject;
         private final Class<?> targetType;
@@ -292,55 +412,9 @@ public class ProtocolToModelAdapter implements Serializable {
         public void invoke(MethodInvocation invocation) throws Throwable {
             next.invoke(invocation);
             if (invocation.found() && invocation.getResult() != null) {
-                invocation.setResult(convert(invocation.getResult(), invocation.getGenericReturnType()));
+                invocation.setResult(convert(invocation.getResult(), invocation.getGenericReturnType(), mapping));
             }
         }
-
-        private Object convert(Object value, Type targetType) {
-            if (targetType instanceof ParameterizedType) {
-                ParameterizedType parameterizedTargetType = (ParameterizedType) targetType;
-                if (parameterizedTargetType.getRawType() instanceof Class) {
-                    Class<?> rawClass = (Class<?>) parameterizedTargetType.getRawType();
-                    if (Iterable.class.isAssignableFrom(rawClass)) {
-                        Type targetElementType = getElementType(parameterizedTargetType, 0);
-                        Collection<Object> convertedElements = collectionMapper.createEmptyCollection(rawClass);
-                        for (Object element : (Iterable<?>) value) {
-                            convertedElements.add(convert(element, targetElementType));
-                        }
-                        if (rawClass.equals(DomainObjectSet.class)) {
-                            return new ImmutableDomainObjectSet(convertedElements);
-                        } else {
-                            return convertedElements;
-                        }
-                    }
-                    if (Map.class.isAssignableFrom(rawClass)) {
-                        Type targetKeyType = getElementType(parameterizedTargetType, 0);
-                        Type targetValueType = getElementType(parameterizedTargetType, 1);
-                        Map<Object, Object> convertedElements = collectionMapper.createEmptyMap(rawClass);
-                        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
-                            convertedElements.put(convert(entry.getKey(), targetKeyType), convert(entry.getValue(), targetValueType));
-                        }
-                        return convertedElements;
-                    }
-                }
-            }
-            if (targetType instanceof Class) {
-                if (((Class) targetType).isPrimitive()) {
-                    return value;
-                }
-                return adapt((Class) targetType, value, mapping);
-            }
-            throw new UnsupportedOperationException(String.format("Cannot convert object of %s to %s.", value.getClass(), targetType));
-        }
-
-        private Type getElementType(ParameterizedType type, int index) {
-            Type elementType = type.getActualTypeArguments()[index];
-            if (elementType instanceof WildcardType) {
-                WildcardType wildcardType = (WildcardType) elementType;
-                return wildcardType.getUpperBounds()[0];
-            }
-            return elementType;
-        }
     }
 
     private class ReflectionMethodInvoker implements MethodInvoker {
@@ -362,32 +436,7 @@ public class ProtocolToModelAdapter implements Serializable {
         }
 
         private Method locateMethod(MethodInvocation invocation) {
-            Class<?> sourceClass = invocation.getDelegate().getClass();
-            Method match;
-            try {
-                match = sourceClass.getMethod(invocation.getName(), invocation.getParameterTypes());
-            } catch (NoSuchMethodException e) {
-                return null;
-            }
-
-            LinkedList<Class<?>> queue = new LinkedList<Class<?>>();
-            queue.add(sourceClass);
-            while (!queue.isEmpty()) {
-                Class<?> c = queue.removeFirst();
-                try {
-                    match = c.getMethod(invocation.getName(), invocation.getParameterTypes());
-                } catch (NoSuchMethodException e) {
-                    // ignore
-                }
-                for (Class<?> interfaceType : c.getInterfaces()) {
-                    queue.addFirst(interfaceType);
-                }
-                if (c.getSuperclass() != null) {
-                    queue.addFirst(c.getSuperclass());
-                }
-            }
-            match.setAccessible(true);
-            return match;
+            return ProtocolToModelAdapter.locateMethod(invocation.getDelegate().getClass(), invocation.getName(), invocation.getParameterTypes());
         }
     }
 
@@ -401,7 +450,7 @@ public class ProtocolToModelAdapter implements Serializable {
         }
 
         public void invoke(MethodInvocation method) throws Throwable {
-            if ((GETTER_METHOD.matcher(method.getName()).matches() || IS_METHOD.matcher(method.getName()).matches()) && method.getParameterTypes().length == 0) {
+            if (isGetterName(method.getName()) && method.getParameterTypes().length == 0) {
                 if (properties.containsKey(method.getName())) {
                     method.setResult(properties.get(method.getName()));
                     return;
@@ -438,7 +487,7 @@ public class ProtocolToModelAdapter implements Serializable {
                 return;
             }
 
-            if (!GETTER_METHOD.matcher(invocation.getName()).matches() && !IS_METHOD.matcher(invocation.getName()).matches()) {
+            if (!isGetterName(invocation.getName())) {
                 return;
             }
 
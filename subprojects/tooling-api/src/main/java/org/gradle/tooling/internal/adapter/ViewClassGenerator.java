@@ -0,0 +1,260 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Generates a concrete implementation of a view interface, as a subclass of {@link GeneratedView}. Method {@code i} of the generated class calls
+ * {@link GeneratedView#dispatch(int, Object[])} with index {@code i}, where the indexes are those of {@link GeneratedViewClass#getMethods()}.
+ */
+class ViewClassGenerator {
+    private static final String VIEW_SUFFIX = "_View";
+    private static final Type GENERATED_VIEW_TYPE = Type.getType(GeneratedView.class);
+    private static final Type STATE_TYPE = Type.getType(GeneratedView.State.class);
+    private static final Type OBJECT_TYPE = Type.getType(Object.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, STATE_TYPE);
+    private static final String DISPATCH_DESCRIPTOR = Type.getMethodDescriptor(OBJECT_TYPE, Type.INT_TYPE, Type.getType(Object[].class));
+    private static final Set<String> OBJECT_METHODS = new HashSet<String>(Arrays.asList("equals(java.lang.Object)", "hashCode()", "toString()"));
+
+    /**
+     * Returns true when a class can be generated for the given view type. Otherwise, a proxy should be used.
+     */
+    boolean canGenerate(Class<?> viewType) {
+        return viewType.isInterface() && Modifier.isPublic(viewType.getModifiers());
+    }
+
+    GeneratedViewClass generate(Class<?> viewType) {
+        List<List<Method>> methods = groupMethods(viewType);
+
+        String typeName = viewType.getName() + VIEW_SUFFIX;
+        Type generatedType = Type.getType("L" + typeName.replace('.', '/') + ";");
+
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, generatedType.getInternalName(), null,
+                GENERATED_VIEW_TYPE.getInternalName(), new String[]{Type.getInternalName(viewType)});
+
+        // GENERATE public <init>(State state) { super(state); }
+        MethodVisitor constructorVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        constructorVisitor.visitCode();
+        constructorVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructorVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+        constructorVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, GENERATED_VIEW_TYPE.getInternalName(), "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        constructorVisitor.visitInsn(Opcodes.RETURN);
+        constructorVisitor.visitMaxs(0, 0);
+        constructorVisitor.visitEnd();
+
+        List<Method> representatives = new ArrayList<Method>(methods.size());
+        for (int index = 0; index < methods.size(); index++) {
+            List<Method> overloads = methods.get(index);
+            representatives.add(mostSpecific(overloads));
+            Set<String> descriptors = new HashSet<String>();
+            for (Method method : overloads) {
+                if (descriptors.add(Type.getMethodDescriptor(method))) {
+                    addMethod(visitor, method, index);
+                }
+            }
+        }
+
+        visitor.visitEnd();
+
+        ViewClassLoader classLoader = new ViewClassLoader(viewType.getClassLoader());
+        Class<?> generatedClass = classLoader.define(typeName, visitor.toByteArray());
+        try {
+            Constructor<? extends GeneratedView> constructor = generatedClass.asSubclass(GeneratedView.class).getConstructor(GeneratedView.State.class);
+            return new GeneratedViewClass(constructor, representatives);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(String.format("Could not find constructor of generated view class for %s.", viewType.getName()), e);
+        }
+    }
+
+    // GENERATE public <return-type> <method>(<params>) { return (<return-type>) dispatch(<index>, new Object[]{<params>}); }
+    private void addMethod(ClassWriter visitor, Method method, int index) {
+        Type returnType = Type.getType(method.getReturnType());
+        Type[] paramTypes = Type.getArgumentTypes(method);
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, null);
+        methodVisitor.visitCode();
+
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitLdcInsn(index);
+        methodVisitor.visitLdcInsn(paramTypes.length);
+        methodVisitor.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT_TYPE.getInternalName());
+        int slot = 1;
+        for (int i = 0; i < paramTypes.length; i++) {
+            Type paramType = paramTypes[i];
+            methodVisitor.visitInsn(Opcodes.DUP);
+            methodVisitor.visitLdcInsn(i);
+            methodVisitor.visitVarInsn(paramType.getOpcode(Opcodes.ILOAD), slot);
+            box(methodVisitor, paramType);
+            methodVisitor.visitInsn(Opcodes.AASTORE);
+            slot += paramType.getSize();
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, GENERATED_VIEW_TYPE.getInternalName(), "dispatch", DISPATCH_DESCRIPTOR, false);
+
+        if (returnType.getSort() == Type.VOID) {
+            methodVisitor.visitInsn(Opcodes.POP);
+            methodVisitor.visitInsn(Opcodes.RETURN);
+        } else {
+            unbox(methodVisitor, returnType);
+            methodVisitor.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+        }
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    private static void box(MethodVisitor methodVisitor, Type type) {
+        Type boxedType = boxedType(type);
+        if (boxedType == null) {
+            return;
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, boxedType.getInternalName(), "valueOf", Type.getMethodDescriptor(boxedType, type), false);
+    }
+
+    private static void unbox(MethodVisitor methodVisitor, Type type) {
+        Type boxedType = boxedType(type);
+        if (boxedType == null) {
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+            return;
+        }
+        methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, boxedType.getInternalName());
+        methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxedType.getInternalName(), type.getClassName() + "Value", Type.getMethodDescriptor(type), false);
+    }
+
+    private static Type boxedType(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return Type.getType(Boolean.class);
+            case Type.CHAR:
+                return Type.getType(Character.class);
+            case Type.BYTE:
+                return Type.getType(Byte.class);
+            case Type.SHORT:
+                return Type.getType(Short.class);
+            case Type.INT:
+                return Type.getType(Integer.class);
+            case Type.LONG:
+                return Type.getType(Long.class);
+            case Type.FLOAT:
+                return Type.getType(Float.class);
+            case Type.DOUBLE:
+                return Type.getType(Double.class);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Groups the abstract methods of the view type by name and parameter types. Methods in a group differ only by (covariant) return type, and share an index.
+     */
+    private static List<List<Method>> groupMethods(Class<?> viewType) {
+        Map<String, List<Method>> groups = new TreeMap<String, List<Method>>();
+        for (Method method : viewType.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String signature = signature(method);
+            if (OBJECT_METHODS.contains(signature)) {
+                continue;
+            }
+            List<Method> group = groups.get(signature);
+            if (group == null) {
+                group = new ArrayList<Method>();
+                groups.put(signature, group);
+            }
+            group.add(method);
+        }
+        return new ArrayList<List<Method>>(groups.values());
+    }
+
+    private static String signature(Method method) {
+        StringBuilder builder = new StringBuilder(method.getName());
+        builder.append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(parameterTypes[i].getName());
+        }
+        builder.append(')');
+        return builder.toString();
+    }
+
+    private static Method mostSpecific(List<Method> methods) {
+        Method result = methods.get(0);
+        for (Method method : methods) {
+            if (result.getReturnType().isAssignableFrom(method.getReturnType())) {
+                result = method;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A generated view class, along with the view type method that each index refers to.
+     */
+    static class GeneratedViewClass {
+        private final Constructor<? extends GeneratedView> constructor;
+        private final List<Method> methods;
+
+        GeneratedViewClass(Constructor<? extends GeneratedView> constructor, List<Method> methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+
+        Constructor<? extends GeneratedView> getConstructor() {
+            return constructor;
+        }
+
+        List<Method> getMethods() {
+            return methods;
+        }
+    }
+
+    /**
+     * Defines a generated class so that it sees the view type from its own ClassLoader and {@link GeneratedView} from the tooling API ClassLoader,
+     * which may not be visible to the view type's ClassLoader.
+     */
+    private static class ViewClassLoader extends ClassLoader {
+        ViewClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(GeneratedView.class.getName())) {
+                return GeneratedView.class;
+            }
+            if (name.equals(GeneratedView.State.class.getName())) {
+                return GeneratedView.State.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
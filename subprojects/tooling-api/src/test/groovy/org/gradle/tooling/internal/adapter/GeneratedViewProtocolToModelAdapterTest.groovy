@@ -0,0 +1,191 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter
+
+import org.gradle.messaging.remote.internal.Message
+import org.gradle.tooling.internal.consumer.converters.ConsumerTargetTypeProvider
+import org.gradle.tooling.model.UnsupportedMethodException
+import org.gradle.util.Matchers
+import spock.lang.Specification
+
+import java.lang.reflect.Proxy
+
+class GeneratedViewProtocolToModelAdapterTest extends Specification {
+    final ProtocolToModelAdapter adapter = new ProtocolToModelAdapter({ Class type, Object source -> type } as TargetTypeProvider, true)
+
+    def "creates instance of generated class for protocol model"() {
+        TestProtocolModel protocolModel = Mock()
+
+        when:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+
+        then:
+        model instanceof TestModel
+        model instanceof GeneratedView
+        !Proxy.isProxyClass(model.getClass())
+    }
+
+    def "reuses generated class for each view type"() {
+        expect:
+        adapter.adapt(TestModel.class, Mock(TestProtocolModel)).getClass() == adapter.adapt(TestModel.class, Mock(PartialTestProtocolModel)).getClass()
+    }
+
+    def "views are equal when source objects are equal"() {
+        TestProtocolModel protocolModel1 = Mock()
+        TestProtocolModel protocolModel2 = Mock()
+
+        def model = adapter.adapt(TestModel.class, protocolModel1)
+        def equal = adapter.adapt(TestModel.class, protocolModel1)
+        def different = adapter.adapt(TestModel.class, protocolModel2)
+
+        expect:
+        Matchers.strictlyEquals(model, equal)
+        model != different
+    }
+
+    def "eagerly copies simple property values and adapts other values on demand"() {
+        TestProtocolModel protocolModel = Mock()
+        TestProtocolProject protocolProject = Mock()
+
+        when:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+
+        then:
+        1 * protocolModel.getName() >> 'name'
+        0 * protocolModel._
+
+        when:
+        def name = model.name
+        def project = model.project
+
+        then:
+        name == 'name'
+        project instanceof TestProject
+        project.is(model.project)
+        1 * protocolModel.getProject() >> protocolProject
+        0 * protocolModel._
+    }
+
+    def "adapts collection and map properties"() {
+        TestProtocolModel protocolModel = Mock()
+        TestProtocolProject protocolProject = Mock()
+        _ * protocolModel.project >> protocolProject
+        _ * protocolModel.getChildren() >> [protocolProject]
+        _ * protocolModel.getChildMap() >> Collections.singletonMap(protocolProject, protocolProject)
+        _ * protocolProject.getName() >> 'name'
+
+        expect:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        model.children.size() == 1
+        model.children[0] instanceof TestProject
+        model.children[0].name == 'name'
+        model.childMap[model.project] == model.project
+    }
+
+    def "adapts enum property"() {
+        TestProtocolModel protocolModel = Mock()
+        _ * protocolModel.getTestEnum() >> "SECOND"
+
+        expect:
+        adapter.adapt(TestModel.class, protocolModel).testEnum == TestEnum.SECOND
+    }
+
+    def "reports method which does not exist on protocol object"() {
+        PartialTestProtocolModel protocolModel = Mock()
+
+        when:
+        adapter.adapt(TestModel.class, protocolModel).project
+
+        then:
+        UnsupportedMethodException e = thrown()
+        e.message.contains "TestModel.getProject()"
+    }
+
+    def "propagates exception thrown by protocol object when property is queried"() {
+        TestProtocolModel protocolModel = Mock()
+        RuntimeException failure = new RuntimeException()
+        _ * protocolModel.name >> { throw failure }
+
+        when:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+
+        then:
+        noExceptionThrown()
+
+        when:
+        model.name
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "supports isXSupported and safe getter methods"() {
+        TestProtocolModel protocolModel = Mock()
+        PartialTestProtocolModel partialModel = Mock()
+        _ * protocolModel.config >> "value"
+
+        expect:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        model.configSupported
+        model.getConfig("default") == "value"
+        model.isThing(true)
+
+        def partial = adapter.adapt(TestModel.class, partialModel)
+        !partial.configSupported
+        partial.getConfig("default") == "default"
+    }
+
+    def "uses proxy when mix in is used"() {
+        PartialTestProtocolModel protocolModel = Mock()
+        protocolModel.name >> 'name'
+
+        when:
+        def model = adapter.adapt(TestModel.class, protocolModel, ConfigMixin)
+
+        then:
+        Proxy.isProxyClass(model.getClass())
+        model.name == "[name]"
+    }
+
+    def "unpacks source object from view"() {
+        def source = new Object()
+
+        given:
+        def view = adapter.adapt(TestProject.class, source)
+
+        expect:
+        adapter.unpack(view).is(source)
+    }
+
+    def "generated views are serialized as proxy views"() {
+        def adapter = new ProtocolToModelAdapter(new ConsumerTargetTypeProvider(), true)
+        def protocolModel = new TestProtocolProjectImpl()
+
+        given:
+        def model = adapter.adapt(TestProject.class, protocolModel)
+
+        expect:
+        model instanceof GeneratedView
+        def serialized = new ByteArrayOutputStream()
+        Message.send(model, serialized)
+        def copiedModel = Message.receive(new ByteArrayInputStream(serialized.toByteArray()), getClass().classLoader)
+        copiedModel instanceof TestProject
+        Proxy.isProxyClass(copiedModel.getClass())
+        copiedModel.name == "name"
+    }
+}